@@ -79,7 +79,10 @@ public class DispatcherServletInitializer extends AbstractAnnotationConfigDispat
     private static void initSecurityFilter(ServletContext servletContext) {
         FilterRegistration.Dynamic securityFilter = servletContext.addFilter("springSecurityFilterChain",
                 DelegatingFilterProxy.class);
-        final EnumSet<DispatcherType> es = EnumSet.of(DispatcherType.REQUEST, DispatcherType.FORWARD);
+        // Async support is needed for streamed responses
+        securityFilter.setAsyncSupported(true);
+        final EnumSet<DispatcherType> es =
+                EnumSet.of(DispatcherType.REQUEST, DispatcherType.FORWARD, DispatcherType.ASYNC);
         securityFilter.addMappingForUrlPatterns(es, true, "/*");
     }
 
@@ -89,6 +92,7 @@ public class DispatcherServletInitializer extends AbstractAnnotationConfigDispat
     private static void initMdcFilter(ServletContext servletContext) {
         FilterRegistration.Dynamic mdcFilter = servletContext
                 .addFilter("diagnosticsContextFilter", new DiagnosticsContextFilter());
+        mdcFilter.setAsyncSupported(true);
         final EnumSet<DispatcherType> es = EnumSet.of(DispatcherType.REQUEST, DispatcherType.FORWARD);
         mdcFilter.addMappingForUrlPatterns(es, true, "/*");
     }
@@ -101,6 +105,7 @@ public class DispatcherServletInitializer extends AbstractAnnotationConfigDispat
                 .addFilter("urlEncodingFilter", new CharacterEncodingFilter());
         mdcFilter.setInitParameter("encoding", "UTF-8");
         mdcFilter.setInitParameter("forceEncoding", "true");
+        mdcFilter.setAsyncSupported(true);
         final EnumSet<DispatcherType> es = EnumSet.of(DispatcherType.REQUEST, DispatcherType.FORWARD);
         mdcFilter.addMappingForUrlPatterns(es, true, "/*");
     }
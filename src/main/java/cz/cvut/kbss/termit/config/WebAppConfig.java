@@ -25,6 +25,7 @@ import cz.cvut.kbss.jsonld.JsonLd;
 import cz.cvut.kbss.jsonld.jackson.JsonLdModule;
 import cz.cvut.kbss.termit.util.AdjustedUriTemplateProxyServlet;
 import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Constants;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -34,8 +35,11 @@ import org.springframework.http.converter.ResourceHttpMessageConverter;
 import org.springframework.http.converter.StringHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
 import org.springframework.web.multipart.MultipartResolver;
 import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.ContentNegotiationConfigurer;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.PathMatchConfigurer;
@@ -120,6 +124,31 @@ public class WebAppConfig implements WebMvcConfigurer {
         return mapping;
     }
 
+    /**
+     * Bounded executor processing asynchronous requests, e.g., streamed term exports.
+     * <p>
+     * Without it, Spring MVC would start a new thread for each such request.
+     *
+     * @return Thread pool task executor
+     */
+    @Bean(name = "asyncRequestExecutor")
+    public ThreadPoolTaskExecutor asyncRequestExecutor() {
+        final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Constants.ASYNC_REQUEST_THREADS);
+        executor.setMaxPoolSize(Constants.ASYNC_REQUEST_THREADS);
+        executor.setQueueCapacity(Constants.ASYNC_REQUEST_QUEUE_CAPACITY);
+        executor.setThreadNamePrefix("async-request-");
+        return executor;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // Streamed responses (e.g., all terms of a large vocabulary) may take longer than the container default allows
+        configurer.setDefaultTimeout(Constants.ASYNC_REQUEST_TIMEOUT);
+        // Pooled threads would otherwise keep the security context inherited from the request which created them
+        configurer.setTaskExecutor(new DelegatingSecurityContextAsyncTaskExecutor(asyncRequestExecutor()));
+    }
+
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
         converters.add(createJsonLdMessageConverter());
@@ -0,0 +1,73 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.dto;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full text search results together with facet counts, which allow to narrow the results down.
+ */
+public class FacetedSearchResult implements Serializable {
+
+    private List<FullTextSearchResult> results;
+
+    private Map<String, Map<String, Integer>> facets;
+
+    public FacetedSearchResult() {
+    }
+
+    public FacetedSearchResult(List<FullTextSearchResult> results, Map<String, Map<String, Integer>> facets) {
+        this.results = results;
+        this.facets = facets;
+    }
+
+    public List<FullTextSearchResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<FullTextSearchResult> results) {
+        this.results = results;
+    }
+
+    /**
+     * Gets facet counts.
+     * <p>
+     * The counts are mapped by facet name and facet value. Count of a value is the number of results which have the
+     * value and match the selected values of the other facets, so it is the number of results the user would get by
+     * (additionally) selecting the value.
+     *
+     * @return Facet counts
+     */
+    public Map<String, Map<String, Integer>> getFacets() {
+        return facets;
+    }
+
+    public void setFacets(Map<String, Map<String, Integer>> facets) {
+        this.facets = facets;
+    }
+
+    @Override
+    public String toString() {
+        return "FacetedSearchResult{" +
+                "results=" + results +
+                ", facets=" + facets +
+                '}';
+    }
+}
@@ -0,0 +1,107 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.dto;
+
+import cz.cvut.kbss.jopa.model.annotations.ConstructorResult;
+import cz.cvut.kbss.jopa.model.annotations.SparqlResultSetMapping;
+import cz.cvut.kbss.jopa.model.annotations.VariableResult;
+
+import java.net.URI;
+
+/**
+ * Textual data of an asset loaded into an in-memory search index.
+ * <p>
+ * Vocabulary and definition are present only for terms.
+ */
+@SparqlResultSetMapping(name = "IndexedAsset", classes = {@ConstructorResult(targetClass = IndexedAsset.class,
+        variables = {
+                @VariableResult(name = "entity", type = URI.class),
+                @VariableResult(name = "label"),
+                @VariableResult(name = "vocabulary", type = URI.class),
+                @VariableResult(name = "definition"),
+                @VariableResult(name = "comment")
+        })})
+public class IndexedAsset {
+
+    private URI uri;
+
+    private String label;
+
+    private URI vocabulary;
+
+    private String definition;
+
+    private String comment;
+
+    public IndexedAsset() {
+    }
+
+    // Constructor used by SparqlResultSetMapping
+    public IndexedAsset(URI uri, String label, URI vocabulary, String definition, String comment) {
+        this.uri = uri;
+        this.label = label;
+        this.vocabulary = vocabulary;
+        this.definition = definition;
+        this.comment = comment;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public void setUri(URI uri) {
+        this.uri = uri;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public URI getVocabulary() {
+        return vocabulary;
+    }
+
+    public void setVocabulary(URI vocabulary) {
+        this.vocabulary = vocabulary;
+    }
+
+    public String getDefinition() {
+        return definition;
+    }
+
+    public void setDefinition(String definition) {
+        this.definition = definition;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexedAsset{" + label + "<" + uri + ">}";
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.dto;
+
+import cz.cvut.kbss.jopa.model.annotations.ConstructorResult;
+import cz.cvut.kbss.jopa.model.annotations.SparqlResultSetMapping;
+import cz.cvut.kbss.jopa.model.annotations.VariableResult;
+
+import java.net.URI;
+
+/**
+ * Label of a resource together with its language tag.
+ * <p>
+ * Language is an empty string for labels without language tag.
+ */
+@SparqlResultSetMapping(name = "ResourceLabel", classes = {@ConstructorResult(targetClass = ResourceLabel.class,
+        variables = {
+                @VariableResult(name = "x", type = URI.class),
+                @VariableResult(name = "label", type = String.class),
+                @VariableResult(name = "labelLang", type = String.class)
+        })})
+public class ResourceLabel {
+
+    private URI uri;
+
+    private String label;
+
+    private String language;
+
+    public ResourceLabel() {
+    }
+
+    // Constructor used by SparqlResultSetMapping
+    public ResourceLabel(URI uri, String label, String language) {
+        this.uri = uri;
+        this.label = label;
+        this.language = language;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public void setUri(URI uri) {
+        this.uri = uri;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceLabel{" + label + "@" + language + " <" + uri + ">}";
+    }
+}
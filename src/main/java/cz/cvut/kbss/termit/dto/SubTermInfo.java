@@ -0,0 +1,72 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.dto;
+
+import cz.cvut.kbss.jopa.model.annotations.ConstructorResult;
+import cz.cvut.kbss.jopa.model.annotations.SparqlResultSetMapping;
+import cz.cvut.kbss.jopa.model.annotations.VariableResult;
+
+import java.net.URI;
+
+/**
+ * Basic data about a {@link cz.cvut.kbss.termit.model.Term} together with identifier of its parent term.
+ * <p>
+ * Used to load sub-terms of several terms at once.
+ */
+@SparqlResultSetMapping(name = "SubTermInfo", classes = {@ConstructorResult(targetClass = SubTermInfo.class,
+        variables = {
+                @VariableResult(name = "parent", type = URI.class),
+                @VariableResult(name = "entity", type = URI.class),
+                @VariableResult(name = "label"),
+                @VariableResult(name = "vocabulary", type = URI.class)
+        })})
+public class SubTermInfo extends TermInfo {
+
+    private URI parent;
+
+    public SubTermInfo() {
+    }
+
+    // Constructor used by SparqlResultSetMapping
+    public SubTermInfo(URI parent, URI uri, String label, URI vocabulary) {
+        super(uri, label, vocabulary);
+        this.parent = parent;
+    }
+
+    public URI getParent() {
+        return parent;
+    }
+
+    public void setParent(URI parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Gets basic data about the sub-term, without the parent.
+     *
+     * @return New {@code TermInfo} instance
+     */
+    public TermInfo toTermInfo() {
+        return new TermInfo(getUri(), getLabel(), getVocabulary());
+    }
+
+    @Override
+    public String toString() {
+        return "SubTermInfo{" + getLabel() + "<" + getUri() + ">, parent=<" + parent + ">}";
+    }
+}
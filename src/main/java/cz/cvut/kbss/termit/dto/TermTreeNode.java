@@ -0,0 +1,89 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.dto;
+
+import cz.cvut.kbss.jopa.model.annotations.*;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.util.Vocabulary;
+
+import java.net.URI;
+import java.util.Set;
+
+/**
+ * Basic data about a {@link cz.cvut.kbss.termit.model.Term} needed to render it as a node of a term tree.
+ * <p>
+ * In addition to {@link TermInfo}, it contains the number of sub-terms of the term, so that the tree can be expanded
+ * lazily.
+ */
+@SparqlResultSetMapping(name = "TermTreeNode", classes = {@ConstructorResult(targetClass = TermTreeNode.class,
+        variables = {
+                @VariableResult(name = "entity", type = URI.class),
+                @VariableResult(name = "label"),
+                @VariableResult(name = "vocabulary", type = URI.class),
+                @VariableResult(name = "subTermCount", type = Integer.class)
+        })})
+@OWLClass(iri = Vocabulary.s_c_term)
+public class TermTreeNode extends TermInfo {
+
+    @OWLDataProperty(iri = Vocabulary.ONTOLOGY_IRI_slovnik + "/subterm-count")
+    private Integer subTermCount;
+
+    @OWLObjectProperty(iri = SKOS.NARROWER)
+    private Set<TermTreeNode> subTerms;
+
+    public TermTreeNode() {
+    }
+
+    // Constructor used by SparqlResultSetMapping
+    public TermTreeNode(URI uri, String label, URI vocabulary, Integer subTermCount) {
+        super(uri, label, vocabulary);
+        this.subTermCount = subTermCount;
+    }
+
+    public TermTreeNode(TermInfo info, Integer subTermCount) {
+        this(info.getUri(), info.getLabel(), info.getVocabulary(), subTermCount);
+    }
+
+    public Integer getSubTermCount() {
+        return subTermCount;
+    }
+
+    public void setSubTermCount(Integer subTermCount) {
+        this.subTermCount = subTermCount;
+    }
+
+    /**
+     * Gets nested nodes of sub-terms of this term.
+     * <p>
+     * Sub-terms are set only if they were requested, i.e., when retrieving a sub-tree.
+     *
+     * @return Sub-term nodes ordered by label, possibly {@code null}
+     */
+    public Set<TermTreeNode> getSubTerms() {
+        return subTerms;
+    }
+
+    public void setSubTerms(Set<TermTreeNode> subTerms) {
+        this.subTerms = subTerms;
+    }
+
+    @Override
+    public String toString() {
+        return "TermTreeNode{" + getLabel() + "<" + getUri() + ">, subTermCount=" + subTermCount + '}';
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.dto;
+
+import cz.cvut.kbss.jopa.model.annotations.ConstructorResult;
+import cz.cvut.kbss.jopa.model.annotations.SparqlResultSetMapping;
+import cz.cvut.kbss.jopa.model.annotations.VariableResult;
+
+import java.net.URI;
+
+/**
+ * Identifier of a {@link cz.cvut.kbss.termit.model.Term}, its vocabulary and one of its types.
+ * <p>
+ * Type is {@code null} for terms without any type other than the term class itself.
+ */
+@SparqlResultSetMapping(name = "TermTypeInfo", classes = {@ConstructorResult(targetClass = TermTypeInfo.class,
+        variables = {
+                @VariableResult(name = "entity", type = URI.class),
+                @VariableResult(name = "vocabulary", type = URI.class),
+                @VariableResult(name = "type", type = URI.class)
+        })})
+public class TermTypeInfo {
+
+    private URI uri;
+
+    private URI vocabulary;
+
+    private URI type;
+
+    public TermTypeInfo() {
+    }
+
+    // Constructor used by SparqlResultSetMapping
+    public TermTypeInfo(URI uri, URI vocabulary, URI type) {
+        this.uri = uri;
+        this.vocabulary = vocabulary;
+        this.type = type;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public void setUri(URI uri) {
+        this.uri = uri;
+    }
+
+    public URI getVocabulary() {
+        return vocabulary;
+    }
+
+    public void setVocabulary(URI vocabulary) {
+        this.vocabulary = vocabulary;
+    }
+
+    public URI getType() {
+        return type;
+    }
+
+    public void setType(URI type) {
+        this.type = type;
+    }
+
+    @Override
+    public String toString() {
+        return "TermTypeInfo{<" + uri + "> in <" + vocabulary + ">, type=<" + type + ">}";
+    }
+}
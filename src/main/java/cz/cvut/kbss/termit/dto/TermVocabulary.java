@@ -0,0 +1,69 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.dto;
+
+import cz.cvut.kbss.jopa.model.annotations.ConstructorResult;
+import cz.cvut.kbss.jopa.model.annotations.SparqlResultSetMapping;
+import cz.cvut.kbss.jopa.model.annotations.VariableResult;
+
+import java.net.URI;
+
+/**
+ * Identifier of a {@link cz.cvut.kbss.termit.model.Term} together with identifier of the vocabulary it belongs to.
+ */
+@SparqlResultSetMapping(name = "TermVocabulary", classes = {@ConstructorResult(targetClass = TermVocabulary.class,
+        variables = {
+                @VariableResult(name = "term", type = URI.class),
+                @VariableResult(name = "vocabulary", type = URI.class)
+        })})
+public class TermVocabulary {
+
+    private URI term;
+
+    private URI vocabulary;
+
+    public TermVocabulary() {
+    }
+
+    // Constructor used by SparqlResultSetMapping
+    public TermVocabulary(URI term, URI vocabulary) {
+        this.term = term;
+        this.vocabulary = vocabulary;
+    }
+
+    public URI getTerm() {
+        return term;
+    }
+
+    public void setTerm(URI term) {
+        this.term = term;
+    }
+
+    public URI getVocabulary() {
+        return vocabulary;
+    }
+
+    public void setVocabulary(URI vocabulary) {
+        this.vocabulary = vocabulary;
+    }
+
+    @Override
+    public String toString() {
+        return "TermVocabulary{<" + term + "> in <" + vocabulary + ">}";
+    }
+}
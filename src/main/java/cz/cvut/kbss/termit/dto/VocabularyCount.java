@@ -0,0 +1,69 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.dto;
+
+import cz.cvut.kbss.jopa.model.annotations.ConstructorResult;
+import cz.cvut.kbss.jopa.model.annotations.SparqlResultSetMapping;
+import cz.cvut.kbss.jopa.model.annotations.VariableResult;
+
+import java.net.URI;
+
+/**
+ * Number of items (e.g., term assignments) related to a {@link cz.cvut.kbss.termit.model.Vocabulary}.
+ */
+@SparqlResultSetMapping(name = "VocabularyCount", classes = {@ConstructorResult(targetClass = VocabularyCount.class,
+        variables = {
+                @VariableResult(name = "vocabulary", type = URI.class),
+                @VariableResult(name = "count", type = Integer.class)
+        })})
+public class VocabularyCount {
+
+    private URI vocabulary;
+
+    private Integer count;
+
+    public VocabularyCount() {
+    }
+
+    // Constructor used by SparqlResultSetMapping
+    public VocabularyCount(URI vocabulary, Integer count) {
+        this.vocabulary = vocabulary;
+        this.count = count;
+    }
+
+    public URI getVocabulary() {
+        return vocabulary;
+    }
+
+    public void setVocabulary(URI vocabulary) {
+        this.vocabulary = vocabulary;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+
+    @Override
+    public String toString() {
+        return "VocabularyCount{<" + vocabulary + ">, count=" + count + "}";
+    }
+}
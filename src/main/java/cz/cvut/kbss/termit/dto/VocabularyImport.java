@@ -0,0 +1,69 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.dto;
+
+import cz.cvut.kbss.jopa.model.annotations.ConstructorResult;
+import cz.cvut.kbss.jopa.model.annotations.SparqlResultSetMapping;
+import cz.cvut.kbss.jopa.model.annotations.VariableResult;
+
+import java.net.URI;
+
+/**
+ * Direct import of one {@link cz.cvut.kbss.termit.model.Vocabulary} by another.
+ */
+@SparqlResultSetMapping(name = "VocabularyImport", classes = {@ConstructorResult(targetClass = VocabularyImport.class,
+        variables = {
+                @VariableResult(name = "vocabulary", type = URI.class),
+                @VariableResult(name = "imported", type = URI.class)
+        })})
+public class VocabularyImport {
+
+    private URI vocabulary;
+
+    private URI imported;
+
+    public VocabularyImport() {
+    }
+
+    // Constructor used by SparqlResultSetMapping
+    public VocabularyImport(URI vocabulary, URI imported) {
+        this.vocabulary = vocabulary;
+        this.imported = imported;
+    }
+
+    public URI getVocabulary() {
+        return vocabulary;
+    }
+
+    public void setVocabulary(URI vocabulary) {
+        this.vocabulary = vocabulary;
+    }
+
+    public URI getImported() {
+        return imported;
+    }
+
+    public void setImported(URI imported) {
+        this.imported = imported;
+    }
+
+    @Override
+    public String toString() {
+        return "VocabularyImport{<" + vocabulary + "> imports <" + imported + ">}";
+    }
+}
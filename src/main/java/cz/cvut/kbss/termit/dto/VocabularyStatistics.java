@@ -0,0 +1,151 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.dto;
+
+import cz.cvut.kbss.jopa.model.annotations.Id;
+import cz.cvut.kbss.jopa.model.annotations.OWLClass;
+import cz.cvut.kbss.jopa.model.annotations.OWLDataProperty;
+import cz.cvut.kbss.termit.util.Vocabulary;
+
+import java.io.Serializable;
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * Aggregated statistics of a {@link cz.cvut.kbss.termit.model.Vocabulary}.
+ */
+@OWLClass(iri = Vocabulary.ONTOLOGY_IRI_slovnik + "/statistiky-slovniku")
+public class VocabularyStatistics implements Serializable {
+
+    private static final String PREFIX = Vocabulary.ONTOLOGY_IRI_slovnik + "/statistics/";
+
+    /**
+     * Identifier of the vocabulary.
+     */
+    @Id
+    private URI uri;
+
+    @OWLDataProperty(iri = PREFIX + "term-count")
+    private Integer termCount;
+
+    @OWLDataProperty(iri = PREFIX + "root-count")
+    private Integer rootCount;
+
+    @OWLDataProperty(iri = PREFIX + "depth")
+    private Integer depth;
+
+    @OWLDataProperty(iri = PREFIX + "assignment-count")
+    private Integer assignmentCount;
+
+    @OWLDataProperty(iri = PREFIX + "occurrence-count")
+    private Integer occurrenceCount;
+
+    public VocabularyStatistics() {
+    }
+
+    public VocabularyStatistics(URI uri) {
+        this.uri = Objects.requireNonNull(uri);
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public void setUri(URI uri) {
+        this.uri = uri;
+    }
+
+    public Integer getTermCount() {
+        return termCount;
+    }
+
+    public void setTermCount(Integer termCount) {
+        this.termCount = termCount;
+    }
+
+    public Integer getRootCount() {
+        return rootCount;
+    }
+
+    public void setRootCount(Integer rootCount) {
+        this.rootCount = rootCount;
+    }
+
+    /**
+     * Gets the depth of the term hierarchy, i.e., the number of terms on the longest path from a root term to a leaf.
+     *
+     * @return Hierarchy depth
+     */
+    public Integer getDepth() {
+        return depth;
+    }
+
+    public void setDepth(Integer depth) {
+        this.depth = depth;
+    }
+
+    public Integer getAssignmentCount() {
+        return assignmentCount;
+    }
+
+    public void setAssignmentCount(Integer assignmentCount) {
+        this.assignmentCount = assignmentCount;
+    }
+
+    public Integer getOccurrenceCount() {
+        return occurrenceCount;
+    }
+
+    public void setOccurrenceCount(Integer occurrenceCount) {
+        this.occurrenceCount = occurrenceCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof VocabularyStatistics)) {
+            return false;
+        }
+        VocabularyStatistics that = (VocabularyStatistics) o;
+        return Objects.equals(uri, that.uri) &&
+                Objects.equals(termCount, that.termCount) &&
+                Objects.equals(rootCount, that.rootCount) &&
+                Objects.equals(depth, that.depth) &&
+                Objects.equals(assignmentCount, that.assignmentCount) &&
+                Objects.equals(occurrenceCount, that.occurrenceCount);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(uri, termCount, rootCount, depth, assignmentCount, occurrenceCount);
+    }
+
+    @Override
+    public String toString() {
+        return "VocabularyStatistics{" +
+                "<" + uri + ">" +
+                ", termCount=" + termCount +
+                ", rootCount=" + rootCount +
+                ", depth=" + depth +
+                ", assignmentCount=" + assignmentCount +
+                ", occurrenceCount=" + occurrenceCount +
+                '}';
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.event;
+
+import cz.cvut.kbss.termit.model.Asset;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Objects;
+
+/**
+ * Represents an event published when an asset has been created, updated or removed.
+ * <p>
+ * Components maintaining derived data (e.g., search indexes) can listen to this event to keep the data up to date.
+ */
+public class AssetModifiedEvent extends ApplicationEvent {
+
+    private final Asset asset;
+
+    private final boolean removed;
+
+    public AssetModifiedEvent(Object source, Asset asset, boolean removed) {
+        super(source);
+        this.asset = Objects.requireNonNull(asset);
+        this.removed = removed;
+    }
+
+    /**
+     * Gets the modified asset.
+     * <p>
+     * For created and updated assets, this is their current state.
+     *
+     * @return The modified asset
+     */
+    public Asset getAsset() {
+        return asset;
+    }
+
+    /**
+     * Whether the asset has been removed.
+     *
+     * @return {@code true} if the asset has been removed, {@code false} if it has been created or updated
+     */
+    public boolean isRemoved() {
+        return removed;
+    }
+}
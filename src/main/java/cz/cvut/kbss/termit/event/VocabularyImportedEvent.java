@@ -0,0 +1,38 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.event;
+
+import cz.cvut.kbss.termit.model.Vocabulary;
+
+/**
+ * Represents an event published when a vocabulary has been imported.
+ * <p>
+ * Terms of an imported vocabulary are written into the repository in bulk, without publishing an event for each of
+ * them, so components maintaining derived data of terms have to reload the terms of the vocabulary.
+ */
+public class VocabularyImportedEvent extends AssetModifiedEvent {
+
+    public VocabularyImportedEvent(Object source, Vocabulary vocabulary) {
+        super(source, vocabulary, false);
+    }
+
+    @Override
+    public Vocabulary getAsset() {
+        return (Vocabulary) super.getAsset();
+    }
+}
@@ -0,0 +1,385 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.cache;
+
+import cz.cvut.kbss.jopa.model.EntityManagerFactory;
+import cz.cvut.kbss.jopa.model.descriptors.EntityDescriptor;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.model.DocumentVocabulary;
+import cz.cvut.kbss.termit.model.Glossary;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.model.resource.Document;
+import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.model.util.HasIdentifier;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of vocabularies, glossaries, documents and files, which tracks dependencies between them.
+ * <p>
+ * The entity instances themselves are stored in the persistence second-level cache, because they have to be managed by
+ * the persistence context of the current transaction. This class keeps track of which entities have been loaded, in
+ * which repository context and which other cached entities embed them (e.g., a document embeds its files, a vocabulary
+ * embeds its glossary). When an entity is modified, only the entity and the entities embedding it are evicted, instead
+ * of the whole repository context.
+ * <p>
+ * The number of tracked entities is bounded, the least recently used ones are forgotten when the capacity is exceeded.
+ * Modifications of a forgotten entity would go unnoticed, so it is evicted from the second-level cache together with
+ * the entities embedding it.
+ * <p>
+ * Hit, miss and eviction statistics are kept separately for each {@link Region}.
+ */
+@Component
+public class EntityCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntityCache.class);
+
+    /**
+     * Cache regions, i.e., the cached entity types.
+     */
+    public enum Region {
+        VOCABULARY(Vocabulary.class, DocumentVocabulary.class), GLOSSARY(Glossary.class), DOCUMENT(Document.class),
+        FILE(File.class);
+
+        private final Class<? extends HasIdentifier> type;
+
+        /**
+         * Types under which entities of this region may be stored in the second-level cache.
+         */
+        private final List<Class<? extends HasIdentifier>> cachedTypes;
+
+        @SafeVarargs
+        Region(Class<? extends HasIdentifier> type, Class<? extends HasIdentifier>... subtypes) {
+            this.type = type;
+            final List<Class<? extends HasIdentifier>> types = new ArrayList<>(subtypes.length + 1);
+            types.add(type);
+            types.addAll(Arrays.asList(subtypes));
+            this.cachedTypes = Collections.unmodifiableList(types);
+        }
+
+        public Class<? extends HasIdentifier> getType() {
+            return type;
+        }
+
+        /**
+         * Gets region of the specified entity class.
+         *
+         * @param cls Entity class
+         * @return Matching region, empty if entities of the specified class are not cached
+         */
+        public static Optional<Region> of(Class<?> cls) {
+            return Arrays.stream(values()).filter(r -> r.type.isAssignableFrom(cls)).findFirst();
+        }
+    }
+
+    private final EntityManagerFactory emf;
+
+    private final int capacity;
+
+    /**
+     * Loaded entities, mapped by identifier, in access order.
+     */
+    private final Map<URI, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Identifiers of entities embedding the entity with the key identifier.
+     * <p>
+     * Only relationships registered by the currently tracked entries are kept.
+     */
+    private final Map<URI, Set<URI>> owners = new HashMap<>();
+
+    private final Map<Region, Statistics> statistics = new EnumMap<>(Region.class);
+
+    @Autowired
+    public EntityCache(EntityManagerFactory emf, Configuration config) {
+        this.emf = emf;
+        this.capacity = Integer.parseInt(config.get(ConfigParam.ENTITY_CACHE_SIZE));
+        Arrays.stream(Region.values()).forEach(r -> statistics.put(r, new Statistics()));
+    }
+
+    /**
+     * Finds an entity, using the specified loader to load it.
+     * <p>
+     * The loader is expected to load the entity from the specified repository context, so that it is served from the
+     * second-level cache if it has been loaded before.
+     *
+     * @param cls     Entity class, possibly a superclass of the actual entity type
+     * @param id      Entity identifier
+     * @param context Repository context from which the entity is loaded, {@code null} for the default context
+     * @param loader  Loads the entity
+     * @param <T>     Entity type
+     * @return The loaded entity, {@code null} if it does not exist
+     */
+    public <T> T find(Class<T> cls, URI id, URI context, Supplier<T> loader) {
+        Objects.requireNonNull(cls);
+        Objects.requireNonNull(id);
+        Objects.requireNonNull(loader);
+        final boolean hit = isCached(cls, id, context);
+        final T result = loader.get();
+        if (result == null) {
+            return null;
+        }
+        final Optional<Region> region = Region.of(result.getClass());
+        if (!region.isPresent()) {
+            return result;
+        }
+        final Statistics regionStats = statistics.get(region.get());
+        if (hit) {
+            regionStats.hits.incrementAndGet();
+        } else {
+            regionStats.misses.incrementAndGet();
+            register((HasIdentifier) result, region.get(), context);
+        }
+        return result;
+    }
+
+    private boolean isCached(Class<?> cls, URI id, URI context) {
+        final Class<?> type;
+        synchronized (this) {
+            final Entry entry = entries.get(id);
+            type = entry != null && Objects.equals(entry.context, context) ? entry.region.type : cls;
+        }
+        return emf.getCache()
+                  .contains(type, id, context != null ? new EntityDescriptor(context) : new EntityDescriptor());
+    }
+
+    private void register(HasIdentifier entity, Region region, URI context) {
+        final List<URI> overflow = new ArrayList<>();
+        synchronized (this) {
+            forget(entity.getUri());
+            final Entry entry = new Entry(region, context);
+            entries.put(entity.getUri(), entry);
+            embeddedIn(entity).keySet().forEach(owner -> addOwner(entry, entity.getUri(), owner));
+            if (entity instanceof Vocabulary) {
+                final Vocabulary vocabulary = (Vocabulary) entity;
+                if (vocabulary.getGlossary() != null && vocabulary.getGlossary().getUri() != null) {
+                    addOwner(entry, vocabulary.getGlossary().getUri(), vocabulary.getUri());
+                }
+                if (vocabulary instanceof DocumentVocabulary &&
+                        ((DocumentVocabulary) vocabulary).getDocument() != null) {
+                    addOwner(entry, ((DocumentVocabulary) vocabulary).getDocument().getUri(), vocabulary.getUri());
+                }
+            }
+            final Iterator<URI> eldest = entries.keySet().iterator();
+            while (entries.size() - overflow.size() > capacity && eldest.hasNext()) {
+                overflow.add(eldest.next());
+            }
+        }
+        overflow.forEach(this::evictUntracked);
+    }
+
+    private void addOwner(Entry entry, URI embedded, URI owner) {
+        owners.computeIfAbsent(embedded, k -> new HashSet<>()).add(owner);
+        entry.relationships.add(new URI[]{embedded, owner});
+    }
+
+    /**
+     * Stops tracking the entity with the specified identifier, removing the relationships it has registered.
+     */
+    private Entry forget(URI id) {
+        final Entry entry = entries.remove(id);
+        if (entry != null) {
+            for (URI[] relationship : entry.relationships) {
+                final Set<URI> embedding = owners.get(relationship[0]);
+                if (embedding != null) {
+                    embedding.remove(relationship[1]);
+                    if (embedding.isEmpty()) {
+                        owners.remove(relationship[0]);
+                    }
+                }
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Evicts an entity which is no longer tracked because of the capacity, together with the entities embedding it.
+     */
+    private void evictUntracked(URI id) {
+        final URI context;
+        final Set<URI> affected;
+        synchronized (this) {
+            final Entry entry = entries.get(id);
+            if (entry == null) {
+                return;
+            }
+            context = entry.context;
+            affected = new HashSet<>(owners.getOrDefault(id, Collections.emptySet()));
+        }
+        affected.remove(id);
+        evictEntry(id, null, context);
+        affected.forEach(owner -> evictEntry(owner, null, context));
+    }
+
+    /**
+     * Gets entities which embed the specified entity, as far as can be told from the entity itself.
+     */
+    private static Map<URI, Region> embeddedIn(HasIdentifier entity) {
+        final Map<URI, Region> result = new HashMap<>();
+        if (entity instanceof File && ((File) entity).getDocument() != null) {
+            final Document document = ((File) entity).getDocument();
+            result.put(document.getUri(), Region.DOCUMENT);
+            // Document vocabulary embeds the document, including its files
+            if (document.getVocabulary() != null) {
+                result.put(document.getVocabulary(), Region.VOCABULARY);
+            }
+        } else if (entity instanceof Document) {
+            final Document document = (Document) entity;
+            if (document.getFiles() != null) {
+                document.getFiles().forEach(f -> result.put(f.getUri(), Region.FILE));
+            }
+            if (document.getVocabulary() != null) {
+                result.put(document.getVocabulary(), Region.VOCABULARY);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Evicts the specified entity and entities embedding it.
+     * <p>
+     * This should be called when the entity is modified. Other entities (e.g., other files of the same document) remain
+     * cached.
+     *
+     * @param entity  The modified entity
+     * @param context Repository context in which the entity is stored, {@code null} for the default context
+     */
+    public void evict(HasIdentifier entity, URI context) {
+        Objects.requireNonNull(entity);
+        if (entity.getUri() == null) {
+            return;
+        }
+        final Map<URI, Region> affected = new LinkedHashMap<>();
+        synchronized (this) {
+            owners.getOrDefault(entity.getUri(), Collections.emptySet()).forEach(id -> affected.put(id, null));
+        }
+        affected.putAll(embeddedIn(entity));
+        affected.remove(entity.getUri());
+        evictEntry(entity.getUri(), Region.of(entity.getClass()).orElse(null), context);
+        affected.forEach((id, region) -> evictEntry(id, region, context));
+    }
+
+    /**
+     * Evicts the specified entity from the specified context and from the context it has been loaded from (if
+     * known).
+     *
+     * @param region Entity region, resolved from the loaded entities if {@code null}
+     */
+    private void evictEntry(URI id, Region region, URI context) {
+        final Entry entry;
+        synchronized (this) {
+            entry = forget(id);
+        }
+        final Region evictedRegion = region != null ? region : entry != null ? entry.region : null;
+        if (evictedRegion == null) {
+            return;
+        }
+        LOG.trace("Evicting {} {} from cache.", evictedRegion, id);
+        for (Class<? extends HasIdentifier> type : evictedRegion.cachedTypes) {
+            emf.getCache().evict(type, id, context);
+            if (entry != null && !Objects.equals(entry.context, context)) {
+                emf.getCache().evict(type, id, entry.context);
+            }
+        }
+        statistics.get(evictedRegion).evictions.incrementAndGet();
+    }
+
+    /**
+     * Forgets all loaded entities.
+     * <p>
+     * This does not evict the persistence second-level cache, it is expected to be evicted as well.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        owners.clear();
+    }
+
+    @EventListener
+    public void onEvictCache(EvictCacheEvent event) {
+        LOG.debug("Clearing entity cache.");
+        clear();
+    }
+
+    /**
+     * Gets statistics of the specified region.
+     *
+     * @param region Cache region
+     * @return Region statistics
+     */
+    public Statistics getStatistics(Region region) {
+        return statistics.get(region);
+    }
+
+    /**
+     * Cache statistics of one region.
+     */
+    public static final class Statistics {
+
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong evictions = new AtomicLong();
+
+        public long getHitCount() {
+            return hits.get();
+        }
+
+        public long getMissCount() {
+            return misses.get();
+        }
+
+        public long getEvictionCount() {
+            return evictions.get();
+        }
+
+        public double getHitRatio() {
+            final long total = getHitCount() + getMissCount();
+            return total > 0 ? (double) getHitCount() / total : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + getHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() +
+                    ", hitRatio=" + String.format(Locale.ROOT, "%.2f", getHitRatio());
+        }
+    }
+
+    private static final class Entry {
+        private final Region region;
+        private final URI context;
+
+        /**
+         * Relationships registered by this entry, as pairs of embedded entity and owner identifiers.
+         */
+        private final List<URI[]> relationships = new ArrayList<>();
+
+        private Entry(Region region, URI context) {
+            this.region = region;
+            this.context = context;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.cache;
+
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of resource labels, keyed by resource identifier and language.
+ * <p>
+ * Missing labels are cached as well, so that resources without a label are not queried repeatedly. Labels of an asset
+ * are evicted when the asset is modified.
+ */
+@Component
+public class LabelCache {
+
+    private final int capacity;
+
+    private final Map<Key, Optional<String>> cache;
+
+    /**
+     * Incremented on each eviction, so that labels loaded concurrently with an eviction are not cached.
+     */
+    private long generation;
+
+    @Autowired
+    public LabelCache(Configuration config) {
+        this.capacity = Integer.parseInt(config.get(ConfigParam.LABEL_CACHE_SIZE));
+        this.cache = new LinkedHashMap<Key, Optional<String>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Optional<String>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets label of the specified resource, using the loader if it is not cached.
+     *
+     * @param id     Resource identifier
+     * @param lang   Label language
+     * @param loader Loads label of the resource from the repository
+     * @return Resource label, empty if the resource has no matching label
+     */
+    public Optional<String> get(URI id, String lang, Function<URI, Optional<String>> loader) {
+        Objects.requireNonNull(id);
+        Objects.requireNonNull(loader);
+        final Key key = new Key(id, lang);
+        final long loadGeneration;
+        synchronized (this) {
+            final Optional<String> cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+        final Optional<String> label = loader.apply(id);
+        put(Collections.singletonMap(key, label), loadGeneration);
+        return label;
+    }
+
+    /**
+     * Gets labels of the specified resources, using the loader to load the ones which are not cached.
+     * <p>
+     * The loader is invoked at most once, with identifiers of all resources whose labels are not cached.
+     *
+     * @param ids    Resource identifiers
+     * @param lang   Label language
+     * @param loader Loads labels of the specified resources from the repository, resources without a matching label
+     *               are expected to be missing from the result
+     * @return Map of resource identifiers to labels, resources without a matching label are not present in the map
+     */
+    public Map<URI, String> getAll(Collection<URI> ids, String lang,
+                                   Function<Set<URI>, Map<URI, String>> loader) {
+        Objects.requireNonNull(ids);
+        Objects.requireNonNull(loader);
+        final Map<URI, String> result = new LinkedHashMap<>(ids.size());
+        final Set<URI> toLoad = new LinkedHashSet<>();
+        final long loadGeneration;
+        synchronized (this) {
+            for (URI id : ids) {
+                final Optional<String> cached = cache.get(new Key(id, lang));
+                if (cached == null) {
+                    toLoad.add(id);
+                } else {
+                    cached.ifPresent(label -> result.put(id, label));
+                }
+            }
+            loadGeneration = generation;
+        }
+        if (toLoad.isEmpty()) {
+            return result;
+        }
+        final Map<URI, String> loaded = loader.apply(toLoad);
+        final Map<Key, Optional<String>> entries = new HashMap<>(toLoad.size());
+        toLoad.forEach(id -> entries.put(new Key(id, lang), Optional.ofNullable(loaded.get(id))));
+        put(entries, loadGeneration);
+        result.putAll(loaded);
+        return result;
+    }
+
+    private synchronized void put(Map<Key, Optional<String>> entries, long loadGeneration) {
+        if (generation == loadGeneration && capacity > 0) {
+            cache.putAll(entries);
+        }
+    }
+
+    /**
+     * Evicts labels of the specified resource in all languages.
+     *
+     * @param id Resource identifier
+     */
+    public synchronized void evict(URI id) {
+        Objects.requireNonNull(id);
+        cache.keySet().removeIf(k -> k.id.equals(id));
+        generation++;
+    }
+
+    /**
+     * Evicts labels of the specified resource once the current transaction commits, or immediately if there is no
+     * transaction.
+     * <p>
+     * Evicting before commit would allow a label load started in between to cache the not yet updated label.
+     *
+     * @param id Resource identifier
+     */
+    public void evictAfterCommit(URI id) {
+        Objects.requireNonNull(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    evict(id);
+                }
+            });
+        } else {
+            evict(id);
+        }
+    }
+
+    /**
+     * Evicts all cached labels.
+     */
+    public synchronized void evictAll() {
+        cache.clear();
+        generation++;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetModified(AssetModifiedEvent event) {
+        evict(event.getAsset().getUri());
+    }
+
+    @EventListener
+    public void onEvictCache(EvictCacheEvent event) {
+        evictAll();
+    }
+
+    /**
+     * Gets the number of cached labels (including missing labels).
+     *
+     * @return Number of cached labels
+     */
+    public synchronized int getSize() {
+        return cache.size();
+    }
+
+    private static final class Key {
+        private final URI id;
+        private final String lang;
+
+        private Key(URI id, String lang) {
+            this.id = id;
+            this.lang = lang;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return id.equals(key.id) && Objects.equals(lang, key.lang);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, lang);
+        }
+    }
+}
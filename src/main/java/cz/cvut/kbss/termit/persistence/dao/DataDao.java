@@ -22,12 +22,15 @@ import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.vocabulary.RDF;
 import cz.cvut.kbss.jopa.vocabulary.RDFS;
 import cz.cvut.kbss.termit.dto.RdfsResource;
+import cz.cvut.kbss.termit.dto.ResourceLabel;
 import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.persistence.cache.LabelCache;
 import cz.cvut.kbss.termit.service.export.util.TypeAwareByteArrayResource;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants.Turtle;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
+import cz.cvut.kbss.termit.util.Utils;
 import org.eclipse.rdf4j.model.Resource;
 import org.eclipse.rdf4j.model.ValueFactory;
 import org.eclipse.rdf4j.repository.RepositoryConnection;
@@ -39,10 +42,7 @@ import org.springframework.stereotype.Repository;
 
 import java.io.ByteArrayOutputStream;
 import java.net.URI;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Repository
@@ -50,14 +50,22 @@ public class DataDao {
 
     private static final URI RDFS_LABEL = URI.create(RDFS.LABEL);
 
+    /**
+     * Maximum number of resources whose labels are resolved by a single query.
+     */
+    static final int LABEL_BATCH_SIZE = 500;
+
     private final EntityManager em;
 
     private final Configuration config;
 
+    private final LabelCache labelCache;
+
     @Autowired
-    public DataDao(EntityManager em, Configuration config) {
+    public DataDao(EntityManager em, Configuration config, LabelCache labelCache) {
         this.em = em;
         this.config = config;
+        this.labelCache = labelCache;
     }
 
     /**
@@ -89,6 +97,7 @@ public class DataDao {
         Objects.requireNonNull(instance);
         try {
             em.persist(instance);
+            labelCache.evictAfterCommit(instance.getUri());
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -128,6 +137,10 @@ public class DataDao {
      */
     public Optional<String> getLabel(URI id) {
         Objects.requireNonNull(id);
+        return labelCache.get(id, config.get(ConfigParam.LANGUAGE), this::loadLabel);
+    }
+
+    private Optional<String> loadLabel(URI id) {
         try {
             return Optional.of(em.createNativeQuery("SELECT ?label WHERE {" +
                     "?x ?has-label ?label ." +
@@ -139,6 +152,43 @@ public class DataDao {
         }
     }
 
+    /**
+     * Gets the {@link RDFS#LABEL}s of resources with the specified identifiers.
+     * <p>
+     * Labels which are not cached are resolved in bulk, in batches of at most {@link #LABEL_BATCH_SIZE} resources. Same
+     * rules as in {@link #getLabel(URI)} apply to label language.
+     *
+     * @param ids Resource ({@link RDFS#RESOURCE}) identifiers
+     * @return Map of resource identifiers to labels, resources without a matching label are not present in the map
+     */
+    public Map<URI, String> getLabels(Collection<URI> ids) {
+        Objects.requireNonNull(ids);
+        return labelCache.getAll(ids, config.get(ConfigParam.LANGUAGE), this::loadLabels);
+    }
+
+    private Map<URI, String> loadLabels(Set<URI> ids) {
+        final List<URI> toLoad = new ArrayList<>(ids);
+        final Map<URI, String> result = new HashMap<>(toLoad.size());
+        for (int i = 0; i < toLoad.size(); i += LABEL_BATCH_SIZE) {
+            final List<URI> batch = toLoad.subList(i, Math.min(i + LABEL_BATCH_SIZE, toLoad.size()));
+            final List<ResourceLabel> rows = em.createNativeQuery("SELECT ?x ?label ?labelLang WHERE {" +
+                    "VALUES ?x { " + Utils.toValues(batch) + " }" +
+                    "?x ?has-label ?label ." +
+                    "BIND (LANG(?label) AS ?labelLang)" +
+                    "FILTER (LANGMATCHES(?labelLang, ?tag) || ?labelLang = \"\") }", "ResourceLabel")
+                                   .setParameter("has-label", RDFS_LABEL)
+                                   .setParameter("tag", config.get(ConfigParam.LANGUAGE), null).getResultList();
+            for (ResourceLabel row : rows) {
+                // Label with matching language tag is preferred to label without language tag
+                final boolean hasLanguage = row.getLanguage() != null && !row.getLanguage().isEmpty();
+                if (!result.containsKey(row.getUri()) || hasLanguage) {
+                    result.put(row.getUri(), row.getLabel());
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Exports the specified repository contexts as Turtle.
      *
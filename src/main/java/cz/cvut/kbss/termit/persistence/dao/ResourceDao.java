@@ -27,6 +27,7 @@ import cz.cvut.kbss.termit.model.resource.Document;
 import cz.cvut.kbss.termit.model.resource.File;
 import cz.cvut.kbss.termit.model.resource.Resource;
 import cz.cvut.kbss.termit.model.util.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.cache.EntityCache;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Repository;
@@ -34,17 +35,31 @@ import org.springframework.stereotype.Repository;
 import java.net.URI;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 @Repository
 public class ResourceDao extends AssetDao<Resource> implements SupportsLastModification {
 
     private volatile long lastModified;
 
-    public ResourceDao(EntityManager em) {
+    private final EntityCache entityCache;
+
+    public ResourceDao(EntityManager em, EntityCache entityCache) {
         super(Resource.class, em);
+        this.entityCache = entityCache;
         refreshLastModified();
     }
 
+    @Override
+    public Optional<Resource> find(URI id) {
+        Objects.requireNonNull(id);
+        try {
+            return Optional.ofNullable(entityCache.find(type, id, null, () -> em.find(type, id)));
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
     /**
      * Ensures that the specified instance is detached from the current persistence context.
      *
@@ -92,8 +107,8 @@ public class ResourceDao extends AssetDao<Resource> implements SupportsLastModif
         try {
             final URI context = resolveVocabularyContext(entity);
             if (context != null) {
-                // This evict is a bit overkill, but there are multiple relationships that would have to be evicted
-                em.getEntityManagerFactory().getCache().evict(context);
+                // Evicts also the cached entities embedding the resource (e.g., document of a file)
+                entityCache.evict(entity, context);
                 return em.merge(entity, createDescriptor(entity, context));
             } else {
                 return em.merge(entity);
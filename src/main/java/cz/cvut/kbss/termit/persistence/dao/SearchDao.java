@@ -18,38 +18,75 @@
 package cz.cvut.kbss.termit.persistence.dao;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
 import cz.cvut.kbss.termit.exception.TermItException;
+import cz.cvut.kbss.termit.persistence.index.LuceneFullTextIndex;
 import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
 import javax.annotation.PostConstruct;
 import java.io.*;
 import java.net.URI;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.stream.Collectors;
 
 @Repository
-@Profile("!lucene")
+@Profile("!lucene & !embedded-lucene")
 public class SearchDao {
 
     private static final String FTS_QUERY_FILE = "fulltextsearch.rq";
 
     private static final Logger LOG = LoggerFactory.getLogger(SearchDao.class);
 
+    private static final List<URI> SEARCHED_TYPES = Collections.unmodifiableList(
+            Arrays.asList(URI.create(Vocabulary.s_c_term), URI.create(Vocabulary.s_c_slovnik),
+                    URI.create(Vocabulary.s_c_zdroj)));
+
+    /**
+     * Results with score come first (the repository provides either scores for all results or for none of them).
+     */
+    private static final Comparator<FullTextSearchResult> RESULT_ORDER = Comparator
+            .comparing(FullTextSearchResult::getScore, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(FullTextSearchResult::getLabel, Comparator.nullsLast(Comparator.naturalOrder()));
+
     protected String ftsQuery;
 
+    /**
+     * Full text search query restricted to a page of results.
+     * <p>
+     * All the full text search queries are ordered, so the restriction can be appended to them.
+     */
+    protected String pagedFtsQuery;
+
     protected final EntityManager em;
 
+    /**
+     * Index used to search labels, definitions and comments, {@code null} if the repository search covers them.
+     */
+    private final LuceneFullTextIndex textIndex;
+
     @Autowired
-    public SearchDao(EntityManager em) {
+    public SearchDao(EntityManager em, LuceneFullTextIndex textIndex) {
         this.em = em;
+        this.textIndex = textIndex;
+    }
+
+    /**
+     * Creates DAO for repositories whose full text search query covers asset definitions and comments.
+     *
+     * @param em Entity manager
+     */
+    protected SearchDao(EntityManager em) {
+        this(em, null);
     }
 
     @PostConstruct
@@ -63,13 +100,26 @@ public class SearchDao {
         }
         try (final BufferedReader in = new BufferedReader(new InputStreamReader(is))) {
             this.ftsQuery = in.lines().collect(Collectors.joining("\n"));
+            this.pagedFtsQuery = ftsQuery + "\nOFFSET ?offset LIMIT ?limit";
         } catch (IOException e) {
             throw new TermItException("Initialization exception. Unable to load full text search query!", e);
         }
     }
 
     /**
-     * Finds terms and vocabularies which match the specified search string.
+     * Gets types of assets searched by full text search.
+     * <p>
+     * Each of the types represents an independent search source, i.e., assets of each type can be searched separately
+     * using {@link #fullTextSearch(String, URI, Pageable)}.
+     *
+     * @return List of searched asset types
+     */
+    public List<URI> getSearchedTypes() {
+        return SEARCHED_TYPES;
+    }
+
+    /**
+     * Finds terms, vocabularies and resources which match the specified search string.
      * <p>
      * The search functionality depends on the underlying repository and the index it uses. But basically the search
      * looks for match in asset label, comment and SKOS definition.
@@ -79,12 +129,176 @@ public class SearchDao {
      */
     public List<FullTextSearchResult> fullTextSearch(String searchString) {
         Objects.requireNonNull(searchString);
-        LOG.trace("Running full text search for search string \"{}\".", searchString);
-        return (List<FullTextSearchResult>) em.createNativeQuery(ftsQuery, "FullTextSearchResult")
-                                              .setParameter("term", URI.create(Vocabulary.s_c_term))
-                                              .setParameter("vocabulary", URI.create(Vocabulary.s_c_slovnik))
-                                              .setParameter("inVocabulary",
-                                                      URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                              .setParameter("searchString", searchString, null).getResultList();
+        return mergeResults(getSearchedTypes().stream().map(t -> fullTextSearch(searchString, t, Pageable.unpaged()))
+                                              .collect(Collectors.toList()), Pageable.unpaged());
+    }
+
+    /**
+     * Finds a page of terms, vocabularies and resources which match the specified search string.
+     * <p>
+     * The results are ordered the same way as in {@link #fullTextSearch(String)}. Only the first {@code offset + size}
+     * results are selected from each of the searched types.
+     *
+     * @param searchString The string to search by
+     * @param pageSpec     Specification of the page to return
+     * @return Page of matching results
+     */
+    public List<FullTextSearchResult> fullTextSearch(String searchString, Pageable pageSpec) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(pageSpec);
+        final Pageable sourcePage = firstResults(pageSpec);
+        return mergeResults(getSearchedTypes().stream().map(t -> fullTextSearch(searchString, t, sourcePage))
+                                              .collect(Collectors.toList()), pageSpec);
+    }
+
+    /**
+     * Finds assets of the specified type which match the specified search string.
+     * <p>
+     * If the full text search query searches only labels, the application's {@link LuceneFullTextIndex} is searched
+     * instead, so that labels are matched regardless of diacritics and definitions and comments are searched as well.
+     * The repository query is used only until the index is built.
+     * <p>
+     * The search may consist of several queries. If the calling thread is interrupted (e.g., because the search has
+     * been cancelled), no further queries are issued.
+     *
+     * @param searchString The string to search by
+     * @param type         Type of the assets to search, one of {@link #getSearchedTypes()}
+     * @param pageSpec     Specification of the page to return, {@link Pageable#unpaged()} for all results
+     * @return Matching results, ordered by descending score (if available) and label
+     * @throws CancellationException If the calling thread has been interrupted
+     */
+    public List<FullTextSearchResult> fullTextSearch(String searchString, URI type, Pageable pageSpec) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(pageSpec);
+        LOG.trace("Running full text search for search string \"{}\" in assets of type {}, page {}.", searchString,
+                type, pageSpec);
+        if (textIndex != null && textIndex.isBuilt()) {
+            final List<FullTextSearchResult> labelResults = textIndex.searchLabels(searchString, type.toString());
+            checkNotInterrupted(searchString);
+            // Label matches take precedence over definition and comment matches of the same asset. They are removed
+            // from the text results before paging, so that the two result sets are disjoint and each asset appears on
+            // one page only
+            final Set<URI> labelMatches = labelResults.stream().map(FullTextSearchResult::getUri)
+                                                      .collect(Collectors.toSet());
+            final List<FullTextSearchResult> textResults = textIndex
+                    .searchDefinitionsAndComments(searchString, type.toString()).stream()
+                    .filter(r -> !labelMatches.contains(r.getUri())).collect(Collectors.toList());
+            return mergeResults(Arrays.asList(labelResults, textResults), pageSpec);
+        }
+        return searchRepository(searchString, type, pageSpec);
+    }
+
+    private static void checkNotInterrupted(String searchString) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Full text search for \"" + searchString + "\" has been cancelled.");
+        }
+    }
+
+    private List<FullTextSearchResult> searchRepository(String searchString, URI type, Pageable pageSpec) {
+        if (pageSpec.isUnpaged()) {
+            return (List<FullTextSearchResult>) createFullTextSearchQuery(ftsQuery, searchString, type)
+                    .getResultList();
+        }
+        return (List<FullTextSearchResult>) createFullTextSearchQuery(pagedFtsQuery, searchString, type)
+                .setUntypedParameter("offset", pageSpec.getOffset())
+                .setUntypedParameter("limit", pageSpec.getPageSize())
+                .getResultList();
+    }
+
+    /**
+     * Creates the specified full text search query and binds its parameters.
+     *
+     * @param query        Full text search query string
+     * @param searchString The string to search by
+     * @param type         Type of the searched assets
+     * @return Query ready for execution
+     */
+    protected Query createFullTextSearchQuery(String query, String searchString, URI type) {
+        return em.createNativeQuery(query, "FullTextSearchResult")
+                 .setParameter("searchedType", type)
+                 .setParameter("inVocabulary", URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
+                 .setParameter("searchString", searchString, null);
+    }
+
+    /**
+     * Gets specification of the results which have to be retrieved from each searched type so that the specified page
+     * of the merged results can be assembled.
+     *
+     * @param pageSpec Page of the merged results
+     * @return Specification of the first {@code offset + size} results
+     */
+    public static Pageable firstResults(Pageable pageSpec) {
+        if (pageSpec.isUnpaged()) {
+            return pageSpec;
+        }
+        return PageRequest.of(0, (int) Math.min(pageSpec.getOffset() + pageSpec.getPageSize(), Integer.MAX_VALUE));
+    }
+
+    /**
+     * Merges results of searches in several sources (e.g., individual types) into one list.
+     * <p>
+     * The results are ordered by descending score and label. Each of the source lists is expected to be ordered this
+     * way already (as returned by {@link #fullTextSearch(String, URI, Pageable)}), so they are merged using a heap and
+     * the merging stops once the requested page is complete. Assets found in multiple sources (e.g., a vocabulary is
+     * also a resource) are included only once, with the source which is first in the argument list.
+     *
+     * @param resultsByType Search results, one ordered list per search source
+     * @param pageSpec      Page of the merged results to return
+     * @return Merged results
+     */
+    public static List<FullTextSearchResult> mergeResults(List<List<FullTextSearchResult>> resultsByType,
+                                                          Pageable pageSpec) {
+        final Map<URI, Integer> sources = new HashMap<>();
+        for (int i = 0; i < resultsByType.size(); i++) {
+            for (FullTextSearchResult r : resultsByType.get(i)) {
+                sources.putIfAbsent(r.getUri(), i);
+            }
+        }
+        final PriorityQueue<SourceCursor> heap = new PriorityQueue<>(Math.max(resultsByType.size(), 1),
+                Comparator.comparing((SourceCursor c) -> c.current, RESULT_ORDER).thenComparingInt(c -> c.source));
+        for (int i = 0; i < resultsByType.size(); i++) {
+            final SourceCursor cursor = new SourceCursor(i, resultsByType.get(i).iterator());
+            if (cursor.advance()) {
+                heap.add(cursor);
+            }
+        }
+        final long limit = pageSpec.isUnpaged() ? Long.MAX_VALUE : pageSpec.getOffset() + pageSpec.getPageSize();
+        final List<FullTextSearchResult> result = new ArrayList<>();
+        while (!heap.isEmpty() && result.size() < limit) {
+            final SourceCursor cursor = heap.poll();
+            if (sources.get(cursor.current.getUri()) == cursor.source) {
+                result.add(cursor.current);
+            }
+            if (cursor.advance()) {
+                heap.add(cursor);
+            }
+        }
+        if (pageSpec.isUnpaged()) {
+            return result;
+        }
+        return result.stream().skip(pageSpec.getOffset()).collect(Collectors.toList());
+    }
+
+    /**
+     * Position in an ordered list of results of one search source.
+     */
+    private static final class SourceCursor {
+        private final int source;
+        private final Iterator<FullTextSearchResult> it;
+        private FullTextSearchResult current;
+
+        private SourceCursor(int source, Iterator<FullTextSearchResult> it) {
+            this.source = source;
+            this.it = it;
+        }
+
+        private boolean advance() {
+            if (!it.hasNext()) {
+                return false;
+            }
+            this.current = it.next();
+            return true;
+        }
     }
 }
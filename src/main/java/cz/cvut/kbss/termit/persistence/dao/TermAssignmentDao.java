@@ -18,6 +18,7 @@
 package cz.cvut.kbss.termit.persistence.dao;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.asset.provenance.ModifiesData;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.termit.dto.assignment.ResourceTermAssignments;
 import cz.cvut.kbss.termit.dto.assignment.TermAssignments;
@@ -25,6 +26,7 @@ import cz.cvut.kbss.termit.model.Target;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.TermAssignment;
 import cz.cvut.kbss.termit.model.resource.Resource;
+import cz.cvut.kbss.termit.persistence.index.TermUsageIndex;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Vocabulary;
@@ -68,10 +70,27 @@ public class TermAssignmentDao extends BaseDao<TermAssignment> {
 
     private final Configuration config;
 
+    private final TermUsageIndex usageIndex;
+
     @Autowired
-    public TermAssignmentDao(EntityManager em, Configuration config) {
+    public TermAssignmentDao(EntityManager em, Configuration config, TermUsageIndex usageIndex) {
         super(TermAssignment.class, em);
         this.config = config;
+        this.usageIndex = usageIndex;
+    }
+
+    @ModifiesData
+    @Override
+    public void persist(TermAssignment entity) {
+        super.persist(entity);
+        usageIndex.assignmentAdded(entity.getTerm());
+    }
+
+    @ModifiesData
+    @Override
+    public void remove(TermAssignment entity) {
+        super.remove(entity);
+        usageIndex.assignmentRemoved(entity.getTerm());
     }
 
     /**
@@ -17,35 +17,59 @@ package cz.cvut.kbss.termit.persistence.dao;
 import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.query.TypedQuery;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.asset.provenance.ModifiesData;
+import cz.cvut.kbss.termit.asset.provenance.SupportsLastModification;
+import cz.cvut.kbss.termit.dto.SubTermInfo;
 import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.TermTreeNode;
+import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
 import cz.cvut.kbss.termit.exception.PersistenceException;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.util.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.index.TermHierarchyIndex;
+import cz.cvut.kbss.termit.persistence.index.VocabularyImportIndex;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.PageCursor;
+import cz.cvut.kbss.termit.util.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
 import java.net.URI;
-import java.util.List;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Repository
-public class TermDao extends AssetDao<Term> {
+public class TermDao extends AssetDao<Term> implements SupportsLastModification {
 
     private static final URI LABEL_PROP = URI.create(SKOS.PREF_LABEL);
 
+    /**
+     * Maximum number of parent terms whose sub-terms are loaded by a single query.
+     * <p>
+     * Keeps the size of the VALUES block in the sub-term query reasonable for the repository.
+     */
+    static final int SUB_TERM_BATCH_SIZE = 500;
+
     private final Configuration config;
 
+    private final TermHierarchyIndex hierarchyIndex;
+
+    private final VocabularyImportIndex importIndex;
+
+    private volatile long lastModified;
+
     @Autowired
-    public TermDao(EntityManager em, Configuration config) {
+    public TermDao(EntityManager em, Configuration config, TermHierarchyIndex hierarchyIndex,
+                   VocabularyImportIndex importIndex) {
         super(Term.class, em);
         this.config = config;
+        this.hierarchyIndex = hierarchyIndex;
+        this.importIndex = importIndex;
+        refreshLastModified();
     }
 
     @Override
@@ -55,6 +79,7 @@ public class TermDao extends AssetDao<Term> {
         return result;
     }
 
+    @ModifiesData
     @Override
     public void persist(Term entity) {
         Objects.requireNonNull(entity);
@@ -67,6 +92,7 @@ public class TermDao extends AssetDao<Term> {
         }
     }
 
+    @ModifiesData
     @Override
     public Term update(Term entity) {
         Objects.requireNonNull(entity);
@@ -92,20 +118,40 @@ public class TermDao extends AssetDao<Term> {
     public List<Term> findAll(Vocabulary vocabulary) {
         Objects.requireNonNull(vocabulary);
         try {
-            return executeQueryAndLoadSubTerms(em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                    "GRAPH ?vocabulary { " +
-                    "?term a ?type ;" +
-                    "?hasLabel ?label ;" +
-                    "?inVocabulary ?vocabulary ." +
-                    "FILTER (lang(?label) = ?labelLang) ." +
-                    "} } ORDER BY ?label", Term.class)
-                                                 .setParameter("type", typeUri)
-                                                 .setParameter("vocabulary", vocabulary.getUri())
-                                                 .setParameter("hasLabel", LABEL_PROP)
-                                                 .setParameter("inVocabulary",
-                                                         URI.create(
-                                                                 cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                                 .setParameter("labelLang", config.get(ConfigParam.LANGUAGE)));
+            return executeQueryAndLoadSubTerms(createFindAllQuery(vocabulary, Term.class));
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private <T> TypedQuery<T> createFindAllQuery(Vocabulary vocabulary, Class<T> resultType) {
+        return em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                "GRAPH ?vocabulary { " +
+                "?term a ?type ;" +
+                "?hasLabel ?label ;" +
+                "?inVocabulary ?vocabulary ." +
+                "FILTER (lang(?label) = ?labelLang) ." +
+                "} } ORDER BY ?label", resultType)
+                 .setParameter("type", typeUri)
+                 .setParameter("vocabulary", vocabulary.getUri())
+                 .setParameter("hasLabel", LABEL_PROP)
+                 .setParameter("inVocabulary",
+                         URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
+                 .setParameter("labelLang", config.get(ConfigParam.LANGUAGE));
+    }
+
+    /**
+     * Gets identifiers of all terms in the specified vocabulary.
+     * <p>
+     * This allows to process large vocabularies in batches, loading the terms by {@link #findAll(Collection)}.
+     *
+     * @param vocabulary Vocabulary whose terms should be returned
+     * @return List of term identifiers, ordered by label
+     */
+    public List<URI> findAllIdentifiers(Vocabulary vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        try {
+            return createFindAllQuery(vocabulary, URI.class).getResultList();
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -113,7 +159,7 @@ public class TermDao extends AssetDao<Term> {
 
     private List<Term> executeQueryAndLoadSubTerms(TypedQuery<Term> query) {
         final List<Term> terms = query.getResultList();
-        terms.forEach(this::loadSubTerms);
+        loadSubTerms(terms);
         return terms;
     }
 
@@ -125,22 +171,128 @@ public class TermDao extends AssetDao<Term> {
      * @param parent Parent term
      */
     private void loadSubTerms(Term parent) {
-        final Stream<TermInfo> subTermsStream = em.createNativeQuery("SELECT ?entity ?label ?vocabulary WHERE {" +
+        loadSubTerms(Collections.singletonList(parent));
+    }
+
+    /**
+     * Loads sub-term info for all the specified parent terms.
+     * <p>
+     * Sub-terms are primarily taken from the {@link TermHierarchyIndex}. Sub-terms of parents not covered by the index
+     * are queried in batches of at most {@link #SUB_TERM_BATCH_SIZE} parents, each batch by a single query. The
+     * sub-terms are set directly on the corresponding parents.
+     *
+     * @param parents Parent terms
+     */
+    private void loadSubTerms(Collection<Term> parents) {
+        final Map<URI, Set<TermInfo>> subTerms = new HashMap<>(parents.size());
+        final List<URI> notIndexed = new ArrayList<>();
+        for (Term parent : parents) {
+            final Optional<List<TermInfo>> indexed = parent.getVocabulary() != null ?
+                                                     hierarchyIndex.findSubTerms(parent.getVocabulary(),
+                                                             parent.getUri()) : Optional.empty();
+            if (indexed.isPresent()) {
+                subTerms.put(parent.getUri(), new LinkedHashSet<>(indexed.get()));
+            } else if (!subTerms.containsKey(parent.getUri())) {
+                subTerms.put(parent.getUri(), new HashSet<>());
+                notIndexed.add(parent.getUri());
+            }
+        }
+        for (int i = 0; i < notIndexed.size(); i += SUB_TERM_BATCH_SIZE) {
+            loadSubTermsBatch(notIndexed.subList(i, Math.min(i + SUB_TERM_BATCH_SIZE, notIndexed.size())), subTerms);
+        }
+        parents.forEach(p -> p.setSubTerms(subTerms.get(p.getUri())));
+    }
+
+    private void loadSubTermsBatch(List<URI> parentIds, Map<URI, Set<TermInfo>> subTerms) {
+        final List<SubTermInfo> rows = em.createNativeQuery("SELECT ?parent ?entity ?label ?vocabulary WHERE {" +
+                "VALUES ?parent { " + Utils.toValues(parentIds) + " }" +
                 "?parent ?narrower ?entity ." +
                 "?entity a ?type ;" +
                 "?hasLabel ?label ;" +
                 "?inVocabulary ?vocabulary ." +
-                "FILTER (lang(?label) = ?labelLang) . }", "TermInfo")
-                                                  .setParameter("type", typeUri)
-                                                  .setParameter("narrower", URI.create(SKOS.NARROWER))
-                                                  .setParameter("parent", parent.getUri())
-                                                  .setParameter("hasLabel", LABEL_PROP)
-                                                  .setParameter("inVocabulary",
-                                                          URI.create(
-                                                                  cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                                  .setParameter("labelLang", config.get(ConfigParam.LANGUAGE))
-                                                  .getResultStream();
-        parent.setSubTerms(subTermsStream.collect(Collectors.toSet()));
+                "FILTER (lang(?label) = ?labelLang) . }", "SubTermInfo")
+                                         .setParameter("type", typeUri)
+                                         .setParameter("narrower", URI.create(SKOS.NARROWER))
+                                         .setParameter("hasLabel", LABEL_PROP)
+                                         .setParameter("inVocabulary", URI.create(
+                                                 cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
+                                         .setParameter("labelLang", config.get(ConfigParam.LANGUAGE))
+                                         .getResultList();
+        rows.forEach(r -> subTerms.get(r.getParent()).add(r.toTermInfo()));
+    }
+
+    /**
+     * Gets child terms of the specified parent term.
+     * <p>
+     * Sub-terms of the children are loaded in bulk, so the number of queries does not depend on the number of
+     * children.
+     *
+     * @param parent Parent term whose children should be returned
+     * @return Matching terms, ordered by label
+     */
+    public List<Term> findSubTerms(Term parent) {
+        Objects.requireNonNull(parent);
+        try {
+            final Optional<List<TermInfo>> indexed = parent.getVocabulary() != null ?
+                                                     hierarchyIndex.findSubTerms(parent.getVocabulary(),
+                                                             parent.getUri()) : Optional.empty();
+            if (indexed.isPresent()) {
+                return loadTermsAndSubTerms(indexed.get().stream().map(TermInfo::getUri).collect(Collectors.toList()));
+            }
+            return executeQueryAndLoadSubTerms(em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                    "?parent ?narrower ?term ." +
+                    "?term a ?type ;" +
+                    "?hasLabel ?label ." +
+                    "FILTER (lang(?label) = ?labelLang) ." +
+                    "} ORDER BY ?label", Term.class)
+                                                 .setParameter("type", typeUri)
+                                                 .setParameter("narrower", URI.create(SKOS.NARROWER))
+                                                 .setParameter("parent", parent.getUri())
+                                                 .setParameter("hasLabel", LABEL_PROP)
+                                                 .setParameter("labelLang", config.get(ConfigParam.LANGUAGE)));
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Finds terms with the specified identifiers.
+     * <p>
+     * The terms are loaded by a single query per batch of identifiers and their sub-terms are loaded in bulk.
+     * Identifiers which do not correspond to any term are skipped.
+     *
+     * @param ids Term identifiers
+     * @return List of existing terms, in the order of the specified identifiers
+     */
+    public List<Term> findAll(Collection<URI> ids) {
+        Objects.requireNonNull(ids);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            return loadTermsAndSubTerms(new ArrayList<>(ids));
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private List<Term> loadTermsAndSubTerms(List<URI> ids) {
+        final List<Term> terms = loadTerms(ids);
+        loadSubTerms(terms);
+        return terms;
+    }
+
+    private List<Term> loadTerms(List<URI> ids) {
+        final Map<URI, Term> loaded = new HashMap<>(ids.size());
+        for (int i = 0; i < ids.size(); i += SUB_TERM_BATCH_SIZE) {
+            final List<URI> batch = ids.subList(i, Math.min(i + SUB_TERM_BATCH_SIZE, ids.size()));
+            em.createNativeQuery("SELECT ?term WHERE {" +
+                    "VALUES ?term { " + Utils.toValues(batch) + " }" +
+                    "?term a ?type . }", Term.class)
+              .setParameter("type", typeUri)
+              .getResultList().forEach(t -> loaded.put(t.getUri(), t));
+        }
+        return ids.stream().map(loaded::get).filter(Objects::nonNull).distinct().collect(Collectors.toList());
     }
 
     /**
@@ -154,35 +306,46 @@ public class TermDao extends AssetDao<Term> {
     public List<Term> findAllRoots(Vocabulary vocabulary, Pageable pageSpec) {
         Objects.requireNonNull(vocabulary);
         Objects.requireNonNull(pageSpec);
-        TypedQuery<Term> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                "GRAPH ?vocabulary { " +
-                "?term a ?type ;" +
-                "?hasLabel ?label ." +
-                "?vocabulary ?hasGlossary/?hasTerm ?term ." +
-                "FILTER (lang(?label) = ?labelLang) ." +
-                "}} ORDER BY ?label OFFSET ?offset LIMIT ?limit", Term.class);
-        query = setCommonFindAllRootsQueryParams(query, false);
         try {
-            return executeQueryAndLoadSubTerms(query.setParameter("vocabulary", vocabulary.getUri())
-                                                    .setParameter("labelLang", config.get(ConfigParam.LANGUAGE))
-                                                    .setUntypedParameter("offset", pageSpec.getOffset())
-                                                    .setUntypedParameter("limit", pageSpec.getPageSize()));
+            return loadTermsAndSubTerms(page(hierarchyIndex.findRoots(vocabulary.getUri()), pageSpec));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
-    private <T> TypedQuery<T> setCommonFindAllRootsQueryParams(TypedQuery<T> query, boolean includeImports) {
-        final TypedQuery<T> tq = query.setParameter("type", typeUri)
-                                      .setParameter("hasLabel", LABEL_PROP)
-                                      .setParameter("hasGlossary",
-                                              URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_glosar))
-                                      .setParameter("hasTerm", URI.create(
-                                              cz.cvut.kbss.termit.util.Vocabulary.s_p_obsahuje_korenovy_pojem));
-        if (includeImports) {
-            tq.setParameter("imports", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik));
+    /**
+     * Loads a page of root terms contained in the specified vocabulary, following the specified cursor.
+     * <p>
+     * In contrast to {@link #findAllRoots(Vocabulary, Pageable)}, the cost of retrieving a page does not depend on its
+     * position.
+     *
+     * @param vocabulary Vocabulary whose root terms should be returned
+     * @param after      Position of the last term of the previous page
+     * @param limit      Maximum number of returned terms
+     * @return Matching terms, ordered by their label
+     */
+    public List<Term> findAllRoots(Vocabulary vocabulary, PageCursor after, int limit) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(after);
+        try {
+            return loadTermsAndSubTerms(hierarchyIndex.findRoots(vocabulary.getUri(), after, limit));
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
         }
-        return tq;
+    }
+
+    private static <T> List<T> page(List<T> items, Pageable pageSpec) {
+        final int from = (int) Math.min(pageSpec.getOffset(), items.size());
+        final int to = (int) Math.min((long) from + pageSpec.getPageSize(), items.size());
+        return items.subList(from, to);
+    }
+
+    private <T> TypedQuery<T> setCommonFindAllRootsQueryParams(TypedQuery<T> query) {
+        return query.setParameter("type", typeUri)
+                    .setParameter("hasLabel", LABEL_PROP)
+                    .setParameter("hasGlossary", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_glosar))
+                    .setParameter("hasTerm",
+                            URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_obsahuje_korenovy_pojem));
     }
 
     /**
@@ -202,14 +365,13 @@ public class TermDao extends AssetDao<Term> {
         TypedQuery<Term> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
                 "?term a ?type ;" +
                 "?hasLabel ?label ." +
-                "?vocabulary ?imports* ?parent ." +
+                "VALUES ?parent { " + Utils.toValues(importIndex.getImportClosure(vocabulary.getUri())) + " }" +
                 "?parent ?hasGlossary/?hasTerm ?term ." +
                 "FILTER (lang(?label) = ?labelLang) ." +
-                "} ORDER BY ?label OFFSET ?offset LIMIT ?limit", Term.class);
-        query = setCommonFindAllRootsQueryParams(query, true);
+                "} ORDER BY STR(?label) STR(?term) OFFSET ?offset LIMIT ?limit", Term.class);
+        query = setCommonFindAllRootsQueryParams(query);
         try {
-            return executeQueryAndLoadSubTerms(query.setParameter("vocabulary", vocabulary.getUri())
-                                                    .setParameter("labelLang", config.get(ConfigParam.LANGUAGE))
+            return executeQueryAndLoadSubTerms(query.setParameter("labelLang", config.get(ConfigParam.LANGUAGE))
                                                     .setUntypedParameter("offset", pageSpec.getOffset())
                                                     .setUntypedParameter("limit", pageSpec.getPageSize()));
         } catch (RuntimeException e) {
@@ -217,78 +379,387 @@ public class TermDao extends AssetDao<Term> {
         }
     }
 
+    /**
+     * Loads a page of root terms contained in the specified vocabulary or any of its imports (transitively), following
+     * the specified cursor.
+     * <p>
+     * Instead of skipping the preceding results, the query seeks directly to the cursor position.
+     *
+     * @param vocabulary The last vocabulary in the vocabulary import chain
+     * @param after      Position of the last term of the previous page
+     * @param limit      Maximum number of returned terms
+     * @return Matching terms, ordered by their label
+     * @see #findAllRootsIncludingImports(Vocabulary, Pageable)
+     */
+    public List<Term> findAllRootsIncludingImports(Vocabulary vocabulary, PageCursor after, int limit) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(after);
+        TypedQuery<Term> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                "?term a ?type ;" +
+                "?hasLabel ?label ." +
+                "VALUES ?parent { " + Utils.toValues(importIndex.getImportClosure(vocabulary.getUri())) + " }" +
+                "?parent ?hasGlossary/?hasTerm ?term ." +
+                "FILTER (lang(?label) = ?labelLang) ." +
+                "FILTER (STR(?label) > ?afterLabel || (STR(?label) = ?afterLabel && STR(?term) > ?afterTerm)) ." +
+                "} ORDER BY STR(?label) STR(?term) LIMIT ?limit", Term.class);
+        query = setCommonFindAllRootsQueryParams(query);
+        try {
+            return executeQueryAndLoadSubTerms(query.setParameter("labelLang", config.get(ConfigParam.LANGUAGE))
+                                                    .setParameter("afterLabel", after.getLabel(), null)
+                                                    .setParameter("afterTerm", after.getUri().toString(), null)
+                                                    .setUntypedParameter("limit", limit));
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Loads a page of root terms contained in the specified vocabulary as tree nodes.
+     * <p>
+     * Unlike {@link #findAllRoots(Vocabulary, Pageable)}, no entities are loaded, only basic term data and the number
+     * of sub-terms of each term.
+     *
+     * @param vocabulary Vocabulary whose root terms should be returned
+     * @param pageSpec   Page specification
+     * @return Matching root term nodes, ordered by label
+     */
+    public List<TermTreeNode> findAllRootNodes(Vocabulary vocabulary, Pageable pageSpec) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(pageSpec);
+        try {
+            return toTreeNodes(page(hierarchyIndex.findRootInfos(vocabulary.getUri()), pageSpec));
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Loads a page of root terms contained in the specified vocabulary or any of its imports (transitively) as tree
+     * nodes.
+     * <p>
+     * Unlike {@link #findAllRootsIncludingImports(Vocabulary, Pageable)}, no entities are loaded, basic term data and
+     * the number of sub-terms are retrieved by a single projection query.
+     *
+     * @param vocabulary The last vocabulary in the vocabulary import chain
+     * @param pageSpec   Page specification
+     * @return Matching root term nodes, ordered by label
+     */
+    public List<TermTreeNode> findAllRootNodesIncludingImports(Vocabulary vocabulary, Pageable pageSpec) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(pageSpec);
+        try {
+            return em.createNativeQuery(
+                    "SELECT ?entity ?label ?vocabulary (COUNT(DISTINCT ?child) AS ?subTermCount) WHERE {" +
+                            "VALUES ?parent { " + Utils.toValues(importIndex.getImportClosure(vocabulary.getUri())) + " }" +
+                            "?parent ?hasGlossary/?hasTerm ?entity ." +
+                            "?entity a ?type ;" +
+                            "?hasLabel ?label ;" +
+                            "?inVocabulary ?vocabulary ." +
+                            "FILTER (lang(?label) = ?labelLang) ." +
+                            "OPTIONAL {" +
+                            "{ ?entity ?narrower ?child . } UNION { ?child ?broader ?entity . }" +
+                            "?child ?hasLabel ?childLabel ." +
+                            "FILTER (lang(?childLabel) = ?labelLang) . }" +
+                            "} GROUP BY ?entity ?label ?vocabulary " +
+                            "ORDER BY STR(?label) STR(?entity) OFFSET ?offset LIMIT ?limit", "TermTreeNode")
+                     .setParameter("type", typeUri)
+                     .setParameter("hasLabel", LABEL_PROP)
+                     .setParameter("hasGlossary", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_ma_glosar))
+                     .setParameter("hasTerm",
+                             URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_obsahuje_korenovy_pojem))
+                     .setParameter("inVocabulary",
+                             URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
+                     .setParameter("narrower", URI.create(SKOS.NARROWER))
+                     .setParameter("broader", URI.create(SKOS.BROADER))
+                     .setParameter("labelLang", config.get(ConfigParam.LANGUAGE))
+                     .setUntypedParameter("offset", pageSpec.getOffset())
+                     .setUntypedParameter("limit", pageSpec.getPageSize())
+                     .getResultList();
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Gets sub-terms of the specified parent term as tree nodes.
+     * <p>
+     * Sub-terms of the parent are expected to be already loaded (see {@link Term#getSubTerms()}).
+     *
+     * @param parent Parent term
+     * @return Sub-term nodes, ordered by label
+     */
+    public List<TermTreeNode> findSubTermNodes(Term parent) {
+        Objects.requireNonNull(parent);
+        if (parent.getSubTerms() == null || parent.getSubTerms().isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<TermInfo> subTerms = new ArrayList<>(parent.getSubTerms());
+        subTerms.sort(Comparator.comparing(TermInfo::getLabel, Comparator.nullsLast(Comparator.naturalOrder()))
+                                .thenComparing(TermInfo::getUri));
+        try {
+            return toTreeNodes(subTerms);
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Gets the sub-tree of the specified term, down to the specified depth.
+     * <p>
+     * The tree is resolved level by level from the hierarchy index, terms not covered by the index are resolved by a
+     * batched query per level. Each term is expanded only once, even if it appears in the tree multiple times.
+     * <p>
+     * Nodes at the lowest level do not have their sub-terms set, but contain the number of their sub-terms, so that
+     * the tree can be further expanded.
+     *
+     * @param root  Root of the sub-tree
+     * @param depth Maximum depth of the sub-tree, must be positive
+     * @return Tree node representing the specified term, with nested sub-term nodes
+     */
+    public TermTreeNode findSubTree(Term root, int depth) {
+        Objects.requireNonNull(root);
+        assert depth > 0;
+        final TermTreeNode rootNode = new TermTreeNode(new TermInfo(root), null);
+        final Set<URI> expanded = new HashSet<>();
+        // Nodes which are not expanded, either because of the depth limit or because they were already expanded
+        final List<TermTreeNode> leaves = new ArrayList<>();
+        List<TermTreeNode> level = Collections.singletonList(rootNode);
+        try {
+            for (int i = 0; i < depth && !level.isEmpty(); i++) {
+                level.forEach(n -> expanded.add(n.getUri()));
+                final Map<URI, List<TermInfo>> children = findChildren(level);
+                final List<TermTreeNode> nextLevel = new ArrayList<>();
+                for (TermTreeNode node : level) {
+                    final List<TermInfo> nodeChildren = children.get(node.getUri());
+                    final Set<TermTreeNode> subTerms = new LinkedHashSet<>(nodeChildren.size());
+                    nodeChildren.forEach(c -> subTerms.add(new TermTreeNode(c, null)));
+                    node.setSubTerms(subTerms);
+                    node.setSubTermCount(subTerms.size());
+                    subTerms.forEach(n -> (expanded.contains(n.getUri()) ? leaves : nextLevel).add(n));
+                }
+                level = nextLevel;
+            }
+            leaves.addAll(level);
+            final Map<URI, Integer> counts = countSubTerms(leaves);
+            leaves.forEach(n -> n.setSubTermCount(counts.getOrDefault(n.getUri(), 0)));
+            return rootNode;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private Map<URI, List<TermInfo>> findChildren(List<? extends TermInfo> parents) {
+        final Map<URI, List<TermInfo>> result = new HashMap<>(parents.size());
+        final Map<URI, Set<TermInfo>> notIndexed = new HashMap<>();
+        for (TermInfo parent : parents) {
+            final Optional<List<TermInfo>> indexed = parent.getVocabulary() != null ?
+                                                     hierarchyIndex.findSubTerms(parent.getVocabulary(),
+                                                             parent.getUri()) : Optional.empty();
+            if (indexed.isPresent()) {
+                result.put(parent.getUri(), indexed.get());
+            } else {
+                notIndexed.put(parent.getUri(), new HashSet<>());
+            }
+        }
+        final List<URI> notIndexedIds = new ArrayList<>(notIndexed.keySet());
+        for (int i = 0; i < notIndexedIds.size(); i += SUB_TERM_BATCH_SIZE) {
+            loadSubTermsBatch(notIndexedIds.subList(i, Math.min(i + SUB_TERM_BATCH_SIZE, notIndexedIds.size())),
+                    notIndexed);
+        }
+        notIndexed.forEach((parent, children) -> {
+            final List<TermInfo> sorted = new ArrayList<>(children);
+            sorted.sort(Comparator.comparing(TermInfo::getLabel, Comparator.nullsLast(Comparator.naturalOrder()))
+                                  .thenComparing(TermInfo::getUri));
+            result.put(parent, sorted);
+        });
+        return result;
+    }
+
+    /**
+     * Creates tree nodes for the specified terms.
+     * <p>
+     * Sub-term counts are taken from the hierarchy index, terms not covered by it are counted by batched queries.
+     */
+    private List<TermTreeNode> toTreeNodes(List<TermInfo> terms) {
+        final Map<URI, Integer> counts = countSubTerms(terms);
+        return terms.stream().map(t -> new TermTreeNode(t, counts.getOrDefault(t.getUri(), 0)))
+                    .collect(Collectors.toList());
+    }
+
+    private Map<URI, Integer> countSubTerms(List<? extends TermInfo> terms) {
+        final Map<URI, Integer> counts = new HashMap<>(terms.size());
+        final List<URI> notIndexed = new ArrayList<>();
+        for (TermInfo t : terms) {
+            final Optional<Integer> count = t.getVocabulary() != null ?
+                                            hierarchyIndex.countSubTerms(t.getVocabulary(), t.getUri()) :
+                                            Optional.empty();
+            if (count.isPresent()) {
+                counts.put(t.getUri(), count.get());
+            } else {
+                notIndexed.add(t.getUri());
+            }
+        }
+        for (int i = 0; i < notIndexed.size(); i += SUB_TERM_BATCH_SIZE) {
+            countSubTermsBatch(notIndexed.subList(i, Math.min(i + SUB_TERM_BATCH_SIZE, notIndexed.size())), counts);
+        }
+        return counts;
+    }
+
+    private void countSubTermsBatch(List<URI> termIds, Map<URI, Integer> counts) {
+        final List<TermTreeNode> nodes = em.createNativeQuery(
+                "SELECT ?entity ?label ?vocabulary (COUNT(DISTINCT ?child) AS ?subTermCount) WHERE {" +
+                        "VALUES ?entity { " + Utils.toValues(termIds) + " }" +
+                        "?entity ?hasLabel ?label ;" +
+                        "?inVocabulary ?vocabulary ." +
+                        "FILTER (lang(?label) = ?labelLang) ." +
+                        "OPTIONAL {" +
+                        "{ ?entity ?narrower ?child . } UNION { ?child ?broader ?entity . }" +
+                        "?child ?hasLabel ?childLabel ." +
+                        "FILTER (lang(?childLabel) = ?labelLang) . }" +
+                        "} GROUP BY ?entity ?label ?vocabulary", "TermTreeNode")
+                                             .setParameter("narrower", URI.create(SKOS.NARROWER))
+                                             .setParameter("broader", URI.create(SKOS.BROADER))
+                                             .setParameter("hasLabel", LABEL_PROP)
+                                             .setParameter("inVocabulary", URI.create(
+                                                     cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
+                                             .setParameter("labelLang", config.get(ConfigParam.LANGUAGE))
+                                             .getResultList();
+        nodes.forEach(n -> counts.put(n.getUri(), n.getSubTermCount()));
+    }
+
     /**
      * Finds terms whose label contains the specified search string.
      * <p>
-     * This method searches in the specified vocabulary only.
+     * This method searches in the specified vocabulary only. The comparison ignores case and diacritics and is
+     * evaluated against normalized labels precomputed in the in-memory label index.
      *
      * @param searchString String the search term labels by
      * @param vocabulary   Vocabulary whose terms should be searched
      * @return List of matching terms
      */
     public List<Term> findAll(String searchString, Vocabulary vocabulary) {
+        return findAllWithAncestors(findAllIdentifiers(searchString, vocabulary));
+    }
+
+    /**
+     * Finds identifiers of terms whose label contains the specified search string.
+     * <p>
+     * This method searches in the specified vocabulary only, see {@link #findAll(String, Vocabulary)}.
+     *
+     * @param searchString String the search term labels by
+     * @param vocabulary   Vocabulary whose terms should be searched
+     * @return Identifiers of matching terms, ordered by label
+     */
+    public List<URI> findAllIdentifiers(String searchString, Vocabulary vocabulary) {
         Objects.requireNonNull(searchString);
         Objects.requireNonNull(vocabulary);
-        final TypedQuery<Term> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                "GRAPH ?vocabulary { " +
-                "?term a ?type ; " +
-                "      ?hasLabel ?label ; " +
-                "      ?inVocabulary ?vocabulary ." +
-                "FILTER CONTAINS(LCASE(?label), LCASE(?searchString)) ." +
-                "}} ORDER BY ?label", Term.class)
-                                         .setParameter("type", typeUri)
-                                         .setParameter("hasLabel", LABEL_PROP)
-                                         .setParameter("inVocabulary", URI.create(
-                                                 cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                         .setParameter("vocabulary", vocabulary.getUri())
-                                         .setParameter("searchString", searchString, config.get(ConfigParam.LANGUAGE));
         try {
-            final List<Term> terms = executeQueryAndLoadSubTerms(query);
-            terms.forEach(this::loadParentSubTerms);
+            return hierarchyIndex.findByLabelContaining(vocabulary.getUri(), searchString).stream()
+                                 .map(TermInfo::getUri).collect(Collectors.toList());
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Finds terms with the specified identifiers, loading sub-terms of the terms and of all their ancestors.
+     * <p>
+     * This is intended for term search results, which are displayed together with their ancestors.
+     *
+     * @param ids Term identifiers, e.g., from {@link #findAllIdentifiers(String, Vocabulary)}
+     * @return List of existing terms, in the order of the specified identifiers
+     */
+    public List<Term> findAllWithAncestors(Collection<URI> ids) {
+        Objects.requireNonNull(ids);
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            final List<Term> terms = loadTerms(new ArrayList<>(ids));
+            loadSubTermsIncludingAncestors(terms);
             return terms;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
 
-    private void loadParentSubTerms(Term parent) {
-        loadSubTerms(parent);
-        if (parent.getParentTerms() != null) {
-            parent.getParentTerms().forEach(this::loadParentSubTerms);
+    /**
+     * Loads sub-terms of the specified terms and all their ancestors.
+     * <p>
+     * Ancestors are already present in memory, because parent terms are fetched eagerly. They are collected first so
+     * that sub-terms of all the terms are loaded in bulk and each ancestor shared by multiple terms is resolved only
+     * once.
+     */
+    private void loadSubTermsIncludingAncestors(List<Term> terms) {
+        final Set<Term> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Term> toVisit = new ArrayDeque<>(terms);
+        while (!toVisit.isEmpty()) {
+            final Term term = toVisit.pop();
+            if (visited.add(term) && term.getParentTerms() != null) {
+                toVisit.addAll(term.getParentTerms());
+            }
         }
+        loadSubTerms(visited);
     }
 
     /**
      * Finds terms whose label contains the specified search string.
      * <p>
-     * This method searches in the specified vocabulary and all the vocabularies it (transitively) imports.
+     * This method searches in the specified vocabulary and all the vocabularies it (transitively) imports. The
+     * comparison ignores case and diacritics and is evaluated against normalized labels precomputed in the in-memory
+     * label index.
      *
      * @param searchString String the search term labels by
      * @param vocabulary   Vocabulary whose terms should be searched
      * @return List of matching terms
      */
     public List<Term> findAllIncludingImported(String searchString, Vocabulary vocabulary) {
+        return findAllWithAncestors(findAllIdentifiersIncludingImported(searchString, vocabulary));
+    }
+
+    /**
+     * Finds identifiers of terms whose label contains the specified search string.
+     * <p>
+     * This method searches in the specified vocabulary and all the vocabularies it (transitively) imports, see {@link
+     * #findAllIncludingImported(String, Vocabulary)}.
+     *
+     * @param searchString String the search term labels by
+     * @param vocabulary   Vocabulary whose terms should be searched
+     * @return Identifiers of matching terms, ordered by label
+     */
+    public List<URI> findAllIdentifiersIncludingImported(String searchString, Vocabulary vocabulary) {
         Objects.requireNonNull(searchString);
         Objects.requireNonNull(vocabulary);
-        final TypedQuery<Term> query = em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
-                "?targetVocabulary ?imports* ?vocabulary ." +
-                "?term a ?type ;\n" +
-                "      ?hasLabel ?label ;\n" +
-                "      ?inVocabulary ?vocabulary ." +
-                "FILTER CONTAINS(LCASE(?label), LCASE(?searchString)) .\n" +
-                "} ORDER BY ?label", Term.class)
-                                         .setParameter("type", typeUri)
-                                         .setParameter("hasLabel", LABEL_PROP)
-                                         .setParameter("inVocabulary", URI.create(
-                                                 cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                         .setParameter("imports",
-                                                 URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik))
-                                         .setParameter("targetVocabulary", vocabulary.getUri())
-                                         .setParameter("searchString", searchString, config.get(ConfigParam.LANGUAGE));
         try {
-            final List<Term> terms = executeQueryAndLoadSubTerms(query);
-            terms.forEach(this::loadParentSubTerms);
-            return terms;
+            final List<TermInfo> matches = new ArrayList<>();
+            for (URI v : importIndex.getImportClosure(vocabulary.getUri())) {
+                matches.addAll(hierarchyIndex.findByLabelContaining(v, searchString));
+            }
+            matches.sort(Comparator.comparing(TermInfo::getLabel, Comparator.nullsLast(Comparator.naturalOrder()))
+                                   .thenComparing(TermInfo::getUri));
+            return matches.stream().map(TermInfo::getUri).collect(Collectors.toList());
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Finds terms of the specified vocabulary whose label starts with the specified prefix.
+     * <p>
+     * This method is intended for typeahead-style term selection. It uses comparison ignoring case and is answered
+     * from the in-memory label index, without querying the repository (unless the vocabulary has not been indexed
+     * yet).
+     *
+     * @param prefix     Label prefix
+     * @param vocabulary Vocabulary whose terms should be searched
+     * @param limit      Maximum number of returned terms
+     * @return Matching terms ordered by label
+     */
+    public List<TermInfo> findAllByLabelPrefix(String prefix, Vocabulary vocabulary, int limit) {
+        Objects.requireNonNull(prefix);
+        Objects.requireNonNull(vocabulary);
+        try {
+            return hierarchyIndex.findByLabelPrefix(vocabulary.getUri(), prefix, limit);
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -299,6 +770,8 @@ public class TermDao extends AssetDao<Term> {
      * <p>
      * Note that this method uses comparison ignoring case, so that two labels differing just in character case are
      * considered same here.
+     * <p>
+     * The check is answered from the in-memory label index.
      *
      * @param label      Label to check
      * @param vocabulary Vocabulary in which terms will be searched
@@ -308,18 +781,24 @@ public class TermDao extends AssetDao<Term> {
         Objects.requireNonNull(label);
         Objects.requireNonNull(vocabulary);
         try {
-            return em.createNativeQuery("ASK { ?term a ?type ; " +
-                    "?hasLabel ?label ;" +
-                    "?inVocabulary ?vocabulary ." +
-                    "FILTER (LCASE(?label) = LCASE(?searchString)) . }", Boolean.class)
-                     .setParameter("type", typeUri)
-                     .setParameter("hasLabel", LABEL_PROP)
-                     .setParameter("inVocabulary",
-                             URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
-                     .setParameter("vocabulary", vocabulary.getUri())
-                     .setParameter("searchString", label, config.get(ConfigParam.LANGUAGE)).getSingleResult();
+            return hierarchyIndex.containsLabel(vocabulary.getUri(), label);
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
     }
+
+    @Override
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    @Override
+    public void refreshLastModified() {
+        this.lastModified = System.currentTimeMillis();
+    }
+
+    @EventListener
+    public void refreshLastModified(RefreshLastModifiedEvent event) {
+        refreshLastModified();
+    }
 }
@@ -18,9 +18,11 @@
 package cz.cvut.kbss.termit.persistence.dao;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.asset.provenance.ModifiesData;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.TermOccurrence;
 import cz.cvut.kbss.termit.model.resource.Resource;
+import cz.cvut.kbss.termit.persistence.index.TermUsageIndex;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
@@ -32,9 +34,26 @@ import java.util.Objects;
 @Repository
 public class TermOccurrenceDao extends BaseDao<TermOccurrence> {
 
+    private final TermUsageIndex usageIndex;
+
     @Autowired
-    public TermOccurrenceDao(EntityManager em) {
+    public TermOccurrenceDao(EntityManager em, TermUsageIndex usageIndex) {
         super(TermOccurrence.class, em);
+        this.usageIndex = usageIndex;
+    }
+
+    @ModifiesData
+    @Override
+    public void persist(TermOccurrence entity) {
+        super.persist(entity);
+        usageIndex.occurrenceAdded(entity.getTerm());
+    }
+
+    @ModifiesData
+    @Override
+    public void remove(TermOccurrence entity) {
+        super.remove(entity);
+        usageIndex.occurrenceRemoved(entity.getTerm());
     }
 
     /**
@@ -100,6 +119,7 @@ public class TermOccurrenceDao extends BaseDao<TermOccurrence> {
           .setParameter("hasSource", URI.create(Vocabulary.s_p_ma_zdroj))
           .setParameter("resource", resource.getUri())
           .setParameter("hasSelector", URI.create(Vocabulary.s_p_ma_selektor_termu)).executeUpdate();
+        usageIndex.evictOccurrences();
     }
 
     /**
@@ -26,6 +26,9 @@ import cz.cvut.kbss.termit.exception.PersistenceException;
 import cz.cvut.kbss.termit.model.Glossary;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.util.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.cache.EntityCache;
+import cz.cvut.kbss.termit.persistence.index.VocabularyImportIndex;
+import cz.cvut.kbss.termit.util.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Repository;
@@ -38,9 +41,15 @@ public class VocabularyDao extends AssetDao<Vocabulary> implements SupportsLastM
 
     private volatile long lastModified;
 
+    private final VocabularyImportIndex importIndex;
+
+    private final EntityCache entityCache;
+
     @Autowired
-    public VocabularyDao(EntityManager em) {
+    public VocabularyDao(EntityManager em, VocabularyImportIndex importIndex, EntityCache entityCache) {
         super(Vocabulary.class, em);
+        this.importIndex = importIndex;
+        this.entityCache = entityCache;
         refreshLastModified();
     }
 
@@ -55,7 +64,8 @@ public class VocabularyDao extends AssetDao<Vocabulary> implements SupportsLastM
     public Optional<Vocabulary> find(URI id) {
         Objects.requireNonNull(id);
         try {
-            return Optional.ofNullable(em.find(type, id, DescriptorFactory.vocabularyDescriptor(id)));
+            return Optional.ofNullable(entityCache.find(type, id, id,
+                    () -> em.find(type, id, DescriptorFactory.vocabularyDescriptor(id))));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -80,11 +90,7 @@ public class VocabularyDao extends AssetDao<Vocabulary> implements SupportsLastM
     public Collection<URI> getTransitivelyImportedVocabularies(Vocabulary entity) {
         Objects.requireNonNull(entity);
         try {
-            return em.createNativeQuery("SELECT DISTINCT ?imported WHERE {" +
-                    "?x ?imports+ ?imported ." +
-                    "}", URI.class)
-                     .setParameter("imports", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik))
-                     .setParameter("x", entity.getUri()).getResultList();
+            return new ArrayList<>(importIndex.getTransitiveImports(entity.getUri()));
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -96,8 +102,10 @@ public class VocabularyDao extends AssetDao<Vocabulary> implements SupportsLastM
         Objects.requireNonNull(entity);
         try {
             // Evict possibly cached instance loaded from default context
-            em.getEntityManagerFactory().getCache().evict(Vocabulary.class, entity.getUri(), null);
-            return em.merge(entity, DescriptorFactory.vocabularyDescriptor(entity));
+            entityCache.evict(entity, null);
+            final Vocabulary result = em.merge(entity, DescriptorFactory.vocabularyDescriptor(entity));
+            importIndex.update(result.getUri(), result.getImportedVocabularies());
+            return result;
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -109,6 +117,7 @@ public class VocabularyDao extends AssetDao<Vocabulary> implements SupportsLastM
         Objects.requireNonNull(entity);
         try {
             em.persist(entity, DescriptorFactory.vocabularyDescriptor(entity));
+            importIndex.update(entity.getUri(), entity.getImportedVocabularies());
         } catch (RuntimeException e) {
             throw new PersistenceException(e);
         }
@@ -125,6 +134,7 @@ public class VocabularyDao extends AssetDao<Vocabulary> implements SupportsLastM
      */
     public Glossary updateGlossary(Vocabulary entity) {
         Objects.requireNonNull(entity);
+        entityCache.evict(entity.getGlossary(), entity.getUri());
         return em.merge(entity.getGlossary(), DescriptorFactory.glossaryDescriptor(entity));
     }
 
@@ -140,20 +150,15 @@ public class VocabularyDao extends AssetDao<Vocabulary> implements SupportsLastM
         Objects.requireNonNull(subjectVocabulary);
         Objects.requireNonNull(targetVocabulary);
         return em.createNativeQuery("ASK WHERE {" +
+                "    VALUES ?import { " + Utils.toValues(importIndex.getImportClosure(targetVocabulary)) + " }" +
                 "    ?t ?isTermFromVocabulary ?subjectVocabulary ; " +
                 "       ?hasParentTerm ?parent . " +
                 "    ?parent ?isTermFromVocabulary ?import . " +
-                "    {" +
-                "        SELECT ?import WHERE {" +
-                "           ?targetVocabulary ?importsVocabulary* ?import . " +
-                "} } }", Boolean.class)
+                "}", Boolean.class)
                  .setParameter("isTermFromVocabulary",
                          URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_je_pojmem_ze_slovniku))
                  .setParameter("subjectVocabulary", subjectVocabulary)
                  .setParameter("hasParentTerm", URI.create(SKOS.BROADER))
-                 .setParameter("targetVocabulary", targetVocabulary)
-                 .setParameter("importsVocabulary",
-                         URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_p_importuje_slovnik))
                  .getSingleResult();
     }
 
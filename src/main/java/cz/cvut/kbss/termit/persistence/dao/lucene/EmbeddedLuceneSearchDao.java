@@ -0,0 +1,81 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.dao.lucene;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.persistence.dao.SearchDao;
+import cz.cvut.kbss.termit.persistence.index.LuceneFullTextIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@link SearchDao} extension using a full text index embedded in the application.
+ * <p>
+ * Unlike the other implementations, this one does not query the repository at all, so it does not depend on the
+ * repository vendor and its text indexing capabilities.
+ */
+@Repository
+@Profile("embedded-lucene")  // Corresponds to a profile set in pom.xml
+public class EmbeddedLuceneSearchDao extends SearchDao {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EmbeddedLuceneSearchDao.class);
+
+    private final LuceneFullTextIndex index;
+
+    @Autowired
+    public EmbeddedLuceneSearchDao(EntityManager em, LuceneFullTextIndex index) {
+        super(em);
+        this.index = index;
+    }
+
+    @Override
+    public List<FullTextSearchResult> fullTextSearch(String searchString) {
+        Objects.requireNonNull(searchString);
+        LOG.trace("Running full text search for search string \"{}\" in embedded index.", searchString);
+        return index.search(searchString);
+    }
+
+    @Override
+    public List<FullTextSearchResult> fullTextSearch(String searchString, Pageable pageSpec) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(pageSpec);
+        LOG.trace("Running full text search for search string \"{}\", page {} in embedded index.", searchString,
+                pageSpec);
+        return index.search(searchString, pageSpec.getOffset(), pageSpec.getPageSize());
+    }
+
+    @Override
+    public List<FullTextSearchResult> fullTextSearch(String searchString, URI type, Pageable pageSpec) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(type);
+        Objects.requireNonNull(pageSpec);
+        LOG.trace("Running full text search for search string \"{}\" in assets of type {}, page {} in embedded index.",
+                searchString, type, pageSpec);
+        return pageSpec.isUnpaged() ? index.search(searchString, type.toString(), 0, LuceneFullTextIndex.MAX_RESULTS) :
+               index.search(searchString, type.toString(), pageSpec.getOffset(), pageSpec.getPageSize());
+    }
+}
@@ -18,19 +18,16 @@
 package cz.cvut.kbss.termit.persistence.dao.lucene;
 
 import cz.cvut.kbss.jopa.model.EntityManager;
-import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.jopa.model.query.Query;
 import cz.cvut.kbss.termit.persistence.dao.SearchDao;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
-import cz.cvut.kbss.termit.util.Vocabulary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Repository;
 
 import java.net.URI;
-import java.util.List;
-import java.util.Objects;
 
 /**
  * {@link SearchDao} extension for Lucene-based repositories. These support rich search strings with wildcards and
@@ -55,20 +52,12 @@ public class LuceneSearchDao extends SearchDao {
     }
 
     @Override
-    public List<FullTextSearchResult> fullTextSearch(String searchString) {
-        Objects.requireNonNull(searchString);
+    protected Query createFullTextSearchQuery(String query, String searchString, URI type) {
         final String wildcardString = addWildcard(searchString);
-        LOG.trace("Running full text search for search string \"{}\", using wildcard variant \"{}\".", searchString,
-                wildcardString);
-        return (List<FullTextSearchResult>) em.createNativeQuery(ftsQuery, "FullTextSearchResult")
-                                              .setParameter("term", URI.create(Vocabulary.s_c_term))
-                                              .setParameter("vocabulary", URI.create(Vocabulary.s_c_slovnik))
-                                              .setParameter("inVocabulary",
-                                                      URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
-                                              .setParameter("searchString", searchString, null)
-                                              .setParameter("wildCardSearchString", wildcardString, null)
-                                              .setParameter("langTag", config.get(ConfigParam.LANGUAGE), null)
-                                              .getResultList();
+        LOG.trace("Using wildcard variant \"{}\" of search string \"{}\".", wildcardString, searchString);
+        return super.createFullTextSearchQuery(query, searchString, type)
+                    .setParameter("wildCardSearchString", wildcardString, null)
+                    .setParameter("langTag", config.get(ConfigParam.LANGUAGE), null);
     }
 
     private static String addWildcard(String searchString) {
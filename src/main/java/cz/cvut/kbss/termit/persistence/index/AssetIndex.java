@@ -0,0 +1,101 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyImportedEvent;
+import cz.cvut.kbss.termit.model.Asset;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.model.resource.Resource;
+
+import java.net.URI;
+
+/**
+ * Base class of in-application indexes of assets.
+ * <p>
+ * The indexes are kept up to date by {@link AssetIndexUpdater}, which passes them {@link AssetModifiedEvent}s after
+ * commit of the transaction in which the events were published.
+ */
+public abstract class AssetIndex {
+
+    /**
+     * Adds the specified term to the index, replacing its previous version (if present).
+     *
+     * @param term Term to index
+     */
+    public abstract void index(Term term);
+
+    /**
+     * Adds the specified vocabulary to the index, replacing its previous version (if present).
+     *
+     * @param vocabulary Vocabulary to index
+     */
+    public abstract void index(Vocabulary vocabulary);
+
+    /**
+     * Adds the specified resource to the index, replacing its previous version (if present).
+     * <p>
+     * Resources are not indexed by default.
+     *
+     * @param resource Resource to index
+     */
+    public void index(Resource resource) {
+        // Do nothing by default
+    }
+
+    /**
+     * Re-indexes all terms of the specified vocabulary, using their current state in the repository.
+     * <p>
+     * This is intended for cases when terms are written into the repository in bulk, e.g., by vocabulary import.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    public abstract void indexTerms(URI vocabulary);
+
+    /**
+     * Removes asset with the specified identifier from the index.
+     *
+     * @param id Asset identifier
+     */
+    public abstract void remove(URI id);
+
+    /**
+     * Updates the index so that it reflects the specified asset modification.
+     * <p>
+     * Terms of a vocabulary are re-indexed only when the vocabulary has been imported, modifications of vocabulary
+     * metadata do not affect them.
+     *
+     * @param event Asset modification event
+     */
+    void update(AssetModifiedEvent event) {
+        final Asset asset = event.getAsset();
+        if (event.isRemoved()) {
+            remove(asset.getUri());
+        } else if (asset instanceof Term) {
+            index((Term) asset);
+        } else if (asset instanceof Vocabulary) {
+            index((Vocabulary) asset);
+            if (event instanceof VocabularyImportedEvent) {
+                indexTerms(asset.getUri());
+            }
+        } else if (asset instanceof Resource) {
+            index((Resource) asset);
+        }
+    }
+}
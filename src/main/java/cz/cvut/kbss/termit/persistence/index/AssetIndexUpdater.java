@@ -0,0 +1,58 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * Keeps {@link AssetIndex}es up to date by passing them {@link AssetModifiedEvent}s.
+ * <p>
+ * The events are processed after commit of the transaction in which they were published. Failure to update one index
+ * does not prevent update of the others.
+ */
+@Component
+public class AssetIndexUpdater {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AssetIndexUpdater.class);
+
+    private final List<AssetIndex> indexes;
+
+    @Autowired
+    public AssetIndexUpdater(List<AssetIndex> indexes) {
+        this.indexes = indexes;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetModified(AssetModifiedEvent event) {
+        for (AssetIndex index : indexes) {
+            try {
+                index.update(event);
+            } catch (RuntimeException e) {
+                LOG.error("Unable to update {} with modification of asset {}.", index.getClass().getSimpleName(),
+                        event.getAsset().getUri(), e);
+            }
+        }
+    }
+}
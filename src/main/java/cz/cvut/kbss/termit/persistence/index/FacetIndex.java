@@ -0,0 +1,344 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.dto.FacetedSearchResult;
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.dto.TermTypeInfo;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.model.Asset;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.resource.Resource;
+import cz.cvut.kbss.termit.util.Utils;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.*;
+
+/**
+ * In-memory index of asset facets used to filter full text search results and to count them by facet values.
+ * <p>
+ * Each asset gets a numeric identifier and each facet value (a vocabulary, a term type, an asset kind) keeps a bit set
+ * of identifiers of assets which have the value. Filtering and counting search results then amounts to intersecting
+ * bit sets, without querying the repository.
+ * <p>
+ * The index is built lazily on first use and then kept up to date by {@link AssetIndexUpdater}.
+ */
+@Component
+public class FacetIndex extends AssetIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FacetIndex.class);
+
+    /**
+     * Vocabulary a term belongs to.
+     */
+    public static final String VOCABULARY = "vocabulary";
+
+    /**
+     * Type of a term (see {@link Term#getTypes()}).
+     */
+    public static final String TERM_TYPE = "termType";
+
+    /**
+     * Kind of asset, i.e., term, vocabulary or resource.
+     */
+    public static final String KIND = "kind";
+
+    private static final List<String> FACETS = Collections.unmodifiableList(Arrays.asList(VOCABULARY, TERM_TYPE, KIND));
+
+    private final EntityManager em;
+
+    private final Map<URI, Integer> ids = new HashMap<>();
+
+    /**
+     * Bit sets of asset identifiers, mapped by facet and facet value.
+     */
+    private final Map<String, Map<String, BitSet>> postings = new HashMap<>();
+
+    private int nextId;
+
+    private boolean loaded;
+
+    @Autowired
+    public FacetIndex(EntityManager em) {
+        this.em = em;
+        FACETS.forEach(f -> postings.put(f, new HashMap<>()));
+    }
+
+    /**
+     * Filters the specified search results by the specified facet values and counts the results by facet values.
+     * <p>
+     * Results have to match at least one of the selected values of every facet. Facets without selected values do not
+     * restrict the results. Results unknown to the index are left out if any value is selected.
+     *
+     * @param results Full text search results
+     * @param filter  Selected values, mapped by facet
+     * @return Filtered results, in the original order, and facet counts
+     */
+    public synchronized FacetedSearchResult facet(List<FullTextSearchResult> results,
+                                                  Map<String, ? extends Collection<String>> filter) {
+        Objects.requireNonNull(results);
+        Objects.requireNonNull(filter);
+        ensureLoaded();
+        final BitSet found = new BitSet(nextId);
+        for (FullTextSearchResult r : results) {
+            final Integer id = ids.get(r.getUri());
+            if (id != null) {
+                found.set(id);
+            }
+        }
+        final Map<String, BitSet> selections = new HashMap<>();
+        for (String facet : FACETS) {
+            final Collection<String> values = filter.get(facet);
+            if (values != null && !values.isEmpty()) {
+                final BitSet selection = new BitSet(nextId);
+                values.stream().map(postings.get(facet)::get).filter(Objects::nonNull).forEach(selection::or);
+                selections.put(facet, selection);
+            }
+        }
+        final Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        for (String facet : FACETS) {
+            final BitSet base = restrict(found, selections, facet);
+            final Map<String, Integer> facetCounts = new HashMap<>();
+            final BitSet intersection = new BitSet(nextId);
+            postings.get(facet).forEach((value, assets) -> {
+                intersection.clear();
+                intersection.or(base);
+                intersection.and(assets);
+                final int count = intersection.cardinality();
+                if (count > 0) {
+                    facetCounts.put(value, count);
+                }
+            });
+            counts.put(facet, facetCounts);
+        }
+        if (selections.isEmpty()) {
+            return new FacetedSearchResult(results, counts);
+        }
+        final BitSet matching = restrict(found, selections, null);
+        final List<FullTextSearchResult> filtered = new ArrayList<>();
+        for (FullTextSearchResult r : results) {
+            final Integer id = ids.get(r.getUri());
+            if (id != null && matching.get(id)) {
+                filtered.add(r);
+            }
+        }
+        return new FacetedSearchResult(filtered, counts);
+    }
+
+    /**
+     * Restricts the specified assets by selections of all facets except the specified one.
+     */
+    private static BitSet restrict(BitSet assets, Map<String, BitSet> selections, String exceptFacet) {
+        final BitSet result = (BitSet) assets.clone();
+        selections.forEach((facet, selection) -> {
+            if (!facet.equals(exceptFacet)) {
+                result.and(selection);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Adds the specified term to the index, replacing its previous version (if present).
+     *
+     * @param term Term to index
+     */
+    @Override
+    public synchronized void index(Term term) {
+        Objects.requireNonNull(term);
+        if (loaded) {
+            final int id = reset(term.getUri());
+            add(KIND, Vocabulary.s_c_term, id);
+            if (term.getVocabulary() != null) {
+                add(VOCABULARY, term.getVocabulary().toString(), id);
+            }
+            if (term.getTypes() != null) {
+                term.getTypes().forEach(t -> add(TERM_TYPE, t, id));
+            }
+        }
+    }
+
+    /**
+     * Adds the specified vocabulary to the index, replacing its previous version (if present).
+     *
+     * @param vocabulary Vocabulary to index
+     */
+    @Override
+    public synchronized void index(cz.cvut.kbss.termit.model.Vocabulary vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        if (loaded) {
+            add(KIND, Vocabulary.s_c_slovnik, reset(vocabulary.getUri()));
+        }
+    }
+
+    /**
+     * Adds the specified resource to the index, replacing its previous version (if present).
+     *
+     * @param resource Resource to index
+     */
+    @Override
+    public synchronized void index(Resource resource) {
+        Objects.requireNonNull(resource);
+        if (loaded) {
+            add(KIND, Vocabulary.s_c_zdroj, reset(resource.getUri()));
+        }
+    }
+
+    /**
+     * Re-indexes all terms of the specified vocabulary, using their current state in the repository.
+     * <p>
+     * This is intended for cases when terms are written into the repository in bulk, e.g., by vocabulary import.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    @Override
+    public synchronized void indexTerms(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        if (loaded) {
+            try {
+                loadTerms(vocabulary);
+            } catch (RuntimeException e) {
+                throw new PersistenceException(e);
+            }
+        }
+    }
+
+    /**
+     * Removes asset with the specified identifier from the index.
+     *
+     * @param id Asset identifier
+     */
+    @Override
+    public synchronized void remove(URI id) {
+        Objects.requireNonNull(id);
+        final Integer assetId = ids.remove(id);
+        if (assetId != null) {
+            clear(assetId);
+        }
+    }
+
+    /**
+     * Evicts the whole index, so that it is rebuilt on next use.
+     */
+    public synchronized void evictAll() {
+        ids.clear();
+        postings.values().forEach(Map::clear);
+        this.nextId = 0;
+        this.loaded = false;
+    }
+
+    @EventListener
+    public void onEvictCache(EvictCacheEvent event) {
+        LOG.debug("Evicting facet index.");
+        evictAll();
+    }
+
+    /**
+     * Gets identifier of the specified asset, removing it from all facet values it currently has.
+     */
+    private int reset(URI uri) {
+        final Integer existing = ids.get(uri);
+        if (existing != null) {
+            clear(existing);
+            return existing;
+        }
+        final int id = nextId++;
+        ids.put(uri, id);
+        return id;
+    }
+
+    private void clear(int id) {
+        for (Map<String, BitSet> values : postings.values()) {
+            final Iterator<BitSet> it = values.values().iterator();
+            while (it.hasNext()) {
+                final BitSet assets = it.next();
+                assets.clear(id);
+                if (assets.isEmpty()) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    private void add(String facet, String value, int id) {
+        postings.get(facet).computeIfAbsent(value, k -> new BitSet()).set(id);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        LOG.trace("Building facet index.");
+        try {
+            loadTerms(null);
+            loadAssets(Vocabulary.s_c_slovnik);
+            loadAssets(Vocabulary.s_c_zdroj);
+        } catch (RuntimeException e) {
+            evictAll();
+            throw new PersistenceException(e);
+        }
+        this.loaded = true;
+        LOG.debug("Facet index built, {} assets indexed.", ids.size());
+    }
+
+    private void loadTerms(URI vocabulary) {
+        final String vocabularyFilter = vocabulary != null ?
+                "VALUES ?vocabulary { " + Utils.toValues(Collections.singleton(vocabulary)) + " }" : "";
+        final List<TermTypeInfo> rows = em.createNativeQuery("SELECT ?entity ?vocabulary ?type WHERE {" +
+                vocabularyFilter +
+                "?entity a ?term ;" +
+                "?inVocabulary ?vocabulary ." +
+                "OPTIONAL { ?entity a ?type . FILTER (?type != ?term) }" +
+                "}", "TermTypeInfo")
+                               .setParameter("term", URI.create(Vocabulary.s_c_term))
+                               .setParameter("inVocabulary", URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
+                               .getResultList();
+        final Set<URI> reset = new HashSet<>();
+        for (TermTypeInfo row : rows) {
+            final URI uri = row.getUri();
+            final int id = reset.add(uri) ? reset(uri) : ids.get(uri);
+            add(KIND, Vocabulary.s_c_term, id);
+            add(VOCABULARY, row.getVocabulary().toString(), id);
+            if (row.getType() != null) {
+                add(TERM_TYPE, row.getType().toString(), id);
+            }
+        }
+    }
+
+    private void loadAssets(String kind) {
+        // Vocabularies are resources as well, but they are indexed with their own kind
+        final List<URI> rows = em.createNativeQuery("SELECT DISTINCT ?entity WHERE {" +
+                "?entity a ?kind ." +
+                "FILTER (?kind = ?vocabulary || NOT EXISTS { ?entity a ?vocabulary . })" +
+                "}", URI.class)
+                               .setParameter("kind", URI.create(kind))
+                               .setParameter("vocabulary", URI.create(Vocabulary.s_c_slovnik))
+                               .getResultList();
+        for (URI entity : rows) {
+            add(KIND, kind, reset(entity));
+        }
+    }
+}
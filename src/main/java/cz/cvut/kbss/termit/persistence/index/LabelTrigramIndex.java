@@ -0,0 +1,541 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.vocabulary.RDFS;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.dto.IndexedAsset;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.model.Asset;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Utils;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory character trigram index of term and vocabulary labels, used for typo-tolerant (fuzzy) search.
+ * <p>
+ * Labels are normalized by {@link Utils#toSearchKey(String)} and each word of a label is split into trigrams (padded
+ * by a space on both sides). Search first selects candidates sharing enough trigrams with the search string and then
+ * re-ranks them by edit distance between the search string and the best matching part of their label, so that only a
+ * bounded number of labels is compared character by character.
+ * <p>
+ * The index is built lazily on first search and then kept up to date by {@link AssetIndexUpdater}. Searches run
+ * concurrently under a read lock, the labels are loaded from the repository without holding the lock.
+ */
+@Component
+public class LabelTrigramIndex extends AssetIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LabelTrigramIndex.class);
+
+    /**
+     * Maximum number of returned search results.
+     */
+    static final int MAX_RESULTS = 1000;
+
+    /**
+     * Maximum number of candidates re-ranked by edit distance.
+     */
+    private static final int MAX_CANDIDATES = 5000;
+
+    private static final String SNIPPET_FIELD = "label";
+
+    private final EntityManager em;
+
+    private final Configuration config;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Object loadLock = new Object();
+
+    /**
+     * Index content, {@code null} when the index is not loaded.
+     */
+    private Content content;
+
+    /**
+     * Modifications made while the index is being loaded, {@code null} when the index is not being loaded.
+     */
+    private Map<URI, Optional<Entry>> modifiedDuringLoad;
+
+    private boolean evictedDuringLoad;
+
+    @Autowired
+    public LabelTrigramIndex(EntityManager em, Configuration config) {
+        this.em = em;
+        this.config = config;
+    }
+
+    /**
+     * Finds terms and vocabularies whose label approximately contains the specified search string.
+     * <p>
+     * The comparison ignores case and diacritics and the number of tolerated typos (character insertions, deletions or
+     * substitutions) grows with the length of the search string.
+     *
+     * @param searchString The string to search by
+     * @return Matching results ordered by descending score, i.e., the closest matches first
+     */
+    public List<FullTextSearchResult> search(String searchString) {
+        Objects.requireNonNull(searchString);
+        final String key = Utils.toSearchKey(searchString.trim());
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            if (content != null) {
+                return content.search(key);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return loadAndSearch(key);
+    }
+
+    /**
+     * Loads the index and searches it.
+     * <p>
+     * The labels are loaded without holding the index lock, so modifications of the index are not blocked by the
+     * loading. They are recorded and applied to the loaded content before it is installed.
+     */
+    private List<FullTextSearchResult> loadAndSearch(String key) {
+        synchronized (loadLock) {
+            lock.readLock().lock();
+            try {
+                // Another search may have loaded the index while this one was waiting
+                if (content != null) {
+                    return content.search(key);
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            lock.writeLock().lock();
+            try {
+                this.modifiedDuringLoad = new HashMap<>();
+                this.evictedDuringLoad = false;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Content loaded = null;
+            try {
+                loaded = load();
+            } finally {
+                lock.writeLock().lock();
+                try {
+                    if (loaded != null) {
+                        install(loaded);
+                    }
+                    this.modifiedDuringLoad = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+            lock.readLock().lock();
+            try {
+                return loaded.search(key);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    private Content load() {
+        LOG.trace("Building label trigram index.");
+        final Content loaded = new Content();
+        try {
+            loadTerms(null).forEach(loaded::put);
+            loadVocabularies().forEach(loaded::put);
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+        LOG.debug("Label trigram index built, {} labels indexed.", loaded.positions.size());
+        return loaded;
+    }
+
+    private void install(Content loaded) {
+        assert lock.isWriteLockedByCurrentThread();
+        modifiedDuringLoad.forEach((uri, entry) -> {
+            if (entry.isPresent()) {
+                loaded.put(entry.get());
+            } else {
+                loaded.remove(uri);
+            }
+        });
+        // If the index was evicted while loading, the loaded content is used just by the current search
+        if (!evictedDuringLoad) {
+            this.content = loaded;
+        }
+    }
+
+    /**
+     * Number of typos tolerated in the specified search key.
+     */
+    static int maxDistance(String key) {
+        if (key.length() <= 2) {
+            return 0;
+        }
+        return key.length() <= 5 ? 1 : key.length() <= 9 ? 2 : 3;
+    }
+
+    /**
+     * Computes the edit distance between the pattern and the best matching substring of the text.
+     */
+    static int substringDistance(String pattern, String text) {
+        final int m = pattern.length();
+        int[] previous = new int[m + 1];
+        int[] current = new int[m + 1];
+        for (int i = 0; i <= m; i++) {
+            previous[i] = i;
+        }
+        int best = previous[m];
+        for (int j = 0; j < text.length(); j++) {
+            // Match may start anywhere in the text
+            current[0] = 0;
+            final char c = text.charAt(j);
+            for (int i = 1; i <= m; i++) {
+                final int cost = pattern.charAt(i - 1) == c ? 0 : 1;
+                current[i] = Math.min(previous[i - 1] + cost, Math.min(previous[i], current[i - 1]) + 1);
+            }
+            best = Math.min(best, current[m]);
+            final int[] tmp = previous;
+            previous = current;
+            current = tmp;
+        }
+        return best;
+    }
+
+    static Set<String> trigrams(String key) {
+        final Set<String> result = new HashSet<>();
+        for (String word : key.split("\\s+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            final String padded = " " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the specified term to the index, replacing its previous version (if present).
+     *
+     * @param term Term to index
+     */
+    @Override
+    public void index(Term term) {
+        Objects.requireNonNull(term);
+        put(Collections.singletonList(
+                new Entry(term.getUri(), term.getLabel(), Vocabulary.s_c_term, term.getVocabulary())));
+    }
+
+    /**
+     * Adds the specified vocabulary to the index, replacing its previous version (if present).
+     *
+     * @param vocabulary Vocabulary to index
+     */
+    @Override
+    public void index(cz.cvut.kbss.termit.model.Vocabulary vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        put(Collections.singletonList(
+                new Entry(vocabulary.getUri(), vocabulary.getLabel(), Vocabulary.s_c_slovnik, null)));
+    }
+
+    /**
+     * Re-indexes all terms of the specified vocabulary, using their current state in the repository.
+     * <p>
+     * This is intended for cases when terms are written into the repository in bulk, e.g., by vocabulary import.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    @Override
+    public void indexTerms(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        lock.readLock().lock();
+        try {
+            if (content == null && modifiedDuringLoad == null) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        put(loadTerms(vocabulary));
+    }
+
+    /**
+     * Removes asset with the specified identifier from the index.
+     *
+     * @param id Asset identifier
+     */
+    @Override
+    public void remove(URI id) {
+        Objects.requireNonNull(id);
+        lock.writeLock().lock();
+        try {
+            if (modifiedDuringLoad != null) {
+                modifiedDuringLoad.put(id, Optional.empty());
+            }
+            if (content != null) {
+                content.remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Evicts the whole index, so that it is rebuilt on next search.
+     */
+    public void evictAll() {
+        lock.writeLock().lock();
+        try {
+            this.content = null;
+            this.evictedDuringLoad = modifiedDuringLoad != null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onEvictCache(EvictCacheEvent event) {
+        LOG.debug("Evicting label trigram index.");
+        evictAll();
+    }
+
+    private void put(List<Entry> entries) {
+        lock.writeLock().lock();
+        try {
+            for (Entry entry : entries) {
+                if (modifiedDuringLoad != null) {
+                    modifiedDuringLoad.put(entry.uri, Optional.of(entry));
+                }
+                if (content != null) {
+                    content.put(entry);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Entry> loadTerms(URI vocabulary) {
+        final String vocabularyFilter = vocabulary != null ?
+                "VALUES ?vocabulary { " + Utils.toValues(Collections.singleton(vocabulary)) + " }" : "";
+        final List<TermInfo> rows = em.createNativeQuery("SELECT ?entity ?label ?vocabulary WHERE {" +
+                vocabularyFilter +
+                "?entity a ?type ;" +
+                "?hasLabel ?label ;" +
+                "?inVocabulary ?vocabulary ." +
+                "FILTER (lang(?label) = ?labelLang) . }", "TermInfo")
+                               .setParameter("type", URI.create(Vocabulary.s_c_term))
+                               .setParameter("hasLabel", URI.create(SKOS.PREF_LABEL))
+                               .setParameter("inVocabulary", URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
+                               .setParameter("labelLang", config.get(ConfigParam.LANGUAGE))
+                               .getResultList();
+        return rows.stream().map(r -> new Entry(r.getUri(), r.getLabel(), Vocabulary.s_c_term, r.getVocabulary()))
+                   .collect(Collectors.toList());
+    }
+
+    private List<Entry> loadVocabularies() {
+        // Vocabulary, definition and comment are not bound
+        final List<IndexedAsset> rows = em.createNativeQuery(
+                "SELECT ?entity ?label ?vocabulary ?definition ?comment WHERE {" +
+                        "?entity a ?type ;" +
+                        "?hasLabel ?label . }", "IndexedAsset")
+                               .setParameter("type", URI.create(Vocabulary.s_c_slovnik))
+                               .setParameter("hasLabel", URI.create(RDFS.LABEL))
+                               .getResultList();
+        return rows.stream().map(r -> new Entry(r.getUri(), r.getLabel(), Vocabulary.s_c_slovnik, null))
+                   .collect(Collectors.toList());
+    }
+
+    /**
+     * Indexed labels and their trigram postings.
+     */
+    private static final class Content {
+
+        /**
+         * Indexed labels, position in the list is the label identifier used in postings. Removed labels are replaced
+         * with {@code null} until the content is compacted.
+         */
+        private final List<Entry> entries = new ArrayList<>();
+
+        private final Map<URI, Integer> positions = new HashMap<>();
+
+        private final Map<String, Postings> postings = new HashMap<>();
+
+        private int removed;
+
+        private List<FullTextSearchResult> search(String key) {
+            final Set<String> trigrams = trigrams(key);
+            final int maxDistance = maxDistance(key);
+            // Each edit changes at most three trigrams, the trigram ending the search string need not match if it is
+            // only a prefix of a word in the label
+            final int minShared = Math.max(1, trigrams.size() - 3 * maxDistance - 1);
+            // Only labels sharing at least one trigram with the search string are counted
+            final Map<Integer, Integer> shared = new HashMap<>();
+            for (String trigram : trigrams) {
+                final Postings p = postings.get(trigram);
+                if (p != null) {
+                    for (int i = 0; i < p.size; i++) {
+                        shared.merge(p.ids[i], 1, Integer::sum);
+                    }
+                }
+            }
+            final List<Map.Entry<Integer, Integer>> candidates = new ArrayList<>();
+            for (Map.Entry<Integer, Integer> e : shared.entrySet()) {
+                if (e.getValue() >= minShared && entries.get(e.getKey()) != null) {
+                    candidates.add(e);
+                }
+            }
+            candidates.sort((a, b) -> Integer.compare(b.getValue(), a.getValue()));
+            final List<Match> matches = new ArrayList<>();
+            for (Map.Entry<Integer, Integer> c : candidates.subList(0, Math.min(candidates.size(), MAX_CANDIDATES))) {
+                final Entry entry = entries.get(c.getKey());
+                final int distance = substringDistance(key, entry.key);
+                if (distance <= maxDistance) {
+                    matches.add(new Match(entry, distance, c.getValue()));
+                }
+            }
+            matches.sort(Comparator.comparingInt((Match m) -> m.distance)
+                                   .thenComparing(m -> -m.shared)
+                                   .thenComparing(m -> m.entry.label));
+            final List<FullTextSearchResult> result = new ArrayList<>(Math.min(matches.size(), MAX_RESULTS));
+            for (Match m : matches.subList(0, Math.min(matches.size(), MAX_RESULTS))) {
+                result.add(new FullTextSearchResult(m.entry.uri, m.entry.label, m.entry.vocabulary, m.entry.type,
+                        SNIPPET_FIELD, m.entry.label, 1.0 - (double) m.distance / (key.length() + 1)));
+            }
+            return result;
+        }
+
+        private void put(Entry entry) {
+            final Integer existing = positions.get(entry.uri);
+            if (existing != null) {
+                if (entries.get(existing).equals(entry)) {
+                    return;
+                }
+                remove(entry.uri);
+            }
+            if (entry.key == null) {
+                return;
+            }
+            final int id = entries.size();
+            entries.add(entry);
+            positions.put(entry.uri, id);
+            for (String trigram : trigrams(entry.key)) {
+                postings.computeIfAbsent(trigram, k -> new Postings()).add(id);
+            }
+        }
+
+        private void remove(URI id) {
+            final Integer position = positions.remove(id);
+            if (position == null) {
+                return;
+            }
+            entries.set(position, null);
+            removed++;
+            if (removed > entries.size() / 2) {
+                compact();
+            }
+        }
+
+        private void compact() {
+            final List<Entry> live = new ArrayList<>(entries.size() - removed);
+            entries.stream().filter(Objects::nonNull).forEach(live::add);
+            entries.clear();
+            positions.clear();
+            postings.clear();
+            this.removed = 0;
+            live.forEach(this::put);
+        }
+    }
+
+    private static final class Entry {
+        private final URI uri;
+        private final String label;
+        private final String key;
+        private final String type;
+        private final URI vocabulary;
+
+        private Entry(URI uri, String label, String type, URI vocabulary) {
+            this.uri = uri;
+            this.label = label;
+            this.key = Utils.toSearchKey(label);
+            this.type = type;
+            this.vocabulary = vocabulary;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            final Entry entry = (Entry) o;
+            return uri.equals(entry.uri) && Objects.equals(label, entry.label) && type.equals(entry.type) &&
+                    Objects.equals(vocabulary, entry.vocabulary);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(uri, label, type, vocabulary);
+        }
+    }
+
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size == ids.length) {
+                this.ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+    }
+
+    private static final class Match {
+        private final Entry entry;
+        private final int distance;
+        private final int shared;
+
+        private Match(Entry entry, int distance, int shared) {
+            this.entry = entry;
+            this.distance = distance;
+            this.shared = shared;
+        }
+    }
+}
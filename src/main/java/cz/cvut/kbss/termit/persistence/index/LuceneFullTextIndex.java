@@ -0,0 +1,890 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.vocabulary.DC;
+import cz.cvut.kbss.jopa.vocabulary.RDFS;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.dto.IndexedAsset;
+import cz.cvut.kbss.termit.dto.ResourceLabel;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.model.Asset;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.resource.Resource;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Utils;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.BytesRef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Full text index of terms and vocabularies embedded in the application.
+ * <p>
+ * The index contains labels, definitions and comments of terms and labels and comments of vocabularies. It is
+ * ephemeral - it is held in memory only, the repository being the source of truth. It is built from the repository
+ * in the background on startup (and on demand via {@link #rebuild()}), so searches may return incomplete results
+ * until the first build finishes. It is then kept up to date by {@link AssetIndexUpdater}.
+ * <p>
+ * Texts and search strings are analyzed by {@link SearchKeyAnalyzer}, so the search ignores case and diacritics.
+ * <p>
+ * Besides serving as the sole full text search in the {@code embedded-lucene} profile, the index replaces the full text
+ * search of repositories without text index. It matches labels in all languages as substrings, see {@link
+ * #searchLabels(String, String)}, and searches definitions and comments, see {@link
+ * #searchDefinitionsAndComments(String, String)}.
+ */
+@Component
+@Profile("!lucene")
+public class LuceneFullTextIndex extends AssetIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LuceneFullTextIndex.class);
+
+    static final String FIELD_ID = "id";
+    static final String FIELD_TYPE = "type";
+    static final String FIELD_VOCABULARY = "vocabulary";
+    static final String FIELD_LABEL = "label";
+    static final String FIELD_DEFINITION = "definition";
+    static final String FIELD_COMMENT = "comment";
+
+    /**
+     * All labels of the asset (in any language), stored only.
+     */
+    static final String FIELD_LABELS = "labels";
+
+    /**
+     * Search keys (see {@link Utils#toSearchKey(String)}) of all labels of the asset, indexed as whole.
+     */
+    static final String FIELD_LABEL_KEY = "labelKey";
+
+    /**
+     * Searched fields and their boosts, in the order in which they are considered for result snippets.
+     */
+    private static final Map<String, Float> SEARCH_FIELDS = new LinkedHashMap<>();
+
+    static {
+        SEARCH_FIELDS.put(FIELD_LABEL, 2.0f);
+        SEARCH_FIELDS.put(FIELD_DEFINITION, 1.2f);
+        SEARCH_FIELDS.put(FIELD_COMMENT, 1.0f);
+    }
+
+    /**
+     * Fields searched by {@link #searchDefinitionsAndComments(String, String)}, in the order in which they are
+     * considered for result snippets.
+     */
+    private static final List<String> TEXT_FIELDS = Collections
+            .unmodifiableList(Arrays.asList(FIELD_DEFINITION, FIELD_COMMENT));
+
+    /**
+     * Definitions and comments keep term vectors with offsets, so that matches can be highlighted in snippets.
+     */
+    private static final FieldType TEXT_FIELD_TYPE = new FieldType(TextField.TYPE_STORED);
+
+    static {
+        TEXT_FIELD_TYPE.setStoreTermVectors(true);
+        TEXT_FIELD_TYPE.setStoreTermVectorPositions(true);
+        TEXT_FIELD_TYPE.setStoreTermVectorOffsets(true);
+        TEXT_FIELD_TYPE.freeze();
+    }
+
+    /**
+     * Maximum number of returned search results.
+     */
+    public static final int MAX_RESULTS = 1000;
+
+    /**
+     * Texts longer than this are shortened to a snippet around the first match.
+     */
+    static final int SNIPPET_LENGTH = 200;
+
+    /**
+     * Number of characters preceding the first match in a shortened snippet.
+     */
+    private static final int SNIPPET_CONTEXT = 50;
+
+    private static final String ELLIPSIS = "…";
+
+    private static final List<URI> INDEXED_TYPES = Collections.unmodifiableList(
+            Arrays.asList(URI.create(Vocabulary.s_c_term), URI.create(Vocabulary.s_c_slovnik),
+                    URI.create(Vocabulary.s_c_zdroj)));
+
+    private final EntityManager em;
+
+    private final Configuration config;
+
+    private final Analyzer analyzer = new SearchKeyAnalyzer();
+
+    private Directory directory;
+
+    private IndexWriter writer;
+
+    private SearcherManager searcherManager;
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(r -> {
+        final Thread t = new Thread(r, "fulltext-index-rebuild");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Serializes rebuilds of the index.
+     */
+    private final Object rebuildLock = new Object();
+
+    /**
+     * Latest versions of documents modified while the index is being rebuilt, empty values represent removed
+     * documents. {@code null} when no rebuild is running.
+     */
+    private Map<String, Optional<Document>> modifiedDuringRebuild;
+
+    private volatile boolean built;
+
+    @Autowired
+    public LuceneFullTextIndex(EntityManager em, Configuration config) {
+        this.em = em;
+        this.config = config;
+    }
+
+    @PostConstruct
+    void init() {
+        open();
+        rebuildExecutor.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                LOG.error("Unable to build full text index.", e);
+            }
+        });
+    }
+
+    /**
+     * Opens an empty in-memory index.
+     */
+    void open() {
+        LOG.debug("Opening full text index.");
+        try {
+            this.directory = new ByteBuffersDirectory();
+            this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to open full text index.", e);
+        }
+    }
+
+    /**
+     * Checks whether the index has been built, i.e., whether it reflects the repository content.
+     * <p>
+     * Until the first build finishes, the index contains only assets modified since the application started.
+     *
+     * @return {@code true} if the index has been built at least once
+     */
+    public boolean isBuilt() {
+        return built;
+    }
+
+    @PreDestroy
+    void close() {
+        rebuildExecutor.shutdownNow();
+        try {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        } catch (IOException e) {
+            LOG.error("Unable to close full text index.", e);
+        }
+    }
+
+    /**
+     * Finds terms, vocabularies and resources matching the specified search string.
+     * <p>
+     * All tokens of the search string have to match. The last token is matched as a prefix, so that results for
+     * incomplete words are returned as well.
+     *
+     * @param searchString The string to search by
+     * @return Matching results ordered by descending score
+     */
+    public List<FullTextSearchResult> search(String searchString) {
+        return search(searchString, 0, MAX_RESULTS);
+    }
+
+    /**
+     * Finds a page of terms, vocabularies and resources matching the specified search string.
+     * <p>
+     * Only the best {@code offset + limit} hits are collected and only documents of the requested page are loaded.
+     *
+     * @param searchString The string to search by
+     * @param offset       Number of best results to skip
+     * @param limit        Maximum number of returned results
+     * @return Matching results ordered by descending score
+     * @see #search(String)
+     */
+    public List<FullTextSearchResult> search(String searchString, long offset, int limit) {
+        return search(searchString, null, offset, limit);
+    }
+
+    /**
+     * Finds a page of assets of the specified type matching the specified search string.
+     *
+     * @param searchString The string to search by
+     * @param type         Type of the assets to search, {@code null} to search assets of all types
+     * @param offset       Number of best results to skip
+     * @param limit        Maximum number of returned results
+     * @return Matching results ordered by descending score
+     * @see #search(String, long, int)
+     */
+    public List<FullTextSearchResult> search(String searchString, String type, long offset, int limit) {
+        Objects.requireNonNull(searchString);
+        final List<String> tokens = analyze(searchString);
+        if (tokens.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        try {
+            final IndexSearcher searcher = searcherManager.acquire();
+            try {
+                // Size of the collector's priority queue, no point in making it larger than the index
+                final int maxDoc = searcher.getIndexReader().maxDoc();
+                if (offset >= maxDoc) {
+                    return Collections.emptyList();
+                }
+                final int topN = (int) Math.min(offset + limit, maxDoc);
+                final TopDocs topDocs = searcher.search(buildQuery(tokens, type), topN);
+                final List<FullTextSearchResult> result = new ArrayList<>(
+                        Math.max(topDocs.scoreDocs.length - (int) offset, 0));
+                for (int i = (int) offset; i < topDocs.scoreDocs.length; i++) {
+                    final ScoreDoc sd = topDocs.scoreDocs[i];
+                    result.add(toResult(searcher.doc(sd.doc), tokens, sd.score));
+                }
+                return result;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to search full text index.", e);
+        }
+    }
+
+    private static Query buildQuery(List<String> tokens, String type) {
+        final BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (int i = 0; i < tokens.size(); i++) {
+            final boolean prefix = i == tokens.size() - 1;
+            final BooleanQuery.Builder tokenQuery = new BooleanQuery.Builder();
+            for (Map.Entry<String, Float> field : SEARCH_FIELDS.entrySet()) {
+                final org.apache.lucene.index.Term t = new org.apache.lucene.index.Term(field.getKey(), tokens.get(i));
+                final Query q = prefix ? new PrefixQuery(t) : new TermQuery(t);
+                tokenQuery.add(new BoostQuery(q, field.getValue()), BooleanClause.Occur.SHOULD);
+            }
+            query.add(tokenQuery.build(), BooleanClause.Occur.MUST);
+        }
+        if (type != null) {
+            query.add(new TermQuery(new org.apache.lucene.index.Term(FIELD_TYPE, type)), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    /**
+     * Finds assets of the specified type which have a label containing the specified search string.
+     * <p>
+     * All labels of the asset are matched, regardless of their language. The comparison ignores case and diacritics,
+     * so that, e.g., "zakon" finds "Zákon".
+     *
+     * @param searchString The string to search by
+     * @param type         Type of the assets to search
+     * @return Matching results without score, ordered by label. Each result contains the alphabetically first
+     * matching label of the asset
+     */
+    public List<FullTextSearchResult> searchLabels(String searchString, String type) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(type);
+        final String key = Utils.toSearchKey(searchString);
+        final Query query = new BooleanQuery.Builder()
+                .add(new WildcardQuery(new org.apache.lucene.index.Term(FIELD_LABEL_KEY,
+                        WildcardQuery.WILDCARD_STRING + escapeWildcards(key) + WildcardQuery.WILDCARD_STRING)),
+                        BooleanClause.Occur.MUST)
+                .add(new TermQuery(new org.apache.lucene.index.Term(FIELD_TYPE, type)), BooleanClause.Occur.FILTER)
+                .build();
+        try {
+            final IndexSearcher searcher = searcherManager.acquire();
+            try {
+                final int count = searcher.count(query);
+                if (count == 0) {
+                    return Collections.emptyList();
+                }
+                final TopDocs topDocs = searcher.search(query, count);
+                final List<FullTextSearchResult> result = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc sd : topDocs.scoreDocs) {
+                    final Document doc = searcher.doc(sd.doc);
+                    String label = null;
+                    for (String candidate : doc.getValues(FIELD_LABELS)) {
+                        if (Utils.toSearchKey(candidate).contains(key) &&
+                                (label == null || candidate.compareTo(label) < 0)) {
+                            label = candidate;
+                        }
+                    }
+                    final String vocabulary = doc.get(FIELD_VOCABULARY);
+                    result.add(new FullTextSearchResult(URI.create(doc.get(FIELD_ID)), label,
+                            vocabulary != null ? URI.create(vocabulary) : null, type, FIELD_LABEL, label, null));
+                }
+                result.sort(Comparator.comparing(FullTextSearchResult::getLabel,
+                        Comparator.nullsLast(Comparator.naturalOrder())));
+                return result;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to search full text index.", e);
+        }
+    }
+
+    private static String escapeWildcards(String text) {
+        final StringBuilder sb = new StringBuilder(text.length());
+        for (char c : text.toCharArray()) {
+            if (c == WildcardQuery.WILDCARD_STRING || c == WildcardQuery.WILDCARD_CHAR ||
+                    c == WildcardQuery.WILDCARD_ESCAPE) {
+                sb.append(WildcardQuery.WILDCARD_ESCAPE);
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Finds assets of the specified type whose definition or comment contains all tokens of the specified search
+     * string.
+     * <p>
+     * The last token is matched as a prefix. Unlike {@link #search(String, String, long, int)}, labels are not
+     * searched and the result snippets have the matching words enclosed in {@code <em>} tags.
+     *
+     * @param searchString The string to search by
+     * @param type         Type of the assets to search
+     * @return Matching results without score, ordered by label
+     */
+    public List<FullTextSearchResult> searchDefinitionsAndComments(String searchString, String type) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(type);
+        final List<String> tokens = analyze(searchString);
+        if (tokens.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            final IndexSearcher searcher = searcherManager.acquire();
+            try {
+                final IndexReader reader = searcher.getIndexReader();
+                if (reader.maxDoc() == 0) {
+                    return Collections.emptyList();
+                }
+                final TopDocs topDocs = searcher
+                        .search(buildTextQuery(tokens, type), Math.min(MAX_RESULTS, reader.maxDoc()));
+                final List<FullTextSearchResult> result = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc sd : topDocs.scoreDocs) {
+                    for (String field : TEXT_FIELDS) {
+                        final List<int[]> occurrences = occurrences(reader, sd.doc, field, tokens);
+                        if (!occurrences.isEmpty()) {
+                            final Document doc = searcher.doc(sd.doc);
+                            final String vocabulary = doc.get(FIELD_VOCABULARY);
+                            result.add(new FullTextSearchResult(URI.create(doc.get(FIELD_ID)), doc.get(FIELD_LABEL),
+                                    vocabulary != null ? URI.create(vocabulary) : null, type, field,
+                                    snippet(doc.get(field), occurrences), null));
+                            break;
+                        }
+                    }
+                }
+                result.sort(Comparator.comparing(FullTextSearchResult::getLabel,
+                        Comparator.nullsLast(Comparator.naturalOrder())));
+                return result;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to search full text index.", e);
+        }
+    }
+
+    /**
+     * All the tokens have to match in the same field.
+     */
+    private static Query buildTextQuery(List<String> tokens, String type) {
+        final BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String field : TEXT_FIELDS) {
+            final BooleanQuery.Builder fieldQuery = new BooleanQuery.Builder();
+            for (int i = 0; i < tokens.size(); i++) {
+                final org.apache.lucene.index.Term t = new org.apache.lucene.index.Term(field, tokens.get(i));
+                fieldQuery.add(i == tokens.size() - 1 ? new PrefixQuery(t) : new TermQuery(t),
+                        BooleanClause.Occur.MUST);
+            }
+            query.add(fieldQuery.build(), BooleanClause.Occur.SHOULD);
+        }
+        query.setMinimumNumberShouldMatch(1);
+        query.add(new TermQuery(new org.apache.lucene.index.Term(FIELD_TYPE, type)), BooleanClause.Occur.FILTER);
+        return query.build();
+    }
+
+    /**
+     * Gets offsets of occurrences of the specified tokens in the specified field of the specified document.
+     *
+     * @return Start (inclusive) and end (exclusive) offsets of the occurrences, empty list if any of the tokens does
+     * not occur in the field
+     */
+    private static List<int[]> occurrences(IndexReader reader, int doc, String field, List<String> tokens)
+            throws IOException {
+        final Terms terms = reader.getTermVector(doc, field);
+        if (terms == null) {
+            return Collections.emptyList();
+        }
+        final List<int[]> result = new ArrayList<>();
+        final BitSet matched = new BitSet(tokens.size());
+        final TermsEnum termsEnum = terms.iterator();
+        BytesRef bytes;
+        while ((bytes = termsEnum.next()) != null) {
+            final String term = bytes.utf8ToString();
+            boolean found = false;
+            for (int i = 0; i < tokens.size(); i++) {
+                if (i == tokens.size() - 1 ? term.startsWith(tokens.get(i)) : term.equals(tokens.get(i))) {
+                    matched.set(i);
+                    found = true;
+                }
+            }
+            if (found) {
+                final PostingsEnum postings = termsEnum.postings(null, PostingsEnum.OFFSETS);
+                postings.nextDoc();
+                for (int i = 0; i < postings.freq(); i++) {
+                    postings.nextPosition();
+                    result.add(new int[]{postings.startOffset(), postings.endOffset()});
+                }
+            }
+        }
+        return matched.cardinality() == tokens.size() ? result : Collections.emptyList();
+    }
+
+    /**
+     * Builds a snippet of the specified text with the specified occurrences enclosed in {@code <em>} tags.
+     * <p>
+     * Long texts are shortened to a part around the first occurrence. The text is HTML-escaped, so that the result can
+     * be rendered as HTML.
+     *
+     * @param text        Text to build the snippet from
+     * @param occurrences Start (inclusive) and end (exclusive) offsets of the highlighted occurrences
+     * @return Snippet text
+     */
+    static String snippet(String text, List<int[]> occurrences) {
+        final List<int[]> sorted = new ArrayList<>(occurrences);
+        sorted.sort(Comparator.comparingInt(o -> o[0]));
+        int from = 0;
+        int to = text.length();
+        if (text.length() > SNIPPET_LENGTH) {
+            final int first = sorted.get(0)[0];
+            from = Math.max(0, first - SNIPPET_CONTEXT);
+            while (from > 0 && from < first && !Character.isWhitespace(text.charAt(from - 1))) {
+                from++;
+            }
+            to = Math.min(text.length(), from + SNIPPET_LENGTH);
+            while (to < text.length() && to > from && !Character.isWhitespace(text.charAt(to))) {
+                to--;
+            }
+            if (to <= first) {
+                to = Math.min(text.length(), Math.max(sorted.get(0)[1], from + SNIPPET_LENGTH));
+            }
+        }
+        final StringBuilder sb = new StringBuilder(to - from + 16);
+        if (from > 0) {
+            sb.append(ELLIPSIS);
+        }
+        int position = from;
+        for (int[] occurrence : sorted) {
+            if (occurrence[0] < position || occurrence[1] > to) {
+                continue;
+            }
+            escape(text, position, occurrence[0], sb);
+            sb.append("<em>");
+            escape(text, occurrence[0], occurrence[1], sb);
+            sb.append("</em>");
+            position = occurrence[1];
+        }
+        escape(text, position, to, sb);
+        if (to < text.length()) {
+            sb.append(ELLIPSIS);
+        }
+        return sb.toString();
+    }
+
+    private static void escape(String text, int from, int to, StringBuilder target) {
+        for (int i = from; i < to; i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '<':
+                    target.append("&lt;");
+                    break;
+                case '>':
+                    target.append("&gt;");
+                    break;
+                case '&':
+                    target.append("&amp;");
+                    break;
+                default:
+                    target.append(c);
+            }
+        }
+    }
+
+    private FullTextSearchResult toResult(Document doc, List<String> tokens, float score) {
+        final String vocabulary = doc.get(FIELD_VOCABULARY);
+        final String label = doc.get(FIELD_LABEL);
+        String snippetField = FIELD_LABEL;
+        String snippetText = label;
+        for (String field : SEARCH_FIELDS.keySet()) {
+            final String text = doc.get(field);
+            if (text != null && matches(analyze(text), tokens)) {
+                snippetField = field;
+                snippetText = text;
+                break;
+            }
+        }
+        return new FullTextSearchResult(URI.create(doc.get(FIELD_ID)), label,
+                vocabulary != null ? URI.create(vocabulary) : null, doc.get(FIELD_TYPE), snippetField, snippetText,
+                (double) score);
+    }
+
+    private static boolean matches(List<String> textTokens, List<String> searchTokens) {
+        final String last = searchTokens.get(searchTokens.size() - 1);
+        for (String t : textTokens) {
+            if (t.startsWith(last) || searchTokens.contains(t)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<String> analyze(String text) {
+        final List<String> result = new ArrayList<>();
+        try (final TokenStream ts = analyzer.tokenStream(FIELD_LABEL, text)) {
+            final CharTermAttribute term = ts.addAttribute(CharTermAttribute.class);
+            ts.reset();
+            while (ts.incrementToken()) {
+                result.add(term.toString());
+            }
+            ts.end();
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to analyze text " + text, e);
+        }
+        return result;
+    }
+
+    /**
+     * Adds the specified term to the index, replacing its previous version (if present).
+     *
+     * @param term Term to index
+     */
+    @Override
+    public void index(Term term) {
+        Objects.requireNonNull(term);
+        index(toDocument(term.getUri(), Vocabulary.s_c_term, term.getVocabulary(), term.getLabel(),
+                term.getDefinition(), term.getComment()));
+    }
+
+    /**
+     * Adds the specified vocabulary to the index, replacing its previous version (if present).
+     *
+     * @param vocabulary Vocabulary to index
+     */
+    @Override
+    public void index(cz.cvut.kbss.termit.model.Vocabulary vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        index(toDocument(vocabulary.getUri(), Vocabulary.s_c_slovnik, null, vocabulary.getLabel(), null,
+                vocabulary.getComment()));
+    }
+
+    /**
+     * Adds the specified resource to the index, replacing its previous version (if present).
+     *
+     * @param resource Resource to index
+     */
+    @Override
+    public void index(Resource resource) {
+        Objects.requireNonNull(resource);
+        index(toDocument(resource.getUri(), Vocabulary.s_c_zdroj, null, resource.getLabel(), null,
+                resource.getDescription()));
+    }
+
+    /**
+     * Indexes the specified document together with all labels of the asset stored in the repository.
+     */
+    private void index(Document doc) {
+        final Map<String, Document> documents = Collections.singletonMap(doc.get(FIELD_ID), doc);
+        try {
+            addLabels(documents,
+                    "VALUES ?x { " + Utils.toValues(Collections.singleton(URI.create(doc.get(FIELD_ID)))) + " }");
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+        update(Collections.singletonList(doc));
+    }
+
+    /**
+     * Re-indexes all terms of the specified vocabulary, using their current state in the repository.
+     * <p>
+     * This is intended for cases when terms are written into the repository in bulk, e.g., by vocabulary import.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    @Override
+    public void indexTerms(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        final Map<String, Document> documents = new LinkedHashMap<>();
+        try {
+            loadTerms(documents, vocabulary);
+            addLabels(documents, "VALUES ?vocabulary { " + Utils.toValues(Collections.singleton(vocabulary)) + " }" +
+                    "?x <" + Vocabulary.s_p_je_pojmem_ze_slovniku + "> ?vocabulary .");
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+        update(new ArrayList<>(documents.values()));
+    }
+
+    /**
+     * Removes asset with the specified identifier from the index.
+     *
+     * @param id Asset identifier
+     */
+    @Override
+    public synchronized void remove(URI id) {
+        Objects.requireNonNull(id);
+        try {
+            writer.deleteDocuments(new org.apache.lucene.index.Term(FIELD_ID, id.toString()));
+            if (modifiedDuringRebuild != null) {
+                modifiedDuringRebuild.put(id.toString(), Optional.empty());
+            }
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to remove asset " + id + " from full text index.", e);
+        }
+    }
+
+    private synchronized void update(List<Document> documents) {
+        try {
+            for (Document doc : documents) {
+                writer.updateDocument(new org.apache.lucene.index.Term(FIELD_ID, doc.get(FIELD_ID)), doc);
+                if (modifiedDuringRebuild != null) {
+                    modifiedDuringRebuild.put(doc.get(FIELD_ID), Optional.of(doc));
+                }
+            }
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to update full text index.", e);
+        }
+    }
+
+    private static Document toDocument(URI id, String type, URI vocabulary, String label, String definition,
+                                       String comment) {
+        final Document doc = new Document();
+        doc.add(new StringField(FIELD_ID, id.toString(), Field.Store.YES));
+        doc.add(new StringField(FIELD_TYPE, type, Field.Store.YES));
+        if (vocabulary != null) {
+            doc.add(new StringField(FIELD_VOCABULARY, vocabulary.toString(), Field.Store.YES));
+        }
+        if (label != null) {
+            doc.add(new TextField(FIELD_LABEL, label, Field.Store.YES));
+        }
+        addText(doc, FIELD_DEFINITION, definition);
+        addText(doc, FIELD_COMMENT, comment);
+        return doc;
+    }
+
+    private static void addText(Document doc, String field, String value) {
+        if (value != null) {
+            doc.add(new Field(field, value, TEXT_FIELD_TYPE));
+        }
+    }
+
+    /**
+     * Rebuilds the whole index from the current repository content.
+     * <p>
+     * The content is loaded before the index is modified, so the index remains searchable during the rebuild.
+     * Modifications made in the meantime are recorded and take precedence over the loaded content.
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            LOG.info("Rebuilding full text index...");
+            synchronized (this) {
+                this.modifiedDuringRebuild = new HashMap<>();
+            }
+            try {
+                final Map<String, Document> documents = new LinkedHashMap<>();
+                try {
+                    loadTerms(documents, null);
+                    loadVocabularies(documents);
+                    loadResources(documents);
+                    addLabels(documents, "VALUES ?type { " + Utils.toValues(INDEXED_TYPES) + " }" +
+                            "?x a ?type .");
+                } catch (RuntimeException e) {
+                    throw new PersistenceException(e);
+                }
+                replaceContent(documents);
+                this.built = true;
+                LOG.info("Full text index rebuilt, {} assets indexed.", documents.size());
+            } finally {
+                synchronized (this) {
+                    this.modifiedDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    private synchronized void replaceContent(Map<String, Document> documents) {
+        try {
+            writer.deleteAll();
+            for (Document doc : documents.values()) {
+                if (!modifiedDuringRebuild.containsKey(doc.get(FIELD_ID))) {
+                    writer.addDocument(doc);
+                }
+            }
+            for (Optional<Document> doc : modifiedDuringRebuild.values()) {
+                if (doc.isPresent()) {
+                    writer.addDocument(doc.get());
+                }
+            }
+            writer.commit();
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new PersistenceException("Unable to rebuild full text index.", e);
+        }
+    }
+
+    private void loadTerms(Map<String, Document> documents, URI vocabulary) {
+        final String vocabularyFilter = vocabulary != null ?
+                "VALUES ?vocabulary { " + Utils.toValues(Collections.singleton(vocabulary)) + " }" : "";
+        final List<IndexedAsset> rows = em.createNativeQuery(
+                "SELECT ?entity ?label ?vocabulary ?definition ?comment WHERE {" +
+                        vocabularyFilter +
+                        "?entity a ?type ;" +
+                        "?hasLabel ?label ;" +
+                        "?inVocabulary ?vocabulary ." +
+                        "FILTER (lang(?label) = ?labelLang) ." +
+                        "OPTIONAL { ?entity ?hasDefinition ?definition . }" +
+                        "OPTIONAL { ?entity ?hasComment ?comment . }" +
+                        "}", "IndexedAsset")
+                               .setParameter("type", URI.create(Vocabulary.s_c_term))
+                               .setParameter("hasLabel", URI.create(SKOS.PREF_LABEL))
+                               .setParameter("inVocabulary", URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
+                               .setParameter("hasDefinition", URI.create(SKOS.DEFINITION))
+                               .setParameter("hasComment", URI.create(RDFS.COMMENT))
+                               .setParameter("labelLang", config.get(ConfigParam.LANGUAGE))
+                               .getResultList();
+        rows.forEach(r -> documents.putIfAbsent(r.getUri().toString(), toDocument(r, Vocabulary.s_c_term)));
+    }
+
+    private void loadVocabularies(Map<String, Document> documents) {
+        // Vocabulary and definition are not bound
+        final List<IndexedAsset> rows = em.createNativeQuery(
+                "SELECT ?entity ?label ?vocabulary ?definition ?comment WHERE {" +
+                        "?entity a ?type ;" +
+                        "?hasLabel ?label ." +
+                        "OPTIONAL { ?entity ?hasComment ?comment . }" +
+                        "}", "IndexedAsset")
+                               .setParameter("type", URI.create(Vocabulary.s_c_slovnik))
+                               .setParameter("hasLabel", URI.create(RDFS.LABEL))
+                               .setParameter("hasComment", URI.create(RDFS.COMMENT))
+                               .getResultList();
+        rows.forEach(r -> documents.putIfAbsent(r.getUri().toString(), toDocument(r, Vocabulary.s_c_slovnik)));
+    }
+
+    private void loadResources(Map<String, Document> documents) {
+        // Vocabularies are resources as well, but they are already indexed with their own type
+        // Description is indexed as comment, vocabulary and definition are not bound
+        final List<IndexedAsset> rows = em.createNativeQuery(
+                "SELECT ?entity ?label ?vocabulary ?definition ?comment WHERE {" +
+                        "?entity a ?type ;" +
+                        "?hasLabel ?label ." +
+                        "FILTER NOT EXISTS { ?entity a ?vocabularyType . }" +
+                        "OPTIONAL { ?entity ?hasDescription ?comment . }" +
+                        "}", "IndexedAsset")
+                               .setParameter("type", URI.create(Vocabulary.s_c_zdroj))
+                               .setParameter("hasLabel", URI.create(RDFS.LABEL))
+                               .setParameter("vocabularyType", URI.create(Vocabulary.s_c_slovnik))
+                               .setParameter("hasDescription", URI.create(DC.Terms.DESCRIPTION))
+                               .getResultList();
+        rows.forEach(r -> documents.putIfAbsent(r.getUri().toString(), toDocument(r, Vocabulary.s_c_zdroj)));
+    }
+
+    /**
+     * Adds all labels of the assets matching the specified graph pattern to their documents.
+     * <p>
+     * The pattern is expected to bind variable {@code ?x} to asset identifiers. Each document also gets its primary
+     * label, even if it is not (yet) stored in the repository.
+     *
+     * @param documents Documents to add labels to, keyed by asset identifier
+     * @param pattern   SPARQL graph pattern restricting the assets
+     */
+    private void addLabels(Map<String, Document> documents, String pattern) {
+        final List<ResourceLabel> rows = em.createNativeQuery("SELECT DISTINCT ?x ?label ?labelLang WHERE {" +
+                pattern +
+                "VALUES ?hasLabel { ?skosPrefLabel ?rdfsLabel }" +
+                "?x ?hasLabel ?label ." +
+                "BIND (LANG(?label) AS ?labelLang) }", "ResourceLabel")
+                                           .setParameter("skosPrefLabel", URI.create(SKOS.PREF_LABEL))
+                                           .setParameter("rdfsLabel", URI.create(RDFS.LABEL))
+                                           .getResultList();
+        final Map<String, Set<String>> labels = new HashMap<>();
+        rows.forEach(r -> labels.computeIfAbsent(r.getUri().toString(), k -> new HashSet<>()).add(r.getLabel()));
+        documents.forEach((id, doc) -> {
+            final Set<String> docLabels = new LinkedHashSet<>();
+            if (doc.get(FIELD_LABEL) != null) {
+                docLabels.add(doc.get(FIELD_LABEL));
+            }
+            docLabels.addAll(labels.getOrDefault(id, Collections.emptySet()));
+            for (String label : docLabels) {
+                doc.add(new StoredField(FIELD_LABELS, label));
+                doc.add(new StringField(FIELD_LABEL_KEY, Utils.toSearchKey(label), Field.Store.NO));
+            }
+        });
+    }
+
+    private static Document toDocument(IndexedAsset asset, String type) {
+        return toDocument(asset.getUri(), type, asset.getVocabulary(), asset.getLabel(), asset.getDefinition(),
+                asset.getComment());
+    }
+}
@@ -0,0 +1,399 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.vocabulary.SKOS;
+import cz.cvut.kbss.termit.dto.SubTermInfo;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.PageCursor;
+import cz.cvut.kbss.termit.util.Utils;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of term hierarchies, one per vocabulary.
+ * <p>
+ * The hierarchy of a vocabulary is built lazily from {@link SKOS#NARROWER}/{@link SKOS#BROADER} relationships and root
+ * terms of the vocabulary's glossary when it is first needed. It is then kept up to date incrementally by {@link
+ * #update(Term)} and {@link #remove(URI)}, which take effect after commit of the current transaction (if there is
+ * one).
+ * <p>
+ * Terms may also be written into the repository in bulk, bypassing the term service (e.g., by vocabulary import).
+ * Therefore, hierarchies affected by a modified vocabulary are evicted on {@link AssetModifiedEvent} and rebuilt on
+ * next access.
+ */
+@Component
+public class TermHierarchyIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TermHierarchyIndex.class);
+
+    private final EntityManager em;
+
+    private final Configuration config;
+
+    private final VocabularyImportIndex importIndex;
+
+    private final Map<URI, VocabularyHierarchy> hierarchies = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on every modification so that hierarchies built concurrently with a modification are not cached.
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    @Autowired
+    public TermHierarchyIndex(EntityManager em, Configuration config, VocabularyImportIndex importIndex) {
+        this.em = em;
+        this.config = config;
+        this.importIndex = importIndex;
+    }
+
+    /**
+     * Gets identifiers of root terms of the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return List of root term identifiers, ordered by label
+     */
+    public List<URI> findRoots(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return getHierarchy(vocabulary).getRoots();
+    }
+
+    /**
+     * Gets basic data of root terms of the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return List of root terms, ordered by label
+     */
+    public List<TermInfo> findRootInfos(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return getHierarchy(vocabulary).getRootInfos();
+    }
+
+    /**
+     * Gets identifiers of root terms of the specified vocabulary which follow the specified cursor.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @param after      Position after which the root terms should be returned
+     * @param limit      Maximum number of returned identifiers
+     * @return List of root term identifiers, ordered by label
+     */
+    public List<URI> findRoots(URI vocabulary, PageCursor after, int limit) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(after);
+        return getHierarchy(vocabulary).getRootsAfter(after.getLabel(), after.getUri(), limit);
+    }
+
+    /**
+     * Gets sub-terms of the specified parent term.
+     *
+     * @param vocabulary Vocabulary the parent term belongs to
+     * @param parent     Parent term identifier
+     * @return Sub-terms ordered by label, empty {@code Optional} if the parent term is not indexed
+     */
+    public Optional<List<TermInfo>> findSubTerms(URI vocabulary, URI parent) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(parent);
+        return getHierarchy(vocabulary).getSubTerms(parent);
+    }
+
+    /**
+     * Gets the number of sub-terms of the specified term.
+     *
+     * @param vocabulary Vocabulary the term belongs to
+     * @param term       Term identifier
+     * @return Number of sub-terms, empty {@code Optional} if the term is not indexed
+     */
+    public Optional<Integer> countSubTerms(URI vocabulary, URI term) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(term);
+        return getHierarchy(vocabulary).countSubTerms(term);
+    }
+
+    /**
+     * Gets terms of the specified vocabulary whose label in the configured language starts with the specified prefix.
+     * <p>
+     * The comparison is case and diacritics insensitive.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @param prefix     Label prefix
+     * @param limit      Maximum number of returned terms
+     * @return Matching terms, ordered by label
+     */
+    public List<TermInfo> findByLabelPrefix(URI vocabulary, String prefix, int limit) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(prefix);
+        return getHierarchy(vocabulary).findByLabelPrefix(prefix, limit);
+    }
+
+    /**
+     * Gets terms of the specified vocabulary whose label in the configured language contains the specified string.
+     * <p>
+     * The comparison is case and diacritics insensitive.
+     *
+     * @param vocabulary   Vocabulary identifier
+     * @param searchString String to look for in term labels
+     * @return Matching terms, ordered by label
+     */
+    public List<TermInfo> findByLabelContaining(URI vocabulary, String searchString) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(searchString);
+        return getHierarchy(vocabulary).findByLabelContaining(searchString);
+    }
+
+    /**
+     * Checks whether the specified vocabulary contains a term with the specified label in the configured language.
+     * <p>
+     * The comparison is case and diacritics insensitive.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @param label      Label to look for
+     * @return Whether a matching term exists
+     */
+    public boolean containsLabel(URI vocabulary, String label) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(label);
+        return getHierarchy(vocabulary).containsLabel(label);
+    }
+
+    /**
+     * Gets the number of terms in the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Number of terms
+     */
+    public int countTerms(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return getHierarchy(vocabulary).countTerms();
+    }
+
+    /**
+     * Gets the number of root terms in the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Number of root terms
+     */
+    public int countRoots(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return getHierarchy(vocabulary).countRoots();
+    }
+
+    /**
+     * Gets the depth of the term hierarchy of the specified vocabulary.
+     * <p>
+     * Only terms of the vocabulary itself are considered.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Number of terms on the longest path from a root term to a leaf term
+     */
+    public int getDepth(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return getHierarchy(vocabulary).getDepth();
+    }
+
+    /**
+     * Updates the index with the current state of the specified term.
+     * <p>
+     * This applies to newly created terms as well as updated ones.
+     *
+     * @param term The added or updated term
+     */
+    public void update(Term term) {
+        Objects.requireNonNull(term);
+        final TermInfo info = new TermInfo(term);
+        final Set<URI> parentIds = term.getParentTerms() == null ? Collections.emptySet() :
+                                   term.getParentTerms().stream().map(Term::getUri).collect(Collectors.toSet());
+        final boolean root = !term.hasParentInSameVocabulary();
+        afterCommit(() -> hierarchies.values().forEach(
+                h -> h.update(info, parentIds, root && h.getVocabulary().equals(info.getVocabulary()))));
+    }
+
+    /**
+     * Removes the specified term from the index.
+     *
+     * @param term Identifier of the removed term
+     */
+    public void remove(URI term) {
+        Objects.requireNonNull(term);
+        afterCommit(() -> hierarchies.values().forEach(h -> h.remove(term)));
+    }
+
+    /**
+     * Evicts hierarchy of the specified vocabulary, so that it is rebuilt on next access.
+     *
+     * @param vocabulary Vocabulary identifier
+     */
+    public void evict(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        version.incrementAndGet();
+        hierarchies.remove(vocabulary);
+    }
+
+    /**
+     * Evicts all hierarchies held by this index.
+     */
+    public void evictAll() {
+        version.incrementAndGet();
+        hierarchies.clear();
+    }
+
+    @EventListener
+    public void onEvictCache(EvictCacheEvent event) {
+        LOG.debug("Evicting term hierarchy index.");
+        evictAll();
+    }
+
+    /**
+     * Evicts hierarchies possibly affected by the modified vocabulary.
+     * <p>
+     * Besides the vocabulary's own hierarchy, this includes hierarchies of the vocabularies it imports, because terms
+     * of the modified vocabulary may be sub-terms of their terms.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetModified(AssetModifiedEvent event) {
+        if (!(event.getAsset() instanceof cz.cvut.kbss.termit.model.Vocabulary)) {
+            return;
+        }
+        final cz.cvut.kbss.termit.model.Vocabulary vocabulary = (cz.cvut.kbss.termit.model.Vocabulary) event
+                .getAsset();
+        LOG.trace("Vocabulary {} modified, evicting affected term hierarchies.", vocabulary);
+        final Set<URI> affected = new HashSet<>();
+        affected.add(vocabulary.getUri());
+        if (!event.isRemoved()) {
+            Utils.emptyIfNull(vocabulary.getImportedVocabularies())
+                 .forEach(imported -> affected.addAll(importIndex.getImportClosure(imported)));
+        }
+        affected.forEach(this::evict);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    modify(action);
+                }
+            });
+        } else {
+            modify(action);
+        }
+    }
+
+    private void modify(Runnable action) {
+        version.incrementAndGet();
+        action.run();
+    }
+
+    private VocabularyHierarchy getHierarchy(URI vocabulary) {
+        final VocabularyHierarchy hierarchy = hierarchies.get(vocabulary);
+        if (hierarchy != null) {
+            return hierarchy;
+        }
+        final long versionBeforeLoad = version.get();
+        final VocabularyHierarchy loaded = load(vocabulary);
+        if (version.get() != versionBeforeLoad) {
+            // Index was modified while loading, the hierarchy may be stale, so use it just this once
+            return loaded;
+        }
+        final VocabularyHierarchy existing = hierarchies.putIfAbsent(vocabulary, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private VocabularyHierarchy load(URI vocabulary) {
+        LOG.trace("Building term hierarchy index of vocabulary {}.", vocabulary);
+        final VocabularyHierarchy hierarchy = new VocabularyHierarchy(vocabulary);
+        try {
+            loadTerms(hierarchy);
+            loadRelationships(hierarchy);
+            loadRoots(hierarchy);
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+        hierarchy.sort();
+        return hierarchy;
+    }
+
+    private void loadTerms(VocabularyHierarchy hierarchy) {
+        final List<TermInfo> terms = em.createNativeQuery("SELECT DISTINCT ?entity ?label ?vocabulary WHERE {" +
+                "VALUES ?vocabulary { " + Utils.toValues(Collections.singleton(hierarchy.getVocabulary())) + " }" +
+                "?entity a ?type ;" +
+                "?hasLabel ?label ;" +
+                "?inVocabulary ?vocabulary ." +
+                "FILTER (lang(?label) = ?labelLang) . }", "TermInfo")
+                                       .setParameter("type", URI.create(Vocabulary.s_c_term))
+                                       .setParameter("hasLabel", URI.create(SKOS.PREF_LABEL))
+                                       .setParameter("inVocabulary", URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
+                                       .setParameter("labelLang", config.get(ConfigParam.LANGUAGE))
+                                       .getResultList();
+        terms.forEach(hierarchy::addTerm);
+    }
+
+    private void loadRelationships(VocabularyHierarchy hierarchy) {
+        final List<SubTermInfo> children = em.createNativeQuery(
+                "SELECT DISTINCT ?parent ?entity ?label ?vocabulary WHERE {" +
+                        "?parent ?inVocabulary ?parentVocabulary ." +
+                        "{ ?parent ?narrower ?entity . } UNION { ?entity ?broader ?parent . }" +
+                        "?entity a ?type ;" +
+                        "?hasLabel ?label ;" +
+                        "?inVocabulary ?vocabulary ." +
+                        "FILTER (lang(?label) = ?labelLang) . }", "SubTermInfo")
+                                             .setParameter("type", URI.create(Vocabulary.s_c_term))
+                                             .setParameter("narrower", URI.create(SKOS.NARROWER))
+                                             .setParameter("broader", URI.create(SKOS.BROADER))
+                                             .setParameter("hasLabel", URI.create(SKOS.PREF_LABEL))
+                                             .setParameter("inVocabulary",
+                                                     URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
+                                             .setParameter("parentVocabulary", hierarchy.getVocabulary())
+                                             .setParameter("labelLang", config.get(ConfigParam.LANGUAGE))
+                                             .getResultList();
+        for (SubTermInfo child : children) {
+            if (!hierarchy.getVocabulary().equals(child.getVocabulary())) {
+                hierarchy.addTerm(child.toTermInfo());
+            }
+            hierarchy.addRelationship(child.getParent(), child.getUri());
+        }
+    }
+
+    private void loadRoots(VocabularyHierarchy hierarchy) {
+        em.createNativeQuery("SELECT DISTINCT ?term WHERE {" +
+                "?vocabulary ?hasGlossary/?hasTerm ?term . }", URI.class)
+          .setParameter("hasGlossary", URI.create(Vocabulary.s_p_ma_glosar))
+          .setParameter("hasTerm", URI.create(Vocabulary.s_p_obsahuje_korenovy_pojem))
+          .setParameter("vocabulary", hierarchy.getVocabulary())
+          .getResultList().forEach(hierarchy::addRoot);
+    }
+}
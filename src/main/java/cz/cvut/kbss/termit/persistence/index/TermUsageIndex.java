@@ -0,0 +1,346 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.query.Query;
+import cz.cvut.kbss.termit.dto.TermVocabulary;
+import cz.cvut.kbss.termit.dto.VocabularyCount;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.util.Utils;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory aggregates of term usage, i.e., the number of term assignments and term occurrences per vocabulary.
+ * <p>
+ * The counts are loaded by a single aggregate query when first needed. They are then kept up to date incrementally
+ * by the DAOs which create and remove assignments and occurrences. Modifications take effect after commit of the
+ * current transaction (if there is one). Bulk removals, whose extent is not known, cause the corresponding counts to
+ * be reloaded on next access.
+ * <p>
+ * Modifications are collected per transaction and vocabularies of the affected terms are resolved in bulk just before
+ * commit, and only if the counts are loaded at all.
+ */
+@Component
+public class TermUsageIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TermUsageIndex.class);
+
+    /**
+     * Maximum number of terms whose vocabularies are resolved by a single query.
+     */
+    private static final int RESOLVE_BATCH_SIZE = 500;
+
+    private final EntityManager em;
+
+    private final Counts assignments = new Counts();
+
+    private final Counts occurrences = new Counts();
+
+    @Autowired
+    public TermUsageIndex(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * Gets the number of assignments of terms from the specified vocabulary.
+     * <p>
+     * Term occurrences are not counted as assignments.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Number of term assignments
+     */
+    public int countAssignments(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return getCounts(assignments, URI.create(Vocabulary.s_c_prirazeni_termu)).getOrDefault(vocabulary, 0);
+    }
+
+    /**
+     * Gets the number of occurrences of terms from the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Number of term occurrences
+     */
+    public int countOccurrences(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return getCounts(occurrences, URI.create(Vocabulary.s_c_vyskyt_termu)).getOrDefault(vocabulary, 0);
+    }
+
+    /**
+     * Records that an assignment of the specified term has been created.
+     *
+     * @param term Identifier of the assigned term
+     */
+    public void assignmentAdded(URI term) {
+        adjust(assignments, term, 1);
+    }
+
+    /**
+     * Records that an assignment of the specified term has been removed.
+     *
+     * @param term Identifier of the assigned term
+     */
+    public void assignmentRemoved(URI term) {
+        adjust(assignments, term, -1);
+    }
+
+    /**
+     * Records that an occurrence of the specified term has been created.
+     *
+     * @param term Identifier of the occurring term
+     */
+    public void occurrenceAdded(URI term) {
+        adjust(occurrences, term, 1);
+    }
+
+    /**
+     * Records that an occurrence of the specified term has been removed.
+     *
+     * @param term Identifier of the occurring term
+     */
+    public void occurrenceRemoved(URI term) {
+        adjust(occurrences, term, -1);
+    }
+
+    /**
+     * Evicts occurrence counts, so that they are reloaded on next access.
+     * <p>
+     * This is intended for bulk removals of occurrences.
+     */
+    public void evictOccurrences() {
+        afterCommit(occurrences::evict);
+    }
+
+    /**
+     * Evicts all counts held by this index.
+     */
+    public void evictAll() {
+        assignments.evict();
+        occurrences.evict();
+    }
+
+    @EventListener
+    public void onEvictCache(EvictCacheEvent event) {
+        LOG.debug("Evicting term usage index.");
+        evictAll();
+    }
+
+    private void adjust(Counts counts, URI term, int delta) {
+        Objects.requireNonNull(term);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            final PendingChanges changes = new PendingChanges();
+            changes.add(counts, term, delta);
+            changes.resolve();
+            changes.apply();
+            return;
+        }
+        PendingChanges changes = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            changes = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new ChangesSynchronization(changes));
+        }
+        changes.add(counts, term, delta);
+    }
+
+    private Map<URI, URI> resolveVocabularies(Collection<URI> terms) {
+        final List<URI> ids = new ArrayList<>(terms);
+        final Map<URI, URI> result = new HashMap<>(ids.size());
+        try {
+            for (int i = 0; i < ids.size(); i += RESOLVE_BATCH_SIZE) {
+                final List<URI> batch = ids.subList(i, Math.min(i + RESOLVE_BATCH_SIZE, ids.size()));
+                final List<TermVocabulary> rows = em.createNativeQuery("SELECT ?term ?vocabulary WHERE {" +
+                        "VALUES ?term { " + Utils.toValues(batch) + " }" +
+                        "?term ?inVocabulary ?vocabulary . }", "TermVocabulary")
+                                                    .setParameter("inVocabulary",
+                                                            URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku))
+                                                    .getResultList();
+                rows.forEach(r -> result.putIfAbsent(r.getTerm(), r.getVocabulary()));
+            }
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+        return result;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private Map<URI, Integer> getCounts(Counts counts, URI type) {
+        final Map<URI, Integer> current = counts.values;
+        if (current != null) {
+            return current;
+        }
+        final long versionBeforeLoad = counts.version.get();
+        final Map<URI, Integer> loaded = load(type);
+        if (counts.version.get() == versionBeforeLoad) {
+            counts.values = loaded;
+        }
+        // Otherwise the counts were modified while loading, so use them just this once
+        return loaded;
+    }
+
+    private Map<URI, Integer> load(URI type) {
+        LOG.trace("Loading usage counts of type {}.", type);
+        final URI occurrenceType = URI.create(Vocabulary.s_c_vyskyt_termu);
+        // Occurrences are assignments as well, but they are counted separately
+        final boolean excludeOccurrences = !occurrenceType.equals(type);
+        final Map<URI, Integer> result = new ConcurrentHashMap<>();
+        try {
+            Query query = em.createNativeQuery("SELECT ?vocabulary (COUNT(DISTINCT ?x) AS ?count) WHERE {" +
+                    "?x a ?type ;" +
+                    "?hasTerm ?term ." +
+                    "?term ?inVocabulary ?vocabulary ." +
+                    (excludeOccurrences ? "FILTER NOT EXISTS { ?x a ?occurrence . }" : "") +
+                    "} GROUP BY ?vocabulary", "VocabularyCount")
+                            .setParameter("type", type)
+                            .setParameter("hasTerm", URI.create(Vocabulary.s_p_je_prirazenim_termu))
+                            .setParameter("inVocabulary", URI.create(Vocabulary.s_p_je_pojmem_ze_slovniku));
+            if (excludeOccurrences) {
+                query = query.setParameter("occurrence", occurrenceType);
+            }
+            final List<VocabularyCount> counts = query.getResultList();
+            counts.forEach(c -> result.put(c.getVocabulary(), c.getCount()));
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+        return result;
+    }
+
+    /**
+     * Count changes made in a single transaction.
+     */
+    private class PendingChanges {
+
+        private final Map<Counts, Map<URI, Integer>> deltas = new IdentityHashMap<>(2);
+
+        /**
+         * Counts for which term vocabularies were resolved. Counts which are not loaded need no resolution.
+         */
+        private final Set<Counts> resolved = Collections.newSetFromMap(new IdentityHashMap<>(2));
+
+        private Map<URI, URI> vocabularies = Collections.emptyMap();
+
+        void add(Counts counts, URI term, int delta) {
+            deltas.computeIfAbsent(counts, k -> new HashMap<>()).merge(term, delta, Integer::sum);
+        }
+
+        void resolve() {
+            final Set<URI> terms = new HashSet<>();
+            deltas.forEach((counts, termDeltas) -> {
+                if (counts.values != null) {
+                    resolved.add(counts);
+                    terms.addAll(termDeltas.keySet());
+                }
+            });
+            if (!terms.isEmpty()) {
+                this.vocabularies = resolveVocabularies(terms);
+            }
+        }
+
+        void apply() {
+            deltas.forEach((counts, termDeltas) -> {
+                if (!resolved.contains(counts) || counts.values == null) {
+                    // Counts were loaded after resolution or not at all, make sure they are reloaded
+                    counts.evict();
+                    return;
+                }
+                termDeltas.forEach((term, delta) -> {
+                    final URI vocabulary = vocabularies.get(term);
+                    // Unknown terms are not counted
+                    if (vocabulary != null && delta != 0) {
+                        counts.adjust(vocabulary, delta);
+                    }
+                });
+            });
+        }
+    }
+
+    private class ChangesSynchronization extends TransactionSynchronizationAdapter {
+
+        private final PendingChanges changes;
+
+        ChangesSynchronization(PendingChanges changes) {
+            this.changes = changes;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            changes.resolve();
+        }
+
+        @Override
+        public void afterCommit() {
+            changes.apply();
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TermUsageIndex.this);
+        }
+    }
+
+    /**
+     * Counts per vocabulary, {@code null} values mean the counts have to be loaded.
+     */
+    private static class Counts {
+
+        private volatile Map<URI, Integer> values;
+
+        /**
+         * Incremented on every modification so that counts loaded concurrently with a modification are not cached.
+         */
+        private final AtomicLong version = new AtomicLong();
+
+        void adjust(URI vocabulary, int delta) {
+            version.incrementAndGet();
+            final Map<URI, Integer> current = values;
+            if (current != null) {
+                current.merge(vocabulary, delta, (a, b) -> Math.max(a + b, 0));
+            }
+        }
+
+        void evict() {
+            version.incrementAndGet();
+            this.values = null;
+        }
+    }
+}
@@ -0,0 +1,561 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.util.Utils;
+
+import java.net.URI;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Compact in-memory representation of the term hierarchy of a single vocabulary.
+ * <p>
+ * Terms are interned into consecutive integer identifiers and the parent/child adjacency is stored in primitive int
+ * arrays. Child lists and the list of root terms are kept sorted by term label.
+ * <p>
+ * Terms of the vocabulary are additionally kept ordered by their normalized label (see {@link
+ * Utils#toSearchKey(String)}), which allows answering label prefix (typeahead) and exact label lookups by binary
+ * search. The normalized labels are computed once, when a term is added or updated.
+ * <p>
+ * Besides terms of the vocabulary itself, the hierarchy contains also children of its terms which come from other
+ * vocabularies, so that sub-terms of any term of the vocabulary can be answered. Sub-terms of such foreign terms are
+ * not tracked by this hierarchy.
+ */
+class VocabularyHierarchy {
+
+    private static final int[] EMPTY = new int[0];
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final Comparator<String> LABEL_COMPARATOR = Comparator.nullsLast(Comparator.naturalOrder());
+
+    private final URI vocabulary;
+
+    private final Map<URI, Integer> ids = new HashMap<>();
+
+    private TermInfo[] terms = new TermInfo[INITIAL_CAPACITY];
+
+    private int[][] children = new int[INITIAL_CAPACITY][];
+
+    private int[][] parents = new int[INITIAL_CAPACITY][];
+
+    private int size;
+
+    private int[] roots = EMPTY;
+
+    /**
+     * Normalized labels of terms, indexed by term id.
+     */
+    private String[] keys = new String[INITIAL_CAPACITY];
+
+    /**
+     * Terms of this vocabulary ordered by normalized label and identifier.
+     */
+    private int[] labelOrder = EMPTY;
+
+    /**
+     * Number of terms of this vocabulary (i.e., not counting children from other vocabularies).
+     */
+    private int ownSize;
+
+    /**
+     * Memoized depth of the hierarchy, negative if it has to be recomputed.
+     */
+    private int depth = -1;
+
+    VocabularyHierarchy(URI vocabulary) {
+        this.vocabulary = Objects.requireNonNull(vocabulary);
+    }
+
+    URI getVocabulary() {
+        return vocabulary;
+    }
+
+    /**
+     * Adds the specified term into this hierarchy, without connecting it to any other term.
+     * <p>
+     * If the term is already known, its label and vocabulary are updated. Note that this does not re-sort lists in
+     * which the term already appears.
+     * <p>
+     * This method is intended for building the hierarchy, the term is not available for label lookups until {@link
+     * #sort()} is called.
+     *
+     * @param term Term to add
+     */
+    synchronized void addTerm(TermInfo term) {
+        intern(term);
+    }
+
+    /**
+     * Marks the specified known term as a root of this vocabulary.
+     * <p>
+     * This method is intended for building the hierarchy, the roots are not sorted until {@link #sort()} is called.
+     *
+     * @param term Term identifier
+     */
+    synchronized void addRoot(URI term) {
+        final Integer id = ids.get(term);
+        if (id != null && isOwn(id)) {
+            roots = append(roots, id);
+            this.depth = -1;
+        }
+    }
+
+    /**
+     * Connects the specified known terms by a parent-child relationship.
+     * <p>
+     * This method is intended for building the hierarchy, the child lists are not sorted until {@link #sort()} is
+     * called.
+     *
+     * @param parent Parent term identifier
+     * @param child  Child term identifier
+     */
+    synchronized void addRelationship(URI parent, URI child) {
+        final Integer parentId = ids.get(parent);
+        final Integer childId = ids.get(child);
+        if (parentId != null && childId != null && isOwn(parentId)) {
+            children[parentId] = append(children[parentId], childId);
+            parents[childId] = append(parents[childId], parentId);
+            this.depth = -1;
+        }
+    }
+
+    /**
+     * Sorts roots and all child lists by label and builds the label lookup order.
+     */
+    synchronized void sort() {
+        this.roots = sorted(roots);
+        for (int i = 0; i < size; i++) {
+            children[i] = sorted(children[i]);
+        }
+        this.labelOrder = IntStream.range(0, size)
+                                   .filter(i -> terms[i] != null && isOwn(i) && keys[i] != null)
+                                   .boxed().sorted(this::compareKeys)
+                                   .mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Gets identifiers of root terms of this vocabulary, ordered by label.
+     *
+     * @return List of root term identifiers
+     */
+    synchronized List<URI> getRoots() {
+        final List<URI> result = new ArrayList<>(roots.length);
+        for (int id : roots) {
+            result.add(terms[id].getUri());
+        }
+        return result;
+    }
+
+    /**
+     * Gets basic data of root terms of this vocabulary, ordered by label.
+     *
+     * @return List of root terms
+     */
+    synchronized List<TermInfo> getRootInfos() {
+        final List<TermInfo> result = new ArrayList<>(roots.length);
+        for (int id : roots) {
+            result.add(copy(terms[id]));
+        }
+        return result;
+    }
+
+    /**
+     * Gets identifiers of root terms of this vocabulary which follow the specified position, ordered by label.
+     * <p>
+     * Root terms are ordered by label and then by identifier, so the position is given by both.
+     *
+     * @param label Label of the last root term of the previous page
+     * @param uri   Identifier of the last root term of the previous page
+     * @param limit Maximum number of returned identifiers
+     * @return List of root term identifiers
+     */
+    synchronized List<URI> getRootsAfter(String label, URI uri, int limit) {
+        int low = 0;
+        int high = roots.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (compare(roots[mid], label, uri) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        final int end = (int) Math.min((long) low + limit, roots.length);
+        final List<URI> result = new ArrayList<>(end - low);
+        for (int i = low; i < end; i++) {
+            result.add(terms[roots[i]].getUri());
+        }
+        return result;
+    }
+
+    /**
+     * Gets sub-terms of the specified term of this vocabulary.
+     *
+     * @param parent Parent term identifier
+     * @return Children of the specified term ordered by label, empty {@code Optional} if the term is not a term of this
+     * vocabulary known to this hierarchy
+     */
+    synchronized Optional<List<TermInfo>> getSubTerms(URI parent) {
+        final Integer id = ids.get(parent);
+        if (id == null || !isOwn(id)) {
+            return Optional.empty();
+        }
+        final List<TermInfo> result = new ArrayList<>(children[id].length);
+        for (int childId : children[id]) {
+            result.add(copy(terms[childId]));
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Gets terms of this vocabulary whose label starts with the specified prefix.
+     * <p>
+     * The comparison is case and diacritics insensitive.
+     *
+     * @param prefix Label prefix
+     * @param limit  Maximum number of returned terms
+     * @return Matching terms ordered by label
+     */
+    synchronized List<TermInfo> findByLabelPrefix(String prefix, int limit) {
+        final String key = Utils.toSearchKey(prefix);
+        final List<TermInfo> result = new ArrayList<>(Math.min(limit, INITIAL_CAPACITY));
+        for (int i = lowerBound(key); i < labelOrder.length && result.size() < limit; i++) {
+            final int id = labelOrder[i];
+            if (!keys[id].startsWith(key)) {
+                break;
+            }
+            result.add(copy(terms[id]));
+        }
+        return result;
+    }
+
+    /**
+     * Gets terms of this vocabulary whose label contains the specified string.
+     * <p>
+     * The comparison is case and diacritics insensitive.
+     *
+     * @param searchString String to look for in term labels
+     * @return Matching terms ordered by label
+     */
+    synchronized List<TermInfo> findByLabelContaining(String searchString) {
+        final String key = Utils.toSearchKey(searchString);
+        return Arrays.stream(labelOrder).filter(id -> keys[id].contains(key)).boxed().sorted(this::compare)
+                     .map(id -> copy(terms[id])).collect(Collectors.toList());
+    }
+
+    /**
+     * Checks whether this vocabulary contains a term with the specified label.
+     * <p>
+     * The comparison is case and diacritics insensitive.
+     *
+     * @param label Label to look for
+     * @return Whether a term with matching label exists
+     */
+    synchronized boolean containsLabel(String label) {
+        final String key = Utils.toSearchKey(label);
+        final int index = lowerBound(key);
+        return index < labelOrder.length && keys[labelOrder[index]].equals(key);
+    }
+
+    /**
+     * Finds position of the first term in {@link #labelOrder} whose normalized label is not less than the specified
+     * key.
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = labelOrder.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (keys[labelOrder[mid]].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static TermInfo copy(TermInfo term) {
+        return new TermInfo(term.getUri(), term.getLabel(), term.getVocabulary());
+    }
+
+    /**
+     * Gets the number of sub-terms of the specified term of this vocabulary.
+     *
+     * @param parent Parent term identifier
+     * @return Number of children of the specified term, empty {@code Optional} if the term is not a term of this
+     * vocabulary known to this hierarchy
+     */
+    synchronized Optional<Integer> countSubTerms(URI parent) {
+        final Integer id = ids.get(parent);
+        if (id == null || !isOwn(id)) {
+            return Optional.empty();
+        }
+        return Optional.of(children[id].length);
+    }
+
+    /**
+     * Gets the number of terms of this vocabulary.
+     *
+     * @return Number of terms
+     */
+    synchronized int countTerms() {
+        return ownSize;
+    }
+
+    /**
+     * Gets the number of root terms of this vocabulary.
+     *
+     * @return Number of root terms
+     */
+    synchronized int countRoots() {
+        return roots.length;
+    }
+
+    /**
+     * Gets the depth of this hierarchy, i.e., the number of terms on the longest path from a root term to a leaf
+     * term of this vocabulary.
+     * <p>
+     * The depth is computed when first requested and then remembered until the hierarchy changes.
+     *
+     * @return Depth of the hierarchy, {@code 0} if the vocabulary contains no root terms
+     */
+    synchronized int getDepth() {
+        if (depth < 0) {
+            this.depth = computeDepth();
+        }
+        return depth;
+    }
+
+    private int computeDepth() {
+        final boolean[] visited = new boolean[size];
+        for (int id : roots) {
+            visited[id] = true;
+        }
+        int[] level = roots;
+        int result = 0;
+        while (level.length > 0) {
+            result++;
+            final int[] next = new int[size];
+            int count = 0;
+            for (int id : level) {
+                for (int childId : children[id]) {
+                    if (!visited[childId] && isOwn(childId)) {
+                        visited[childId] = true;
+                        next[count++] = childId;
+                    }
+                }
+            }
+            level = Arrays.copyOf(next, count);
+        }
+        return result;
+    }
+
+    /**
+     * Updates position of the specified term in this hierarchy.
+     * <p>
+     * The term is detached from its current parents and roots and attached to the specified parents. Parents unknown
+     * to this hierarchy are ignored. Terms which are neither from this vocabulary nor children of any of its terms are
+     * ignored altogether.
+     *
+     * @param term      Term to add or update
+     * @param parentIds Identifiers of the term's parents
+     * @param root      Whether the term is a root of this vocabulary
+     */
+    synchronized void update(TermInfo term, Collection<URI> parentIds, boolean root) {
+        final boolean relevant = vocabulary.equals(term.getVocabulary()) || ids.containsKey(term.getUri()) ||
+                parentIds.stream().anyMatch(p -> ids.containsKey(p) && isOwn(ids.get(p)));
+        if (!relevant) {
+            return;
+        }
+        final int id = intern(term);
+        this.labelOrder = remove(labelOrder, id);
+        indexLabel(id);
+        detach(id);
+        this.depth = -1;
+        for (URI parent : parentIds) {
+            final Integer parentId = ids.get(parent);
+            if (parentId != null && isOwn(parentId)) {
+                children[parentId] = insertSorted(children[parentId], id);
+                parents[id] = append(parents[id], parentId);
+            }
+        }
+        if (root && isOwn(id)) {
+            this.roots = insertSorted(roots, id);
+        }
+    }
+
+    /**
+     * Removes the specified term from this hierarchy.
+     *
+     * @param term Identifier of the term to remove
+     */
+    synchronized void remove(URI term) {
+        final Integer id = ids.remove(term);
+        if (id == null) {
+            return;
+        }
+        detach(id);
+        for (int childId : children[id]) {
+            parents[childId] = remove(parents[childId], id);
+        }
+        if (isOwn(id)) {
+            ownSize--;
+            this.labelOrder = remove(labelOrder, id);
+        }
+        children[id] = EMPTY;
+        terms[id] = null;
+        keys[id] = null;
+        this.depth = -1;
+    }
+
+    private boolean isOwn(int id) {
+        return vocabulary.equals(terms[id].getVocabulary());
+    }
+
+    private int intern(TermInfo term) {
+        final Integer existing = ids.get(term.getUri());
+        if (existing != null) {
+            if (isOwn(existing) != vocabulary.equals(term.getVocabulary())) {
+                ownSize += isOwn(existing) ? -1 : 1;
+            }
+            terms[existing] = term;
+            keys[existing] = Utils.toSearchKey(term.getLabel());
+            return existing;
+        }
+        if (size == terms.length) {
+            final int capacity = size * 2;
+            this.terms = Arrays.copyOf(terms, capacity);
+            this.children = Arrays.copyOf(children, capacity);
+            this.parents = Arrays.copyOf(parents, capacity);
+            this.keys = Arrays.copyOf(keys, capacity);
+        }
+        final int id = size++;
+        terms[id] = term;
+        keys[id] = Utils.toSearchKey(term.getLabel());
+        if (isOwn(id)) {
+            ownSize++;
+        }
+        children[id] = EMPTY;
+        parents[id] = EMPTY;
+        ids.put(term.getUri(), id);
+        return id;
+    }
+
+    private void indexLabel(int id) {
+        if (!isOwn(id) || keys[id] == null) {
+            return;
+        }
+        int low = 0;
+        int high = labelOrder.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (compareKeys(labelOrder[mid], id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        final int[] result = new int[labelOrder.length + 1];
+        System.arraycopy(labelOrder, 0, result, 0, low);
+        result[low] = id;
+        System.arraycopy(labelOrder, low, result, low + 1, labelOrder.length - low);
+        this.labelOrder = result;
+    }
+
+    private void detach(int id) {
+        for (int parentId : parents[id]) {
+            children[parentId] = remove(children[parentId], id);
+        }
+        parents[id] = EMPTY;
+        this.roots = remove(roots, id);
+    }
+
+    private int compareKeys(int a, int b) {
+        final int result = keys[a].compareTo(keys[b]);
+        return result != 0 ? result : terms[a].getUri().compareTo(terms[b].getUri());
+    }
+
+    private int compare(int a, int b) {
+        return compare(a, terms[b].getLabel(), terms[b].getUri());
+    }
+
+    private int compare(int id, String label, URI uri) {
+        final int result = LABEL_COMPARATOR.compare(terms[id].getLabel(), label);
+        return result != 0 ? result : terms[id].getUri().compareTo(uri);
+    }
+
+    private int[] sorted(int[] array) {
+        return Arrays.stream(array).boxed().sorted(this::compare).mapToInt(Integer::intValue).toArray();
+    }
+
+    private int[] insertSorted(int[] array, int id) {
+        if (contains(array, id)) {
+            return array;
+        }
+        int low = 0;
+        int high = array.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (compare(array[mid], id) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        final int[] result = new int[array.length + 1];
+        System.arraycopy(array, 0, result, 0, low);
+        result[low] = id;
+        System.arraycopy(array, low, result, low + 1, array.length - low);
+        return result;
+    }
+
+    private static int[] append(int[] array, int id) {
+        if (contains(array, id)) {
+            return array;
+        }
+        final int[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = id;
+        return result;
+    }
+
+    private static int[] remove(int[] array, int id) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == id) {
+                final int[] result = new int[array.length - 1];
+                System.arraycopy(array, 0, result, 0, i);
+                System.arraycopy(array, i + 1, result, i, array.length - i - 1);
+                return result;
+            }
+        }
+        return array;
+    }
+
+    private static boolean contains(int[] array, int id) {
+        for (int i : array) {
+            if (i == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
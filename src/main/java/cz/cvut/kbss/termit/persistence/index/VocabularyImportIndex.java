@@ -0,0 +1,260 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.dto.VocabularyImport;
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the vocabulary import graph.
+ * <p>
+ * The graph of direct {@link Vocabulary#s_p_importuje_slovnik} relationships is loaded lazily when first needed.
+ * Transitive import closures are computed from it on demand and memoized until the imports of a vocabulary they
+ * contain change.
+ * <p>
+ * Changes made via {@link #update(URI, Collection)} take effect after commit of the current transaction (if there is
+ * one). Since imports may be written into the repository without the DAO (e.g., by vocabulary import), the index also
+ * reacts to {@link AssetModifiedEvent}s of vocabularies - imports of a removed vocabulary are dropped, imports of a
+ * modified vocabulary are reloaded on next access.
+ */
+@Component
+public class VocabularyImportIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(VocabularyImportIndex.class);
+
+    private final EntityManager em;
+
+    /**
+     * Direct imports of vocabularies. {@code null} if not loaded yet.
+     */
+    private Map<URI, Set<URI>> imports;
+
+    /**
+     * Vocabularies whose direct imports need to be reloaded from the repository.
+     */
+    private final Set<URI> stale = new HashSet<>();
+
+    private final Map<URI, Set<URI>> closures = new ConcurrentHashMap<>();
+
+    @Autowired
+    public VocabularyImportIndex(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * Gets identifiers of all vocabularies (transitively) imported by the specified vocabulary.
+     * <p>
+     * The vocabulary itself is contained in the result only if it is part of an import cycle.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Unmodifiable set of imported vocabulary identifiers
+     */
+    public Set<URI> getTransitiveImports(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        final Set<URI> closure = closures.get(vocabulary);
+        return closure != null ? closure : computeClosure(vocabulary);
+    }
+
+    /**
+     * Gets identifiers of the specified vocabulary and all the vocabularies it (transitively) imports.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Set of vocabulary identifiers, always containing the specified vocabulary
+     */
+    public Set<URI> getImportClosure(URI vocabulary) {
+        final Set<URI> result = new HashSet<>(getTransitiveImports(vocabulary));
+        result.add(vocabulary);
+        return result;
+    }
+
+    private synchronized Set<URI> computeClosure(URI vocabulary) {
+        final Set<URI> existing = closures.get(vocabulary);
+        if (existing != null) {
+            return existing;
+        }
+        final Map<URI, Set<URI>> graph = getImports();
+        final Set<URI> result = new HashSet<>();
+        final Deque<URI> toVisit = new ArrayDeque<>(graph.getOrDefault(vocabulary, Collections.emptySet()));
+        while (!toVisit.isEmpty()) {
+            final URI current = toVisit.pop();
+            if (result.add(current)) {
+                toVisit.addAll(graph.getOrDefault(current, Collections.emptySet()));
+            }
+        }
+        final Set<URI> closure = Collections.unmodifiableSet(result);
+        closures.put(vocabulary, closure);
+        return closure;
+    }
+
+    private Map<URI, Set<URI>> getImports() {
+        assert Thread.holdsLock(this);
+        if (imports == null) {
+            this.imports = loadImports();
+            stale.clear();
+        } else if (!stale.isEmpty()) {
+            stale.forEach(v -> setNode(v, loadImports(v)));
+            stale.clear();
+        }
+        return imports;
+    }
+
+    private Map<URI, Set<URI>> loadImports() {
+        LOG.trace("Loading vocabulary import graph.");
+        try {
+            final List<VocabularyImport> rows = em.createNativeQuery("SELECT DISTINCT ?vocabulary ?imported WHERE {" +
+                    "?vocabulary ?imports ?imported . }", "VocabularyImport")
+                                                  .setParameter("imports",
+                                                          URI.create(Vocabulary.s_p_importuje_slovnik))
+                                                  .getResultList();
+            final Map<URI, Set<URI>> result = new HashMap<>();
+            rows.forEach(r -> result.computeIfAbsent(r.getVocabulary(), k -> new HashSet<>()).add(r.getImported()));
+            return result;
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    private Set<URI> loadImports(URI vocabulary) {
+        LOG.trace("Loading imports of vocabulary {}.", vocabulary);
+        try {
+            return new HashSet<>(em.createNativeQuery("SELECT DISTINCT ?imported WHERE {" +
+                    "?vocabulary ?imports ?imported . }", URI.class)
+                                   .setParameter("vocabulary", vocabulary)
+                                   .setParameter("imports", URI.create(Vocabulary.s_p_importuje_slovnik))
+                                   .getResultList());
+        } catch (RuntimeException e) {
+            throw new PersistenceException(e);
+        }
+    }
+
+    /**
+     * Updates direct imports of the specified vocabulary.
+     * <p>
+     * Memoized import closures are recomputed only if the imports actually changed.
+     *
+     * @param vocabulary           Vocabulary identifier
+     * @param importedVocabularies Vocabularies directly imported by the specified vocabulary
+     */
+    public void update(URI vocabulary, Collection<URI> importedVocabularies) {
+        Objects.requireNonNull(vocabulary);
+        final Set<URI> newImports =
+                importedVocabularies != null ? new HashSet<>(importedVocabularies) : Collections.emptySet();
+        afterCommit(() -> setImports(vocabulary, newImports));
+    }
+
+    private synchronized void setImports(URI vocabulary, Set<URI> newImports) {
+        if (imports == null) {
+            // Not loaded yet, will be loaded with the current state
+            return;
+        }
+        final Set<URI> current = imports.getOrDefault(vocabulary, Collections.emptySet());
+        if (current.equals(newImports)) {
+            return;
+        }
+        LOG.trace("Imports of vocabulary {} changed, invalidating import closures.", vocabulary);
+        setNode(vocabulary, newImports);
+        stale.remove(vocabulary);
+        invalidateClosures(vocabulary);
+    }
+
+    private void setNode(URI vocabulary, Set<URI> newImports) {
+        if (newImports.isEmpty()) {
+            imports.remove(vocabulary);
+        } else {
+            imports.put(vocabulary, newImports);
+        }
+    }
+
+    /**
+     * Drops memoized closure of the specified vocabulary and all closures containing it.
+     */
+    private void invalidateClosures(URI vocabulary) {
+        assert Thread.holdsLock(this);
+        closures.remove(vocabulary);
+        closures.values().removeIf(closure -> closure.contains(vocabulary));
+    }
+
+    /**
+     * Updates the import graph after a vocabulary has been modified or removed.
+     * <p>
+     * Imports of a removed vocabulary are dropped, imports of a modified vocabulary are reloaded on next access. In
+     * both cases, import closures containing the vocabulary are invalidated.
+     *
+     * @param event Asset modification event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onAssetModified(AssetModifiedEvent event) {
+        if (!(event.getAsset() instanceof cz.cvut.kbss.termit.model.Vocabulary)) {
+            return;
+        }
+        final URI vocabulary = event.getAsset().getUri();
+        if (imports != null) {
+            if (event.isRemoved()) {
+                imports.remove(vocabulary);
+                stale.remove(vocabulary);
+            } else {
+                stale.add(vocabulary);
+            }
+        }
+        invalidateClosures(vocabulary);
+    }
+
+    /**
+     * Evicts all data held by this index, so that they are reloaded on next access.
+     */
+    public synchronized void evictAll() {
+        this.imports = null;
+        stale.clear();
+        closures.clear();
+    }
+
+    @EventListener
+    public void onEvictCache(EvictCacheEvent event) {
+        LOG.debug("Evicting vocabulary import index.");
+        evictAll();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -33,6 +33,8 @@ import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Provides access to general data from repository.
@@ -84,4 +86,18 @@ public class DataController {
         return dataService.getLabel(id).orElseThrow(
                 () -> new NotFoundException("Resource with id " + id + " not found or it has no matching label."));
     }
+
+    /**
+     * Gets labels of resources with the specified identifiers.
+     * <p>
+     * This is a bulk version of {@link #getLabel(URI)}, which resolves the labels at once.
+     *
+     * @param ids Resource identifiers
+     * @return Map of resource identifiers to labels, resources without a matching label are not present in the map
+     */
+    @RequestMapping(value = "/labels", method = RequestMethod.POST, consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Map<URI, String> getLabels(@RequestBody Set<URI> ids) {
+        return dataService.getLabels(ids);
+    }
 }
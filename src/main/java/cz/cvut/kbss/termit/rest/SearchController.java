@@ -18,18 +18,26 @@
 package cz.cvut.kbss.termit.rest;
 
 import cz.cvut.kbss.jsonld.JsonLd;
+import cz.cvut.kbss.termit.dto.FacetedSearchResult;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.persistence.index.FacetIndex;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.SearchService;
+import cz.cvut.kbss.termit.util.Constants.QueryParams;
 import cz.cvut.kbss.termit.util.Configuration;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/search")
@@ -43,9 +51,85 @@ public class SearchController extends BaseController {
         this.searchService = searchService;
     }
 
+    /**
+     * Executes full text search in assets.
+     * <p>
+     * If neither page size nor page number are specified, all matching results are returned.
+     * <p>
+     * Search-as-you-type mode is intended for searches issued as the user types. A new search in this mode whose search
+     * string extends the search string of a running search of the same HTTP session supersedes it. The superseded
+     * search then returns {@code 204 No Content}.
+     *
+     * @param searchString String to search by
+     * @param fuzzy        Whether to tolerate typos in the search string. Optional, defaults to {@code false}
+     * @param asYouType    Whether to use the search-as-you-type mode. Optional, defaults to {@code false}
+     * @param pageSize     Number of results to return. Optional
+     * @param pageNo       Number of the page of results to return. Optional
+     * @param request      The request, used to identify the session of search-as-you-type searches
+     * @return Matching assets
+     */
     @RequestMapping(value = "/fts", method = RequestMethod.GET, produces = {MediaType.APPLICATION_JSON_VALUE,
             JsonLd.MEDIA_TYPE})
-    public List<FullTextSearchResult> fullTextSearch(@RequestParam(name = "searchString") String searchString) {
-        return searchService.fullTextSearch(searchString);
+    public ResponseEntity<List<FullTextSearchResult>> fullTextSearch(
+            @RequestParam(name = "searchString") String searchString,
+            @RequestParam(name = "fuzzy", required = false) boolean fuzzy,
+            @RequestParam(name = "asYouType", required = false) boolean asYouType,
+            @RequestParam(name = QueryParams.PAGE_SIZE, required = false) Integer pageSize,
+            @RequestParam(name = QueryParams.PAGE, required = false) Integer pageNo,
+            HttpServletRequest request) {
+        final boolean paged = pageSize != null || pageNo != null;
+        if (fuzzy) {
+            return ResponseEntity.ok(paged ? searchService.fuzzySearch(searchString,
+                    createPageRequest(pageSize, pageNo)) : searchService.fuzzySearch(searchString));
+        }
+        if (asYouType) {
+            // A superseded search has no results, the client is already waiting for the superseding one
+            return searchService.fullTextSearchAsYouType(searchString,
+                    paged ? createPageRequest(pageSize, pageNo) : Pageable.unpaged(), request.getSession().getId())
+                                .map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.noContent().build());
+        }
+        return ResponseEntity.ok(paged ? searchService.fullTextSearch(searchString,
+                createPageRequest(pageSize, pageNo)) : searchService.fullTextSearch(searchString));
+    }
+
+    /**
+     * Executes full text search in assets, narrowing the results down by the specified facet values.
+     * <p>
+     * Results have to match at least one of the specified values of each facet. The response contains also counts of
+     * results by facet values, computed as if the value were additionally selected.
+     *
+     * @param searchString String to search by
+     * @param vocabularies Identifiers of vocabularies whose terms to return. Optional
+     * @param termTypes    Types of terms to return. Optional
+     * @param kinds        Types of assets to return (term, vocabulary, resource). Optional
+     * @param pageSize     Number of results to return. Optional
+     * @param pageNo       Number of the page of results to return. Optional
+     * @return Matching assets and facet counts
+     */
+    @RequestMapping(value = "/fts/faceted", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_VALUE)
+    public FacetedSearchResult facetedSearch(@RequestParam(name = "searchString") String searchString,
+                                             @RequestParam(name = FacetIndex.VOCABULARY, required = false)
+                                                     List<String> vocabularies,
+                                             @RequestParam(name = FacetIndex.TERM_TYPE, required = false)
+                                                     List<String> termTypes,
+                                             @RequestParam(name = FacetIndex.KIND, required = false)
+                                                     List<String> kinds,
+                                             @RequestParam(name = QueryParams.PAGE_SIZE, required = false)
+                                                     Integer pageSize,
+                                             @RequestParam(name = QueryParams.PAGE, required = false)
+                                                     Integer pageNo) {
+        final Map<String, List<String>> filter = new HashMap<>();
+        if (vocabularies != null) {
+            filter.put(FacetIndex.VOCABULARY, vocabularies);
+        }
+        if (termTypes != null) {
+            filter.put(FacetIndex.TERM_TYPE, termTypes);
+        }
+        if (kinds != null) {
+            filter.put(FacetIndex.KIND, kinds);
+        }
+        final boolean paged = pageSize != null || pageNo != null;
+        return searchService.facetedSearch(searchString, filter,
+                paged ? createPageRequest(pageSize, pageNo) : Pageable.unpaged());
     }
 }
@@ -15,35 +15,44 @@
 package cz.cvut.kbss.termit.rest;
 
 import cz.cvut.kbss.jsonld.JsonLd;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.TermTreeNode;
 import cz.cvut.kbss.termit.dto.assignment.TermAssignments;
 import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.exception.TermItException;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
+import cz.cvut.kbss.termit.rest.util.JsonStreamWriter;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.TermService;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.Constants.Excel;
 import cz.cvut.kbss.termit.util.Constants.QueryParams;
 import cz.cvut.kbss.termit.util.Constants.Turtle;
 import cz.cvut.kbss.termit.util.CsvUtils;
+import cz.cvut.kbss.termit.util.PageCursor;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/")
@@ -53,10 +62,14 @@ public class TermController extends BaseController {
 
     private final TermService termService;
 
+    private final JsonStreamWriter streamWriter;
+
     @Autowired
-    public TermController(IdentifierResolver idResolver, Configuration config, TermService termService) {
+    public TermController(IdentifierResolver idResolver, Configuration config, TermService termService,
+                          JsonStreamWriter streamWriter) {
         super(idResolver, config);
         this.termService = termService;
+        this.streamWriter = streamWriter;
     }
 
     private URI getVocabularyUri(String namespace, String fragment) {
@@ -68,6 +81,10 @@ public class TermController extends BaseController {
      * <p>
      * This method also allows to export the terms into CSV or Excel by using HTTP content type negotiation or filter
      * terms by a search string.
+     * <p>
+     * When all terms are requested as JSON or JSON-LD, they are streamed into the response one by one, so that large
+     * vocabularies need not be loaded into memory at once. The response body is written asynchronously, outside of
+     * any repository transaction.
      *
      * @param vocabularyIdFragment Vocabulary name
      * @param namespace            Vocabulary namespace. Optional
@@ -92,7 +109,17 @@ public class TermController extends BaseController {
                                      termService.findAll(searchString, getVocabulary(vocabularyUri)));
         }
         final Optional<ResponseEntity<?>> export = exportTerms(vocabularyUri, vocabularyIdFragment, acceptType);
-        return export.orElse(ResponseEntity.ok(termService.findAll(getVocabulary(vocabularyUri))));
+        if (export.isPresent()) {
+            return export.get();
+        }
+        return streamTerms(getVocabulary(vocabularyUri), acceptType);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamTerms(Vocabulary vocabulary, String acceptType) {
+        final MediaType mediaType = JsonStreamWriter.resolveMediaType(acceptType);
+        final StreamingResponseBody body = out -> streamWriter
+                .writeArray((Consumer<Term> consumer) -> termService.forEach(vocabulary, consumer), mediaType, out);
+        return ResponseEntity.ok().contentType(new MediaType(mediaType, StandardCharsets.UTF_8)).body(body);
     }
 
     private Optional<ResponseEntity<?>> exportTerms(URI vocabularyUri, String vocabularyNormalizedName,
@@ -123,26 +150,82 @@ public class TermController extends BaseController {
      * <p>
      * Optionally, the terms can be filtered by the specified search string, so that only roots with descendants with
      * label matching the specified string are returned.
+     * <p>
+     * If a page cursor is specified, terms following it are returned and the page number is ignored. If the page
+     * (including the first one, requested without a cursor) may be followed by more terms, the response contains a
+     * {@link Constants#NEXT_PAGE_CURSOR_HEADER} header with cursor pointing to the next page.
      *
      * @param vocabularyIdFragment Vocabulary name
      * @param namespace            Vocabulary namespace. Optional
      * @param pageSize             Limit the number of elements in the returned page. Optional
      * @param pageNo               Number of the page to return. Optional
+     * @param after                Cursor of the last term of the previous page. Optional
      * @param includeImported      Whether a transitive closure of vocabulary imports should be used when getting the
      *                             root terms. Optional, defaults to {@code false}
      * @return List of root terms of the specific vocabulary
      */
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/roots",
             produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
-    public List<Term> getAllRoots(@PathVariable String vocabularyIdFragment,
-                                  @RequestParam(name = QueryParams.NAMESPACE, required = false) String namespace,
-                                  @RequestParam(name = QueryParams.PAGE_SIZE, required = false) Integer pageSize,
-                                  @RequestParam(name = QueryParams.PAGE, required = false) Integer pageNo,
-                                  @RequestParam(name = "includeImported", required = false) boolean includeImported) {
+    public ResponseEntity<List<Term>> getAllRoots(@PathVariable String vocabularyIdFragment,
+                                                  @RequestParam(name = QueryParams.NAMESPACE, required = false)
+                                                          String namespace,
+                                                  @RequestParam(name = QueryParams.PAGE_SIZE, required = false)
+                                                          Integer pageSize,
+                                                  @RequestParam(name = QueryParams.PAGE, required = false)
+                                                          Integer pageNo,
+                                                  @RequestParam(name = QueryParams.AFTER, required = false)
+                                                          String after,
+                                                  @RequestParam(name = "includeImported", required = false)
+                                                          boolean includeImported) {
+        final Vocabulary vocabulary = getVocabulary(getVocabularyUri(namespace, vocabularyIdFragment));
+        final int limit = pageSize != null ? pageSize : Constants.DEFAULT_PAGE_SIZE;
+        final List<Term> result;
+        if (after == null) {
+            final Pageable pageSpec = createPageRequest(pageSize, pageNo);
+            result = includeImported ? termService.findAllRootsIncludingImports(vocabulary, pageSpec) :
+                     termService.findAllRoots(vocabulary, pageSpec);
+        } else {
+            final PageCursor cursor = PageCursor.decode(after);
+            result = includeImported ? termService.findAllRootsIncludingImports(vocabulary, cursor, limit) :
+                     termService.findAllRoots(vocabulary, cursor, limit);
+        }
+        final ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (!result.isEmpty() && result.size() >= limit) {
+            final Term last = result.get(result.size() - 1);
+            builder.header(Constants.NEXT_PAGE_CURSOR_HEADER,
+                    new PageCursor(last.getLabel(), last.getUri()).encode());
+        }
+        return builder.body(result);
+    }
+
+    /**
+     * Gets root terms from vocabulary with the specified identification as lightweight tree nodes.
+     * <p>
+     * Each node contains only the term identifier, label, vocabulary and the number of sub-terms, which is sufficient
+     * for rendering a term tree.
+     *
+     * @param vocabularyIdFragment Vocabulary name
+     * @param namespace            Vocabulary namespace. Optional
+     * @param pageSize             Limit the number of elements in the returned page. Optional
+     * @param pageNo               Number of the page to return. Optional
+     * @param includeImported      Whether a transitive closure of vocabulary imports should be used when getting the
+     *                             root terms. Optional, defaults to {@code false}
+     * @return List of root term nodes of the specific vocabulary
+     */
+    @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/roots/nodes",
+            produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
+    public List<TermTreeNode> getAllRootNodes(@PathVariable String vocabularyIdFragment,
+                                              @RequestParam(name = QueryParams.NAMESPACE, required = false)
+                                                      String namespace,
+                                              @RequestParam(name = QueryParams.PAGE_SIZE, required = false)
+                                                      Integer pageSize,
+                                              @RequestParam(name = QueryParams.PAGE, required = false) Integer pageNo,
+                                              @RequestParam(name = "includeImported", required = false)
+                                                      boolean includeImported) {
         final Vocabulary vocabulary = getVocabulary(getVocabularyUri(namespace, vocabularyIdFragment));
         return includeImported ?
-               termService.findAllRootsIncludingImports(vocabulary, createPageRequest(pageSize, pageNo)) :
-               termService.findAllRoots(vocabulary, createPageRequest(pageSize, pageNo));
+               termService.findAllRootNodesIncludingImports(vocabulary, createPageRequest(pageSize, pageNo)) :
+               termService.findAllRootNodes(vocabulary, createPageRequest(pageSize, pageNo));
     }
 
     /**
@@ -273,6 +356,21 @@ public class TermController extends BaseController {
         return termService.findSubTerms(parent);
     }
 
+    /**
+     * Gets sub-terms of the specified term as lightweight tree nodes.
+     *
+     * @see #getAllRootNodes(String, String, Integer, Integer, boolean)
+     */
+    @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/{termIdFragment}/subterms/nodes",
+            produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
+    public List<TermTreeNode> getSubTermNodes(@PathVariable("vocabularyIdFragment") String vocabularyIdFragment,
+                                              @PathVariable("termIdFragment") String termIdFragment,
+                                              @RequestParam(name = QueryParams.NAMESPACE, required = false)
+                                                      String namespace) {
+        final Term parent = getById(vocabularyIdFragment, termIdFragment, namespace);
+        return termService.findSubTermNodes(parent);
+    }
+
     /**
      * A convenience endpoint for getting subterms of a Term without using its Vocabulary.
      */
@@ -284,6 +382,24 @@ public class TermController extends BaseController {
         return termService.findSubTerms(parent);
     }
 
+    /**
+     * Gets the sub-tree of the specified term, down to the specified depth.
+     *
+     * @param termIdFragment Term name
+     * @param namespace      Term identifier namespace
+     * @param depth          Maximum depth of the sub-tree, 1 means only direct sub-terms are returned
+     * @return Tree node of the specified term, with nested sub-term nodes
+     */
+    @GetMapping(value = "/terms/{termIdFragment}/subtree",
+            produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
+    public TermTreeNode getSubTree(@PathVariable("termIdFragment") String termIdFragment,
+                                   @RequestParam(name = QueryParams.NAMESPACE) String namespace,
+                                   @RequestParam(name = QueryParams.DEPTH, required = false,
+                                           defaultValue = "1") int depth) {
+        final Term root = getById(termIdFragment, namespace);
+        return termService.findSubTree(root, depth);
+    }
+
     /**
      * Creates a new term under the specified parent Term in the specified vocabulary.
      *
@@ -394,6 +510,28 @@ public class TermController extends BaseController {
         return termService.generateIdentifier(vocabularyUri, name);
     }
 
+    /**
+     * Suggests terms of the specified vocabulary whose label starts with the specified prefix.
+     * <p>
+     * Intended for typeahead term selection, the comparison ignores case.
+     *
+     * @param vocabularyIdFragment Vocabulary name
+     * @param namespace            Vocabulary namespace. Optional
+     * @param prefix               Label prefix
+     * @param limit                Maximum number of returned terms. Optional, defaults to 10
+     * @return List of matching terms, ordered by label
+     */
+    @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/suggest",
+            produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
+    public List<TermInfo> suggest(@PathVariable("vocabularyIdFragment") String vocabularyIdFragment,
+                                  @RequestParam(name = QueryParams.NAMESPACE, required = false) String namespace,
+                                  @RequestParam(name = QueryParams.PREFIX) String prefix,
+                                  @RequestParam(name = QueryParams.PAGE_SIZE, required = false,
+                                          defaultValue = "10") int limit) {
+        final URI vocabularyUri = getVocabularyUri(namespace, vocabularyIdFragment);
+        return termService.suggest(prefix, getVocabulary(vocabularyUri), limit);
+    }
+
     @PreAuthorize("permitAll()")
     @GetMapping(value = "/vocabularies/{vocabularyIdFragment}/terms/name")
     public Boolean doesNameExist(@PathVariable("vocabularyIdFragment") String vocabularyIdFragment,
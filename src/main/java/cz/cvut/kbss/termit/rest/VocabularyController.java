@@ -15,10 +15,12 @@
 package cz.cvut.kbss.termit.rest;
 
 import cz.cvut.kbss.jsonld.JsonLd;
+import cz.cvut.kbss.termit.dto.VocabularyStatistics;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.VocabularyService;
+import cz.cvut.kbss.termit.service.business.VocabularyStatisticsService;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants.QueryParams;
@@ -45,11 +47,14 @@ public class VocabularyController extends BaseController {
 
     private final VocabularyService vocabularyService;
 
+    private final VocabularyStatisticsService statisticsService;
+
     @Autowired
-    public VocabularyController(VocabularyService vocabularyService, IdentifierResolver idResolver,
-                                Configuration config) {
+    public VocabularyController(VocabularyService vocabularyService, VocabularyStatisticsService statisticsService,
+                                IdentifierResolver idResolver, Configuration config) {
         super(idResolver, config);
         this.vocabularyService = vocabularyService;
+        this.statisticsService = statisticsService;
     }
 
     @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
@@ -98,6 +103,16 @@ public class VocabularyController extends BaseController {
         return vocabularyService.getTransitivelyImportedVocabularies(vocabulary);
     }
 
+    /**
+     * Gets statistics (term counts, hierarchy depth, term usage) of vocabulary with the specified identification.
+     */
+    @GetMapping(value = "/{fragment}/statistics", produces = {MediaType.APPLICATION_JSON_VALUE, JsonLd.MEDIA_TYPE})
+    public VocabularyStatistics getStatistics(@PathVariable String fragment,
+                                              @RequestParam(name = QueryParams.NAMESPACE, required = false) String namespace) {
+        final Vocabulary vocabulary = vocabularyService.getRequiredReference(resolveVocabularyUri(fragment, namespace));
+        return statisticsService.getStatistics(vocabulary);
+    }
+
     private URI resolveVocabularyUri(String fragment, String namespace) {
         return resolveIdentifier(namespace, fragment, ConfigParam.NAMESPACE_VOCABULARY);
     }
@@ -94,6 +94,13 @@ public class RestExceptionHandler {
         return new ResponseEntity<>(errorInfo(request, e), HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(InvalidParameterException.class)
+    public ResponseEntity<ErrorInfo> invalidParameterException(HttpServletRequest request,
+                                                               InvalidParameterException e) {
+        logException(e);
+        return new ResponseEntity<>(errorInfo(request, e), HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(WebServiceIntegrationException.class)
     public ResponseEntity<ErrorInfo> webServiceIntegrationException(HttpServletRequest request,
                                                                     WebServiceIntegrationException e) {
@@ -0,0 +1,109 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.rest.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import cz.cvut.kbss.jsonld.JsonLd;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Writes sequences of items into an output stream as a JSON or JSON-LD array, one item at a time.
+ * <p>
+ * This allows serializing large collections without holding them in memory.
+ */
+@Component
+public class JsonStreamWriter {
+
+    private static final MediaType JSON_LD = MediaType.valueOf(JsonLd.MEDIA_TYPE);
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectMapper jsonLdMapper;
+
+    @Autowired
+    public JsonStreamWriter(@Qualifier("objectMapper") ObjectMapper objectMapper,
+                            @Qualifier("jsonLdMapper") ObjectMapper jsonLdMapper) {
+        this.objectMapper = objectMapper;
+        this.jsonLdMapper = jsonLdMapper;
+    }
+
+    /**
+     * Resolves media type of the output based on the specified value of the {@code Accept} HTTP header.
+     *
+     * @param acceptHeader Value of the {@code Accept} header. Optional
+     * @return {@link JsonLd#MEDIA_TYPE} if it is preferred by the client, {@link MediaType#APPLICATION_JSON} otherwise
+     */
+    public static MediaType resolveMediaType(String acceptHeader) {
+        if (acceptHeader == null) {
+            return MediaType.APPLICATION_JSON;
+        }
+        final List<MediaType> accepted = MediaType.parseMediaTypes(acceptHeader);
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType mt : accepted) {
+            if (JSON_LD.equalsTypeAndSubtype(mt)) {
+                return JSON_LD;
+            }
+            if (mt.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return MediaType.APPLICATION_JSON;
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    /**
+     * Writes items passed by the specified producer into the output stream as a JSON array.
+     * <p>
+     * The producer receives a consumer to which it passes the items. Each item is serialized immediately.
+     *
+     * @param producer  Producer of the items to write
+     * @param mediaType Output media type, either JSON or JSON-LD
+     * @param out       Stream to write to
+     * @param <T>       Item type
+     * @throws IOException If writing into the output stream fails
+     */
+    public <T> void writeArray(Consumer<Consumer<T>> producer, MediaType mediaType, OutputStream out)
+            throws IOException {
+        Objects.requireNonNull(producer);
+        Objects.requireNonNull(mediaType);
+        final ObjectMapper mapper = JSON_LD.equalsTypeAndSubtype(mediaType) ? jsonLdMapper : objectMapper;
+        try (SequenceWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                                           .writeValues(out).init(true)) {
+            producer.accept(item -> {
+                try {
+                    writer.write(item);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+}
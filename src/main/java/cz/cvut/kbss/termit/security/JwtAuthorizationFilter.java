@@ -23,6 +23,7 @@ import cz.cvut.kbss.termit.rest.handler.ErrorInfo;
 import cz.cvut.kbss.termit.security.model.TermItUserDetails;
 import cz.cvut.kbss.termit.service.security.SecurityUtils;
 import cz.cvut.kbss.termit.service.security.TermItUserDetailsService;
+import io.jsonwebtoken.Claims;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -71,11 +72,15 @@ public class JwtAuthorizationFilter extends BasicAuthenticationFilter {
         }
         final String authToken = authHeader.substring(SecurityConstants.JWT_TOKEN_PREFIX.length());
         try {
-            final TermItUserDetails userDetails = jwtUtils.extractUserInfo(authToken);
-            final TermItUserDetails existingDetails = userDetailsService.loadUserByUsername(userDetails.getUsername());
+            final Claims claims = jwtUtils.parseToken(authToken);
+            final TermItUserDetails userDetails = jwtUtils.extractUserInfo(claims);
+            final TermItUserDetails existingDetails = userDetailsService
+                    .loadCachedUserByUsername(userDetails.getUsername());
             SecurityUtils.verifyAccountStatus(existingDetails.getUser());
             securityUtils.setCurrentUser(existingDetails);
-            refreshToken(authToken, response);
+            if (jwtUtils.shouldRefresh(claims)) {
+                refreshToken(claims, response);
+            }
         } catch (DisabledException | LockedException | JwtException | UsernameNotFoundException e) {
             response.setStatus(HttpStatus.UNAUTHORIZED.value());
             objectMapper.writeValue(response.getOutputStream(),
@@ -85,8 +90,8 @@ public class JwtAuthorizationFilter extends BasicAuthenticationFilter {
         chain.doFilter(request, response);
     }
 
-    private void refreshToken(String authToken, HttpServletResponse response) {
-        final String newToken = jwtUtils.refreshToken(authToken);
+    private void refreshToken(Claims claims, HttpServletResponse response) {
+        final String newToken = jwtUtils.refreshToken(claims);
         response.setHeader(HttpHeaders.AUTHORIZATION, SecurityConstants.JWT_TOKEN_PREFIX + newToken);
     }
 }
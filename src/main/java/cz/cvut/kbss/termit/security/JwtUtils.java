@@ -39,9 +39,12 @@ public class JwtUtils {
 
     private final Configuration config;
 
+    private final long refreshThreshold;
+
     @Autowired
     public JwtUtils(Configuration config) {
         this.config = config;
+        this.refreshThreshold = Long.parseLong(config.get(ConfigParam.JWT_REFRESH_THRESHOLD));
     }
 
     /**
@@ -76,9 +79,35 @@ public class JwtUtils {
      */
     public TermItUserDetails extractUserInfo(String token) {
         Objects.requireNonNull(token);
+        return extractUserInfo(parseToken(token));
+    }
+
+    /**
+     * Parses the specified JWT, validating its signature and expiration date.
+     * <p>
+     * The resulting claims can be passed to the other methods of this class, so that the token does not have to be
+     * parsed repeatedly.
+     *
+     * @param token JWT to parse
+     * @return Claims contained in the token
+     */
+    public Claims parseToken(String token) {
+        Objects.requireNonNull(token);
+        final Claims claims = getClaimsFromToken(token);
+        verifyAttributePresence(claims);
+        return claims;
+    }
+
+    /**
+     * Retrieves user info from the specified JWT claims.
+     *
+     * @param claims Claims of a parsed JWT
+     * @return User info retrieved from the claims
+     * @see #parseToken(String)
+     */
+    public TermItUserDetails extractUserInfo(Claims claims) {
+        Objects.requireNonNull(claims);
         try {
-            final Claims claims = getClaimsFromToken(token);
-            verifyAttributePresence(claims);
             final UserAccount user = new UserAccount();
             user.setUri(URI.create(claims.getId()));
             user.setUsername(claims.getSubject());
@@ -99,6 +128,8 @@ public class JwtUtils {
             throw new JwtException("Invalid signature of the specified JWT.", e);
         } catch (ExpiredJwtException e) {
             throw new TokenExpiredException(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            throw new JwtException("Unable to parse the specified JWT.", e);
         }
     }
 
@@ -134,11 +165,38 @@ public class JwtUtils {
      */
     public String refreshToken(String token) {
         Objects.requireNonNull(token);
-        final Claims claims = getClaimsFromToken(token);
+        return refreshToken(getClaimsFromToken(token));
+    }
+
+    /**
+     * Generates a new token with the specified claims and updated issuing and expiration date.
+     *
+     * @param claims Claims of a parsed JWT
+     * @return Newly generated token with updated expiration date
+     * @see #parseToken(String)
+     */
+    public String refreshToken(Claims claims) {
+        Objects.requireNonNull(claims);
+        final Claims refreshed = Jwts.claims(claims);
         final Date issuedAt = new Date();
-        claims.setIssuedAt(issuedAt);
-        claims.setExpiration(new Date(issuedAt.getTime() + SecurityConstants.SESSION_TIMEOUT));
-        return Jwts.builder().setClaims(claims)
+        refreshed.setIssuedAt(issuedAt);
+        refreshed.setExpiration(new Date(issuedAt.getTime() + SecurityConstants.SESSION_TIMEOUT));
+        return Jwts.builder().setClaims(refreshed)
                    .signWith(SignatureAlgorithm.HS512, config.get(ConfigParam.JWT_SECRET_KEY)).compact();
     }
+
+    /**
+     * Checks whether a token with the specified claims should be refreshed.
+     * <p>
+     * Tokens are refreshed only when their remaining lifetime drops below the configured threshold, so that they need
+     * not be re-signed on every request.
+     *
+     * @param claims Claims of a parsed JWT
+     * @return {@code true} if the token should be refreshed
+     * @see ConfigParam#JWT_REFRESH_THRESHOLD
+     */
+    public boolean shouldRefresh(Claims claims) {
+        Objects.requireNonNull(claims);
+        return claims.getExpiration().getTime() - System.currentTimeMillis() < refreshThreshold;
+    }
 }
@@ -17,21 +17,93 @@
  */
 package cz.cvut.kbss.termit.service.business;
 
+import cz.cvut.kbss.termit.dto.FacetedSearchResult;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.exception.TermItException;
 import cz.cvut.kbss.termit.persistence.dao.SearchDao;
+import cz.cvut.kbss.termit.persistence.index.FacetIndex;
+import cz.cvut.kbss.termit.persistence.index.LabelTrigramIndex;
+import cz.cvut.kbss.termit.service.cache.SearchResultCache;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import javax.annotation.PreDestroy;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Service
 public class SearchService {
 
+    private static final Logger LOG = LoggerFactory.getLogger(SearchService.class);
+
+    /**
+     * Maximum number of searches waiting for a free thread. Further searches are rejected and reported as incomplete
+     * results.
+     */
+    private static final int MAX_QUEUED_SEARCHES = 64;
+
     private final SearchDao searchDao;
 
+    private final LabelTrigramIndex trigramIndex;
+
+    private final FacetIndex facetIndex;
+
+    private final SearchResultCache cache;
+
+    private final TransactionTemplate txTemplate;
+
+    private final ExecutorService executor;
+
+    private final long timeout;
+
+    /**
+     * Running search-as-you-type searches of each session.
+     * <p>
+     * The sets are accessed only within atomic operations of the map.
+     */
+    private final ConcurrentMap<String, Set<SearchExecution>> asYouTypeSearches = new ConcurrentHashMap<>();
+
     @Autowired
-    public SearchService(SearchDao searchDao) {
+    public SearchService(SearchDao searchDao, LabelTrigramIndex trigramIndex, FacetIndex facetIndex,
+                         SearchResultCache cache, PlatformTransactionManager txManager, Configuration config) {
         this.searchDao = searchDao;
+        this.trigramIndex = trigramIndex;
+        this.facetIndex = facetIndex;
+        this.cache = cache;
+        this.txTemplate = new TransactionTemplate(txManager);
+        txTemplate.setReadOnly(true);
+        this.timeout = Long.parseLong(config.get(ConfigParam.SEARCH_TIMEOUT));
+        final int threads = Integer.parseInt(config.get(ConfigParam.SEARCH_THREADS));
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED_SEARCHES), r -> {
+            // Pooled threads must not keep the security context of the request which happened to create them
+            final Thread t = new Thread(() -> {
+                SecurityContextHolder.clearContext();
+                r.run();
+            }, "search-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        // Each search runs with the security context of the request which submitted it
+        this.executor = new DelegatingSecurityContextExecutorService(pool);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
     }
 
     /**
@@ -41,6 +113,235 @@ public class SearchService {
      * @return Matching assets
      */
     public List<FullTextSearchResult> fullTextSearch(String searchString) {
-        return searchDao.fullTextSearch(searchString);
+        return fullTextSearch(searchString, Pageable.unpaged());
+    }
+
+    /**
+     * Executes full text search in assets, returning only the specified page of results.
+     *
+     * @param searchString String to search by
+     * @param pageSpec     Specification of the page to return
+     * @return Page of matching assets
+     */
+    public List<FullTextSearchResult> fullTextSearch(String searchString, Pageable pageSpec) {
+        return fullTextSearch(searchString, pageSpec, new SearchExecution(searchString));
+    }
+
+    /**
+     * Executes full text search in assets as the user types the search string.
+     * <p>
+     * Such searches are issued on (almost) every keystroke. A new search from the same session supersedes the running
+     * searches of the session whose search string it extends. These are cancelled and return no results. Other
+     * running searches (e.g., when the user deletes characters) are not affected, but they are still tracked, so that
+     * a later search extending them supersedes them.
+     *
+     * @param searchString String to search by
+     * @param pageSpec     Specification of the page to return, {@link Pageable#unpaged()} for all results
+     * @param session      Identifier of the session issuing the searches
+     * @return Page of matching assets, empty if the search has been superseded
+     */
+    public Optional<List<FullTextSearchResult>> fullTextSearchAsYouType(String searchString, Pageable pageSpec,
+                                                                        String session) {
+        Objects.requireNonNull(searchString);
+        Objects.requireNonNull(session);
+        final SearchExecution execution = new SearchExecution(searchString);
+        asYouTypeSearches.compute(session, (k, running) -> {
+            final Set<SearchExecution> result = running != null ? running : new HashSet<>();
+            result.stream().filter(e -> e.isExtendedBy(searchString)).forEach(SearchExecution::cancel);
+            result.add(execution);
+            return result;
+        });
+        try {
+            return Optional.of(fullTextSearch(searchString, pageSpec, execution));
+        } catch (CancellationException e) {
+            LOG.trace("Full text search for \"{}\" has been superseded.", searchString);
+            return Optional.empty();
+        } finally {
+            asYouTypeSearches.computeIfPresent(session, (k, running) -> {
+                running.remove(execution);
+                return running.isEmpty() ? null : running;
+            });
+        }
+    }
+
+    private List<FullTextSearchResult> fullTextSearch(String searchString, Pageable pageSpec,
+                                                      SearchExecution execution) {
+        return cache.get(() -> searchInParallel(searchString, pageSpec, execution), execution::isComplete,
+                "fullTextSearch", searchString, pageSpec);
+    }
+
+    /**
+     * Searches each of the asset types supported by the search DAO in a separate thread and merges the results.
+     * <p>
+     * Searches which do not finish within the configured timeout, fail or are rejected because too many searches are
+     * waiting are left out from the result, so that a slow type does not hold back the whole response. If all of them
+     * fail, the failure is rethrown.
+     *
+     * @throws CancellationException If the execution has been cancelled
+     */
+    private List<FullTextSearchResult> searchInParallel(String searchString, Pageable pageSpec,
+                                                        SearchExecution execution) {
+        final Pageable typePage = SearchDao.firstResults(pageSpec);
+        final List<URI> types = searchDao.getSearchedTypes();
+        final List<Future<List<FullTextSearchResult>>> futures = new ArrayList<>(types.size());
+        for (URI type : types) {
+            try {
+                futures.add(execution.add(executor.submit(() -> searchInTransaction(searchString, type, typePage))));
+            } catch (RejectedExecutionException e) {
+                LOG.warn("Full text search for \"{}\" in assets of type {} rejected, too many searches are waiting.",
+                        searchString, type);
+                execution.incomplete();
+                futures.add(null);
+            }
+        }
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        final List<List<FullTextSearchResult>> results = new ArrayList<>(types.size());
+        RuntimeException failure = null;
+        for (int i = 0; i < futures.size(); i++) {
+            final Future<List<FullTextSearchResult>> future = futures.get(i);
+            if (future == null) {
+                continue;
+            }
+            try {
+                results.add(future.get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS));
+            } catch (CancellationException e) {
+                break;
+            } catch (TimeoutException e) {
+                LOG.warn("Full text search for \"{}\" in assets of type {} did not finish in {} ms, skipping it.",
+                        searchString, types.get(i), timeout);
+                future.cancel(true);
+                execution.incomplete();
+            } catch (ExecutionException e) {
+                LOG.error("Full text search for \"{}\" in assets of type {} failed.", searchString, types.get(i),
+                        e.getCause());
+                execution.incomplete();
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() :
+                              new TermItException(e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                execution.cancel();
+                throw new TermItException("Interrupted while waiting for full text search results.", e);
+            }
+        }
+        if (execution.isCancelled()) {
+            throw new CancellationException("Full text search for \"" + searchString + "\" has been cancelled.");
+        }
+        if (results.isEmpty() && failure != null) {
+            throw failure;
+        }
+        return SearchDao.mergeResults(results, pageSpec);
+    }
+
+    private List<FullTextSearchResult> searchInTransaction(String searchString, URI type, Pageable pageSpec) {
+        return txTemplate.execute(status -> searchDao.fullTextSearch(searchString, type, pageSpec));
+    }
+
+    /**
+     * Executes typo-tolerant search in asset labels.
+     * <p>
+     * Unlike {@link #fullTextSearch(String)}, this matches also labels which differ from the search string by a few
+     * characters.
+     *
+     * @param searchString String to search by
+     * @return Matching assets, the closest matches first
+     */
+    public List<FullTextSearchResult> fuzzySearch(String searchString) {
+        return trigramIndex.search(searchString);
+    }
+
+    /**
+     * Executes typo-tolerant search in asset labels, returning only the specified page of results.
+     *
+     * @param searchString String to search by
+     * @param pageSpec     Specification of the page to return
+     * @return Page of matching assets
+     * @see #fuzzySearch(String)
+     */
+    public List<FullTextSearchResult> fuzzySearch(String searchString, Pageable pageSpec) {
+        return fuzzySearch(searchString).stream().skip(pageSpec.getOffset()).limit(pageSpec.getPageSize())
+                                        .collect(Collectors.toList());
+    }
+
+    /**
+     * Executes full text search in assets, narrowing the results down by the specified facet values.
+     * <p>
+     * Facet counts are computed from all matching assets, results are then paged according to the specified page
+     * specification.
+     *
+     * @param searchString String to search by
+     * @param filter       Selected facet values, mapped by facet (see {@link FacetIndex} for supported facets)
+     * @param pageSpec     Specification of the page to return, {@link Pageable#unpaged()} for all results
+     * @return Matching assets and facet counts
+     */
+    public FacetedSearchResult facetedSearch(String searchString, Map<String, ? extends Collection<String>> filter,
+                                             Pageable pageSpec) {
+        Objects.requireNonNull(filter);
+        final List<FullTextSearchResult> found = fullTextSearch(searchString);
+        final FacetedSearchResult result = txTemplate.execute(status -> facetIndex.facet(found, filter));
+        assert result != null;
+        if (pageSpec.isPaged()) {
+            result.setResults(result.getResults().stream().skip(pageSpec.getOffset()).limit(pageSpec.getPageSize())
+                                    .collect(Collectors.toList()));
+        }
+        return result;
+    }
+
+    /**
+     * Execution of a full text search, which can be cancelled.
+     * <p>
+     * Cancellation makes the search stop waiting for its results. Sub-queries which have not started yet are not
+     * executed and threads evaluating the running ones are interrupted, so that they do not issue any further
+     * queries (see {@link SearchDao#fullTextSearch(String, URI, Pageable)}). A repository query which is
+     * already being evaluated cannot be aborted through the persistence layer, it runs to completion and its results
+     * are discarded.
+     */
+    private static final class SearchExecution {
+
+        private final String searchString;
+
+        private final List<Future<?>> futures = new CopyOnWriteArrayList<>();
+
+        private volatile boolean cancelled;
+
+        private volatile boolean complete = true;
+
+        SearchExecution(String searchString) {
+            this.searchString = searchString;
+        }
+
+        /**
+         * Whether the specified search string extends the search string of this execution, i.e., the user kept
+         * typing.
+         */
+        boolean isExtendedBy(String newSearchString) {
+            return newSearchString.length() > searchString.length() && newSearchString.startsWith(searchString);
+        }
+
+        <T> Future<T> add(Future<T> future) {
+            futures.add(future);
+            if (cancelled) {
+                future.cancel(true);
+            }
+            return future;
+        }
+
+        void cancel() {
+            this.cancelled = true;
+            futures.forEach(f -> f.cancel(true));
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+
+        void incomplete() {
+            this.complete = false;
+        }
+
+        boolean isComplete() {
+            return complete && !cancelled;
+        }
     }
 }
@@ -14,8 +14,12 @@
  */
 package cz.cvut.kbss.termit.service.business;
 
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.TermTreeNode;
 import cz.cvut.kbss.termit.dto.assignment.TermAssignments;
+import cz.cvut.kbss.termit.exception.InvalidParameterException;
 import cz.cvut.kbss.termit.exception.NotFoundException;
+import cz.cvut.kbss.termit.exception.ValidationException;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
@@ -23,6 +27,9 @@ import cz.cvut.kbss.termit.service.changetracking.ChangeRecordProvider;
 import cz.cvut.kbss.termit.service.export.VocabularyExporters;
 import cz.cvut.kbss.termit.service.repository.ChangeRecordService;
 import cz.cvut.kbss.termit.service.repository.TermRepositoryService;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.PageCursor;
 import cz.cvut.kbss.termit.util.TypeAwareResource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
@@ -34,7 +41,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * Service for term-related business logic.
@@ -50,13 +57,17 @@ public class TermService implements ChangeRecordProvider<Term> {
 
     private final ChangeRecordService changeRecordService;
 
+    private final Configuration config;
+
     @Autowired
     public TermService(VocabularyExporters exporters, VocabularyService vocabularyService,
-                       TermRepositoryService repositoryService, ChangeRecordService changeRecordService) {
+                       TermRepositoryService repositoryService, ChangeRecordService changeRecordService,
+                       Configuration config) {
         this.exporters = exporters;
         this.vocabularyService = vocabularyService;
         this.repositoryService = repositoryService;
         this.changeRecordService = changeRecordService;
+        this.config = config;
     }
 
     /**
@@ -83,6 +94,21 @@ public class TermService implements ChangeRecordProvider<Term> {
         return repositoryService.findAll(vocabulary);
     }
 
+    /**
+     * Passes all terms from the specified vocabulary to the specified action, one by one.
+     * <p>
+     * Unlike {@link #findAll(Vocabulary)}, this method does not need to hold all the terms in memory at once, so it is
+     * suitable for processing large vocabularies.
+     *
+     * @param vocabulary Vocabulary whose terms will be processed
+     * @param action     Action to perform on each term
+     */
+    public void forEach(Vocabulary vocabulary, Consumer<? super Term> action) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(action);
+        repositoryService.forEach(vocabulary, action);
+    }
+
     /**
      * Retrieves root terms (terms without parent) from the specified vocabulary.
      * <p>
@@ -98,6 +124,53 @@ public class TermService implements ChangeRecordProvider<Term> {
         return repositoryService.findAllRoots(vocabulary, pageSpec);
     }
 
+    /**
+     * Retrieves root terms (terms without parent) from the specified vocabulary as lightweight tree nodes.
+     * <p>
+     * Tree nodes contain only basic term data and the number of sub-terms, which is enough for rendering a term tree.
+     *
+     * @param vocabulary Vocabulary whose terms will be returned
+     * @param pageSpec   Page specifying result number and position
+     * @return Matching root term nodes
+     */
+    public List<TermTreeNode> findAllRootNodes(Vocabulary vocabulary, Pageable pageSpec) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(pageSpec);
+        return repositoryService.findAllRootNodes(vocabulary, pageSpec);
+    }
+
+    /**
+     * Retrieves root terms from the specified vocabulary or any of its imported vocabularies as lightweight tree
+     * nodes.
+     *
+     * @param vocabulary Base vocabulary for the vocabulary import closure
+     * @param pageSpec   Page specifying result number and position
+     * @return Matching root term nodes
+     * @see #findAllRootNodes(Vocabulary, Pageable)
+     */
+    public List<TermTreeNode> findAllRootNodesIncludingImports(Vocabulary vocabulary, Pageable pageSpec) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(pageSpec);
+        return repositoryService.findAllRootNodesIncludingImported(vocabulary, pageSpec);
+    }
+
+    /**
+     * Retrieves root terms from the specified vocabulary which follow the specified cursor.
+     * <p>
+     * This is a keyset-based alternative to {@link #findAllRoots(Vocabulary, Pageable)}, whose cost does not grow with
+     * the page position.
+     *
+     * @param vocabulary Vocabulary whose terms will be returned
+     * @param after      Position of the last term of the previous page
+     * @param limit      Maximum number of returned terms
+     * @return Matching terms
+     */
+    public List<Term> findAllRoots(Vocabulary vocabulary, PageCursor after, int limit) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(after);
+        return repositoryService.findAllRoots(vocabulary, after, limit);
+    }
+
     /**
      * Finds all root terms (terms without parent term) in the specified vocabulary or any of its imported
      * vocabularies.
@@ -116,6 +189,22 @@ public class TermService implements ChangeRecordProvider<Term> {
         return repositoryService.findAllRootsIncludingImported(vocabulary, pageSpec);
     }
 
+    /**
+     * Finds root terms in the specified vocabulary or any of its imported vocabularies which follow the specified
+     * cursor.
+     *
+     * @param vocabulary Base vocabulary for the vocabulary import closure
+     * @param after      Position of the last term of the previous page
+     * @param limit      Maximum number of returned terms
+     * @return Matching root terms
+     * @see #findAllRootsIncludingImports(Vocabulary, Pageable)
+     */
+    public List<Term> findAllRootsIncludingImports(Vocabulary vocabulary, PageCursor after, int limit) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(after);
+        return repositoryService.findAllRootsIncludingImported(vocabulary, after, limit);
+    }
+
     /**
      * Finds all terms which match the specified search string in the specified vocabulary.
      *
@@ -206,11 +295,36 @@ public class TermService implements ChangeRecordProvider<Term> {
      */
     public List<Term> findSubTerms(Term parent) {
         Objects.requireNonNull(parent);
-        return parent.getSubTerms() == null ? Collections.emptyList() :
-               parent.getSubTerms().stream().map(u -> repositoryService.find(u.getUri()).orElseThrow(
-                       () -> new NotFoundException(
-                               "Child of term " + parent + " with id " + u.getUri() + " not found!")))
-                     .collect(Collectors.toList());
+        return parent.getSubTerms() == null || parent.getSubTerms().isEmpty() ? Collections.emptyList() :
+               repositoryService.findSubTerms(parent);
+    }
+
+    /**
+     * Gets child terms of the specified parent term as lightweight tree nodes.
+     *
+     * @param parent Parent term whose children should be loaded
+     * @return List of child term nodes
+     */
+    public List<TermTreeNode> findSubTermNodes(Term parent) {
+        Objects.requireNonNull(parent);
+        return repositoryService.findSubTermNodes(parent);
+    }
+
+    /**
+     * Gets the sub-tree of the specified term, down to the specified depth.
+     *
+     * @param root  Root term of the sub-tree
+     * @param depth Maximum depth of the sub-tree, must be positive and at most {@link ConfigParam#SUBTREE_MAX_DEPTH}
+     * @return Tree node representing the specified term, with nested sub-term nodes
+     * @throws InvalidParameterException If the depth is not positive or exceeds the configured maximum
+     */
+    public TermTreeNode findSubTree(Term root, int depth) {
+        Objects.requireNonNull(root);
+        final int maxDepth = Integer.parseInt(config.get(ConfigParam.SUBTREE_MAX_DEPTH));
+        if (depth < 1 || depth > maxDepth) {
+            throw new InvalidParameterException("Sub-tree depth must be a number between 1 and " + maxDepth + ".");
+        }
+        return repositoryService.findSubTree(root, depth);
     }
 
     /**
@@ -223,6 +337,25 @@ public class TermService implements ChangeRecordProvider<Term> {
         return repositoryService.getAssignmentsInfo(term);
     }
 
+    /**
+     * Suggests terms of the specified vocabulary whose label starts with the specified prefix.
+     * <p>
+     * The comparison ignores case.
+     *
+     * @param prefix     Label prefix
+     * @param vocabulary Vocabulary whose terms should be returned
+     * @param limit      Maximum number of returned terms
+     * @return Matching terms ordered by label
+     */
+    public List<TermInfo> suggest(String prefix, Vocabulary vocabulary, int limit) {
+        Objects.requireNonNull(prefix);
+        Objects.requireNonNull(vocabulary);
+        if (limit < 1) {
+            throw new ValidationException("Suggestion limit must be a positive number.");
+        }
+        return repositoryService.findAllByLabelPrefix(prefix, vocabulary, limit);
+    }
+
     /**
      * Checks whether a term with the specified label already exists in the specified vocabulary.
      *
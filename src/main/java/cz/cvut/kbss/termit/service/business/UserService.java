@@ -26,6 +26,7 @@ import cz.cvut.kbss.termit.model.UserAccount;
 import cz.cvut.kbss.termit.rest.dto.UserUpdateDto;
 import cz.cvut.kbss.termit.service.repository.UserRepositoryService;
 import cz.cvut.kbss.termit.service.security.SecurityUtils;
+import cz.cvut.kbss.termit.service.security.UserDetailsCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -50,10 +51,14 @@ public class UserService {
 
     private final SecurityUtils securityUtils;
 
+    private final UserDetailsCache userDetailsCache;
+
     @Autowired
-    public UserService(UserRepositoryService repositoryService, SecurityUtils securityUtils) {
+    public UserService(UserRepositoryService repositoryService, SecurityUtils securityUtils,
+                       UserDetailsCache userDetailsCache) {
         this.repositoryService = repositoryService;
         this.securityUtils = securityUtils;
+        this.userDetailsCache = userDetailsCache;
     }
 
     /**
@@ -135,6 +140,7 @@ public class UserService {
             securityUtils.verifyCurrentUserPassword(update.getOriginalPassword());
         }
         repositoryService.update(update.asUserAccount());
+        userDetailsCache.evict(currentUser.getUsername());
     }
 
     /**
@@ -154,6 +160,7 @@ public class UserService {
         account.unlock();
         account.setPassword(newPassword);
         repositoryService.update(account);
+        userDetailsCache.evict(account.getUsername());
     }
 
     private void ensureNotOwnAccount(UserAccount account, String operation) {
@@ -174,6 +181,7 @@ public class UserService {
         LOG.trace("Disabling user account {}.", account);
         account.disable();
         repositoryService.update(account);
+        userDetailsCache.evict(account.getUsername());
     }
 
     /**
@@ -188,6 +196,7 @@ public class UserService {
         LOG.trace("Enabling user account {}.", account);
         account.enable();
         repositoryService.update(account);
+        userDetailsCache.evict(account.getUsername());
     }
 
     /**
@@ -205,6 +214,7 @@ public class UserService {
         LOG.trace("Locking user account {} due to exceeding unsuccessful login attempts limit.", account);
         account.lock();
         repositoryService.update(account);
+        userDetailsCache.evict(account.getUsername());
     }
 
     /**
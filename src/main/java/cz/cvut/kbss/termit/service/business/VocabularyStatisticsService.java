@@ -0,0 +1,76 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.business;
+
+import cz.cvut.kbss.termit.dto.VocabularyStatistics;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.persistence.index.TermHierarchyIndex;
+import cz.cvut.kbss.termit.persistence.index.TermUsageIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.util.Objects;
+
+/**
+ * Provides aggregated statistics of vocabularies.
+ * <p>
+ * The statistics are not computed on request, they are read from in-memory aggregates which are kept up to date as
+ * terms, term assignments and term occurrences change.
+ */
+@Service
+public class VocabularyStatisticsService {
+
+    private final TermHierarchyIndex hierarchyIndex;
+
+    private final TermUsageIndex usageIndex;
+
+    @Autowired
+    public VocabularyStatisticsService(TermHierarchyIndex hierarchyIndex, TermUsageIndex usageIndex) {
+        this.hierarchyIndex = hierarchyIndex;
+        this.usageIndex = usageIndex;
+    }
+
+    /**
+     * Gets statistics of the specified vocabulary.
+     *
+     * @param vocabulary Vocabulary whose statistics to get
+     * @return Vocabulary statistics
+     */
+    public VocabularyStatistics getStatistics(Vocabulary vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        return getStatistics(vocabulary.getUri());
+    }
+
+    /**
+     * Gets statistics of a vocabulary with the specified identifier.
+     *
+     * @param vocabulary Vocabulary identifier
+     * @return Vocabulary statistics
+     */
+    public VocabularyStatistics getStatistics(URI vocabulary) {
+        Objects.requireNonNull(vocabulary);
+        final VocabularyStatistics result = new VocabularyStatistics(vocabulary);
+        result.setTermCount(hierarchyIndex.countTerms(vocabulary));
+        result.setRootCount(hierarchyIndex.countRoots(vocabulary));
+        result.setDepth(hierarchyIndex.getDepth(vocabulary));
+        result.setAssignmentCount(usageIndex.countAssignments(vocabulary));
+        result.setOccurrenceCount(usageIndex.countOccurrences(vocabulary));
+        return result;
+    }
+}
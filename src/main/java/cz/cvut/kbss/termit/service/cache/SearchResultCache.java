@@ -0,0 +1,285 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.cache;
+
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.persistence.dao.ResourceDao;
+import cz.cvut.kbss.termit.persistence.dao.TermDao;
+import cz.cvut.kbss.termit.persistence.dao.VocabularyDao;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of search results.
+ * <p>
+ * Results are keyed by the search parameters (search string, vocabulary scope etc.) and the configured language. The
+ * whole cache is invalidated whenever the data version changes, i.e., when the last modification timestamp of
+ * vocabularies, terms or resources changes or when an asset modification is committed.
+ * <p>
+ * Cached results are shared by all requests, so they should consist of immutable values (DTOs, identifiers), not of
+ * managed entities.
+ */
+@Component
+public class SearchResultCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SearchResultCache.class);
+
+    private final VocabularyDao vocabularyDao;
+
+    private final TermDao termDao;
+
+    private final ResourceDao resourceDao;
+
+    private final String language;
+
+    private final int capacity;
+
+    private final Map<List<Object>, List<?>> cache;
+
+    /**
+     * Searches currently being executed, used to coalesce concurrent identical searches.
+     */
+    private final ConcurrentMap<List<Object>, CompletableFuture<List<?>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented after commit of every asset modification.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private List<Long> version = Collections.emptyList();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @Autowired
+    public SearchResultCache(VocabularyDao vocabularyDao, TermDao termDao, ResourceDao resourceDao,
+                             Configuration config) {
+        this.vocabularyDao = vocabularyDao;
+        this.termDao = termDao;
+        this.resourceDao = resourceDao;
+        this.language = config.get(ConfigParam.LANGUAGE);
+        this.capacity = Integer.parseInt(config.get(ConfigParam.SEARCH_CACHE_SIZE));
+        this.cache = new LinkedHashMap<List<Object>, List<?>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, List<?>> eldest) {
+                final boolean evict = size() > SearchResultCache.this.capacity;
+                if (evict) {
+                    evictions.incrementAndGet();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Gets cached result of the search with the specified parameters or executes the search and caches its result.
+     *
+     * @param loader     Executes the search
+     * @param parameters Search parameters, must include the search kind (e.g., method name), so that results of
+     *                   different searches with the same arguments are distinguished
+     * @param <T>        Type of the search result items
+     * @return Search results
+     * @see #get(Supplier, BooleanSupplier, Object...)
+     */
+    public <T> List<T> get(Supplier<List<T>> loader, Object... parameters) {
+        return get(loader, () -> true, parameters);
+    }
+
+    /**
+     * Gets cached result of the search with the specified parameters or executes the search and caches its result.
+     * <p>
+     * Concurrent identical searches are coalesced, i.e., the loader is executed only by the first of them and the
+     * others wait for its result. If the first search is cancelled (its loader throws {@link CancellationException}),
+     * the waiting searches execute their own loaders.
+     * <p>
+     * The result is cached only if it is complete and the data version has not changed in the meantime.
+     *
+     * @param loader     Executes the search
+     * @param complete   Tells whether the result returned by the loader is complete. Evaluated after the loader
+     * @param parameters Search parameters, must include the search kind (e.g., method name), so that results of
+     *                   different searches with the same arguments are distinguished
+     * @param <T>        Type of the search result items
+     * @return Search results
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> get(Supplier<List<T>> loader, BooleanSupplier complete, Object... parameters) {
+        Objects.requireNonNull(loader);
+        Objects.requireNonNull(complete);
+        final List<Object> key = new ArrayList<>(parameters.length + 1);
+        key.add(language);
+        key.addAll(Arrays.asList(parameters));
+        final List<Long> currentVersion = currentVersion();
+        synchronized (this) {
+            checkVersion(currentVersion);
+            final List<T> cached = (List<T>) cache.get(key);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return new ArrayList<>(cached);
+            }
+        }
+        final CompletableFuture<List<?>> flight = new CompletableFuture<>();
+        final CompletableFuture<List<?>> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            coalesced.incrementAndGet();
+            return awaitLeader((CompletableFuture<List<T>>) (CompletableFuture<?>) leader, loader);
+        }
+        misses.incrementAndGet();
+        try {
+            final List<T> result = loader.get();
+            synchronized (this) {
+                if (complete.getAsBoolean() && currentVersion.equals(currentVersion()) &&
+                        currentVersion.equals(version)) {
+                    cache.put(key, new ArrayList<>(result));
+                }
+            }
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private static <T> List<T> awaitLeader(CompletableFuture<List<T>> leader, Supplier<List<T>> loader) {
+        try {
+            return new ArrayList<>(leader.join());
+        } catch (CancellationException e) {
+            LOG.trace("Coalesced search was cancelled, executing it again.");
+            return loader.get();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private List<Long> currentVersion() {
+        return Arrays.asList(vocabularyDao.getLastModified(), termDao.getLastModified(),
+                resourceDao.getLastModified(), generation.get());
+    }
+
+    private void checkVersion(List<Long> currentVersion) {
+        if (!currentVersion.equals(version)) {
+            if (!cache.isEmpty()) {
+                LOG.trace("Data version changed, invalidating search result cache.");
+                invalidations.incrementAndGet();
+                cache.clear();
+            }
+            this.version = currentVersion;
+        }
+    }
+
+    /**
+     * Removes all results from the cache.
+     */
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    public synchronized int getSize() {
+        return cache.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the ratio of cache hits to all cache accesses.
+     *
+     * @return Hit ratio between 0 and 1, 0 if the cache has not been accessed yet
+     */
+    public double getHitRatio() {
+        final long hitCount = hits.get();
+        final long total = hitCount + misses.get();
+        return total > 0 ? (double) hitCount / total : 0.0;
+    }
+
+    /**
+     * Gets the number of searches which did not execute on their own, but waited for a concurrent identical search.
+     *
+     * @return Number of coalesced searches
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Gets the number of results evicted from the cache because of its capacity.
+     *
+     * @return Number of evicted results
+     */
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * Gets the number of times the cache has been invalidated because of a data version change.
+     *
+     * @return Number of invalidations
+     */
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssetModified(AssetModifiedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    @EventListener
+    public void onEvictCache(EvictCacheEvent event) {
+        LOG.debug("Evicting search result cache.");
+        clear();
+    }
+}
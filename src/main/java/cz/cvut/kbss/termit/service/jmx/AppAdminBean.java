@@ -18,15 +18,21 @@
 package cz.cvut.kbss.termit.service.jmx;
 
 import cz.cvut.kbss.jopa.model.EntityManagerFactory;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
 import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
+import cz.cvut.kbss.termit.persistence.cache.EntityCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
 import org.springframework.jmx.export.annotation.ManagedOperation;
 import org.springframework.jmx.export.annotation.ManagedResource;
 import org.springframework.stereotype.Component;
 
+import java.util.Arrays;
+import java.util.Locale;
+
 @Component
 @ManagedResource(objectName = "bean:name=TermItAdminBean", description = "TermIt administration JMX bean.")
 public class AppAdminBean {
@@ -37,17 +43,28 @@ public class AppAdminBean {
 
     private final EntityManagerFactory emf;
 
+    private final EntityCache entityCache;
+
     @Autowired
-    public AppAdminBean(ApplicationEventPublisher eventPublisher, EntityManagerFactory emf) {
+    public AppAdminBean(ApplicationEventPublisher eventPublisher, EntityManagerFactory emf, EntityCache entityCache) {
         this.eventPublisher = eventPublisher;
         this.emf = emf;
+        this.entityCache = entityCache;
     }
 
     @ManagedOperation(description = "Invalidates the application caches.")
     public void invalidateCaches() {
         LOG.info("Invalidating application caches...");
         emf.getCache().evictAll();
+        eventPublisher.publishEvent(new EvictCacheEvent(this));
         LOG.info("Refreshing last modified timestamps...");
         eventPublisher.publishEvent(new RefreshLastModifiedEvent(this));
     }
+
+    @ManagedAttribute(description = "Hit, miss and eviction statistics of the entity cache regions.")
+    public String[] getEntityCacheStatistics() {
+        return Arrays.stream(EntityCache.Region.values())
+                     .map(r -> r.name().toLowerCase(Locale.ROOT) + ": " + entityCache.getStatistics(r))
+                     .toArray(String[]::new);
+    }
 }
@@ -0,0 +1,52 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.jmx;
+
+import cz.cvut.kbss.termit.service.language.LanguageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+@Component
+@ManagedResource(objectName = "bean:name=TermItLanguageBean", description = "TermIt language specification JMX bean.")
+public class LanguageBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LanguageBean.class);
+
+    private final LanguageService languageService;
+
+    @Autowired
+    public LanguageBean(LanguageService languageService) {
+        this.languageService = languageService;
+    }
+
+    @ManagedAttribute(description = "Langs for which types have been resolved from the language specification.")
+    public String[] getLoadedLangs() {
+        return languageService.getLoadedLangs().stream().sorted().toArray(String[]::new);
+    }
+
+    @ManagedOperation(description = "Reloads the language specification.")
+    public void reload() {
+        LOG.info("Reloading language specification...");
+        languageService.reload();
+    }
+}
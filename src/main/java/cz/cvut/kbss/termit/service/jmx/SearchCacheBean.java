@@ -0,0 +1,82 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.jmx;
+
+import cz.cvut.kbss.termit.service.cache.SearchResultCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+@Component
+@ManagedResource(objectName = "bean:name=TermItSearchCacheBean", description = "TermIt search result cache JMX bean.")
+public class SearchCacheBean {
+
+    private final SearchResultCache cache;
+
+    @Autowired
+    public SearchCacheBean(SearchResultCache cache) {
+        this.cache = cache;
+    }
+
+    @ManagedAttribute(description = "Number of cached search results.")
+    public int getSize() {
+        return cache.getSize();
+    }
+
+    @ManagedAttribute(description = "Maximum number of cached search results.")
+    public int getCapacity() {
+        return cache.getCapacity();
+    }
+
+    @ManagedAttribute(description = "Ratio of cache hits to all cache accesses.")
+    public double getHitRatio() {
+        return cache.getHitRatio();
+    }
+
+    @ManagedAttribute(description = "Number of cache hits.")
+    public long getHitCount() {
+        return cache.getHitCount();
+    }
+
+    @ManagedAttribute(description = "Number of cache misses.")
+    public long getMissCount() {
+        return cache.getMissCount();
+    }
+
+    @ManagedAttribute(description = "Number of searches which waited for a concurrent identical search.")
+    public long getCoalescedCount() {
+        return cache.getCoalescedCount();
+    }
+
+    @ManagedAttribute(description = "Number of results evicted because of cache capacity.")
+    public long getEvictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    @ManagedAttribute(description = "Number of cache invalidations caused by data changes.")
+    public long getInvalidationCount() {
+        return cache.getInvalidationCount();
+    }
+
+    @ManagedOperation(description = "Removes all results from the search result cache.")
+    public void clear() {
+        cache.clear();
+    }
+}
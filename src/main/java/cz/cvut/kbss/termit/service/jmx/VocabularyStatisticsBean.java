@@ -0,0 +1,46 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.jmx;
+
+import cz.cvut.kbss.termit.service.business.VocabularyStatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedOperationParameter;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+
+@Component
+@ManagedResource(objectName = "bean:name=TermItVocabularyStatisticsBean",
+        description = "TermIt vocabulary statistics JMX bean.")
+public class VocabularyStatisticsBean {
+
+    private final VocabularyStatisticsService statisticsService;
+
+    @Autowired
+    public VocabularyStatisticsBean(VocabularyStatisticsService statisticsService) {
+        this.statisticsService = statisticsService;
+    }
+
+    @ManagedOperation(description = "Gets statistics of the vocabulary with the specified identifier.")
+    @ManagedOperationParameter(name = "vocabulary", description = "Vocabulary identifier")
+    public String getStatistics(String vocabulary) {
+        return statisticsService.getStatistics(URI.create(vocabulary)).toString();
+    }
+}
@@ -21,6 +21,7 @@ import cz.cvut.kbss.termit.model.Term;
 import org.springframework.core.io.ClassPathResource;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * A service that fetches parts of the UFO-compliant language for the use in TermIt.
@@ -44,4 +45,16 @@ public abstract class LanguageService {
      * @return
      */
     public abstract List<Term> getTypesForLang(String lang);
+
+    /**
+     * Reloads the language specification, discarding types resolved from the previously loaded one.
+     */
+    public abstract void reload();
+
+    /**
+     * Gets langs for which types have been resolved from the currently loaded language specification.
+     *
+     * @return Set of lang tags
+     */
+    public abstract Set<String> getLoadedLangs();
 }
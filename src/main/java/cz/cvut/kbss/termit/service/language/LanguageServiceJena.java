@@ -17,8 +17,8 @@
  */
 package cz.cvut.kbss.termit.service.language;
 
-import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
@@ -34,16 +34,20 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import java.net.URI;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * A service that fetches parts of the UFO-compliant language for the use in TermIt.
  * <p>
  * In this class: - lang = natural language tag, e.g. "cs", or "en" - language = UFO language, e.g. OntoUML, or Basic
  * Language
+ * <p>
+ * The language specification is parsed once on startup (and on {@link #reload()}). Types for langs used in the
+ * specification are resolved at that time and served from memory, types for other langs are resolved on each request.
+ * Callers always get their own copies of the types.
  */
 @Qualifier("jena")
 @Service
@@ -51,45 +55,129 @@ public class LanguageServiceJena extends LanguageService {
 
     private static final Logger LOG = LoggerFactory.getLogger(LanguageServiceJena.class);
 
+    private volatile Catalogue catalogue = new Catalogue(null, Collections.emptySet());
+
     @Autowired
     public LanguageServiceJena(ClassPathResource languageTtlUrl) {
         super(languageTtlUrl);
     }
 
+    /**
+     * Parses the language specification and precomputes types for all langs used in it.
+     * <p>
+     * If the specification cannot be loaded, the previously loaded types are kept.
+     */
+    @PostConstruct
+    @Override
+    public void reload() {
+        final Model m;
+        try {
+            m = ModelFactory.createOntologyModel();
+            m.read(resource.getURL().toString(), "text/turtle");
+        } catch (Exception e) {
+            LOG.error("Unable to load language specification from {}.", resource, e);
+            return;
+        }
+        final Set<String> langs = m.listObjectsOfProperty(RDFS.label)
+                                   .filterKeep(o -> o.isLiteral() && !o.asLiteral().getLanguage().isEmpty())
+                                   .mapWith(o -> o.asLiteral().getLanguage())
+                                   .toSet();
+        final Catalogue newCatalogue = new Catalogue(m, langs);
+        this.catalogue = newCatalogue;
+        LOG.debug("Language specification loaded, types preloaded for langs {}.", newCatalogue.types.keySet());
+    }
+
     /**
      * Gets all types with labels in the given language.
      *
      * @param lang label language
-     * @return List of types as {@code Term}s
+     * @return List of types as {@code Term}s, owned by the caller
      */
+    @Override
     public List<Term> getTypesForLang(String lang) {
         try {
-            final Model m = ModelFactory.createOntologyModel();
-            m.read(resource.getURL().toString(), "text/turtle");
-
-            final List<Term> terms = new ArrayList<>();
-            m.listSubjectsWithProperty(RDF.type, ResourceFactory.createResource(Vocabulary.s_c_term))
-             .forEachRemaining(c -> {
-                 final Term t = new Term();
-                 t.setUri(URI.create(c.getURI()));
-                 if (c.getProperty(RDFS.label, lang) != null) {
-                     t.setLabel(c.getProperty(RDFS.label, lang).getObject().asLiteral().getString());
-                 } else {
-                     t.setLabel(t.getUri().toString());
-                 }
-
-                 final Statement st = c.getProperty(RDFS.comment, lang);
-                 if (st != null) {
-                     t.setComment(st.getObject().asLiteral().getString());
-                 }
-                 t.setSubTerms(c.listProperties(SKOS.narrower)
-                                .mapWith(s -> new TermInfo(URI.create(s.getObject().asResource().getURI()))).toSet());
-                 terms.add(t);
-             });
-            return terms;
+            return catalogue.getTypes(lang).stream().map(LanguageServiceJena::copy).collect(Collectors.toList());
         } catch (Exception e) {
             LOG.error("Unable to retrieve types for language {}.", lang, e);
             return Collections.emptyList();
         }
     }
+
+    @Override
+    public Set<String> getLoadedLangs() {
+        return catalogue.types.keySet();
+    }
+
+    private static Term copy(Term type) {
+        final Term copy = new Term();
+        copy.setUri(type.getUri());
+        copy.setLabel(type.getLabel());
+        copy.setComment(type.getComment());
+        copy.setSubTerms(type.getSubTerms().stream().map(ti -> new TermInfo(ti.getUri())).collect(Collectors.toSet()));
+        return copy;
+    }
+
+    /**
+     * Parsed language specification together with types resolved from it.
+     */
+    private static final class Catalogue {
+
+        private final Model model;
+
+        /**
+         * Types precomputed for langs used in the specification. Never modified after construction.
+         */
+        private final Map<String, List<Term>> types;
+
+        private Catalogue(Model model, Set<String> langs) {
+            this.model = model;
+            final Map<String, List<Term>> map = new HashMap<>();
+            if (model != null) {
+                langs.forEach(lang -> map.put(lang, resolveTypes(lang)));
+            }
+            this.types = Collections.unmodifiableMap(map);
+        }
+
+        /**
+         * Gets types for the specified lang, resolving them from the model (without memoizing) if the lang is not used
+         * in the specification.
+         */
+        private List<Term> getTypes(String lang) {
+            if (model == null) {
+                return Collections.emptyList();
+            }
+            final List<Term> result = types.get(lang);
+            if (result != null) {
+                return result;
+            }
+            // Inference model is not safe for concurrent reads
+            synchronized (this) {
+                return resolveTypes(lang);
+            }
+        }
+
+        private List<Term> resolveTypes(String lang) {
+            final List<Term> terms = new ArrayList<>();
+            model.listSubjectsWithProperty(RDF.type, ResourceFactory.createResource(Vocabulary.s_c_term))
+                 .forEachRemaining(c -> {
+                     final Term t = new Term();
+                     t.setUri(URI.create(c.getURI()));
+                     if (c.getProperty(RDFS.label, lang) != null) {
+                         t.setLabel(c.getProperty(RDFS.label, lang).getObject().asLiteral().getString());
+                     } else {
+                         t.setLabel(t.getUri().toString());
+                     }
+
+                     final Statement st = c.getProperty(RDFS.comment, lang);
+                     if (st != null) {
+                         t.setComment(st.getObject().asLiteral().getString());
+                     }
+                     t.setSubTerms(c.listProperties(SKOS.narrower)
+                                    .mapWith(s -> new TermInfo(URI.create(s.getObject().asResource().getURI())))
+                                    .toSet());
+                     terms.add(t);
+                 });
+            return Collections.unmodifiableList(terms);
+        }
+    }
 }
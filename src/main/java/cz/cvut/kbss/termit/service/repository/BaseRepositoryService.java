@@ -168,6 +168,7 @@ public abstract class BaseRepositoryService<T extends HasIdentifier> {
         Objects.requireNonNull(instance);
         prePersist(instance);
         getPrimaryDao().persist(instance);
+        postPersist(instance);
     }
 
     /**
@@ -181,6 +182,17 @@ public abstract class BaseRepositoryService<T extends HasIdentifier> {
         validate(instance);
     }
 
+    /**
+     * Override this method to plug custom behavior into the transactional cycle of {@link #persist(HasIdentifier)}.
+     * <p>
+     * The default behavior is a no-op.
+     *
+     * @param instance The persisted instance, not {@code null}
+     */
+    protected void postPersist(@NonNull T instance) {
+        // Do nothing
+    }
+
     /**
      * Merges the specified updated instance into the repository.
      *
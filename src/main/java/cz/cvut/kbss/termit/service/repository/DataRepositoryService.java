@@ -24,7 +24,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.net.URI;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -76,4 +78,14 @@ public class DataRepositoryService {
     public Optional<String> getLabel(URI id) {
         return dataDao.getLabel(id);
     }
+
+    /**
+     * Gets labels of resources with the specified identifiers.
+     *
+     * @param ids Resource identifiers
+     * @return Map of resource identifiers to labels, resources without a label are not present in the map
+     */
+    public Map<URI, String> getLabels(Collection<URI> ids) {
+        return dataDao.getLabels(ids);
+    }
 }
@@ -19,6 +19,7 @@ package cz.cvut.kbss.termit.service.repository;
 
 import cz.cvut.kbss.termit.asset.provenance.SupportsLastModification;
 import cz.cvut.kbss.termit.dto.assignment.ResourceTermAssignments;
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.TermAssignment;
 import cz.cvut.kbss.termit.model.Vocabulary;
@@ -33,6 +34,7 @@ import cz.cvut.kbss.termit.util.ConfigParam;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -55,16 +57,19 @@ public class ResourceRepositoryService extends BaseAssetRepositoryService<Resour
 
     private final IdentifierResolver idResolver;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     @Autowired
     public ResourceRepositoryService(Validator validator, ResourceDao resourceDao,
                                      TermOccurrenceDao termOccurrenceDao,
                                      TermAssignmentRepositoryService assignmentService,
-                                     IdentifierResolver idResolver) {
+                                     IdentifierResolver idResolver, ApplicationEventPublisher eventPublisher) {
         super(validator);
         this.resourceDao = resourceDao;
         this.termOccurrenceDao = termOccurrenceDao;
         this.assignmentService = assignmentService;
         this.idResolver = idResolver;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -94,6 +99,17 @@ public class ResourceRepositoryService extends BaseAssetRepositoryService<Resour
         Objects.requireNonNull(vocabulary);
         prePersist(resource);
         resourceDao.persist(resource, vocabulary);
+        postPersist(resource);
+    }
+
+    @Override
+    protected void postPersist(Resource instance) {
+        eventPublisher.publishEvent(new AssetModifiedEvent(this, instance, false));
+    }
+
+    @Override
+    protected void postUpdate(Resource instance) {
+        eventPublisher.publishEvent(new AssetModifiedEvent(this, instance, false));
     }
 
     /**
@@ -180,6 +196,11 @@ public class ResourceRepositoryService extends BaseAssetRepositoryService<Resour
         }
     }
 
+    @Override
+    protected void postRemove(Resource instance) {
+        eventPublisher.publishEvent(new AssetModifiedEvent(this, instance, true));
+    }
+
     /**
      * Generates a resource identifier based on the specified label.
      *
@@ -17,15 +17,22 @@
  */
 package cz.cvut.kbss.termit.service.repository;
 
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.TermTreeNode;
 import cz.cvut.kbss.termit.dto.assignment.TermAssignments;
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.persistence.dao.AssetDao;
 import cz.cvut.kbss.termit.persistence.dao.TermAssignmentDao;
 import cz.cvut.kbss.termit.persistence.dao.TermDao;
+import cz.cvut.kbss.termit.persistence.index.TermHierarchyIndex;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
+import cz.cvut.kbss.termit.service.cache.SearchResultCache;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.PageCursor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -34,10 +41,16 @@ import javax.validation.Validator;
 import java.net.URI;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 @Service
 public class TermRepositoryService extends BaseAssetRepositoryService<Term> {
 
+    /**
+     * Number of terms loaded at once by {@link #forEach(Vocabulary, Consumer)}.
+     */
+    static final int FOR_EACH_BATCH_SIZE = 100;
+
     private final IdentifierResolver idResolver;
 
     private final Configuration config;
@@ -48,15 +61,25 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> {
 
     private final VocabularyRepositoryService vocabularyService;
 
+    private final TermHierarchyIndex hierarchyIndex;
+
+    private final SearchResultCache searchCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
     public TermRepositoryService(Validator validator, IdentifierResolver idResolver,
                                  Configuration config, TermDao termDao, TermAssignmentDao termAssignmentDao,
-                                 VocabularyRepositoryService vocabularyService) {
+                                 VocabularyRepositoryService vocabularyService, TermHierarchyIndex hierarchyIndex,
+                                 SearchResultCache searchCache, ApplicationEventPublisher eventPublisher) {
         super(validator);
         this.idResolver = idResolver;
         this.config = config;
         this.termDao = termDao;
         this.termAssignmentDao = termAssignmentDao;
         this.vocabularyService = vocabularyService;
+        this.hierarchyIndex = hierarchyIndex;
+        this.searchCache = searchCache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -78,6 +101,14 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> {
         } else {
             vocabulary.getGlossary().addRootTerm(instance);
         }
+        hierarchyIndex.update(instance);
+        eventPublisher.publishEvent(new AssetModifiedEvent(this, instance, false));
+    }
+
+    @Override
+    protected void postRemove(Term instance) {
+        hierarchyIndex.remove(instance.getUri());
+        eventPublisher.publishEvent(new AssetModifiedEvent(this, instance, true));
     }
 
     @Transactional
@@ -93,6 +124,8 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> {
         instance.setVocabulary(vocabulary.getUri());
         addTermAsRootToGlossary(instance);
         termDao.persist(instance);
+        hierarchyIndex.update(instance);
+        eventPublisher.publishEvent(new AssetModifiedEvent(this, instance, false));
     }
 
     /**
@@ -135,6 +168,8 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> {
         }
 
         termDao.persist(instance);
+        hierarchyIndex.update(instance);
+        eventPublisher.publishEvent(new AssetModifiedEvent(this, instance, false));
     }
 
     /**
@@ -150,6 +185,85 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> {
         return termDao.findAll(vocabulary);
     }
 
+    /**
+     * Passes all terms in the specified vocabulary to the specified action, one by one and ordered by label.
+     * <p>
+     * Only term identifiers are loaded upfront, the terms themselves are loaded in batches of {@link
+     * #FOR_EACH_BATCH_SIZE}, so that they need not be all held in memory at once. No transaction is held while the
+     * action is running, so a slow action (e.g., writing to a slow client) does not keep repository resources.
+     *
+     * @param vocabulary Vocabulary whose terms will be processed
+     * @param action     Action to perform on each term
+     */
+    public void forEach(Vocabulary vocabulary, Consumer<? super Term> action) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(action);
+        final List<URI> ids = termDao.findAllIdentifiers(vocabulary);
+        for (int i = 0; i < ids.size(); i += FOR_EACH_BATCH_SIZE) {
+            termDao.findAll(ids.subList(i, Math.min(i + FOR_EACH_BATCH_SIZE, ids.size()))).forEach(action);
+        }
+    }
+
+    /**
+     * Gets child terms of the specified parent term.
+     *
+     * @param parent Parent term whose children should be returned
+     * @return List of child terms ordered by label
+     */
+    public List<Term> findSubTerms(Term parent) {
+        Objects.requireNonNull(parent);
+        return termDao.findSubTerms(parent);
+    }
+
+    /**
+     * Gets child terms of the specified parent term as tree nodes.
+     *
+     * @param parent Parent term whose children should be returned
+     * @return List of child term nodes ordered by label
+     */
+    public List<TermTreeNode> findSubTermNodes(Term parent) {
+        Objects.requireNonNull(parent);
+        return termDao.findSubTermNodes(parent);
+    }
+
+    /**
+     * Gets the sub-tree of the specified term, down to the specified depth.
+     *
+     * @param root  Root term of the sub-tree
+     * @param depth Maximum depth of the sub-tree
+     * @return Tree node representing the specified term, with nested sub-term nodes
+     */
+    public TermTreeNode findSubTree(Term root, int depth) {
+        Objects.requireNonNull(root);
+        return termDao.findSubTree(root, depth);
+    }
+
+    /**
+     * Finds root terms in the specified vocabulary, returning them as tree nodes.
+     *
+     * @param vocabulary Vocabulary whose terms should be returned
+     * @param pageSpec   Page specification
+     * @return Matching root term nodes
+     */
+    public List<TermTreeNode> findAllRootNodes(Vocabulary vocabulary, Pageable pageSpec) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(pageSpec);
+        return termDao.findAllRootNodes(vocabulary, pageSpec);
+    }
+
+    /**
+     * Finds root terms in the specified vocabulary or any of its imported vocabularies, returning them as tree nodes.
+     *
+     * @param vocabulary Base vocabulary for the vocabulary import closure
+     * @param pageSpec   Page specification
+     * @return Matching root term nodes
+     */
+    public List<TermTreeNode> findAllRootNodesIncludingImported(Vocabulary vocabulary, Pageable pageSpec) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(pageSpec);
+        return termDao.findAllRootNodesIncludingImports(vocabulary, pageSpec);
+    }
+
     /**
      * Finds all root terms (terms without parent term) in the specified vocabulary.
      *
@@ -164,6 +278,20 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> {
         return termDao.findAllRoots(vocabulary, pageSpec);
     }
 
+    /**
+     * Finds root terms in the specified vocabulary which follow the specified cursor.
+     *
+     * @param vocabulary Vocabulary whose terms should be returned
+     * @param after      Position of the last term of the previous page
+     * @param limit      Maximum number of returned terms
+     * @return Matching root terms
+     */
+    public List<Term> findAllRoots(Vocabulary vocabulary, PageCursor after, int limit) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(after);
+        return termDao.findAllRoots(vocabulary, after, limit);
+    }
+
     /**
      * Finds all root terms (terms without parent term) in the specified vocabulary or any of its imported
      * vocabularies.
@@ -180,6 +308,21 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> {
         return termDao.findAllRootsIncludingImports(vocabulary, pageSpec);
     }
 
+    /**
+     * Finds root terms in the specified vocabulary or any of its imported vocabularies which follow the specified
+     * cursor.
+     *
+     * @param vocabulary Base vocabulary for the vocabulary import closure
+     * @param after      Position of the last term of the previous page
+     * @param limit      Maximum number of returned terms
+     * @return Matching root terms
+     */
+    public List<Term> findAllRootsIncludingImported(Vocabulary vocabulary, PageCursor after, int limit) {
+        Objects.requireNonNull(vocabulary);
+        Objects.requireNonNull(after);
+        return termDao.findAllRootsIncludingImports(vocabulary, after, limit);
+    }
+
     /**
      * Finds all terms which match the specified search string in the specified vocabulary.
      *
@@ -188,7 +331,10 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> {
      * @return Matching terms
      */
     public List<Term> findAll(String searchString, Vocabulary vocabulary) {
-        return termDao.findAll(searchString, vocabulary);
+        // Only identifiers are cached, the terms are loaded in the current persistence context
+        return termDao.findAllWithAncestors(
+                searchCache.get(() -> termDao.findAllIdentifiers(searchString, vocabulary), "findAll", searchString,
+                        vocabulary.getUri()));
     }
 
     /**
@@ -200,7 +346,21 @@ public class TermRepositoryService extends BaseAssetRepositoryService<Term> {
      * @return Matching terms
      */
     public List<Term> findAllIncludingImported(String searchString, Vocabulary vocabulary) {
-        return termDao.findAllIncludingImported(searchString, vocabulary);
+        return termDao.findAllWithAncestors(
+                searchCache.get(() -> termDao.findAllIdentifiersIncludingImported(searchString, vocabulary),
+                        "findAllIncludingImported", searchString, vocabulary.getUri()));
+    }
+
+    /**
+     * Finds terms of the specified vocabulary whose label starts with the specified prefix.
+     *
+     * @param prefix     Label prefix
+     * @param vocabulary Vocabulary whose terms should be returned
+     * @param limit      Maximum number of returned terms
+     * @return Matching terms ordered by label
+     */
+    public List<TermInfo> findAllByLabelPrefix(String prefix, Vocabulary vocabulary, int limit) {
+        return termDao.findAllByLabelPrefix(prefix, vocabulary, limit);
     }
 
     /**
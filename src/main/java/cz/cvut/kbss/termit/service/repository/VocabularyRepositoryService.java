@@ -14,6 +14,8 @@
  */
 package cz.cvut.kbss.termit.service.repository;
 
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyImportedEvent;
 import cz.cvut.kbss.termit.exception.VocabularyImportException;
 import cz.cvut.kbss.termit.model.Glossary;
 import cz.cvut.kbss.termit.model.Model;
@@ -27,6 +29,7 @@ import cz.cvut.kbss.termit.service.importer.VocabularyImportService;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Utils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -46,15 +49,19 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
 
     final VocabularyImportService importService;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     @Autowired
     public VocabularyRepositoryService(VocabularyDao vocabularyDao, IdentifierResolver idResolver,
                                        ChangeRecordService changeRecordService, Validator validator,
-                                       VocabularyImportService importService) {
+                                       VocabularyImportService importService,
+                                       ApplicationEventPublisher eventPublisher) {
         super(validator);
         this.vocabularyDao = vocabularyDao;
         this.idResolver = idResolver;
         this.changeRecordService = changeRecordService;
         this.importService = importService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -77,12 +84,27 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
         }
     }
 
+    @Override
+    protected void postPersist(Vocabulary instance) {
+        eventPublisher.publishEvent(new AssetModifiedEvent(this, instance, false));
+    }
+
     @Override
     protected void preUpdate(Vocabulary instance) {
         super.preUpdate(instance);
         verifyVocabularyImports(instance);
     }
 
+    @Override
+    protected void postUpdate(Vocabulary instance) {
+        eventPublisher.publishEvent(new AssetModifiedEvent(this, instance, false));
+    }
+
+    @Override
+    protected void postRemove(Vocabulary instance) {
+        eventPublisher.publishEvent(new AssetModifiedEvent(this, instance, true));
+    }
+
     /**
      * Ensures that possible vocabulary import removals are not prevented by existing inter-vocabulary term
      * relationships (terms from the updated vocabulary having parents from vocabularies whose import has been
@@ -121,7 +143,9 @@ public class VocabularyRepositoryService extends BaseAssetRepositoryService<Voca
     @Override
     public Vocabulary importVocabulary(MultipartFile file) {
         Objects.requireNonNull(file);
-        return importService.importVocabulary(file);
+        final Vocabulary result = importService.importVocabulary(file);
+        eventPublisher.publishEvent(new VocabularyImportedEvent(this, result));
+        return result;
     }
 
     @Override
@@ -29,9 +29,12 @@ public class TermItUserDetailsService implements UserDetailsService {
 
     private final UserAccountDao userAccountDao;
 
+    private final UserDetailsCache cache;
+
     @Autowired
-    public TermItUserDetailsService(UserAccountDao userAccountDao) {
+    public TermItUserDetailsService(UserAccountDao userAccountDao, UserDetailsCache cache) {
         this.userAccountDao = userAccountDao;
+        this.cache = cache;
     }
 
     @Override
@@ -39,4 +42,18 @@ public class TermItUserDetailsService implements UserDetailsService {
         return new TermItUserDetails(userAccountDao.findByUsername(username).orElseThrow(
                 () -> new UsernameNotFoundException("User with username " + username + " not found.")));
     }
+
+    /**
+     * Loads user details, using the cache of recently loaded details.
+     * <p>
+     * This is intended for authorization of requests of already authenticated users. Authentication itself should use
+     * {@link #loadUserByUsername(String)}, which always loads the current state of the account.
+     *
+     * @param username Username
+     * @return User details
+     * @throws UsernameNotFoundException If no user with the specified username exists
+     */
+    public TermItUserDetails loadCachedUserByUsername(String username) {
+        return cache.get(username, this::loadUserByUsername);
+    }
 }
@@ -0,0 +1,152 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.security;
+
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.security.model.TermItUserDetails;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of user details used to authorize requests, so that every request does not have to load the user
+ * account from the repository.
+ * <p>
+ * Cached details expire after the configured time to live. Changes of account status (disabling, locking etc.) made in
+ * the application have to evict the account via {@link #evict(String)}, so that they take effect immediately.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final int capacity;
+
+    private final long ttl;
+
+    private final Map<String, Entry> cache;
+
+    /**
+     * Incremented on each eviction, so that details loaded concurrently with an eviction are not cached.
+     */
+    private long generation;
+
+    @Autowired
+    public UserDetailsCache(Configuration config) {
+        this.capacity = Integer.parseInt(config.get(ConfigParam.USER_CACHE_SIZE));
+        this.ttl = Long.parseLong(config.get(ConfigParam.USER_CACHE_TTL));
+        this.cache = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets details of user with the specified username, using the loader if they are not cached or have expired.
+     *
+     * @param username Username
+     * @param loader   Loads user details from the repository
+     * @return User details
+     */
+    public TermItUserDetails get(String username, Function<String, TermItUserDetails> loader) {
+        Objects.requireNonNull(username);
+        Objects.requireNonNull(loader);
+        final long loadGeneration;
+        synchronized (this) {
+            final Entry entry = cache.get(username);
+            if (entry != null && entry.expires - System.nanoTime() > 0) {
+                return entry.details;
+            }
+            loadGeneration = generation;
+        }
+        final TermItUserDetails details = loader.apply(username);
+        synchronized (this) {
+            if (generation == loadGeneration && capacity > 0) {
+                cache.put(username, new Entry(details, System.nanoTime() + ttl * 1_000_000L));
+            }
+        }
+        return details;
+    }
+
+    /**
+     * Evicts details of user with the specified username.
+     * <p>
+     * If there is an active transaction, the details are evicted also after it completes, so that they are not
+     * reloaded from the repository before the change is committed.
+     *
+     * @param username Username
+     */
+    public void evict(String username) {
+        Objects.requireNonNull(username);
+        doEvict(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCompletion(int status) {
+                    doEvict(username);
+                }
+            });
+        }
+    }
+
+    private synchronized void doEvict(String username) {
+        cache.remove(username);
+        generation++;
+    }
+
+    /**
+     * Evicts all cached user details.
+     */
+    public synchronized void evictAll() {
+        cache.clear();
+        generation++;
+    }
+
+    @EventListener
+    public void onEvictCache(EvictCacheEvent event) {
+        evictAll();
+    }
+
+    /**
+     * Gets the number of cached user details (including expired ones which have not been evicted yet).
+     *
+     * @return Number of cached user details
+     */
+    public synchronized int getSize() {
+        return cache.size();
+    }
+
+    private static final class Entry {
+        private final TermItUserDetails details;
+        private final long expires;
+
+        private Entry(TermItUserDetails details, long expires) {
+            this.details = details;
+            this.expires = expires;
+        }
+    }
+}
@@ -49,6 +49,13 @@ public enum ConfigParam {
      */
     JWT_SECRET_KEY("jwt.secretKey"),
 
+    /**
+     * Remaining lifetime (in milliseconds) of a JWT below which the token is refreshed on request.
+     * <p>
+     * Setting it to the session timeout (or more) refreshes the token on every request.
+     */
+    JWT_REFRESH_THRESHOLD("jwt.refreshThreshold"),
+
     /**
      * Namespace for vocabulary identifiers.
      */
@@ -122,7 +129,56 @@ public enum ConfigParam {
     /**
      * Extension appended to the identifier of a repository context in which working version of a vocabulary is stored.
      */
-    WORKING_VOCABULARY_CONTEXT_EXTENSION("vocabulary.working.extension");
+    WORKING_VOCABULARY_CONTEXT_EXTENSION("vocabulary.working.extension"),
+
+    /**
+     * Maximum number of search results (i.e., results of distinct searches) kept in the search result cache.
+     */
+    SEARCH_CACHE_SIZE("search.cache.size"),
+
+    /**
+     * Maximum number of vocabularies, glossaries, documents and files tracked by the entity cache.
+     */
+    ENTITY_CACHE_SIZE("entity.cache.size"),
+
+    /**
+     * Number of threads executing full text searches in individual asset types in parallel.
+     */
+    SEARCH_THREADS("search.threads"),
+
+    /**
+     * Maximum time (in milliseconds) to wait for results of full text search in individual asset types.
+     * <p>
+     * Results of searches which do not finish in time are left out from the response.
+     */
+    SEARCH_TIMEOUT("search.timeout"),
+
+    /**
+     * Maximum number of user details kept in the cache used to authorize requests.
+     */
+    USER_CACHE_SIZE("security.userCache.size"),
+
+    /**
+     * Time (in milliseconds) for which cached user details are used to authorize requests.
+     * <p>
+     * Changes of account status made in the application evict the cache immediately, this limits the time in which
+     * changes made directly in the repository are not reflected.
+     */
+    USER_CACHE_TTL("security.userCache.ttl"),
+
+    /**
+     * Maximum number of resource labels kept in the label cache.
+     * <p>
+     * Labels are cached per resource identifier and language.
+     */
+    LABEL_CACHE_SIZE("label.cache.size"),
+
+    /**
+     * Maximum depth of a term sub-tree which can be requested at once.
+     * <p>
+     * Larger depths are rejected, as the size of the response grows with the depth.
+     */
+    SUBTREE_MAX_DEPTH("term.subtree.maxDepth");
 
     private final String parameter;
 
@@ -106,6 +106,15 @@ public class Configuration {
         map.put(ConfigParam.CHANGE_TRACKING_CONTEXT_EXTENSION, Constants.DEFAULT_CHANGE_TRACKING_CONTEXT_EXTENSION);
         map.put(ConfigParam.WORKING_VOCABULARY_CONTEXT_EXTENSION,
                 Constants.DEFAULT_WORKING_VOCABULARY_CONTEXT_EXTENSION);
+        map.put(ConfigParam.SEARCH_CACHE_SIZE, Integer.toString(Constants.DEFAULT_SEARCH_CACHE_SIZE));
+        map.put(ConfigParam.ENTITY_CACHE_SIZE, Integer.toString(Constants.DEFAULT_ENTITY_CACHE_SIZE));
+        map.put(ConfigParam.SEARCH_THREADS, Integer.toString(Constants.DEFAULT_SEARCH_THREADS));
+        map.put(ConfigParam.SEARCH_TIMEOUT, Long.toString(Constants.DEFAULT_SEARCH_TIMEOUT));
+        map.put(ConfigParam.USER_CACHE_SIZE, Integer.toString(Constants.DEFAULT_USER_CACHE_SIZE));
+        map.put(ConfigParam.USER_CACHE_TTL, Long.toString(Constants.DEFAULT_USER_CACHE_TTL));
+        map.put(ConfigParam.JWT_REFRESH_THRESHOLD, Long.toString(Constants.DEFAULT_JWT_REFRESH_THRESHOLD));
+        map.put(ConfigParam.LABEL_CACHE_SIZE, Integer.toString(Constants.DEFAULT_LABEL_CACHE_SIZE));
+        map.put(ConfigParam.SUBTREE_MAX_DEPTH, Integer.toString(Constants.DEFAULT_SUBTREE_MAX_DEPTH));
         return map;
     }
 }
@@ -14,6 +14,7 @@
  */
 package cz.cvut.kbss.termit.util;
 
+import cz.cvut.kbss.termit.security.SecurityConstants;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
@@ -80,6 +81,92 @@ public class Constants {
      */
     public static final Pageable DEFAULT_PAGE_SPEC = PageRequest.of(0, DEFAULT_PAGE_SIZE);
 
+    /**
+     * Timeout of asynchronously processed (e.g., streamed) requests, in milliseconds.
+     */
+    public static final long ASYNC_REQUEST_TIMEOUT = 10 * 60 * 1000L;
+
+    /**
+     * Maximum number of threads processing asynchronous (e.g., streamed) requests.
+     */
+    public static final int ASYNC_REQUEST_THREADS = 8;
+
+    /**
+     * Maximum number of asynchronous requests waiting for a processing thread. Further requests are rejected.
+     */
+    public static final int ASYNC_REQUEST_QUEUE_CAPACITY = 32;
+
+    /**
+     * HTTP response header containing cursor pointing to the next page of results.
+     * <p>
+     * The header is present only if there may be more results.
+     *
+     * @see QueryParams#AFTER
+     */
+    public static final String NEXT_PAGE_CURSOR_HEADER = "X-Next-Page-Cursor";
+
+    /**
+     * Default maximum number of cached search results.
+     *
+     * @see ConfigParam#SEARCH_CACHE_SIZE
+     */
+    public static final int DEFAULT_SEARCH_CACHE_SIZE = 1000;
+
+    /**
+     * Default maximum number of entities tracked by the entity cache.
+     *
+     * @see ConfigParam#ENTITY_CACHE_SIZE
+     */
+    public static final int DEFAULT_ENTITY_CACHE_SIZE = 1000;
+
+    /**
+     * Default number of threads executing full text search.
+     *
+     * @see ConfigParam#SEARCH_THREADS
+     */
+    public static final int DEFAULT_SEARCH_THREADS = 4;
+
+    /**
+     * Default full text search timeout, in milliseconds.
+     *
+     * @see ConfigParam#SEARCH_TIMEOUT
+     */
+    public static final long DEFAULT_SEARCH_TIMEOUT = 5000;
+
+    /**
+     * Default maximum number of cached user details.
+     *
+     * @see ConfigParam#USER_CACHE_SIZE
+     */
+    public static final int DEFAULT_USER_CACHE_SIZE = 1000;
+
+    /**
+     * Default time to live of cached user details, in milliseconds.
+     *
+     * @see ConfigParam#USER_CACHE_TTL
+     */
+    public static final long DEFAULT_USER_CACHE_TTL = 60000;
+
+    /**
+     * Default remaining JWT lifetime below which the token is refreshed, in milliseconds. Half of the session timeout.
+     *
+     * @see ConfigParam#JWT_REFRESH_THRESHOLD
+     */
+    public static final long DEFAULT_JWT_REFRESH_THRESHOLD = SecurityConstants.SESSION_TIMEOUT / 2;
+
+    /**
+     * Default maximum number of cached resource labels.
+     *
+     * @see ConfigParam#LABEL_CACHE_SIZE
+     */
+    public static final int DEFAULT_LABEL_CACHE_SIZE = 10000;
+
+    /**
+     * Default maximum depth of a requested term sub-tree.
+     *
+     * @see ConfigParam#SUBTREE_MAX_DEPTH
+     */
+    public static final int DEFAULT_SUBTREE_MAX_DEPTH = 10;
 
     /**
      * Default piece of text appended to vocabulary IRI for term IRI generation.
@@ -223,6 +310,25 @@ public class Constants {
          */
         public static final String PAGE_SIZE = "size";
 
+        /**
+         * HTTP request query parameter denoting cursor of the last element of the previous page.
+         * <p>
+         * Used for keyset paging in collections of results, as an alternative to {@link #PAGE}.
+         *
+         * @see #PAGE_SIZE
+         */
+        public static final String AFTER = "after";
+
+        /**
+         * HTTP request query parameter denoting maximum depth of a retrieved tree.
+         */
+        public static final String DEPTH = "depth";
+
+        /**
+         * HTTP request query parameter denoting prefix of a label.
+         */
+        public static final String PREFIX = "prefix";
+
         private QueryParams() {
             throw new AssertionError();
         }
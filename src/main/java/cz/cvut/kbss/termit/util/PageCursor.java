@@ -0,0 +1,109 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.util;
+
+import cz.cvut.kbss.termit.exception.InvalidParameterException;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Position in a label-ordered list of assets, used for keyset (cursor-based) paging.
+ * <p>
+ * The cursor consists of the label and identifier of the last item of the previous page. The next page then contains
+ * items following this position, which allows the repository to seek to the page start instead of skipping all the
+ * preceding items. Clients receive the cursor as an opaque token.
+ */
+public class PageCursor {
+
+    private static final char SEPARATOR = '\n';
+
+    private final String label;
+
+    private final URI uri;
+
+    public PageCursor(String label, URI uri) {
+        this.label = label != null ? label : "";
+        this.uri = Objects.requireNonNull(uri);
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    /**
+     * Encodes this cursor into an opaque URL-safe token.
+     *
+     * @return Token representing this cursor
+     * @see #decode(String)
+     */
+    public String encode() {
+        // Identifier goes first as it cannot contain the separator
+        return Base64.getUrlEncoder().withoutPadding()
+                     .encodeToString((uri.toString() + SEPARATOR + label).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes the specified token into a cursor.
+     *
+     * @param token Token previously created by {@link #encode()}
+     * @return Decoded cursor
+     * @throws InvalidParameterException If the token is not a valid cursor
+     */
+    public static PageCursor decode(String token) {
+        Objects.requireNonNull(token);
+        try {
+            final String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            final int separatorIndex = value.indexOf(SEPARATOR);
+            if (separatorIndex < 1) {
+                throw new InvalidParameterException("Invalid page cursor " + token);
+            }
+            return new PageCursor(value.substring(separatorIndex + 1), URI.create(value.substring(0, separatorIndex)));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidParameterException("Invalid page cursor " + token);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PageCursor)) {
+            return false;
+        }
+        PageCursor that = (PageCursor) o;
+        return label.equals(that.label) && uri.equals(that.uri);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(label, uri);
+    }
+
+    @Override
+    public String toString() {
+        return "PageCursor{" + label + " <" + uri + ">}";
+    }
+}
@@ -20,12 +20,21 @@ package cz.cvut.kbss.termit.util;
 import cz.cvut.kbss.termit.exception.TermItException;
 
 import java.io.*;
+import java.net.URI;
+import java.text.Normalizer;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Locale;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class Utils {
 
+    /**
+     * Combining diacritical marks, as separated from base characters by canonical decomposition.
+     */
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
     private Utils() {
         throw new AssertionError();
     }
@@ -41,6 +50,34 @@ public class Utils {
         return collection == null ? Collections.emptySet() : collection;
     }
 
+    /**
+     * Transforms the specified text into a key usable for case and diacritics insensitive matching.
+     * <p>
+     * The text is transformed to lower case and diacritical marks are removed from it, e.g., "Zákon" becomes "zakon".
+     * Unlike {@link cz.cvut.kbss.termit.service.IdentifierResolver#normalize(String)}, white spaces and other
+     * characters are retained.
+     *
+     * @param text The text to transform, possibly {@code null}
+     * @return Search key, {@code null} if the text is {@code null}
+     */
+    public static String toSearchKey(String text) {
+        if (text == null) {
+            return null;
+        }
+        final String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("");
+    }
+
+    /**
+     * Serializes the specified identifiers into the body of a SPARQL VALUES block.
+     *
+     * @param ids Identifiers to serialize
+     * @return Space-separated IRIs
+     */
+    public static String toValues(Collection<URI> ids) {
+        return ids.stream().map(u -> "<" + u + ">").collect(Collectors.joining(" "));
+    }
+
     public static String loadQuery(String queryFile) {
         final InputStream is = Utils.class.getClassLoader().getResourceAsStream(
                 Constants.QUERY_DIRECTORY + File.separator + queryFile);
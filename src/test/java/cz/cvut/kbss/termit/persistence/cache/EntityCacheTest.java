@@ -0,0 +1,202 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.cache;
+
+import cz.cvut.kbss.jopa.model.Cache;
+import cz.cvut.kbss.jopa.model.EntityManagerFactory;
+import cz.cvut.kbss.jopa.model.descriptors.Descriptor;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.model.DocumentVocabulary;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.model.resource.Document;
+import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class EntityCacheTest {
+
+    @Mock
+    private EntityManagerFactory emf;
+
+    @Mock
+    private Cache cache;
+
+    @Mock
+    private Configuration config;
+
+    private EntityCache sut;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(emf.getCache()).thenReturn(cache);
+        when(config.get(ConfigParam.ENTITY_CACHE_SIZE)).thenReturn("100");
+        this.sut = new EntityCache(emf, config);
+    }
+
+    private static Vocabulary generateVocabulary() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        vocabulary.getGlossary().setUri(Generator.generateUri());
+        return vocabulary;
+    }
+
+    @Test
+    void findCountsMissWhenEntityIsNotInSecondLevelCache() {
+        final Vocabulary vocabulary = generateVocabulary();
+        when(cache.contains(eq(Vocabulary.class), eq(vocabulary.getUri()), any(Descriptor.class))).thenReturn(false);
+
+        assertEquals(vocabulary, sut.find(Vocabulary.class, vocabulary.getUri(), vocabulary.getUri(), () -> vocabulary));
+        assertEquals(1, sut.getStatistics(EntityCache.Region.VOCABULARY).getMissCount());
+        assertEquals(0, sut.getStatistics(EntityCache.Region.VOCABULARY).getHitCount());
+    }
+
+    @Test
+    void findCountsHitWhenEntityIsInSecondLevelCache() {
+        final Vocabulary vocabulary = generateVocabulary();
+        when(cache.contains(eq(Vocabulary.class), eq(vocabulary.getUri()), any(Descriptor.class))).thenReturn(false)
+                                                                                                   .thenReturn(true);
+
+        sut.find(Vocabulary.class, vocabulary.getUri(), vocabulary.getUri(), () -> vocabulary);
+        sut.find(Vocabulary.class, vocabulary.getUri(), vocabulary.getUri(), () -> vocabulary);
+        assertEquals(1, sut.getStatistics(EntityCache.Region.VOCABULARY).getMissCount());
+        assertEquals(1, sut.getStatistics(EntityCache.Region.VOCABULARY).getHitCount());
+        assertEquals(0.5, sut.getStatistics(EntityCache.Region.VOCABULARY).getHitRatio());
+    }
+
+    @Test
+    void findReturnsNullAndCountsNothingWhenEntityDoesNotExist() {
+        final URI id = Generator.generateUri();
+        assertNull(sut.find(Vocabulary.class, id, id, () -> null));
+        assertEquals(0, sut.getStatistics(EntityCache.Region.VOCABULARY).getMissCount());
+    }
+
+    @Test
+    void evictFileEvictsFileAndItsDocumentButNotOtherFilesOfDocument() {
+        final Document document = Generator.generateDocumentWithId();
+        final File file = Generator.generateFileWithId("test.html");
+        final File sibling = Generator.generateFileWithId("sibling.html");
+        document.addFile(file);
+        document.addFile(sibling);
+        file.setDocument(document);
+        sibling.setDocument(document);
+        final URI context = Generator.generateUri();
+
+        sut.evict(file, context);
+        verify(cache).evict(File.class, file.getUri(), context);
+        verify(cache).evict(Document.class, document.getUri(), context);
+        verify(cache, never()).evict(File.class, sibling.getUri(), context);
+        verify(cache, never()).evict(any(URI.class));
+        verify(cache, never()).evictAll();
+        assertEquals(1, sut.getStatistics(EntityCache.Region.FILE).getEvictionCount());
+        assertEquals(1, sut.getStatistics(EntityCache.Region.DOCUMENT).getEvictionCount());
+    }
+
+    @Test
+    void evictGlossaryEvictsVocabularyLoadedWithIt() {
+        final Vocabulary vocabulary = generateVocabulary();
+        sut.find(Vocabulary.class, vocabulary.getUri(), vocabulary.getUri(), () -> vocabulary);
+
+        sut.evict(vocabulary.getGlossary(), vocabulary.getUri());
+        verify(cache).evict(vocabulary.getGlossary().getClass(), vocabulary.getGlossary().getUri(),
+                vocabulary.getUri());
+        verify(cache).evict(Vocabulary.class, vocabulary.getUri(), vocabulary.getUri());
+        assertEquals(1, sut.getStatistics(EntityCache.Region.GLOSSARY).getEvictionCount());
+        assertEquals(1, sut.getStatistics(EntityCache.Region.VOCABULARY).getEvictionCount());
+    }
+
+    @Test
+    void evictAlsoEvictsEntityFromContextItHasBeenLoadedFrom() {
+        final Vocabulary vocabulary = generateVocabulary();
+        sut.find(Vocabulary.class, vocabulary.getUri(), vocabulary.getUri(), () -> vocabulary);
+
+        sut.evict(vocabulary, null);
+        verify(cache).evict(Vocabulary.class, vocabulary.getUri(), null);
+        verify(cache).evict(Vocabulary.class, vocabulary.getUri(), vocabulary.getUri());
+    }
+
+    @Test
+    void onEvictCacheForgetsLoadedEntities() {
+        final Vocabulary vocabulary = generateVocabulary();
+        sut.find(Vocabulary.class, vocabulary.getUri(), vocabulary.getUri(), () -> vocabulary);
+        sut.onEvictCache(new EvictCacheEvent(this));
+
+        sut.evict(vocabulary.getGlossary(), vocabulary.getUri());
+        verify(cache, never()).evict(Vocabulary.class, vocabulary.getUri(), vocabulary.getUri());
+    }
+
+    @Test
+    void evictFileEvictsDocumentVocabularyOfItsDocument() {
+        final Document document = Generator.generateDocumentWithId();
+        final File file = Generator.generateFileWithId("test.html");
+        document.addFile(file);
+        file.setDocument(document);
+        final URI vocabularyUri = Generator.generateUri();
+        document.setVocabulary(vocabularyUri);
+
+        sut.evict(file, vocabularyUri);
+        verify(cache).evict(Vocabulary.class, vocabularyUri, vocabularyUri);
+        verify(cache).evict(DocumentVocabulary.class, vocabularyUri, vocabularyUri);
+        assertEquals(1, sut.getStatistics(EntityCache.Region.VOCABULARY).getEvictionCount());
+    }
+
+    @Test
+    void findEvictsLeastRecentlyUsedEntityAndItsOwnersWhenCapacityIsExceeded() {
+        when(config.get(ConfigParam.ENTITY_CACHE_SIZE)).thenReturn("2");
+        this.sut = new EntityCache(emf, config);
+        final Vocabulary vocabulary = generateVocabulary();
+        final Vocabulary other = generateVocabulary();
+        sut.find(Vocabulary.class, vocabulary.getUri(), vocabulary.getUri(), () -> vocabulary);
+        sut.find(vocabulary.getGlossary().getClass(), vocabulary.getGlossary().getUri(), vocabulary.getUri(),
+                vocabulary::getGlossary);
+        verify(cache, never()).evict(any(), any(URI.class), any());
+
+        sut.find(Vocabulary.class, other.getUri(), other.getUri(), () -> other);
+        verify(cache).evict(Vocabulary.class, vocabulary.getUri(), vocabulary.getUri());
+        verify(cache, never()).evict(vocabulary.getGlossary().getClass(), vocabulary.getGlossary().getUri(),
+                vocabulary.getUri());
+        verify(cache, never()).evict(Vocabulary.class, other.getUri(), other.getUri());
+    }
+
+    @Test
+    void forgottenEntityIsNoLongerEvictedWithEntitiesItEmbeds() {
+        when(config.get(ConfigParam.ENTITY_CACHE_SIZE)).thenReturn("1");
+        this.sut = new EntityCache(emf, config);
+        final Vocabulary vocabulary = generateVocabulary();
+        final Vocabulary other = generateVocabulary();
+        sut.find(Vocabulary.class, vocabulary.getUri(), vocabulary.getUri(), () -> vocabulary);
+        sut.find(Vocabulary.class, other.getUri(), other.getUri(), () -> other);
+        verify(cache).evict(Vocabulary.class, vocabulary.getUri(), vocabulary.getUri());
+        clearInvocations(cache);
+
+        sut.evict(vocabulary.getGlossary(), Generator.generateUri());
+        verify(cache, never()).evict(Vocabulary.class, vocabulary.getUri(), vocabulary.getUri());
+    }
+}
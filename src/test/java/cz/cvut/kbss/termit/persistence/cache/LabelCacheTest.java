@@ -0,0 +1,175 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.cache;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.net.URI;
+import java.util.*;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class LabelCacheTest {
+
+    private static final String LANG = "en";
+
+    @Mock
+    private Configuration config;
+
+    @Mock
+    private Function<URI, Optional<String>> loader;
+
+    @Mock
+    private Function<Set<URI>, Map<URI, String>> bulkLoader;
+
+    private LabelCache sut;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(config.get(ConfigParam.LABEL_CACHE_SIZE)).thenReturn("2");
+        when(loader.apply(any())).thenAnswer(inv -> Optional.of(inv.getArgument(0).toString()));
+        this.sut = new LabelCache(config);
+    }
+
+    @Test
+    void getLoadsLabelOnlyOnce() {
+        final URI id = Generator.generateUri();
+        assertEquals(Optional.of(id.toString()), sut.get(id, LANG, loader));
+        assertEquals(Optional.of(id.toString()), sut.get(id, LANG, loader));
+        verify(loader).apply(id);
+    }
+
+    @Test
+    void getCachesLabelsPerLanguage() {
+        final URI id = Generator.generateUri();
+        sut.get(id, LANG, loader);
+        sut.get(id, "cs", loader);
+        verify(loader, times(2)).apply(id);
+    }
+
+    @Test
+    void getCachesMissingLabel() {
+        final URI id = Generator.generateUri();
+        when(loader.apply(id)).thenReturn(Optional.empty());
+        assertFalse(sut.get(id, LANG, loader).isPresent());
+        assertFalse(sut.get(id, LANG, loader).isPresent());
+        verify(loader).apply(id);
+    }
+
+    @Test
+    void getEvictsLeastRecentlyUsedLabelWhenCapacityIsExceeded() {
+        final URI first = Generator.generateUri();
+        final URI second = Generator.generateUri();
+        final URI third = Generator.generateUri();
+        sut.get(first, LANG, loader);
+        sut.get(second, LANG, loader);
+        sut.get(third, LANG, loader);
+        assertEquals(2, sut.getSize());
+        sut.get(first, LANG, loader);
+        verify(loader, times(2)).apply(first);
+    }
+
+    @Test
+    void getAllLoadsOnlyLabelsWhichAreNotCachedInSingleCall() {
+        final URI cached = Generator.generateUri();
+        final URI notCached = Generator.generateUri();
+        final URI withoutLabel = Generator.generateUri();
+        sut.get(cached, LANG, loader);
+        when(bulkLoader.apply(any())).thenReturn(Collections.singletonMap(notCached, "Label"));
+
+        final Map<URI, String> result = sut.getAll(Arrays.asList(cached, notCached, withoutLabel), LANG, bulkLoader);
+        assertEquals(2, result.size());
+        assertEquals(cached.toString(), result.get(cached));
+        assertEquals("Label", result.get(notCached));
+        verify(bulkLoader).apply(new HashSet<>(Arrays.asList(notCached, withoutLabel)));
+    }
+
+    @Test
+    void getAllDoesNotInvokeLoaderWhenAllLabelsAreCached() {
+        final URI id = Generator.generateUri();
+        sut.get(id, LANG, loader);
+        final Map<URI, String> result = sut.getAll(Collections.singleton(id), LANG, bulkLoader);
+        assertEquals(Collections.singletonMap(id, id.toString()), result);
+        verify(bulkLoader, never()).apply(any());
+    }
+
+    @Test
+    void onAssetModifiedEvictsLabelsOfModifiedAsset() {
+        final Term term = Generator.generateTermWithId();
+        final URI other = Generator.generateUri();
+        sut.get(term.getUri(), LANG, loader);
+        sut.get(other, LANG, loader);
+
+        sut.onAssetModified(new AssetModifiedEvent(this, term, false));
+        sut.get(term.getUri(), LANG, loader);
+        sut.get(other, LANG, loader);
+        verify(loader, times(2)).apply(term.getUri());
+        verify(loader).apply(other);
+    }
+
+    @Test
+    void onEvictCacheEvictsAllLabels() {
+        final URI id = Generator.generateUri();
+        sut.get(id, LANG, loader);
+        sut.onEvictCache(new EvictCacheEvent(this));
+        assertEquals(0, sut.getSize());
+    }
+
+    @Test
+    void evictAfterCommitEvictsLabelOnlyAfterTransactionCommits() {
+        final URI id = Generator.generateUri();
+        sut.get(id, LANG, loader);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            sut.evictAfterCommit(id);
+            sut.get(id, LANG, loader);
+            verify(loader).apply(id);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        sut.get(id, LANG, loader);
+        verify(loader, times(2)).apply(id);
+    }
+
+    @Test
+    void evictAfterCommitEvictsLabelImmediatelyWithoutTransaction() {
+        final URI id = Generator.generateUri();
+        sut.get(id, LANG, loader);
+        sut.evictAfterCommit(id);
+        sut.get(id, LANG, loader);
+        verify(loader, times(2)).apply(id);
+    }
+}
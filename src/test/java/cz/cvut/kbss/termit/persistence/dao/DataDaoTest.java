@@ -43,7 +43,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -148,6 +151,50 @@ class DataDaoTest extends BaseDaoTestRunner {
         assertFalse(sut.getLabel(Generator.generateUri()).isPresent());
     }
 
+    @Test
+    void getLabelsReturnsLabelsOfSpecifiedResources() {
+        enableRdfsInference(em);    // skos:prefLabel is a subPropertyOf rdfs:label
+        final Term first = Generator.generateTermWithId();
+        final Term second = Generator.generateTermWithId();
+        transactional(() -> {
+            em.persist(first);
+            em.persist(second);
+        });
+
+        final Map<URI, String> result = sut.getLabels(Arrays.asList(first.getUri(), second.getUri()));
+        assertEquals(2, result.size());
+        assertEquals(first.getLabel(), result.get(first.getUri()));
+        assertEquals(second.getLabel(), result.get(second.getUri()));
+    }
+
+    @Test
+    void getLabelsOmitsResourcesWithoutLabel() {
+        enableRdfsInference(em);    // skos:prefLabel is a subPropertyOf rdfs:label
+        final Term term = Generator.generateTermWithId();
+        transactional(() -> em.persist(term));
+        final URI unknown = Generator.generateUri();
+
+        final Map<URI, String> result = sut.getLabels(Arrays.asList(term.getUri(), unknown));
+        assertEquals(Collections.singletonMap(term.getUri(), term.getLabel()), result);
+    }
+
+    @Test
+    void getLabelReusesLabelResolvedByGetLabels() {
+        enableRdfsInference(em);    // skos:prefLabel is a subPropertyOf rdfs:label
+        final Term term = Generator.generateTermWithId();
+        transactional(() -> em.persist(term));
+        sut.getLabels(Collections.singleton(term.getUri()));
+        transactional(() -> {
+            final Repository repo = em.unwrap(Repository.class);
+            try (final RepositoryConnection connection = repo.getConnection()) {
+                connection.remove(repo.getValueFactory().createIRI(term.getUri().toString()), SKOS.PREF_LABEL, null);
+                connection.commit();
+            }
+        });
+
+        assertEquals(Optional.of(term.getLabel()), sut.getLabel(term.getUri()));
+    }
+
     @Test
     void persistSavesSpecifiedResource() {
         final RdfsResource resource =
@@ -329,6 +329,40 @@ class ResourceDaoTest extends BaseDaoTestRunner {
         });
     }
 
+    @Test
+    void updateFileEvictsCachedDocumentVocabularySoThatItReflectsFileRename() {
+        final DocumentVocabulary vocabulary = new DocumentVocabulary();
+        vocabulary.setUri(Generator.generateUri());
+        vocabulary.setLabel("vocabulary");
+        vocabulary.setGlossary(new Glossary());
+        vocabulary.setModel(new Model());
+        final Document document = Generator.generateDocumentWithId();
+        vocabulary.setDocument(document);
+        document.setVocabulary(vocabulary.getUri());
+        final File file = Generator.generateFileWithId("test.html");
+        file.setDocument(document);
+        document.addFile(file);
+        transactional(() -> {
+            em.persist(vocabulary, DescriptorFactory.vocabularyDescriptor(vocabulary));
+            em.persist(document, DescriptorFactory.documentDescriptor(vocabulary));
+            em.persist(file, DescriptorFactory.fileDescriptor(vocabulary));
+        });
+        insertInferredDocumentVocabularyPropertyAssertions(document, vocabulary);
+        // Loads the vocabulary into the second-level cache
+        transactional(() -> assertNotNull(em.find(DocumentVocabulary.class, vocabulary.getUri(),
+                DescriptorFactory.vocabularyDescriptor(vocabulary))));
+
+        final String newLabel = "renamed.html";
+        file.setLabel(newLabel);
+        transactional(() -> sut.update(file));
+
+        transactional(() -> {
+            final DocumentVocabulary result = em.find(DocumentVocabulary.class, vocabulary.getUri(),
+                    DescriptorFactory.vocabularyDescriptor(vocabulary));
+            assertTrue(result.getDocument().getFile(newLabel).isPresent());
+        });
+    }
+
     @Test
     void detachDetachesInstanceFromPersistenceContext() {
         final Resource resource = Generator.generateResourceWithId();
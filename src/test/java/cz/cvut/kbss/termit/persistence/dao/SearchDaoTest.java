@@ -24,18 +24,25 @@ import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.model.resource.Resource;
+import cz.cvut.kbss.termit.persistence.index.LuceneFullTextIndex;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.repository.Repository;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Date;
-import java.util.List;
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -48,6 +55,9 @@ class SearchDaoTest extends BaseDaoTestRunner {
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private LuceneFullTextIndex textIndex;
+
     @Autowired
     private SearchDao sut;
 
@@ -69,6 +79,7 @@ class SearchDaoTest extends BaseDaoTestRunner {
             em.persist(vocabulary);
             terms.forEach(em::persist);
         });
+        textIndex.rebuild();
         final Collection<Term> matching = terms.stream().filter(t -> t.getLabel().contains("Matching"))
                                                .collect(Collectors.toList());
 
@@ -98,6 +109,7 @@ class SearchDaoTest extends BaseDaoTestRunner {
     void defaultFullTextSearchFindsVocabulariesWithMatchingLabel() {
         final List<Vocabulary> vocabularies = generateVocabularies();
         transactional(() -> vocabularies.forEach(em::persist));
+        textIndex.rebuild();
         final Collection<Vocabulary> matching = vocabularies.stream().filter(v -> v.getLabel().contains("Matching"))
                                                             .collect(Collectors.toList());
         final List<FullTextSearchResult> result = sut.fullTextSearch("matching");
@@ -108,6 +120,18 @@ class SearchDaoTest extends BaseDaoTestRunner {
         }
     }
 
+    @Test
+    void defaultFullTextSearchReturnsRequestedPageOfResultsOrderedByLabel() {
+        final List<Vocabulary> vocabularies = generateVocabularies();
+        vocabularies.forEach(v -> v.setLabel("Matching label " + vocabularies.indexOf(v)));
+        transactional(() -> vocabularies.forEach(em::persist));
+        textIndex.rebuild();
+
+        final List<FullTextSearchResult> result = sut.fullTextSearch("matching", PageRequest.of(1, 3));
+        assertEquals(vocabularies.subList(3, 6).stream().map(Vocabulary::getUri).collect(Collectors.toList()),
+                result.stream().map(FullTextSearchResult::getUri).collect(Collectors.toList()));
+    }
+
     private List<Vocabulary> generateVocabularies() {
         final List<Vocabulary> vocabularies = IntStream.range(0, 10).mapToObj(i -> Generator.generateVocabulary())
                                                        .collect(
@@ -132,6 +156,7 @@ class SearchDaoTest extends BaseDaoTestRunner {
             terms.forEach(em::persist);
             vocabularies.forEach(em::persist);
         });
+        textIndex.rebuild();
         final Collection<Term> matchingTerms = terms.stream().filter(t -> t.getLabel().contains("Matching")).collect(
                 Collectors.toList());
         final Collection<Vocabulary> matchingVocabularies = vocabularies.stream()
@@ -147,4 +172,185 @@ class SearchDaoTest extends BaseDaoTestRunner {
             }
         }
     }
-}
\ No newline at end of file
+    @Test
+    void defaultFullTextSearchFindsResourcesWithMatchingLabel() {
+        final Resource matching = Generator.generateResourceWithId();
+        matching.setLabel("Matching resource");
+        final Resource other = Generator.generateResourceWithId();
+        other.setLabel("Unknown resource");
+        transactional(() -> {
+            em.persist(matching);
+            em.persist(other);
+        });
+        textIndex.rebuild();
+
+        final List<FullTextSearchResult> result = sut.fullTextSearch("matching");
+        assertEquals(1, result.size());
+        assertEquals(matching.getUri(), result.get(0).getUri());
+        assertTrue(result.get(0).getTypes().contains(cz.cvut.kbss.termit.util.Vocabulary.s_c_zdroj));
+    }
+
+    @Test
+    void defaultFullTextSearchDoesNotDuplicateVocabulariesInferredToBeResources() {
+        enableRdfsInference(em);
+        final List<Vocabulary> vocabularies = generateVocabularies();
+        vocabularies.forEach(v -> v.setLabel("Matching label " + vocabularies.indexOf(v)));
+        transactional(() -> vocabularies.forEach(em::persist));
+        textIndex.rebuild();
+
+        final List<FullTextSearchResult> result = sut.fullTextSearch("matching");
+        assertEquals(vocabularies.size(), result.size());
+        result.forEach(r -> assertTrue(r.getTypes().contains(cz.cvut.kbss.termit.util.Vocabulary.s_c_slovnik)));
+    }
+
+    @Test
+    void fullTextSearchInTypeFindsOnlyAssetsOfSpecifiedType() {
+        final List<Term> terms = generateTerms();
+        terms.forEach(t -> t.setLabel("Matching label " + terms.indexOf(t)));
+        vocabulary.setLabel("Matching vocabulary");
+        transactional(() -> {
+            em.persist(vocabulary);
+            terms.forEach(em::persist);
+        });
+        textIndex.rebuild();
+
+        final List<FullTextSearchResult> result = sut
+                .fullTextSearch("matching", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_term),
+                        Pageable.unpaged());
+        assertEquals(terms.size(), result.size());
+        result.forEach(r -> {
+            assertTrue(r.getTypes().contains(cz.cvut.kbss.termit.util.Vocabulary.s_c_term));
+            assertEquals(vocabulary.getUri(), r.getVocabulary());
+        });
+    }
+
+    @Test
+    void defaultFullTextSearchMatchesLabelsRegardlessOfDiacritics() {
+        final List<Term> terms = generateTerms();
+        final Term law = terms.get(0);
+        law.setLabel("Zákon o územním plánování");
+        transactional(() -> {
+            em.persist(vocabulary);
+            terms.forEach(em::persist);
+        });
+        textIndex.rebuild();
+
+        final List<FullTextSearchResult> result = sut
+                .fullTextSearch("zakon o uzemnim", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_term),
+                        Pageable.unpaged());
+        assertEquals(1, result.size());
+        assertEquals(law.getUri(), result.get(0).getUri());
+        assertEquals("label", result.get(0).getSnippetField());
+        assertEquals(law.getLabel(), result.get(0).getSnippetText());
+    }
+
+    @Test
+    void defaultFullTextSearchFindsTermsWithMatchingDefinitionAndPrefersLabelMatches() {
+        final List<Term> terms = generateTerms();
+        final Term byDefinition = terms.get(0);
+        byDefinition.setLabel("Unknown label");
+        byDefinition.setDefinition("Definition with matching word");
+        final Term byBoth = terms.get(1);
+        byBoth.setLabel("Matching label");
+        byBoth.setDefinition("Matching definition");
+        transactional(() -> {
+            em.persist(vocabulary);
+            terms.forEach(em::persist);
+        });
+        textIndex.rebuild();
+
+        final List<FullTextSearchResult> result = sut
+                .fullTextSearch("matching", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_term),
+                        Pageable.unpaged());
+        final FullTextSearchResult definitionResult = result.stream()
+                                                            .filter(r -> r.getUri().equals(byDefinition.getUri()))
+                                                            .findFirst().orElseThrow(AssertionError::new);
+        assertEquals("definition", definitionResult.getSnippetField());
+        assertEquals("Definition with <em>matching</em> word", definitionResult.getSnippetText());
+        final List<FullTextSearchResult> bothResults = result.stream()
+                                                             .filter(r -> r.getUri().equals(byBoth.getUri()))
+                                                             .collect(Collectors.toList());
+        assertEquals(1, bothResults.size());
+        assertEquals("label", bothResults.get(0).getSnippetField());
+    }
+
+    @Test
+    void defaultFullTextSearchReturnsAssetMatchingByLabelAndDefinitionOnlyOnceAcrossPages() {
+        final List<Term> terms = generateTerms();
+        terms.forEach(t -> t.setLabel("Unknown label"));
+        terms.get(0).setLabel("B matching");
+        terms.get(1).setLabel("C matching");
+        final Term byBoth = terms.get(2);
+        byBoth.setLabel("Alpha");
+        byBoth.setDefinition("Matching definition");
+        transactional(() -> {
+            em.persist(vocabulary);
+            terms.forEach(em::persist);
+        });
+        // Label in another language, matching the search string and ordered after the other label matches
+        final Repository repo = em.unwrap(Repository.class);
+        try (final RepositoryConnection conn = repo.getConnection()) {
+            final ValueFactory vf = conn.getValueFactory();
+            conn.add(vf.createIRI(byBoth.getUri().toString()), org.eclipse.rdf4j.model.vocabulary.SKOS.PREF_LABEL,
+                    vf.createLiteral("Zz matching", "es"));
+        }
+        textIndex.rebuild();
+
+        final List<URI> found = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            sut.fullTextSearch("matching", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_term),
+                    PageRequest.of(i, 1)).forEach(r -> found.add(r.getUri()));
+        }
+        assertEquals(Arrays.asList(terms.get(0).getUri(), terms.get(1).getUri(), byBoth.getUri()), found);
+    }
+
+    @Test
+    void fullTextSearchInTypeIssuesNoFurtherQueriesWhenThreadIsInterrupted() {
+        final List<Term> terms = generateTerms();
+        terms.get(0).setDefinition("Definition with matching word");
+        transactional(() -> {
+            em.persist(vocabulary);
+            terms.forEach(em::persist);
+        });
+        textIndex.rebuild();
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CancellationException.class,
+                    () -> sut.fullTextSearch("matching", URI.create(cz.cvut.kbss.termit.util.Vocabulary.s_c_term),
+                            Pageable.unpaged()));
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    void mergeResultsOrdersResultsByScoreAndLabelAndReturnsRequestedPage() {
+        final FullTextSearchResult a = new FullTextSearchResult(Generator.generateUri(), "a", null,
+                cz.cvut.kbss.termit.util.Vocabulary.s_c_term, "label", "a", 1.0);
+        final FullTextSearchResult b = new FullTextSearchResult(Generator.generateUri(), "b", null,
+                cz.cvut.kbss.termit.util.Vocabulary.s_c_slovnik, "label", "b", 3.0);
+        final FullTextSearchResult c = new FullTextSearchResult(Generator.generateUri(), "c", null,
+                cz.cvut.kbss.termit.util.Vocabulary.s_c_zdroj, "label", "c", 1.0);
+
+        final List<FullTextSearchResult> result = SearchDao
+                .mergeResults(Arrays.asList(Arrays.asList(a, c), Collections.singletonList(b)), PageRequest.of(0, 2));
+        assertEquals(Arrays.asList(b, a), result);
+    }
+
+    @Test
+    void mergeResultsIncludesAssetFoundInMultipleSourcesOnlyOnceWithFirstSource() {
+        final URI uri = Generator.generateUri();
+        final FullTextSearchResult asVocabulary = new FullTextSearchResult(uri, "b", null,
+                cz.cvut.kbss.termit.util.Vocabulary.s_c_slovnik, "label", "b", 1.0);
+        final FullTextSearchResult asResource = new FullTextSearchResult(uri, "b", null,
+                cz.cvut.kbss.termit.util.Vocabulary.s_c_zdroj, "label", "b", 2.0);
+        final FullTextSearchResult other = new FullTextSearchResult(Generator.generateUri(), "a", null,
+                cz.cvut.kbss.termit.util.Vocabulary.s_c_zdroj, "label", "a", 1.0);
+
+        final List<FullTextSearchResult> result = SearchDao
+                .mergeResults(Arrays.asList(Collections.singletonList(asVocabulary), Arrays.asList(asResource, other)),
+                        Pageable.unpaged());
+        assertEquals(Arrays.asList(other, asVocabulary), result);
+    }
+}
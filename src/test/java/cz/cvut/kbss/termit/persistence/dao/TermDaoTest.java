@@ -19,6 +19,7 @@ import cz.cvut.kbss.jopa.model.query.TypedQuery;
 import cz.cvut.kbss.jopa.vocabulary.DC;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.TermTreeNode;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.model.Asset;
@@ -26,6 +27,7 @@ import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.model.util.DescriptorFactory;
 import cz.cvut.kbss.termit.util.Constants;
+import cz.cvut.kbss.termit.util.PageCursor;
 import org.eclipse.rdf4j.common.iteration.Iterations;
 import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Literal;
@@ -43,6 +45,7 @@ import java.net.URI;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.lessThan;
@@ -107,6 +110,148 @@ class TermDaoTest extends BaseDaoTestRunner {
         assertEquals(subList, result);
     }
 
+    @Test
+    void findAllRootsWithCursorReturnsTermsFollowingCursor() {
+        final List<Term> terms = generateTerms(10);
+        addTermsAndSave(new HashSet<>(terms), vocabulary);
+
+        final Term last = terms.get(3);
+        final List<Term> result = sut.findAllRoots(vocabulary, new PageCursor(last.getLabel(), last.getUri()), 4);
+        assertEquals(terms.subList(4, 8), result);
+    }
+
+    @Test
+    void findAllRootsIncludingImportsWithCursorReturnsTermsFollowingCursor() {
+        final List<Term> terms = generateTerms(10);
+        addTermsAndSave(new HashSet<>(terms), vocabulary);
+
+        final Term last = terms.get(5);
+        final List<Term> result = sut
+                .findAllRootsIncludingImports(vocabulary, new PageCursor(last.getLabel(), last.getUri()), 10);
+        assertEquals(terms.subList(6, 10), result);
+    }
+
+    @Test
+    void findAllRootNodesReturnsRootTermNodesWithSubTermCounts() {
+        final List<Term> terms = generateTerms(4);
+        addTermsAndSave(new HashSet<>(terms), vocabulary);
+        final Term parent = terms.get(1);
+        transactional(() -> Generator.generateTermsWithIds(3).forEach(child -> {
+            child.addParentTerm(parent);
+            child.setVocabulary(vocabulary.getUri());
+            em.persist(child, DescriptorFactory.termDescriptor(vocabulary));
+        }));
+
+        final List<TermTreeNode> result = sut.findAllRootNodes(vocabulary, Constants.DEFAULT_PAGE_SPEC);
+        assertEquals(terms.stream().map(Term::getUri).collect(Collectors.toList()),
+                result.stream().map(TermTreeNode::getUri).collect(Collectors.toList()));
+        for (TermTreeNode node : result) {
+            assertEquals(node.getUri().equals(parent.getUri()) ? 3 : 0, node.getSubTermCount().intValue());
+            assertEquals(vocabulary.getUri(), node.getVocabulary());
+            assertNotNull(node.getLabel());
+        }
+    }
+
+    @Test
+    void findAllRootNodesIncludingImportsReturnsRootTermNodesFromImportChainWithSubTermCounts() {
+        final List<Term> directTerms = generateTerms(2);
+        addTermsAndSave(directTerms, vocabulary);
+        final Vocabulary parentVocabulary = Generator.generateVocabularyWithId();
+        vocabulary.setImportedVocabularies(Collections.singleton(parentVocabulary.getUri()));
+        transactional(() -> {
+            em.merge(vocabulary, DescriptorFactory.vocabularyDescriptor(vocabulary));
+            em.persist(parentVocabulary, DescriptorFactory.vocabularyDescriptor(parentVocabulary));
+        });
+        final List<Term> parentTerms = generateTerms(2);
+        addTermsAndSave(parentTerms, parentVocabulary);
+        final Term child = Generator.generateTermWithId();
+        child.addParentTerm(parentTerms.get(0));
+        child.setVocabulary(parentVocabulary.getUri());
+        transactional(() -> em.persist(child, DescriptorFactory.termDescriptor(parentVocabulary)));
+        final List<Term> allTerms = new ArrayList<>(directTerms);
+        allTerms.addAll(parentTerms);
+        allTerms.sort(Comparator.comparing(Term::getLabel));
+
+        final List<TermTreeNode> result = sut
+                .findAllRootNodesIncludingImports(vocabulary, Constants.DEFAULT_PAGE_SPEC);
+        assertEquals(allTerms.stream().map(Term::getUri).collect(Collectors.toList()),
+                result.stream().map(TermTreeNode::getUri).collect(Collectors.toList()));
+        for (TermTreeNode node : result) {
+            assertEquals(node.getUri().equals(parentTerms.get(0).getUri()) ? 1 : 0,
+                    node.getSubTermCount().intValue());
+        }
+    }
+
+    @Test
+    void findSubTermNodesReturnsChildNodesOrderedByLabelWithSubTermCounts() {
+        final Term parent = Generator.generateTermWithId();
+        addTermsAndSave(Collections.singleton(parent), vocabulary);
+        final List<Term> children = generateTerms(3);
+        final Term grandChild = Generator.generateTermWithId();
+        grandChild.addParentTerm(children.get(2));
+        grandChild.setVocabulary(vocabulary.getUri());
+        transactional(() -> {
+            children.forEach(child -> {
+                child.addParentTerm(parent);
+                child.setVocabulary(vocabulary.getUri());
+                em.persist(child, DescriptorFactory.termDescriptor(vocabulary));
+            });
+            em.persist(grandChild, DescriptorFactory.termDescriptor(vocabulary));
+        });
+
+        final Term loadedParent = sut.find(parent.getUri()).get();
+        final List<TermTreeNode> result = sut.findSubTermNodes(loadedParent);
+        assertEquals(children.stream().map(Term::getUri).collect(Collectors.toList()),
+                result.stream().map(TermTreeNode::getUri).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(0, 0, 1),
+                result.stream().map(TermTreeNode::getSubTermCount).collect(Collectors.toList()));
+    }
+
+    @Test
+    void findSubTreeReturnsNestedSubTermNodesDownToSpecifiedDepth() {
+        final Term root = Generator.generateTermWithId();
+        addTermsAndSave(Collections.singleton(root), vocabulary);
+        final Term child = Generator.generateTermWithId();
+        child.addParentTerm(root);
+        child.setVocabulary(vocabulary.getUri());
+        final Term grandChild = Generator.generateTermWithId();
+        grandChild.addParentTerm(child);
+        grandChild.setVocabulary(vocabulary.getUri());
+        final Term greatGrandChild = Generator.generateTermWithId();
+        greatGrandChild.addParentTerm(grandChild);
+        greatGrandChild.setVocabulary(vocabulary.getUri());
+        transactional(() -> Arrays.asList(child, grandChild, greatGrandChild)
+                                  .forEach(t -> em.persist(t, DescriptorFactory.termDescriptor(vocabulary))));
+
+        final TermTreeNode result = sut.findSubTree(sut.find(root.getUri()).get(), 2);
+        assertEquals(root.getUri(), result.getUri());
+        assertEquals(1, result.getSubTermCount().intValue());
+        assertEquals(1, result.getSubTerms().size());
+        final TermTreeNode childNode = result.getSubTerms().iterator().next();
+        assertEquals(child.getUri(), childNode.getUri());
+        assertEquals(1, childNode.getSubTerms().size());
+        final TermTreeNode grandChildNode = childNode.getSubTerms().iterator().next();
+        assertEquals(grandChild.getUri(), grandChildNode.getUri());
+        assertNull(grandChildNode.getSubTerms());
+        assertEquals(1, grandChildNode.getSubTermCount().intValue());
+    }
+
+    @Test
+    void findAllByIdentifiersReturnsExistingTermsInOrderOfIdentifiersWithSubTerms() {
+        final List<Term> terms = generateTerms(3);
+        addTermsAndSave(new HashSet<>(terms), vocabulary);
+        final Term child = Generator.generateTermWithId();
+        child.addParentTerm(terms.get(1));
+        child.setVocabulary(vocabulary.getUri());
+        transactional(() -> em.persist(child, DescriptorFactory.termDescriptor(vocabulary)));
+        final List<URI> ids = Arrays.asList(terms.get(2).getUri(), Generator.generateUri(), terms.get(1).getUri(),
+                terms.get(0).getUri());
+
+        final List<Term> result = sut.findAll(ids);
+        assertEquals(Arrays.asList(terms.get(2), terms.get(1), terms.get(0)), result);
+        assertEquals(Collections.singleton(new TermInfo(child)), result.get(1).getSubTerms());
+    }
+
     @Test
     void findAllRootsReturnsOnlyTermsInSpecifiedVocabulary() {
         final List<Term> terms = generateTerms(10);
@@ -149,6 +294,27 @@ class TermDaoTest extends BaseDaoTestRunner {
         assertTrue(terms.contains(result.get(0)));
     }
 
+    @Test
+    void findAllIdentifiersBySearchStringReturnsIdentifiersOfTermsWithMatchingLabel() {
+        final List<Term> terms = generateTerms(10);
+        addTermsAndSave(new HashSet<>(terms), vocabulary);
+
+        final List<URI> result = sut.findAllIdentifiers(terms.get(0).getLabel(), vocabulary);
+        assertEquals(Collections.singletonList(terms.get(0).getUri()), result);
+        assertEquals(Collections.singletonList(terms.get(0)), sut.findAllWithAncestors(result));
+    }
+
+    @Test
+    void findAllBySearchStringIgnoresDiacritics() {
+        final List<Term> terms = generateTerms(5);
+        terms.get(0).setLabel("Zákon o územním plánování");
+        addTermsAndSave(terms, vocabulary);
+
+        final List<Term> result = sut.findAll("zakon", vocabulary);
+        assertEquals(Collections.singletonList(terms.get(0)), result);
+        assertTrue(sut.existsInVocabulary("zakon o uzemnim planovani", vocabulary));
+    }
+
     @Test
     void findAllBySearchStringReturnsTermsWithMatchingLabelWhichAreNotRoots() {
         final List<Term> terms = generateTerms(10);
@@ -220,6 +386,20 @@ class TermDaoTest extends BaseDaoTestRunner {
         assertTrue(sut.existsInVocabulary(label, vocabulary));
     }
 
+    @Test
+    void findAllByLabelPrefixReturnsTermsWithLabelStartingWithPrefixOrderedByLabel() {
+        final List<Term> terms = generateTerms(10);
+        terms.get(0).setLabel("Building");
+        terms.get(1).setLabel("build");
+        terms.get(2).setLabel("Bridge");
+        addTermsAndSave(terms, vocabulary);
+
+        final List<TermInfo> result = sut.findAllByLabelPrefix("bUi", vocabulary, 10);
+        assertEquals(Arrays.asList(new TermInfo(terms.get(1)), new TermInfo(terms.get(0))), result);
+        assertEquals(Collections.singletonList(new TermInfo(terms.get(1))),
+                sut.findAllByLabelPrefix("bUi", vocabulary, 1));
+    }
+
     @Test
     void findAllGetsAllTermsInVocabulary() {
         final List<Term> terms = generateTerms(10);
@@ -240,6 +420,23 @@ class TermDaoTest extends BaseDaoTestRunner {
         assertEquals(terms, result);
     }
 
+    @Test
+    void findAllIdentifiersReturnsIdentifiersOfAllTermsFromVocabularyOrderedByLabel() {
+        final List<Term> terms = generateTerms(10);
+        addTermsAndSave(terms, vocabulary);
+        final Term child = Generator.generateTermWithId();
+        child.setLabel(terms.get(0).getLabel() + " - child");
+        child.addParentTerm(terms.get(0));
+        child.setVocabulary(vocabulary.getUri());
+        transactional(() -> em.persist(child, DescriptorFactory.termDescriptor(vocabulary)));
+        final List<Term> expected = new ArrayList<>(terms);
+        expected.add(child);
+        expected.sort(Comparator.comparing(Term::getLabel));
+
+        final List<URI> result = sut.findAllIdentifiers(vocabulary);
+        assertEquals(expected.stream().map(Term::getUri).collect(Collectors.toList()), result);
+    }
+
     @Test
     void persistSavesTermIntoVocabularyContext() {
         final Term term = Generator.generateTermWithId();
@@ -567,6 +764,40 @@ class TermDaoTest extends BaseDaoTestRunner {
         assertEquals(parent.getSubTerms(), result.get(0).getSubTerms());
     }
 
+    @Test
+    void findAllBySearchStringLoadsSubTermsOfAllAncestorsOfResults() {
+        final Term root = Generator.generateTermWithId();
+        addTermsAndSave(Collections.singleton(root), vocabulary);
+        final Term middle = Generator.generateTermWithId();
+        middle.setVocabulary(vocabulary.getUri());
+        middle.setParentTerms(Collections.singleton(root));
+        final Term matchOne = Generator.generateTermWithId();
+        matchOne.setLabel("Matching term one");
+        matchOne.setVocabulary(vocabulary.getUri());
+        matchOne.setParentTerms(Collections.singleton(middle));
+        final Term matchTwo = Generator.generateTermWithId();
+        matchTwo.setLabel("Matching term two");
+        matchTwo.setVocabulary(vocabulary.getUri());
+        matchTwo.setParentTerms(Collections.singleton(middle));
+        transactional(() -> {
+            em.persist(middle, DescriptorFactory.termDescriptor(vocabulary));
+            em.persist(matchOne, DescriptorFactory.termDescriptor(vocabulary));
+            em.persist(matchTwo, DescriptorFactory.termDescriptor(vocabulary));
+            insertNarrowerStatements(middle, matchOne, matchTwo);
+        });
+
+        final List<Term> result = sut.findAll("matching", vocabulary);
+        assertEquals(Arrays.asList(matchOne, matchTwo), result);
+        for (Term match : result) {
+            final Term parent = match.getParentTerms().iterator().next();
+            assertEquals(new HashSet<>(Arrays.asList(new TermInfo(matchOne), new TermInfo(matchTwo))),
+                    parent.getSubTerms());
+            final Term grandParent = parent.getParentTerms().iterator().next();
+            assertEquals(Collections.singleton(new TermInfo(middle)), grandParent.getSubTerms());
+            assertEquals(Collections.emptySet(), match.getSubTerms());
+        }
+    }
+
     @Test
     void findLoadsSubTermsForResult() {
         final Term parent = persistParentWithChild();
@@ -575,6 +806,57 @@ class TermDaoTest extends BaseDaoTestRunner {
         assertEquals(parent.getSubTerms(), result.get().getSubTerms());
     }
 
+    @Test
+    void findAllRootsLoadsSubTermsOfAllResultsAndAssignsThemToCorrectParents() {
+        final List<Term> roots = generateTerms(5);
+        addTermsAndSave(new HashSet<>(roots), vocabulary);
+        final Map<Term, Term> children = new HashMap<>();
+        transactional(() -> roots.forEach(r -> {
+            final Term child = Generator.generateTermWithId();
+            child.setVocabulary(vocabulary.getUri());
+            child.setParentTerms(Collections.singleton(r));
+            em.persist(child, DescriptorFactory.termDescriptor(vocabulary));
+            children.put(r, child);
+        }));
+        transactional(() -> insertNarrowerStatements(children.values().toArray(new Term[0])));
+
+        final List<Term> result = sut.findAllRoots(vocabulary, Constants.DEFAULT_PAGE_SPEC);
+        assertEquals(roots, result);
+        result.forEach(r -> assertEquals(Collections.singleton(new TermInfo(children.get(r))), r.getSubTerms()));
+    }
+
+    @Test
+    void findAllRootsSetsEmptySubTermsForTermsWithoutChildren() {
+        final List<Term> roots = generateTerms(3);
+        addTermsAndSave(new HashSet<>(roots), vocabulary);
+
+        final List<Term> result = sut.findAllRoots(vocabulary, Constants.DEFAULT_PAGE_SPEC);
+        result.forEach(r -> {
+            assertNotNull(r.getSubTerms());
+            assertTrue(r.getSubTerms().isEmpty());
+        });
+    }
+
+    @Test
+    void findSubTermsReturnsChildrenOfSpecifiedParentOrderedByLabel() {
+        final Term parent = Generator.generateTermWithId();
+        parent.setVocabulary(vocabulary.getUri());
+        final List<Term> children = generateTerms(5);
+        children.forEach(c -> {
+            c.setVocabulary(vocabulary.getUri());
+            c.setParentTerms(Collections.singleton(parent));
+        });
+        transactional(() -> {
+            em.persist(parent, DescriptorFactory.termDescriptor(vocabulary));
+            children.forEach(c -> em.persist(c, DescriptorFactory.termDescriptor(vocabulary)));
+            insertNarrowerStatements(children.toArray(new Term[0]));
+        });
+
+        final List<Term> result = sut.findSubTerms(parent);
+        assertEquals(children, result);
+        result.forEach(r -> assertNotNull(r.getSubTerms()));
+    }
+
     @Test
     void termSupportsSimpleLiteralSources() {
         final Term term = Generator.generateTermWithId();
@@ -292,6 +292,22 @@ class VocabularyDaoTest extends BaseDaoTestRunner {
         assertTrue(result.contains(transitiveVocabulary.getUri()));
     }
 
+    @Test
+    void getTransitivelyImportedVocabulariesReflectsImportsChangedByUpdate() {
+        final Vocabulary subjectVocabulary = Generator.generateVocabularyWithId();
+        final Vocabulary importedVocabulary = Generator.generateVocabularyWithId();
+        transactional(() -> {
+            em.persist(subjectVocabulary, DescriptorFactory.vocabularyDescriptor(subjectVocabulary));
+            em.persist(importedVocabulary, DescriptorFactory.vocabularyDescriptor(importedVocabulary));
+        });
+        assertTrue(sut.getTransitivelyImportedVocabularies(subjectVocabulary).isEmpty());
+
+        subjectVocabulary.setImportedVocabularies(Collections.singleton(importedVocabulary.getUri()));
+        transactional(() -> sut.update(subjectVocabulary));
+        assertEquals(Collections.singletonList(importedVocabulary.getUri()),
+                sut.getTransitivelyImportedVocabularies(subjectVocabulary));
+    }
+
     @Test
     void initializesLastModificationTimestampToCurrentDateTimeOnInit() {
         final long result = sut.getLastModified();
@@ -0,0 +1,96 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
+import cz.cvut.kbss.termit.event.VocabularyImportedEvent;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AssetIndexUpdaterTest {
+
+    private AssetIndex indexOne;
+
+    private AssetIndex indexTwo;
+
+    private AssetIndexUpdater sut;
+
+    @BeforeEach
+    void setUp() {
+        this.indexOne = mock(AssetIndex.class, Mockito.CALLS_REAL_METHODS);
+        this.indexTwo = mock(AssetIndex.class, Mockito.CALLS_REAL_METHODS);
+        this.sut = new AssetIndexUpdater(Arrays.asList(indexOne, indexTwo));
+    }
+
+    @Test
+    void onAssetModifiedUpdatesAllIndexes() {
+        final Term term = Generator.generateTermWithId();
+
+        sut.onAssetModified(new AssetModifiedEvent(this, term, false));
+        verify(indexOne).index(term);
+        verify(indexTwo).index(term);
+    }
+
+    @Test
+    void onAssetModifiedRemovesRemovedAssetFromIndexes() {
+        final Term term = Generator.generateTermWithId();
+
+        sut.onAssetModified(new AssetModifiedEvent(this, term, true));
+        verify(indexOne).remove(term.getUri());
+        verify(indexTwo).remove(term.getUri());
+        verify(indexOne, never()).index(any(Term.class));
+    }
+
+    @Test
+    void onAssetModifiedDoesNotReindexTermsOfModifiedVocabulary() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+
+        sut.onAssetModified(new AssetModifiedEvent(this, vocabulary, false));
+        verify(indexOne).index(vocabulary);
+        verify(indexOne, never()).indexTerms(any(URI.class));
+    }
+
+    @Test
+    void onAssetModifiedReindexesTermsOfImportedVocabulary() {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+
+        sut.onAssetModified(new VocabularyImportedEvent(this, vocabulary));
+        verify(indexOne).index(vocabulary);
+        verify(indexOne).indexTerms(vocabulary.getUri());
+        verify(indexTwo).indexTerms(vocabulary.getUri());
+    }
+
+    @Test
+    void onAssetModifiedUpdatesRemainingIndexesWhenUpdateOfOneFails() {
+        final Term term = Generator.generateTermWithId();
+        doThrow(IllegalStateException.class).when(indexOne).index(term);
+
+        sut.onAssetModified(new AssetModifiedEvent(this, term, false));
+        verify(indexTwo).index(term);
+    }
+}
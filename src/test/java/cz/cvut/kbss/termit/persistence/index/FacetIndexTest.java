@@ -0,0 +1,152 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.dto.FacetedSearchResult;
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.User;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.net.URI;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FacetIndexTest extends BaseDaoTestRunner {
+
+    private static final String TYPE = "http://onto.fel.cvut.cz/ontologies/termit/test/Type";
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private FacetIndex sut;
+
+    private cz.cvut.kbss.termit.model.Vocabulary vocabulary;
+
+    private final List<FullTextSearchResult> results = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        final User author = Generator.generateUserWithId();
+        this.vocabulary = Generator.generateVocabularyWithId();
+        vocabulary.setAuthor(author);
+        vocabulary.setCreated(new Date());
+        transactional(() -> {
+            em.persist(author);
+            em.persist(vocabulary);
+        });
+        results.add(result(vocabulary.getUri(), Vocabulary.s_c_slovnik));
+    }
+
+    private Term persistTerm(URI vocabularyUri, String... types) {
+        final Term term = Generator.generateTermWithId();
+        term.setVocabulary(vocabularyUri);
+        term.setTypes(new HashSet<>(Arrays.asList(types)));
+        transactional(() -> em.persist(term));
+        results.add(result(term.getUri(), Vocabulary.s_c_term));
+        return term;
+    }
+
+    private static FullTextSearchResult result(URI uri, String type) {
+        return new FullTextSearchResult(uri, "label", null, type, "label", "label", 1.0);
+    }
+
+    @Test
+    void facetCountsResultsByFacetValuesWhenNothingIsSelected() {
+        final URI otherVocabulary = Generator.generateUri();
+        persistTerm(vocabulary.getUri(), TYPE);
+        persistTerm(vocabulary.getUri());
+        persistTerm(otherVocabulary, TYPE);
+
+        final FacetedSearchResult result = sut.facet(results, Collections.emptyMap());
+        assertEquals(results, result.getResults());
+        assertEquals(Integer.valueOf(2), result.getFacets().get(FacetIndex.VOCABULARY).get(vocabulary.getUri().toString()));
+        assertEquals(Integer.valueOf(1), result.getFacets().get(FacetIndex.VOCABULARY).get(otherVocabulary.toString()));
+        assertEquals(Integer.valueOf(2), result.getFacets().get(FacetIndex.TERM_TYPE).get(TYPE));
+        assertEquals(Integer.valueOf(3), result.getFacets().get(FacetIndex.KIND).get(Vocabulary.s_c_term));
+        assertEquals(Integer.valueOf(1), result.getFacets().get(FacetIndex.KIND).get(Vocabulary.s_c_slovnik));
+    }
+
+    @Test
+    void facetFiltersResultsBySelectedValuesOfAllFacets() {
+        final Term match = persistTerm(vocabulary.getUri(), TYPE);
+        persistTerm(vocabulary.getUri());
+        persistTerm(Generator.generateUri(), TYPE);
+        final Map<String, List<String>> filter = new HashMap<>();
+        filter.put(FacetIndex.VOCABULARY, Collections.singletonList(vocabulary.getUri().toString()));
+        filter.put(FacetIndex.TERM_TYPE, Collections.singletonList(TYPE));
+
+        final FacetedSearchResult result = sut.facet(results, filter);
+        assertEquals(1, result.getResults().size());
+        assertEquals(match.getUri(), result.getResults().get(0).getUri());
+    }
+
+    @Test
+    void facetCountsValuesOfFacetRegardlessOfItsOwnSelection() {
+        final URI otherVocabulary = Generator.generateUri();
+        persistTerm(vocabulary.getUri(), TYPE);
+        persistTerm(vocabulary.getUri());
+        persistTerm(otherVocabulary, TYPE);
+        final Map<String, List<String>> filter = new HashMap<>();
+        filter.put(FacetIndex.VOCABULARY, Collections.singletonList(otherVocabulary.toString()));
+        filter.put(FacetIndex.TERM_TYPE, Collections.singletonList(TYPE));
+
+        final FacetedSearchResult result = sut.facet(results, filter);
+        final Map<String, Integer> vocabularyCounts = result.getFacets().get(FacetIndex.VOCABULARY);
+        assertEquals(Integer.valueOf(1), vocabularyCounts.get(vocabulary.getUri().toString()));
+        assertEquals(Integer.valueOf(1), vocabularyCounts.get(otherVocabulary.toString()));
+        assertEquals(Integer.valueOf(1), result.getFacets().get(FacetIndex.TERM_TYPE).get(TYPE));
+        assertFalse(result.getFacets().get(FacetIndex.KIND).containsKey(Vocabulary.s_c_slovnik));
+    }
+
+    @Test
+    void facetCountsOnlySpecifiedResults() {
+        persistTerm(vocabulary.getUri(), TYPE);
+        final Term other = persistTerm(vocabulary.getUri(), TYPE);
+        results.removeIf(r -> r.getUri().equals(other.getUri()));
+
+        final FacetedSearchResult result = sut.facet(results, Collections.emptyMap());
+        assertEquals(Integer.valueOf(1), result.getFacets().get(FacetIndex.TERM_TYPE).get(TYPE));
+    }
+
+    @Test
+    void facetReflectsAssetModificationEvents() {
+        final Term term = persistTerm(vocabulary.getUri());
+        final Map<String, List<String>> filter = Collections.singletonMap(FacetIndex.TERM_TYPE,
+                Collections.singletonList(TYPE));
+        assertTrue(sut.facet(results, filter).getResults().isEmpty());
+
+        term.setTypes(Collections.singleton(TYPE));
+        sut.update(new AssetModifiedEvent(this, term, false));
+        assertEquals(1, sut.facet(results, filter).getResults().size());
+
+        sut.update(new AssetModifiedEvent(this, term, true));
+        assertTrue(sut.facet(results, filter).getResults().isEmpty());
+        assertFalse(sut.facet(results, Collections.emptyMap()).getFacets().get(FacetIndex.TERM_TYPE)
+                       .containsKey(TYPE));
+    }
+}
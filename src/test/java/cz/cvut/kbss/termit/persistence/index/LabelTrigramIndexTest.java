@@ -0,0 +1,124 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.net.URI;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LabelTrigramIndexTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private LabelTrigramIndex sut;
+
+    private Term persistTerm(String label) {
+        final Term term = Generator.generateTermWithId();
+        term.setLabel(label);
+        term.setVocabulary(Generator.generateUri());
+        transactional(() -> em.persist(term));
+        return term;
+    }
+
+    private static List<URI> uris(List<FullTextSearchResult> results) {
+        return results.stream().map(FullTextSearchResult::getUri).collect(Collectors.toList());
+    }
+
+    @Test
+    void searchFindsTermsWithMisspelledLabel() {
+        final Term building = persistTerm("Building permit");
+        persistTerm("Road");
+
+        final List<FullTextSearchResult> result = sut.search("buidling");
+        assertEquals(1, result.size());
+        assertEquals(building.getUri(), result.get(0).getUri());
+        assertEquals(building.getLabel(), result.get(0).getLabel());
+        assertEquals(building.getVocabulary(), result.get(0).getVocabulary());
+        assertTrue(result.get(0).getTypes().contains(Vocabulary.s_c_term));
+    }
+
+    @Test
+    void searchOrdersResultsByEditDistance() {
+        final Term exact = persistTerm("Plot");
+        final Term typo = persistTerm("Plat");
+
+        final List<FullTextSearchResult> result = sut.search("plot");
+        assertEquals(exact.getUri(), result.get(0).getUri());
+        assertTrue(uris(result).contains(typo.getUri()));
+        assertTrue(result.get(0).getScore() > result.get(1).getScore());
+    }
+
+    @Test
+    void searchIgnoresCaseAndDiacritics() {
+        final Term law = persistTerm("Zákon o územním plánování");
+
+        assertEquals(law.getUri(), sut.search("ZAKON O UZEMNIM").get(0).getUri());
+    }
+
+    @Test
+    void searchDoesNotReturnTermsWithTooDistantLabel() {
+        persistTerm("Building permit");
+
+        assertTrue(sut.search("bridge").isEmpty());
+    }
+
+    @Test
+    void searchReflectsAssetModificationEvents() {
+        final Term term = persistTerm("Building permit");
+        assertEquals(1, sut.search("building").size());
+
+        term.setLabel("Construction permit");
+        sut.update(new AssetModifiedEvent(this, term, false));
+        assertTrue(sut.search("building").isEmpty());
+        assertEquals(1, sut.search("constrution").size());
+
+        sut.update(new AssetModifiedEvent(this, term, true));
+        assertTrue(sut.search("construction").isEmpty());
+    }
+
+    @Test
+    void searchReloadsIndexAfterEviction() {
+        persistTerm("Building permit");
+        assertEquals(1, sut.search("building").size());
+        persistTerm("Building plot");
+
+        sut.evictAll();
+        assertEquals(2, sut.search("building").size());
+    }
+
+    @Test
+    void substringDistanceComputesDistanceToBestMatchingPartOfText() {
+        assertEquals(0, LabelTrigramIndex.substringDistance("permit", "building permit"));
+        assertEquals(1, LabelTrigramIndex.substringDistance("permot", "building permit"));
+        assertEquals(2, LabelTrigramIndex.substringDistance("buidling", "building permit"));
+    }
+}
@@ -0,0 +1,309 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.jopa.model.query.Query;
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.dto.IndexedAsset;
+import cz.cvut.kbss.termit.dto.ResourceLabel;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.resource.Resource;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LuceneFullTextIndexTest {
+
+    @Mock
+    private EntityManager emMock;
+
+    @Mock
+    private Configuration configMock;
+
+    private Query labelQueryMock;
+
+    private LuceneFullTextIndex sut;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        this.labelQueryMock = mock(Query.class);
+        when(emMock.createNativeQuery(anyString(), eq("ResourceLabel"))).thenReturn(labelQueryMock);
+        when(labelQueryMock.setParameter(anyString(), any())).thenReturn(labelQueryMock);
+        when(labelQueryMock.getResultList()).thenReturn(Collections.emptyList());
+        this.sut = new LuceneFullTextIndex(emMock, configMock);
+        sut.open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.close();
+    }
+
+    private Term term(String label) {
+        final Term term = Generator.generateTermWithId();
+        term.setLabel(label);
+        term.setDefinition(null);
+        term.setVocabulary(Generator.generateUri());
+        return term;
+    }
+
+    @Test
+    void searchFindsTermsByLabelPrefixOfLastToken() {
+        final Term term = term("Building permit");
+        sut.index(term);
+
+        final List<FullTextSearchResult> result = sut.search("buil");
+        assertEquals(1, result.size());
+        assertEquals(term.getUri(), result.get(0).getUri());
+        assertEquals(term.getLabel(), result.get(0).getLabel());
+        assertEquals(term.getVocabulary(), result.get(0).getVocabulary());
+        assertTrue(result.get(0).getTypes().contains(Vocabulary.s_c_term));
+        assertEquals(LuceneFullTextIndex.FIELD_LABEL, result.get(0).getSnippetField());
+    }
+
+    @Test
+    void searchRequiresAllTokensToMatch() {
+        final Term permit = term("Building permit");
+        sut.index(permit);
+        sut.index(term("Building plot"));
+
+        final List<FullTextSearchResult> result = sut.search("building perm");
+        assertEquals(1, result.size());
+        assertEquals(permit.getUri(), result.get(0).getUri());
+    }
+
+    @Test
+    void searchUsesDefinitionAsSnippetWhenLabelDoesNotMatch() {
+        final Term term = term("Plot");
+        term.setDefinition("Parcel of land registered in the cadastre");
+        sut.index(term);
+
+        final List<FullTextSearchResult> result = sut.search("cadastre");
+        assertEquals(1, result.size());
+        assertEquals(LuceneFullTextIndex.FIELD_DEFINITION, result.get(0).getSnippetField());
+        assertEquals(term.getDefinition(), result.get(0).getSnippetText());
+    }
+
+    @Test
+    void searchLabelsFindsAssetsByLabelSubstringRegardlessOfDiacritics() {
+        final Term law = term("Stavební zákon");
+        sut.index(law);
+        sut.index(term("Zákonné opatření"));
+
+        final List<FullTextSearchResult> result = sut.searchLabels("ebni zakon", Vocabulary.s_c_term);
+        assertEquals(1, result.size());
+        assertEquals(law.getUri(), result.get(0).getUri());
+        assertEquals(law.getLabel(), result.get(0).getLabel());
+        assertEquals(LuceneFullTextIndex.FIELD_LABEL, result.get(0).getSnippetField());
+        assertEquals(law.getLabel(), result.get(0).getSnippetText());
+        assertNull(result.get(0).getScore());
+    }
+
+    @Test
+    void searchLabelsMatchesLabelsInOtherLanguagesStoredInRepository() {
+        final Term term = term("Stavební povolení");
+        when(labelQueryMock.getResultList()).thenReturn(Collections.singletonList(
+                new ResourceLabel(term.getUri(), "Building permit", "en")));
+        sut.index(term);
+
+        final List<FullTextSearchResult> result = sut.searchLabels("permit", Vocabulary.s_c_term);
+        assertEquals(1, result.size());
+        assertEquals(term.getUri(), result.get(0).getUri());
+        assertEquals("Building permit", result.get(0).getSnippetText());
+        assertTrue(sut.searchLabels("permit", Vocabulary.s_c_slovnik).isEmpty());
+    }
+
+    @Test
+    void searchDefinitionsAndCommentsHighlightsMatchInSnippet() {
+        final Term term = term("Permit");
+        term.setDefinition("Permit allowing construction of a building");
+        sut.index(term);
+        sut.index(term("Building"));
+
+        final List<FullTextSearchResult> result = sut.searchDefinitionsAndComments("building", Vocabulary.s_c_term);
+        assertEquals(1, result.size());
+        assertEquals(term.getUri(), result.get(0).getUri());
+        assertEquals(term.getLabel(), result.get(0).getLabel());
+        assertEquals(term.getVocabulary(), result.get(0).getVocabulary());
+        assertEquals(LuceneFullTextIndex.FIELD_DEFINITION, result.get(0).getSnippetField());
+        assertEquals("Permit allowing construction of a <em>building</em>", result.get(0).getSnippetText());
+        assertNull(result.get(0).getScore());
+    }
+
+    @Test
+    void searchDefinitionsAndCommentsIgnoresCaseAndDiacritics() {
+        final Term term = term("Permit");
+        term.setComment("Vydává stavební úřad");
+        sut.index(term);
+
+        final List<FullTextSearchResult> result = sut
+                .searchDefinitionsAndComments("STAVEBNI URA", Vocabulary.s_c_term);
+        assertEquals(1, result.size());
+        assertEquals(LuceneFullTextIndex.FIELD_COMMENT, result.get(0).getSnippetField());
+        assertEquals("Vydává <em>stavební</em> <em>úřad</em>", result.get(0).getSnippetText());
+    }
+
+    @Test
+    void searchDefinitionsAndCommentsRequiresAllTokensInOneField() {
+        final Term term = term("Permit");
+        term.setDefinition("Building permit");
+        term.setComment("Issued by authority");
+        sut.index(term);
+
+        assertTrue(sut.searchDefinitionsAndComments("permit authority", Vocabulary.s_c_term).isEmpty());
+        assertTrue(sut.searchDefinitionsAndComments("building", Vocabulary.s_c_slovnik).isEmpty());
+    }
+
+    @Test
+    void snippetShortensLongTextAroundFirstMatchAndEscapesHtml() {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            text.append("word ");
+        }
+        final int start = text.length();
+        text.append("<match> ");
+        for (int i = 0; i < 50; i++) {
+            text.append("word ");
+        }
+
+        final String result = LuceneFullTextIndex
+                .snippet(text.toString(), Collections.singletonList(new int[]{start + 1, start + 6}));
+        assertTrue(result.startsWith("…word"));
+        assertTrue(result.endsWith("…"));
+        assertTrue(result.contains("&lt;<em>match</em>&gt;"));
+        assertTrue(result.length() <= LuceneFullTextIndex.SNIPPET_LENGTH + 2 * "…".length() + 32);
+    }
+
+    @Test
+    void searchInTypeFindsOnlyAssetsOfSpecifiedType() {
+        final Term term = term("Building permit");
+        sut.index(term);
+        final Resource resource = Generator.generateResourceWithId();
+        resource.setLabel("Building permit application");
+        sut.index(resource);
+
+        final List<FullTextSearchResult> result = sut.search("building", Vocabulary.s_c_zdroj, 0, 10);
+        assertEquals(1, result.size());
+        assertEquals(resource.getUri(), result.get(0).getUri());
+        assertTrue(result.get(0).getTypes().contains(Vocabulary.s_c_zdroj));
+    }
+
+    @Test
+    void searchFindsVocabularyByLabel() {
+        final cz.cvut.kbss.termit.model.Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        vocabulary.setLabel("Metropolitan plan");
+        sut.index(vocabulary);
+
+        final List<FullTextSearchResult> result = sut.search("metropolitan");
+        assertEquals(1, result.size());
+        assertEquals(vocabulary.getUri(), result.get(0).getUri());
+        assertTrue(result.get(0).getTypes().contains(Vocabulary.s_c_slovnik));
+    }
+
+    @Test
+    void indexReplacesPreviouslyIndexedVersionOfAsset() {
+        final Term term = term("Building");
+        sut.index(term);
+        term.setLabel("Construction");
+        sut.index(term);
+
+        assertTrue(sut.search("building").isEmpty());
+        assertEquals(1, sut.search("construction").size());
+    }
+
+    @Test
+    void removalEventRemovesAssetFromIndex() {
+        final Term term = term("Building");
+        sut.index(term);
+        sut.update(new AssetModifiedEvent(this, term, true));
+
+        assertTrue(sut.search("building").isEmpty());
+    }
+
+    @Test
+    void searchReturnsRequestedPageOfResults() {
+        for (int i = 0; i < 5; i++) {
+            sut.index(term("Building " + i));
+        }
+        final List<FullTextSearchResult> all = sut.search("building");
+        assertEquals(5, all.size());
+
+        final List<FullTextSearchResult> page = sut.search("building", 2, 2);
+        assertEquals(all.subList(2, 4).stream().map(FullTextSearchResult::getUri).collect(Collectors.toList()),
+                page.stream().map(FullTextSearchResult::getUri).collect(Collectors.toList()));
+        assertEquals(1, sut.search("building", 4, 2).size());
+        assertTrue(sut.search("building", 10, 2).isEmpty());
+    }
+
+    @Test
+    void searchIgnoresDiacritics() {
+        final Term term = term("Zákon o územním plánování");
+        sut.index(term);
+
+        final List<FullTextSearchResult> result = sut.search("zakon uzem");
+        assertEquals(1, result.size());
+        assertEquals(term.getUri(), result.get(0).getUri());
+        assertEquals(LuceneFullTextIndex.FIELD_LABEL, result.get(0).getSnippetField());
+        assertEquals(1, sut.search("ZÁKON").size());
+    }
+
+    @Test
+    void searchReturnsEmptyListForBlankSearchString() {
+        sut.index(term("Building"));
+        assertTrue(sut.search("  ").isEmpty());
+    }
+
+    @Test
+    void rebuildReplacesIndexContentWithRepositoryContent() {
+        final Term stale = term("Building permit");
+        sut.index(stale);
+        final Term current = term("Building plot");
+        final Query queryMock = mock(Query.class);
+        when(emMock.createNativeQuery(anyString(), eq("IndexedAsset"))).thenReturn(queryMock);
+        when(queryMock.setParameter(anyString(), any())).thenReturn(queryMock);
+        when(queryMock.getResultList()).thenReturn(Collections.singletonList(
+                new IndexedAsset(current.getUri(), current.getLabel(), current.getVocabulary(), null, null)),
+                Collections.emptyList(), Collections.emptyList());
+
+        sut.rebuild();
+        final List<FullTextSearchResult> result = sut.search("building");
+        assertEquals(1, result.size());
+        assertEquals(current.getUri(), result.get(0).getUri());
+    }
+}
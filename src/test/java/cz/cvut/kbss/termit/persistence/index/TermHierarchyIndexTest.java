@@ -0,0 +1,177 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.model.Term;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.model.util.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.net.URI;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermHierarchyIndexTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TermHierarchyIndex sut;
+
+    private Vocabulary vocabulary;
+
+    @BeforeEach
+    void setUp() {
+        this.vocabulary = Generator.generateVocabularyWithId();
+        vocabulary.setCreated(new Date());
+        vocabulary.setAuthor(Generator.generateUserWithId());
+        Environment.setCurrentUser(vocabulary.getAuthor());
+        transactional(() -> {
+            em.persist(vocabulary.getAuthor());
+            em.persist(vocabulary, DescriptorFactory.vocabularyDescriptor(vocabulary));
+        });
+    }
+
+    private List<Term> persistRoots(int count) {
+        final List<Term> roots = Generator.generateTermsWithIds(count);
+        roots.forEach(t -> t.setVocabulary(vocabulary.getUri()));
+        transactional(() -> {
+            roots.forEach(t -> {
+                vocabulary.getGlossary().addRootTerm(t);
+                em.persist(t, DescriptorFactory.termDescriptor(vocabulary));
+            });
+            em.merge(vocabulary.getGlossary(), DescriptorFactory.glossaryDescriptor(vocabulary));
+        });
+        roots.sort(Comparator.comparing(Term::getLabel));
+        return roots;
+    }
+
+    private Term persistChild(Term parent) {
+        final Term child = Generator.generateTermWithId();
+        child.setVocabulary(vocabulary.getUri());
+        child.setParentTerms(Collections.singleton(parent));
+        transactional(() -> em.persist(child, DescriptorFactory.termDescriptor(vocabulary)));
+        return child;
+    }
+
+    @Test
+    void findRootsReturnsRootTermsOfVocabularyOrderedByLabel() {
+        final List<Term> roots = persistRoots(5);
+        persistChild(roots.get(0));
+
+        final List<URI> result = sut.findRoots(vocabulary.getUri());
+        assertEquals(roots.stream().map(Term::getUri).collect(Collectors.toList()), result);
+    }
+
+    @Test
+    void findSubTermsReturnsChildrenResolvedFromBroaderRelationship() {
+        final Term root = persistRoots(1).get(0);
+        final Term child = persistChild(root);
+
+        final Optional<List<TermInfo>> result = sut.findSubTerms(vocabulary.getUri(), root.getUri());
+        assertTrue(result.isPresent());
+        assertEquals(Collections.singletonList(new TermInfo(child)), result.get());
+    }
+
+    @Test
+    void updateAddsNewRootToLoadedHierarchy() {
+        final List<Term> roots = persistRoots(2);
+        sut.findRoots(vocabulary.getUri());
+        final Term newRoot = Generator.generateTermWithId();
+        newRoot.setVocabulary(vocabulary.getUri());
+
+        sut.update(newRoot);
+        final List<URI> result = sut.findRoots(vocabulary.getUri());
+        assertEquals(roots.size() + 1, result.size());
+        assertTrue(result.contains(newRoot.getUri()));
+    }
+
+    @Test
+    void updateAddsNewChildToLoadedHierarchy() {
+        final Term root = persistRoots(1).get(0);
+        assertTrue(sut.findSubTerms(vocabulary.getUri(), root.getUri()).get().isEmpty());
+        final Term child = Generator.generateTermWithId();
+        child.setVocabulary(vocabulary.getUri());
+        child.addParentTerm(root);
+
+        sut.update(child);
+        assertEquals(Collections.singletonList(new TermInfo(child)),
+                sut.findSubTerms(vocabulary.getUri(), root.getUri()).get());
+        assertFalse(sut.findRoots(vocabulary.getUri()).contains(child.getUri()));
+    }
+
+    @Test
+    void removeRemovesTermFromLoadedHierarchy() {
+        final List<Term> roots = persistRoots(3);
+        sut.findRoots(vocabulary.getUri());
+
+        sut.remove(roots.get(1).getUri());
+        assertFalse(sut.findRoots(vocabulary.getUri()).contains(roots.get(1).getUri()));
+    }
+
+    @Test
+    void evictCacheEventCausesHierarchyToBeReloaded() {
+        persistRoots(2);
+        assertEquals(2, sut.findRoots(vocabulary.getUri()).size());
+        persistRoots(1);
+        assertEquals(2, sut.findRoots(vocabulary.getUri()).size());
+
+        sut.onEvictCache(new EvictCacheEvent(this));
+        assertEquals(3, sut.findRoots(vocabulary.getUri()).size());
+    }
+
+    @Test
+    void vocabularyModificationCausesHierarchyOfVocabularyToBeReloaded() {
+        persistRoots(2);
+        assertEquals(2, sut.findRoots(vocabulary.getUri()).size());
+        // Simulates terms written directly into the repository, e.g., by vocabulary import
+        persistRoots(1);
+
+        sut.onAssetModified(new AssetModifiedEvent(this, vocabulary, false));
+        assertEquals(3, sut.findRoots(vocabulary.getUri()).size());
+    }
+
+    @Test
+    void vocabularyModificationCausesHierarchiesOfImportedVocabulariesToBeReloaded() {
+        final Term root = persistRoots(1).get(0);
+        assertTrue(sut.findSubTerms(vocabulary.getUri(), root.getUri()).get().isEmpty());
+        final Vocabulary importing = Generator.generateVocabularyWithId();
+        importing.setImportedVocabularies(Collections.singleton(vocabulary.getUri()));
+        final Term child = Generator.generateTermWithId();
+        child.setVocabulary(importing.getUri());
+        child.addParentTerm(root);
+        transactional(() -> em.persist(child, DescriptorFactory.termDescriptor(importing)));
+
+        sut.onAssetModified(new AssetModifiedEvent(this, importing, false));
+        final List<TermInfo> result = sut.findSubTerms(vocabulary.getUri(), root.getUri()).get();
+        assertEquals(1, result.size());
+        assertEquals(child.getUri(), result.get(0).getUri());
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.model.*;
+import cz.cvut.kbss.termit.model.resource.File;
+import cz.cvut.kbss.termit.model.selector.TextQuoteSelector;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import cz.cvut.kbss.termit.persistence.dao.TermAssignmentDao;
+import cz.cvut.kbss.termit.persistence.dao.TermOccurrenceDao;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.net.URI;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TermUsageIndexTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TermAssignmentDao assignmentDao;
+
+    @Autowired
+    private TermOccurrenceDao occurrenceDao;
+
+    @Autowired
+    private TermUsageIndex sut;
+
+    private URI vocabulary;
+
+    private Term term;
+
+    private File file;
+
+    @BeforeEach
+    void setUp() {
+        final User author = Generator.generateUserWithId();
+        Environment.setCurrentUser(author);
+        this.vocabulary = Generator.generateUri();
+        this.term = Generator.generateTermWithId();
+        term.setVocabulary(vocabulary);
+        this.file = Generator.generateFileWithId("test.html");
+        transactional(() -> {
+            em.persist(author);
+            em.persist(term);
+            em.persist(file);
+        });
+    }
+
+    private TermAssignment assignment() {
+        final Target target = new Target(file);
+        return new TermAssignment(term.getUri(), target);
+    }
+
+    private TermOccurrence occurrence() {
+        final OccurrenceTarget target = new OccurrenceTarget(file);
+        target.setSelectors(Collections.singleton(new TextQuoteSelector("test")));
+        final TermOccurrence occurrence = new TermOccurrence();
+        occurrence.setTerm(term.getUri());
+        occurrence.setTarget(target);
+        return occurrence;
+    }
+
+    @Test
+    void countsAreLoadedFromRepositoryAndDistinguishAssignmentsFromOccurrences() {
+        transactional(() -> {
+            for (TermAssignment ta : new TermAssignment[]{assignment(), assignment(), occurrence()}) {
+                em.persist(ta.getTarget());
+                em.persist(ta);
+            }
+        });
+
+        assertEquals(2, sut.countAssignments(vocabulary));
+        assertEquals(1, sut.countOccurrences(vocabulary));
+        assertEquals(0, sut.countAssignments(Generator.generateUri()));
+    }
+
+    @Test
+    void countsAreUpdatedIncrementallyWhenAssignmentsAndOccurrencesArePersistedAndRemoved() {
+        assertEquals(0, sut.countAssignments(vocabulary));
+        assertEquals(0, sut.countOccurrences(vocabulary));
+        final TermAssignment assignment = assignment();
+        final TermOccurrence occurrence = occurrence();
+        transactional(() -> {
+            em.persist(assignment.getTarget());
+            assignmentDao.persist(assignment);
+            em.persist(occurrence.getTarget());
+            occurrenceDao.persist(occurrence);
+        });
+        assertEquals(1, sut.countAssignments(vocabulary));
+        assertEquals(1, sut.countOccurrences(vocabulary));
+
+        transactional(() -> assignmentDao.remove(assignment));
+        assertEquals(0, sut.countAssignments(vocabulary));
+    }
+
+    @Test
+    void bulkRemovalOfOccurrencesCausesReloadOfOccurrenceCounts() {
+        final TermOccurrence occurrence = occurrence();
+        transactional(() -> {
+            em.persist(occurrence.getTarget());
+            em.persist(occurrence);
+        });
+        assertEquals(1, sut.countOccurrences(vocabulary));
+
+        transactional(() -> occurrenceDao.removeAll(file));
+        assertEquals(0, sut.countOccurrences(vocabulary));
+    }
+
+    @Test
+    void countsAreUpdatedForTermsFromMultipleVocabulariesModifiedInSingleTransaction() {
+        final URI otherVocabulary = Generator.generateUri();
+        final Term otherTerm = Generator.generateTermWithId();
+        otherTerm.setVocabulary(otherVocabulary);
+        transactional(() -> em.persist(otherTerm));
+        assertEquals(0, sut.countAssignments(vocabulary));
+        assertEquals(0, sut.countAssignments(otherVocabulary));
+        final TermAssignment first = assignment();
+        final TermAssignment second = assignment();
+        final TermAssignment other = new TermAssignment(otherTerm.getUri(), new Target(file));
+        transactional(() -> {
+            for (TermAssignment ta : new TermAssignment[]{first, second, other}) {
+                em.persist(ta.getTarget());
+                assignmentDao.persist(ta);
+            }
+        });
+        assertEquals(2, sut.countAssignments(vocabulary));
+        assertEquals(1, sut.countAssignments(otherVocabulary));
+    }
+
+    @Test
+    void countsLoadedAfterModificationReflectCommittedState() {
+        final TermAssignment assignment = assignment();
+        transactional(() -> {
+            em.persist(assignment.getTarget());
+            assignmentDao.persist(assignment);
+        });
+        assertEquals(1, sut.countAssignments(vocabulary));
+    }
+}
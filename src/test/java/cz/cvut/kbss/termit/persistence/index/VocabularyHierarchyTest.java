@@ -0,0 +1,353 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.environment.Generator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VocabularyHierarchyTest {
+
+    private URI vocabulary;
+
+    private VocabularyHierarchy sut;
+
+    @BeforeEach
+    void setUp() {
+        this.vocabulary = Generator.generateUri();
+        this.sut = new VocabularyHierarchy(vocabulary);
+    }
+
+    private TermInfo term(String label) {
+        return new TermInfo(Generator.generateUri(), label, vocabulary);
+    }
+
+    @Test
+    void getRootsReturnsRootsOrderedByLabelAfterSort() {
+        final TermInfo b = term("b");
+        final TermInfo a = term("a");
+        final TermInfo c = term("c");
+        Arrays.asList(b, a, c).forEach(t -> {
+            sut.addTerm(t);
+            sut.addRoot(t.getUri());
+        });
+        sut.sort();
+        assertEquals(Arrays.asList(a.getUri(), b.getUri(), c.getUri()), sut.getRoots());
+    }
+
+    @Test
+    void getRootsAfterReturnsRootsFollowingSpecifiedPosition() {
+        final List<TermInfo> roots = Arrays.asList(term("a"), term("b"), term("c"), term("d"));
+        roots.forEach(t -> {
+            sut.addTerm(t);
+            sut.addRoot(t.getUri());
+        });
+        sut.sort();
+        final TermInfo after = roots.get(1);
+        assertEquals(Collections.singletonList(roots.get(2).getUri()),
+                sut.getRootsAfter(after.getLabel(), after.getUri(), 1));
+        assertEquals(Arrays.asList(roots.get(2).getUri(), roots.get(3).getUri()),
+                sut.getRootsAfter(after.getLabel(), after.getUri(), 10));
+    }
+
+    @Test
+    void getRootsAfterUsesIdentifierToOrderRootsWithSameLabel() {
+        final List<TermInfo> roots = Arrays.asList(term("a"), term("a"), term("a"));
+        roots.forEach(t -> {
+            sut.addTerm(t);
+            sut.addRoot(t.getUri());
+        });
+        sut.sort();
+        final List<URI> all = sut.getRoots();
+        assertEquals(all.subList(1, 3), sut.getRootsAfter("a", all.get(0), 10));
+    }
+
+    @Test
+    void getSubTermsReturnsChildrenOrderedByLabel() {
+        final TermInfo parent = term("parent");
+        final TermInfo childB = term("b");
+        final TermInfo childA = term("a");
+        Arrays.asList(parent, childB, childA).forEach(sut::addTerm);
+        sut.addRelationship(parent.getUri(), childB.getUri());
+        sut.addRelationship(parent.getUri(), childA.getUri());
+        sut.sort();
+
+        final Optional<List<TermInfo>> result = sut.getSubTerms(parent.getUri());
+        assertTrue(result.isPresent());
+        assertEquals(Arrays.asList(childA, childB), result.get());
+    }
+
+    @Test
+    void countSubTermsReturnsNumberOfChildren() {
+        final TermInfo parent = term("parent");
+        final TermInfo childA = term("a");
+        final TermInfo childB = term("b");
+        Arrays.asList(parent, childA, childB).forEach(sut::addTerm);
+        sut.addRelationship(parent.getUri(), childA.getUri());
+        sut.addRelationship(parent.getUri(), childB.getUri());
+
+        assertEquals(Optional.of(2), sut.countSubTerms(parent.getUri()));
+        assertEquals(Optional.of(0), sut.countSubTerms(childA.getUri()));
+        assertFalse(sut.countSubTerms(Generator.generateUri()).isPresent());
+    }
+
+    @Test
+    void getSubTermsReturnsEmptyOptionalForUnknownTerm() {
+        assertFalse(sut.getSubTerms(Generator.generateUri()).isPresent());
+    }
+
+    @Test
+    void getSubTermsReturnsEmptyOptionalForTermFromDifferentVocabulary() {
+        final TermInfo foreign = new TermInfo(Generator.generateUri(), "foreign", Generator.generateUri());
+        sut.addTerm(foreign);
+        assertFalse(sut.getSubTerms(foreign.getUri()).isPresent());
+    }
+
+    @Test
+    void updateInsertsNewChildIntoSortedPositionAmongSiblings() {
+        final TermInfo parent = term("parent");
+        final TermInfo a = term("a");
+        final TermInfo c = term("c");
+        Arrays.asList(parent, a, c).forEach(sut::addTerm);
+        sut.addRelationship(parent.getUri(), a.getUri());
+        sut.addRelationship(parent.getUri(), c.getUri());
+        sut.sort();
+
+        final TermInfo b = term("b");
+        sut.update(b, Collections.singleton(parent.getUri()), false);
+        assertEquals(Arrays.asList(a, b, c), sut.getSubTerms(parent.getUri()).get());
+        assertFalse(sut.getRoots().contains(b.getUri()));
+    }
+
+    @Test
+    void updateAddsNewRootTerm() {
+        final TermInfo root = term("root");
+        sut.update(root, Collections.emptySet(), true);
+        assertEquals(Collections.singletonList(root.getUri()), sut.getRoots());
+        assertEquals(Collections.emptyList(), sut.getSubTerms(root.getUri()).get());
+    }
+
+    @Test
+    void updateMovesTermToNewParent() {
+        final TermInfo parentOne = term("parentOne");
+        final TermInfo parentTwo = term("parentTwo");
+        final TermInfo child = term("child");
+        Arrays.asList(parentOne, parentTwo, child).forEach(sut::addTerm);
+        sut.addRelationship(parentOne.getUri(), child.getUri());
+        sut.sort();
+
+        sut.update(child, Collections.singleton(parentTwo.getUri()), false);
+        assertTrue(sut.getSubTerms(parentOne.getUri()).get().isEmpty());
+        assertEquals(Collections.singletonList(child), sut.getSubTerms(parentTwo.getUri()).get());
+    }
+
+    @Test
+    void updateReordersRootsWhenLabelChanges() {
+        final TermInfo a = term("a");
+        final TermInfo b = term("b");
+        Arrays.asList(a, b).forEach(t -> {
+            sut.addTerm(t);
+            sut.addRoot(t.getUri());
+        });
+        sut.sort();
+
+        final TermInfo update = new TermInfo(a.getUri(), "c", vocabulary);
+        sut.update(update, Collections.emptySet(), true);
+        assertEquals(Arrays.asList(b.getUri(), a.getUri()), sut.getRoots());
+    }
+
+    @Test
+    void updateIgnoresTermUnrelatedToVocabulary() {
+        final TermInfo foreign = new TermInfo(Generator.generateUri(), "foreign", Generator.generateUri());
+        sut.update(foreign, Collections.singleton(Generator.generateUri()), false);
+        assertFalse(sut.getSubTerms(foreign.getUri()).isPresent());
+        assertTrue(sut.getRoots().isEmpty());
+    }
+
+    @Test
+    void updateAddsChildFromDifferentVocabularyToParentFromThisVocabulary() {
+        final TermInfo parent = term("parent");
+        sut.addTerm(parent);
+        final TermInfo foreign = new TermInfo(Generator.generateUri(), "foreign", Generator.generateUri());
+
+        sut.update(foreign, Collections.singleton(parent.getUri()), false);
+        assertEquals(Collections.singletonList(foreign), sut.getSubTerms(parent.getUri()).get());
+    }
+
+    @Test
+    void removeDetachesTermFromParentsAndRoots() {
+        final TermInfo parent = term("parent");
+        final TermInfo child = term("child");
+        Arrays.asList(parent, child).forEach(sut::addTerm);
+        sut.addRoot(parent.getUri());
+        sut.addRelationship(parent.getUri(), child.getUri());
+        sut.sort();
+
+        sut.remove(child.getUri());
+        assertTrue(sut.getSubTerms(parent.getUri()).get().isEmpty());
+        assertFalse(sut.getSubTerms(child.getUri()).isPresent());
+        sut.remove(parent.getUri());
+        assertTrue(sut.getRoots().isEmpty());
+    }
+
+    @Test
+    void hierarchyGrowsBeyondInitialCapacity() {
+        final TermInfo parent = term("parent");
+        sut.addTerm(parent);
+        final List<TermInfo> children = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final TermInfo child = term("child" + i);
+            children.add(child);
+            sut.addTerm(child);
+            sut.addRelationship(parent.getUri(), child.getUri());
+        }
+        sut.sort();
+        children.sort(Comparator.comparing(TermInfo::getLabel));
+        assertEquals(children, sut.getSubTerms(parent.getUri()).get());
+        assertEquals(children.stream().map(TermInfo::getUri).collect(Collectors.toList()),
+                sut.getSubTerms(parent.getUri()).get().stream().map(TermInfo::getUri).collect(Collectors.toList()));
+    }
+
+    @Test
+    void statisticsReflectTermsRootsAndDepthOfHierarchy() {
+        final TermInfo root = term("root");
+        final TermInfo child = term("child");
+        final TermInfo grandChild = term("grandChild");
+        final TermInfo foreign = new TermInfo(Generator.generateUri(), "foreign", Generator.generateUri());
+        Arrays.asList(root, child, grandChild, foreign).forEach(sut::addTerm);
+        sut.addRoot(root.getUri());
+        sut.addRelationship(root.getUri(), child.getUri());
+        sut.addRelationship(child.getUri(), grandChild.getUri());
+        sut.addRelationship(grandChild.getUri(), foreign.getUri());
+        sut.sort();
+
+        assertEquals(3, sut.countTerms());
+        assertEquals(1, sut.countRoots());
+        assertEquals(3, sut.getDepth());
+    }
+
+    @Test
+    void statisticsAreUpdatedWhenHierarchyChanges() {
+        final TermInfo root = term("root");
+        final TermInfo child = term("child");
+        Arrays.asList(root, child).forEach(sut::addTerm);
+        sut.addRoot(root.getUri());
+        sut.addRelationship(root.getUri(), child.getUri());
+        sut.sort();
+        assertEquals(2, sut.getDepth());
+
+        final TermInfo grandChild = term("grandChild");
+        sut.update(grandChild, Collections.singleton(child.getUri()), false);
+        assertEquals(3, sut.countTerms());
+        assertEquals(3, sut.getDepth());
+
+        sut.remove(child.getUri());
+        assertEquals(2, sut.countTerms());
+        assertEquals(1, sut.getDepth());
+    }
+
+    @Test
+    void getDepthReturnsZeroForEmptyHierarchy() {
+        assertEquals(0, sut.getDepth());
+    }
+
+    @Test
+    void findByLabelPrefixReturnsTermsWithMatchingLabelOrderedByLabel() {
+        final TermInfo building = term("Building");
+        final TermInfo build = term("build");
+        final TermInfo bridge = term("Bridge");
+        final TermInfo road = term("Road");
+        Arrays.asList(building, build, bridge, road).forEach(sut::addTerm);
+        sut.sort();
+
+        assertEquals(Arrays.asList(build, building), sut.findByLabelPrefix("BUI", 10));
+        assertEquals(Arrays.asList(bridge, build, building), sut.findByLabelPrefix("b", 10));
+        assertEquals(Collections.singletonList(bridge), sut.findByLabelPrefix("b", 1));
+        assertTrue(sut.findByLabelPrefix("x", 10).isEmpty());
+    }
+
+    @Test
+    void findByLabelPrefixIgnoresTermsFromOtherVocabularies() {
+        final TermInfo parent = term("parent");
+        final TermInfo foreign = new TermInfo(Generator.generateUri(), "part", Generator.generateUri());
+        Arrays.asList(parent, foreign).forEach(sut::addTerm);
+        sut.addRelationship(parent.getUri(), foreign.getUri());
+        sut.sort();
+
+        assertEquals(Collections.singletonList(parent), sut.findByLabelPrefix("par", 10));
+    }
+
+    @Test
+    void labelLookupsReflectHierarchyUpdates() {
+        final TermInfo term = term("Building");
+        sut.addTerm(term);
+        sut.sort();
+        assertTrue(sut.containsLabel("building"));
+
+        final TermInfo renamed = new TermInfo(term.getUri(), "Construction", vocabulary);
+        sut.update(renamed, Collections.emptySet(), true);
+        assertFalse(sut.containsLabel("building"));
+        assertTrue(sut.containsLabel("CONSTRUCTION"));
+        final TermInfo added = term("Bridge");
+        sut.update(added, Collections.emptySet(), true);
+        assertEquals(Collections.singletonList(added), sut.findByLabelPrefix("br", 10));
+
+        sut.remove(renamed.getUri());
+        assertFalse(sut.containsLabel("construction"));
+        assertTrue(sut.findByLabelPrefix("con", 10).isEmpty());
+    }
+
+    @Test
+    void labelLookupsIgnoreDiacritics() {
+        final TermInfo law = term("Zákon o územním plánování");
+        final TermInfo plan = term("Územní plán");
+        Arrays.asList(law, plan).forEach(sut::addTerm);
+        sut.sort();
+
+        assertTrue(sut.containsLabel("zakon o uzemnim planovani"));
+        assertEquals(Collections.singletonList(plan), sut.findByLabelPrefix("uzem", 10));
+        assertEquals(Arrays.asList(plan, law), sut.findByLabelContaining("uzemn"));
+    }
+
+    @Test
+    void findByLabelContainingReturnsMatchingTermsOrderedByLabel() {
+        final TermInfo b = term("Building plot");
+        final TermInfo a = term("Agricultural plot");
+        final TermInfo c = term("Road");
+        Arrays.asList(b, a, c).forEach(sut::addTerm);
+        sut.sort();
+
+        assertEquals(Arrays.asList(a, b), sut.findByLabelContaining("PLOT"));
+        assertTrue(sut.findByLabelContaining("permit").isEmpty());
+    }
+
+    @Test
+    void containsLabelMatchesWholeLabelOnly() {
+        sut.addTerm(term("Building"));
+        sut.sort();
+        assertFalse(sut.containsLabel("build"));
+        assertFalse(sut.containsLabel("buildings"));
+    }
+}
@@ -0,0 +1,180 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.persistence.index;
+
+import cz.cvut.kbss.jopa.model.EntityManager;
+import cz.cvut.kbss.termit.environment.Environment;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.model.User;
+import cz.cvut.kbss.termit.model.Vocabulary;
+import cz.cvut.kbss.termit.model.util.DescriptorFactory;
+import cz.cvut.kbss.termit.persistence.dao.BaseDaoTestRunner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.net.URI;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VocabularyImportIndexTest extends BaseDaoTestRunner {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private VocabularyImportIndex sut;
+
+    private User author;
+
+    @BeforeEach
+    void setUp() {
+        this.author = Generator.generateUserWithId();
+        Environment.setCurrentUser(author);
+        transactional(() -> em.persist(author));
+    }
+
+    private Vocabulary persistVocabulary(URI... imports) {
+        final Vocabulary vocabulary = Generator.generateVocabularyWithId();
+        vocabulary.setAuthor(author);
+        vocabulary.setCreated(new Date());
+        vocabulary.setImportedVocabularies(new HashSet<>(Arrays.asList(imports)));
+        transactional(() -> em.persist(vocabulary, DescriptorFactory.vocabularyDescriptor(vocabulary)));
+        return vocabulary;
+    }
+
+    @Test
+    void getTransitiveImportsReturnsDirectAndTransitiveImports() {
+        final Vocabulary grandParent = persistVocabulary();
+        final Vocabulary parent = persistVocabulary(grandParent.getUri());
+        final Vocabulary other = persistVocabulary();
+        final Vocabulary vocabulary = persistVocabulary(parent.getUri(), other.getUri());
+
+        final Set<URI> result = sut.getTransitiveImports(vocabulary.getUri());
+        assertEquals(new HashSet<>(Arrays.asList(grandParent.getUri(), parent.getUri(), other.getUri())), result);
+    }
+
+    @Test
+    void getTransitiveImportsReturnsEmptySetForVocabularyWithoutImports() {
+        final Vocabulary vocabulary = persistVocabulary();
+        assertTrue(sut.getTransitiveImports(vocabulary.getUri()).isEmpty());
+    }
+
+    @Test
+    void getTransitiveImportsHandlesImportCycles() {
+        final Vocabulary first = Generator.generateVocabularyWithId();
+        final Vocabulary second = persistVocabulary(first.getUri());
+        first.setAuthor(author);
+        first.setCreated(new Date());
+        first.setImportedVocabularies(Collections.singleton(second.getUri()));
+        transactional(() -> em.persist(first, DescriptorFactory.vocabularyDescriptor(first)));
+
+        final Set<URI> result = sut.getTransitiveImports(second.getUri());
+        assertEquals(new HashSet<>(Arrays.asList(first.getUri(), second.getUri())), result);
+    }
+
+    @Test
+    void getImportClosureContainsVocabularyItself() {
+        final Vocabulary parent = persistVocabulary();
+        final Vocabulary vocabulary = persistVocabulary(parent.getUri());
+
+        final Set<URI> result = sut.getImportClosure(vocabulary.getUri());
+        assertEquals(new HashSet<>(Arrays.asList(vocabulary.getUri(), parent.getUri())), result);
+    }
+
+    @Test
+    void updateRecomputesClosureWhenImportsChange() {
+        final Vocabulary grandParent = persistVocabulary();
+        final Vocabulary parent = persistVocabulary();
+        final Vocabulary vocabulary = persistVocabulary(parent.getUri());
+        assertEquals(Collections.singleton(parent.getUri()), sut.getTransitiveImports(vocabulary.getUri()));
+
+        transactional(() -> sut.update(parent.getUri(), Collections.singleton(grandParent.getUri())));
+        assertEquals(new HashSet<>(Arrays.asList(parent.getUri(), grandParent.getUri())),
+                sut.getTransitiveImports(vocabulary.getUri()));
+    }
+
+    @Test
+    void updateTakesEffectAfterTransactionCommit() {
+        final Vocabulary parent = persistVocabulary();
+        final Vocabulary vocabulary = persistVocabulary();
+        assertTrue(sut.getTransitiveImports(vocabulary.getUri()).isEmpty());
+
+        transactional(() -> {
+            sut.update(vocabulary.getUri(), Collections.singleton(parent.getUri()));
+            assertTrue(sut.getTransitiveImports(vocabulary.getUri()).isEmpty());
+        });
+        assertEquals(Collections.singleton(parent.getUri()), sut.getTransitiveImports(vocabulary.getUri()));
+    }
+
+    @Test
+    void onEvictCacheReloadsImportGraph() {
+        final Vocabulary parent = persistVocabulary();
+        final Vocabulary vocabulary = persistVocabulary();
+        assertTrue(sut.getTransitiveImports(vocabulary.getUri()).isEmpty());
+        vocabulary.setImportedVocabularies(Collections.singleton(parent.getUri()));
+        transactional(() -> em.merge(vocabulary, DescriptorFactory.vocabularyDescriptor(vocabulary)));
+
+        sut.onEvictCache(new EvictCacheEvent(this));
+        assertEquals(Collections.singleton(parent.getUri()), sut.getTransitiveImports(vocabulary.getUri()));
+    }
+
+    @Test
+    void onAssetModifiedReloadsImportsOfModifiedVocabularyAndClosuresContainingIt() {
+        final Vocabulary grandParent = persistVocabulary();
+        final Vocabulary parent = persistVocabulary();
+        final Vocabulary vocabulary = persistVocabulary(parent.getUri());
+        assertEquals(Collections.singleton(parent.getUri()), sut.getTransitiveImports(vocabulary.getUri()));
+        // Simulates imports written directly into the repository, e.g., by vocabulary import
+        parent.setImportedVocabularies(Collections.singleton(grandParent.getUri()));
+        transactional(() -> em.merge(parent, DescriptorFactory.vocabularyDescriptor(parent)));
+
+        sut.onAssetModified(new AssetModifiedEvent(this, parent, false));
+        assertEquals(Collections.singleton(grandParent.getUri()), sut.getTransitiveImports(parent.getUri()));
+        assertEquals(new HashSet<>(Arrays.asList(parent.getUri(), grandParent.getUri())),
+                sut.getTransitiveImports(vocabulary.getUri()));
+    }
+
+    @Test
+    void onAssetModifiedDropsImportsOfRemovedVocabulary() {
+        final Vocabulary grandParent = persistVocabulary();
+        final Vocabulary parent = persistVocabulary(grandParent.getUri());
+        final Vocabulary vocabulary = persistVocabulary(parent.getUri());
+        assertEquals(new HashSet<>(Arrays.asList(parent.getUri(), grandParent.getUri())),
+                sut.getTransitiveImports(vocabulary.getUri()));
+
+        sut.onAssetModified(new AssetModifiedEvent(this, parent, true));
+        assertTrue(sut.getTransitiveImports(parent.getUri()).isEmpty());
+        assertEquals(Collections.singleton(parent.getUri()), sut.getTransitiveImports(vocabulary.getUri()));
+    }
+
+    @Test
+    void onAssetModifiedKeepsUnrelatedClosures() {
+        final Vocabulary parent = persistVocabulary();
+        final Vocabulary vocabulary = persistVocabulary(parent.getUri());
+        final Vocabulary other = persistVocabulary();
+        assertEquals(Collections.singleton(parent.getUri()), sut.getTransitiveImports(vocabulary.getUri()));
+        final Set<URI> closure = sut.getTransitiveImports(vocabulary.getUri());
+
+        sut.onAssetModified(new AssetModifiedEvent(this, other, false));
+        assertSame(closure, sut.getTransitiveImports(vocabulary.getUri()));
+    }
+}
@@ -34,8 +34,11 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MvcResult;
 
 import java.net.URI;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -107,6 +110,21 @@ class DataControllerTest extends BaseControllerTestRunner {
         mockMvc.perform(get("/data/label").param("iri", uri.toString())).andExpect(status().isNotFound());
     }
 
+    @Test
+    void getLabelsReturnsLabelsOfResourcesWithSpecifiedIds() throws Exception {
+        final URI first = Generator.generateUri();
+        final URI second = Generator.generateUri();
+        when(dataServiceMock.getLabels(any())).thenReturn(Collections.singletonMap(first, "Test term"));
+        final MvcResult mvcResult = mockMvc.perform(
+                post("/data/labels").content(toJson(Arrays.asList(first, second)))
+                                    .contentType(MediaType.APPLICATION_JSON_VALUE))
+                                           .andExpect(status().isOk()).andReturn();
+        final Map<URI, String> result = readValue(mvcResult, new TypeReference<Map<URI, String>>() {
+        });
+        assertEquals(Collections.singletonMap(first, "Test term"), result);
+        verify(dataServiceMock).getLabels(new HashSet<>(Arrays.asList(first, second)));
+    }
+
     @Test
     void createPropertySavesResource() throws Exception {
         final RdfsResource property = new RdfsResource(URI.create(RDFS.RANGE), "Range", "Property range", RDF.PROPERTY);
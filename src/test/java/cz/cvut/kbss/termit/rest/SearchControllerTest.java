@@ -18,23 +18,33 @@
 package cz.cvut.kbss.termit.rest;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import cz.cvut.kbss.termit.dto.FacetedSearchResult;
 import cz.cvut.kbss.termit.dto.FullTextSearchResult;
 import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.persistence.index.FacetIndex;
 import cz.cvut.kbss.termit.service.business.SearchService;
+import cz.cvut.kbss.termit.util.Constants.QueryParams;
 import cz.cvut.kbss.termit.util.Vocabulary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.web.MockHttpSession;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -69,4 +79,86 @@ class SearchControllerTest extends BaseControllerTestRunner {
         assertEquals(expected.get(0).getLabel(), result.get(0).getLabel());
         assertEquals(expected.get(0).getTypes(), result.get(0).getTypes());
     }
+
+    @Test
+    void fullTextSearchExecutesPagedSearchWhenPageIsSpecified() throws Exception {
+        final List<FullTextSearchResult> expected = Collections
+                .singletonList(new FullTextSearchResult(Generator.generateUri(), "test", null, Vocabulary.s_c_term, "test", "test", 1.0));
+        when(searchServiceMock.fullTextSearch(any(), any())).thenReturn(expected);
+        final String searchString = "test";
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/fts").param("searchString", searchString)
+                                                                       .param(QueryParams.PAGE_SIZE, "10")
+                                                                       .param(QueryParams.PAGE, "2"))
+                                           .andExpect(status().isOk()).andReturn();
+        final List<FullTextSearchResult> result = readValue(mvcResult, new TypeReference<List<FullTextSearchResult>>() {
+        });
+        assertEquals(expected.size(), result.size());
+        verify(searchServiceMock).fullTextSearch(searchString, PageRequest.of(2, 10));
+        verify(searchServiceMock, never()).fullTextSearch(searchString);
+    }
+
+    @Test
+    void fullTextSearchExecutesFuzzySearchWhenFuzzyIsSpecified() throws Exception {
+        final List<FullTextSearchResult> expected = Collections
+                .singletonList(new FullTextSearchResult(Generator.generateUri(), "test", null, Vocabulary.s_c_term, "label", "test", 1.0));
+        when(searchServiceMock.fuzzySearch(any())).thenReturn(expected);
+        final String searchString = "tset";
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/fts").param("searchString", searchString)
+                                                                       .param("fuzzy", Boolean.TRUE.toString()))
+                                           .andExpect(status().isOk()).andReturn();
+        final List<FullTextSearchResult> result = readValue(mvcResult, new TypeReference<List<FullTextSearchResult>>() {
+        });
+        assertEquals(expected.size(), result.size());
+        assertEquals(expected.get(0).getUri(), result.get(0).getUri());
+        verify(searchServiceMock).fuzzySearch(searchString);
+        verify(searchServiceMock, never()).fullTextSearch(any());
+    }
+
+    @Test
+    void fullTextSearchExecutesSearchAsYouTypeForCurrentSessionWhenAsYouTypeIsSpecified() throws Exception {
+        final List<FullTextSearchResult> expected = Collections
+                .singletonList(new FullTextSearchResult(Generator.generateUri(), "test", null, Vocabulary.s_c_term, "label", "test", 1.0));
+        when(searchServiceMock.fullTextSearchAsYouType(any(), any(), any())).thenReturn(Optional.of(expected));
+        final String searchString = "tes";
+        final MockHttpSession session = new MockHttpSession();
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/fts").param("searchString", searchString)
+                                                                       .param("asYouType", Boolean.TRUE.toString())
+                                                                       .session(session))
+                                           .andExpect(status().isOk()).andReturn();
+        final List<FullTextSearchResult> result = readValue(mvcResult, new TypeReference<List<FullTextSearchResult>>() {
+        });
+        assertEquals(expected.size(), result.size());
+        verify(searchServiceMock).fullTextSearchAsYouType(searchString, Pageable.unpaged(), session.getId());
+        verify(searchServiceMock, never()).fullTextSearch(any());
+    }
+
+    @Test
+    void fullTextSearchReturnsNoContentWhenSearchAsYouTypeHasBeenSuperseded() throws Exception {
+        when(searchServiceMock.fullTextSearchAsYouType(any(), any(), any())).thenReturn(Optional.empty());
+        mockMvc.perform(get(PATH + "/fts").param("searchString", "tes").param("asYouType", Boolean.TRUE.toString()))
+               .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void facetedSearchPassesSelectedFacetValuesToService() throws Exception {
+        final List<FullTextSearchResult> results = Collections
+                .singletonList(new FullTextSearchResult(Generator.generateUri(), "test", null, Vocabulary.s_c_term, "label", "test", 1.0));
+        final Map<String, Map<String, Integer>> facets = Collections
+                .singletonMap(FacetIndex.KIND, Collections.singletonMap(Vocabulary.s_c_term, 1));
+        when(searchServiceMock.facetedSearch(any(), any(), any())).thenReturn(new FacetedSearchResult(results, facets));
+        final String searchString = "test";
+        final String vocabulary = Generator.generateUri().toString();
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/fts/faceted").param("searchString", searchString)
+                                                                               .param(FacetIndex.VOCABULARY, vocabulary)
+                                                                               .param(FacetIndex.KIND, Vocabulary.s_c_term,
+                                                                                       Vocabulary.s_c_slovnik))
+                                           .andExpect(status().isOk()).andReturn();
+        final FacetedSearchResult result = readValue(mvcResult, FacetedSearchResult.class);
+        assertEquals(results.size(), result.getResults().size());
+        assertEquals(facets, result.getFacets());
+        final Map<String, List<String>> filter = new HashMap<>();
+        filter.put(FacetIndex.VOCABULARY, Collections.singletonList(vocabulary));
+        filter.put(FacetIndex.KIND, Arrays.asList(Vocabulary.s_c_term, Vocabulary.s_c_slovnik));
+        verify(searchServiceMock).facetedSearch(searchString, filter, Pageable.unpaged());
+    }
 }
\ No newline at end of file
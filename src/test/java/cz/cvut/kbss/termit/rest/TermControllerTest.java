@@ -18,15 +18,19 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.github.jsonldjava.utils.JsonUtils;
 import cz.cvut.kbss.jopa.vocabulary.SKOS;
 import cz.cvut.kbss.jsonld.JsonLd;
+import cz.cvut.kbss.termit.dto.TermInfo;
+import cz.cvut.kbss.termit.dto.TermTreeNode;
 import cz.cvut.kbss.termit.dto.assignment.TermAssignments;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.exception.InvalidParameterException;
 import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.User;
 import cz.cvut.kbss.termit.model.changetracking.AbstractChangeRecord;
 import cz.cvut.kbss.termit.model.changetracking.UpdateChangeRecord;
 import cz.cvut.kbss.termit.rest.handler.ErrorInfo;
+import cz.cvut.kbss.termit.rest.util.JsonStreamWriter;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.TermService;
 import cz.cvut.kbss.termit.service.export.util.TypeAwareByteArrayResource;
@@ -42,11 +46,13 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import java.io.ByteArrayOutputStream;
 import java.net.URI;
@@ -55,6 +61,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -69,6 +76,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class TermControllerTest extends BaseControllerTestRunner {
@@ -88,6 +96,10 @@ class TermControllerTest extends BaseControllerTestRunner {
     @Mock
     private Configuration configMock;
 
+    @Spy
+    private JsonStreamWriter streamWriter =
+            new JsonStreamWriter(Environment.getObjectMapper(), Environment.getJsonLdObjectMapper());
+
     @InjectMocks
     private TermController sut;
 
@@ -120,6 +132,37 @@ class TermControllerTest extends BaseControllerTestRunner {
         verify(termServiceMock).existsInVocabulary(name, vocabulary);
     }
 
+    @Test
+    void suggestReturnsTermsWithLabelStartingWithPrefix() throws Exception {
+        final String namespace = "http://onto.fel.cvut.cz/ontologies/termit/vocabularies/";
+        final URI vocabularyUri = URI.create(namespace + VOCABULARY_NAME);
+        when(idResolverMock.resolveIdentifier(namespace, VOCABULARY_NAME)).thenReturn(vocabularyUri);
+        when(termServiceMock.findVocabularyRequired(vocabularyUri)).thenReturn(vocabulary);
+        final List<TermInfo> terms = Collections.singletonList(new TermInfo(Generator.generateTermWithId()));
+        when(termServiceMock.suggest(any(), any(), anyInt())).thenReturn(terms);
+        final MvcResult mvcResult = mockMvc.perform(
+                get(PATH + "/" + VOCABULARY_NAME + "/terms/suggest").param(QueryParams.NAMESPACE, namespace)
+                                                                    .param(QueryParams.PREFIX, "bui")
+                                                                    .param(QueryParams.PAGE_SIZE, "5"))
+                                           .andExpect(status().isOk()).andReturn();
+        final List<TermInfo> result = readValue(mvcResult, new TypeReference<List<TermInfo>>() {
+        });
+        assertEquals(terms, result);
+        verify(termServiceMock).suggest("bui", vocabulary, 5);
+    }
+
+    @Test
+    void suggestUsesDefaultLimitWhenNoneIsSpecified() throws Exception {
+        final String namespace = "http://onto.fel.cvut.cz/ontologies/termit/vocabularies/";
+        final URI vocabularyUri = URI.create(namespace + VOCABULARY_NAME);
+        when(idResolverMock.resolveIdentifier(namespace, VOCABULARY_NAME)).thenReturn(vocabularyUri);
+        when(termServiceMock.findVocabularyRequired(vocabularyUri)).thenReturn(vocabulary);
+        mockMvc.perform(get(PATH + "/" + VOCABULARY_NAME + "/terms/suggest").param(QueryParams.NAMESPACE, namespace)
+                                                                            .param(QueryParams.PREFIX, "bui"))
+               .andExpect(status().isOk());
+        verify(termServiceMock).suggest("bui", vocabulary, 10);
+    }
+
     @Test
     void getByIdResolvesTermFullIdentifierAndLoadsTermFromService() throws Exception {
         final URI termUri = initTermUriResolution();
@@ -236,16 +279,62 @@ class TermControllerTest extends BaseControllerTestRunner {
         when(idResolverMock.buildNamespace(eq(VOCABULARY_URI), any())).thenReturn(NAMESPACE);
         final List<Term> terms = Generator.generateTermsWithIds(5);
         when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
-        when(termServiceMock.findAll(eq(vocabulary))).thenReturn(terms);
+        mockForEachTerm(terms);
 
-        final MvcResult mvcResult = mockMvc.perform(
+        final MvcResult mvcResult = performStreamingRequest(
                 get(PATH + "/" + VOCABULARY_NAME + "/terms")
-                        .param(QueryParams.NAMESPACE, Environment.BASE_URI))
-                                           .andExpect(status().isOk()).andReturn();
+                        .param(QueryParams.NAMESPACE, Environment.BASE_URI));
         final List<Term> result = readValue(mvcResult, new TypeReference<List<Term>>() {
         });
         assertEquals(terms, result);
-        verify(termServiceMock).findAll(vocabulary);
+        verify(termServiceMock).forEach(eq(vocabulary), any());
+    }
+
+    private void mockForEachTerm(List<Term> terms) {
+        doAnswer(inv -> {
+            final Consumer<Term> consumer = inv.getArgument(1);
+            terms.forEach(consumer);
+            return null;
+        }).when(termServiceMock).forEach(eq(vocabulary), any());
+    }
+
+    private MvcResult performStreamingRequest(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        final MvcResult asyncResult = mockMvc.perform(requestBuilder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(asyncResult)).andExpect(status().isOk()).andReturn();
+    }
+
+    @Test
+    void getAllStreamsTermsAsJsonLdWhenJsonLdIsAccepted() throws Exception {
+        when(idResolverMock.resolveIdentifier(Environment.BASE_URI, VOCABULARY_NAME))
+                .thenReturn(URI.create(VOCABULARY_URI));
+        final List<Term> terms = Generator.generateTermsWithIds(5);
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        mockForEachTerm(terms);
+
+        final MvcResult mvcResult = performStreamingRequest(
+                get(PATH + "/" + VOCABULARY_NAME + "/terms")
+                        .param(QueryParams.NAMESPACE, Environment.BASE_URI)
+                        .accept(JsonLd.MEDIA_TYPE));
+        assertThat(mvcResult.getResponse().getContentType(), containsString(JsonLd.MEDIA_TYPE));
+        final List<?> result = (List<?>) JsonUtils.fromString(mvcResult.getResponse().getContentAsString());
+        assertEquals(terms.size(), result.size());
+        for (int i = 0; i < terms.size(); i++) {
+            assertEquals(terms.get(i).getUri().toString(), ((Map<?, ?>) result.get(i)).get("@id"));
+        }
+    }
+
+    @Test
+    void getAllReturnsEmptyArrayForVocabularyWithoutTerms() throws Exception {
+        when(idResolverMock.resolveIdentifier(Environment.BASE_URI, VOCABULARY_NAME))
+                .thenReturn(URI.create(VOCABULARY_URI));
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+
+        final MvcResult mvcResult = performStreamingRequest(
+                get(PATH + "/" + VOCABULARY_NAME + "/terms")
+                        .param(QueryParams.NAMESPACE, Environment.BASE_URI));
+        final List<Term> result = readValue(mvcResult, new TypeReference<List<Term>>() {
+        });
+        assertTrue(result.isEmpty());
     }
 
     @Test
@@ -425,6 +514,87 @@ class TermControllerTest extends BaseControllerTestRunner {
         assertEquals(DEFAULT_PAGE_SPEC, captor.getValue());
     }
 
+    @Test
+    void getAllRootsWithCursorLoadsRootsFollowingCursorAndReturnsNextCursorHeader() throws Exception {
+        initNamespaceAndIdentifierResolution();
+        final List<Term> terms = Generator.generateTermsWithIds(5);
+        final PageCursor cursor = new PageCursor("test", Generator.generateUri());
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        when(termServiceMock.findAllRoots(vocabulary, cursor, terms.size())).thenReturn(terms);
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/" + VOCABULARY_NAME + "/terms/roots")
+                .param(QueryParams.AFTER, cursor.encode())
+                .param(PAGE_SIZE, Integer.toString(terms.size())))
+                                           .andExpect(status().isOk()).andReturn();
+        verify(termServiceMock).findAllRoots(vocabulary, cursor, terms.size());
+        final Term last = terms.get(terms.size() - 1);
+        assertEquals(new PageCursor(last.getLabel(), last.getUri()),
+                PageCursor.decode(mvcResult.getResponse().getHeader(Constants.NEXT_PAGE_CURSOR_HEADER)));
+    }
+
+    @Test
+    void getAllRootsWithCursorDoesNotReturnNextCursorHeaderForLastPage() throws Exception {
+        initNamespaceAndIdentifierResolution();
+        final List<Term> terms = Generator.generateTermsWithIds(3);
+        final PageCursor cursor = new PageCursor("test", Generator.generateUri());
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        when(termServiceMock.findAllRoots(vocabulary, cursor, 10)).thenReturn(terms);
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/" + VOCABULARY_NAME + "/terms/roots")
+                .param(QueryParams.AFTER, cursor.encode())
+                .param(PAGE_SIZE, "10"))
+                                           .andExpect(status().isOk()).andReturn();
+        assertNull(mvcResult.getResponse().getHeader(Constants.NEXT_PAGE_CURSOR_HEADER));
+    }
+
+    @Test
+    void getAllRootsReturnsBadRequestForInvalidCursor() throws Exception {
+        initNamespaceAndIdentifierResolution();
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        mockMvc.perform(get(PATH + "/" + VOCABULARY_NAME + "/terms/roots").param(QueryParams.AFTER, "invalid"))
+               .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllRootsWithoutCursorReturnsNextCursorHeaderForFirstPage() throws Exception {
+        initNamespaceAndIdentifierResolution();
+        final List<Term> terms = Generator.generateTermsWithIds(5);
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        when(termServiceMock.findAllRoots(eq(vocabulary), any(Pageable.class))).thenReturn(terms);
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/" + VOCABULARY_NAME + "/terms/roots")
+                .param(PAGE_SIZE, Integer.toString(terms.size())))
+                                           .andExpect(status().isOk()).andReturn();
+        verify(termServiceMock).findAllRoots(vocabulary, PageRequest.of(0, terms.size()));
+        final Term last = terms.get(terms.size() - 1);
+        assertEquals(new PageCursor(last.getLabel(), last.getUri()),
+                PageCursor.decode(mvcResult.getResponse().getHeader(Constants.NEXT_PAGE_CURSOR_HEADER)));
+    }
+
+    @Test
+    void getAllRootNodesReturnsRootTermNodesFromService() throws Exception {
+        initNamespaceAndIdentifierResolution();
+        final List<TermTreeNode> nodes = Generator.generateTermsWithIds(5).stream()
+                                                  .map(t -> new TermTreeNode(new TermInfo(t), 1))
+                                                  .collect(Collectors.toList());
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        when(termServiceMock.findAllRootNodes(eq(vocabulary), any(Pageable.class))).thenReturn(nodes);
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/" + VOCABULARY_NAME + "/terms/roots/nodes"))
+                                           .andExpect(status().isOk()).andReturn();
+        final List<TermTreeNode> result = readValue(mvcResult, new TypeReference<List<TermTreeNode>>() {
+        });
+        assertEquals(nodes, result);
+        assertTrue(result.stream().allMatch(n -> n.getSubTermCount() == 1));
+        verify(termServiceMock).findAllRootNodes(vocabulary, DEFAULT_PAGE_SPEC);
+    }
+
+    @Test
+    void getAllRootNodesWithIncludeImportedLoadsRootNodesIncludingImports() throws Exception {
+        initNamespaceAndIdentifierResolution();
+        when(termServiceMock.findVocabularyRequired(vocabulary.getUri())).thenReturn(vocabulary);
+        mockMvc.perform(get(PATH + "/" + VOCABULARY_NAME + "/terms/roots/nodes")
+                .param("includeImported", Boolean.TRUE.toString()).param(PAGE, "1").param(PAGE_SIZE, "10"))
+               .andExpect(status().isOk());
+        verify(termServiceMock).findAllRootNodesIncludingImports(vocabulary, PageRequest.of(1, 10));
+    }
+
     @Test
     void createRootTermPassesNewTermToService() throws Exception {
         initNamespaceAndIdentifierResolution();
@@ -553,6 +723,51 @@ class TermControllerTest extends BaseControllerTestRunner {
         verify(idResolverMock).resolveIdentifier(NAMESPACE, TERM_NAME);
     }
 
+    @Test
+    void getSubTreeAtStandaloneEndpointReturnsSubTreeOfSpecifiedDepth() throws Exception {
+        final URI termUri = URI.create(NAMESPACE + TERM_NAME);
+        final Term term = Generator.generateTerm();
+        term.setUri(termUri);
+        when(idResolverMock.resolveIdentifier(NAMESPACE, TERM_NAME)).thenReturn(termUri);
+        when(termServiceMock.findRequired(termUri)).thenReturn(term);
+        final TermTreeNode root = new TermTreeNode(new TermInfo(term), 1);
+        final TermTreeNode child = new TermTreeNode(new TermInfo(Generator.generateTermWithId()), 0);
+        root.setSubTerms(Collections.singleton(child));
+        when(termServiceMock.findSubTree(term, 2)).thenReturn(root);
+        final MvcResult mvcResult = mockMvc.perform(get("/terms/" + TERM_NAME + "/subtree")
+                .param(QueryParams.NAMESPACE, NAMESPACE).param(QueryParams.DEPTH, "2"))
+                                           .andExpect(status().isOk()).andReturn();
+        final TermTreeNode result = readValue(mvcResult, TermTreeNode.class);
+        assertEquals(root, result);
+        assertEquals(Collections.singleton(child), result.getSubTerms());
+        verify(termServiceMock).findSubTree(term, 2);
+    }
+
+    @Test
+    void getSubTreeAtStandaloneEndpointUsesDepthOneByDefault() throws Exception {
+        final URI termUri = URI.create(NAMESPACE + TERM_NAME);
+        final Term term = Generator.generateTerm();
+        term.setUri(termUri);
+        when(idResolverMock.resolveIdentifier(NAMESPACE, TERM_NAME)).thenReturn(termUri);
+        when(termServiceMock.findRequired(termUri)).thenReturn(term);
+        mockMvc.perform(get("/terms/" + TERM_NAME + "/subtree").param(QueryParams.NAMESPACE, NAMESPACE))
+               .andExpect(status().isOk());
+        verify(termServiceMock).findSubTree(term, 1);
+    }
+
+    @Test
+    void getSubTreeAtStandaloneEndpointReturnsBadRequestForTooLargeDepth() throws Exception {
+        final URI termUri = URI.create(NAMESPACE + TERM_NAME);
+        final Term term = Generator.generateTerm();
+        term.setUri(termUri);
+        when(idResolverMock.resolveIdentifier(NAMESPACE, TERM_NAME)).thenReturn(termUri);
+        when(termServiceMock.findRequired(termUri)).thenReturn(term);
+        when(termServiceMock.findSubTree(term, 1000)).thenThrow(new InvalidParameterException("Too deep."));
+        mockMvc.perform(get("/terms/" + TERM_NAME + "/subtree").param(QueryParams.NAMESPACE, NAMESPACE)
+                                                               .param(QueryParams.DEPTH, "1000"))
+               .andExpect(status().isBadRequest());
+    }
+
     @Test
     void removeByIdStandaloneRemovesTermByIdentifier() throws Exception {
         final URI termUri = URI.create(NAMESPACE + TERM_NAME);
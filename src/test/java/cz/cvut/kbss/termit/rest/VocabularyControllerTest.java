@@ -16,6 +16,7 @@ package cz.cvut.kbss.termit.rest;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import cz.cvut.kbss.jopa.vocabulary.RDFS;
+import cz.cvut.kbss.termit.dto.VocabularyStatistics;
 import cz.cvut.kbss.termit.environment.Environment;
 import cz.cvut.kbss.termit.environment.Generator;
 import cz.cvut.kbss.termit.exception.VocabularyImportException;
@@ -26,6 +27,7 @@ import cz.cvut.kbss.termit.model.changetracking.UpdateChangeRecord;
 import cz.cvut.kbss.termit.rest.handler.ErrorInfo;
 import cz.cvut.kbss.termit.service.IdentifierResolver;
 import cz.cvut.kbss.termit.service.business.VocabularyService;
+import cz.cvut.kbss.termit.service.business.VocabularyStatisticsService;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
@@ -71,6 +73,9 @@ class VocabularyControllerTest extends BaseControllerTestRunner {
     @Mock
     private VocabularyService serviceMock;
 
+    @Mock
+    private VocabularyStatisticsService statisticsServiceMock;
+
     @Mock
     private IdentifierResolver idResolverMock;
 
@@ -305,6 +310,26 @@ class VocabularyControllerTest extends BaseControllerTestRunner {
         verify(serviceMock).getTransitivelyImportedVocabularies(vocabulary);
     }
 
+    @Test
+    void getStatisticsReturnsStatisticsOfVocabularyRetrievedFromService() throws Exception {
+        final Vocabulary vocabulary = generateVocabulary();
+        vocabulary.setUri(VOCABULARY_URI);
+        when(idResolverMock.resolveIdentifier(ConfigParam.NAMESPACE_VOCABULARY, FRAGMENT)).thenReturn(VOCABULARY_URI);
+        when(serviceMock.getRequiredReference(VOCABULARY_URI)).thenReturn(vocabulary);
+        final VocabularyStatistics statistics = new VocabularyStatistics(VOCABULARY_URI);
+        statistics.setTermCount(10);
+        statistics.setRootCount(2);
+        statistics.setDepth(3);
+        statistics.setAssignmentCount(5);
+        statistics.setOccurrenceCount(7);
+        when(statisticsServiceMock.getStatistics(vocabulary)).thenReturn(statistics);
+
+        final MvcResult mvcResult = mockMvc.perform(get(PATH + "/" + FRAGMENT + "/statistics"))
+                                           .andExpect(status().isOk()).andReturn();
+        assertEquals(statistics, readValue(mvcResult, VocabularyStatistics.class));
+        verify(statisticsServiceMock).getStatistics(vocabulary);
+    }
+
     @Test
     void getTransitiveImportsReturnsEmptyCollectionWhenNoImportsAreFoundForVocabulary() throws Exception {
         final Vocabulary vocabulary = generateVocabulary();
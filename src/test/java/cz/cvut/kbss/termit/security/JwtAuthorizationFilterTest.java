@@ -28,6 +28,7 @@ import cz.cvut.kbss.termit.service.security.SecurityUtils;
 import cz.cvut.kbss.termit.service.security.TermItUserDetailsService;
 import cz.cvut.kbss.termit.util.ConfigParam;
 import cz.cvut.kbss.termit.util.Configuration;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.junit.jupiter.api.BeforeEach;
@@ -96,7 +97,7 @@ class JwtAuthorizationFilterTest {
         this.objectMapper = Environment.getObjectMapper();
         this.sut = new JwtAuthorizationFilter(authManagerMock, jwtUtilsSpy, securityUtilsMock, detailsServiceMock,
                 objectMapper);
-        when(detailsServiceMock.loadUserByUsername(user.getUsername())).thenReturn(new TermItUserDetails(user));
+        when(detailsServiceMock.loadCachedUserByUsername(user.getUsername())).thenReturn(new TermItUserDetails(user));
     }
 
     @Test
@@ -154,7 +155,31 @@ class JwtAuthorizationFilterTest {
         assertTrue(mockResponse.containsHeader(HttpHeaders.AUTHORIZATION));
         assertNotEquals(mockRequest.getHeader(HttpHeaders.AUTHORIZATION),
                 mockResponse.getHeader(HttpHeaders.AUTHORIZATION));
-        verify(jwtUtilsSpy).refreshToken(any());
+        verify(jwtUtilsSpy).refreshToken(any(Claims.class));
+    }
+
+    @Test
+    void doFilterInternalDoesNotRefreshTokenWithRemainingLifetimeAboveThreshold() throws Exception {
+        final String token = Jwts.builder().setSubject(user.getUsername())
+                                 .setId(user.getUri().toString())
+                                 .setIssuedAt(new Date())
+                                 .setExpiration(
+                                         new Date(System.currentTimeMillis() + SecurityConstants.SESSION_TIMEOUT))
+                                 .signWith(SignatureAlgorithm.HS512, config.get(ConfigParam.JWT_SECRET_KEY)).compact();
+        mockRequest.addHeader(HttpHeaders.AUTHORIZATION, SecurityConstants.JWT_TOKEN_PREFIX + token);
+        sut.doFilterInternal(mockRequest, mockResponse, chainMock);
+        verify(chainMock).doFilter(mockRequest, mockResponse);
+        assertFalse(mockResponse.containsHeader(HttpHeaders.AUTHORIZATION));
+        verify(jwtUtilsSpy, never()).refreshToken(any(Claims.class));
+    }
+
+    @Test
+    void doFilterInternalParsesTokenOnlyOnce() throws Exception {
+        generateJwtIntoRequest();
+        sut.doFilterInternal(mockRequest, mockResponse, chainMock);
+        verify(jwtUtilsSpy).parseToken(anyString());
+        verify(jwtUtilsSpy, never()).extractUserInfo(anyString());
+        verify(jwtUtilsSpy, never()).refreshToken(anyString());
     }
 
     @Test
@@ -231,7 +256,7 @@ class JwtAuthorizationFilterTest {
                                  .setIssuedAt(new Date())
                                  .setExpiration(new Date(System.currentTimeMillis() + 10000))
                                  .signWith(SignatureAlgorithm.HS512, config.get(ConfigParam.JWT_SECRET_KEY)).compact();
-        when(detailsServiceMock.loadUserByUsername(anyString())).thenThrow(UsernameNotFoundException.class);
+        when(detailsServiceMock.loadCachedUserByUsername(anyString())).thenThrow(UsernameNotFoundException.class);
         mockRequest.addHeader(HttpHeaders.AUTHORIZATION, SecurityConstants.JWT_TOKEN_PREFIX + token);
         sut.doFilterInternal(mockRequest, mockResponse, chainMock);
         assertEquals(HttpStatus.UNAUTHORIZED.value(), mockResponse.getStatus());
@@ -235,4 +235,33 @@ class JwtUtilsTest {
 
         assertThrows(JwtException.class, () -> sut.extractUserInfo(token));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRefreshReturnsTrueForTokenWithRemainingLifetimeBelowThreshold() {
+        final String token = Jwts.builder().setSubject(user.getUsername())
+                                 .setId(user.getUri().toString())
+                                 .setIssuedAt(new Date())
+                                 .setExpiration(new Date(System.currentTimeMillis() + 10000))
+                                 .signWith(SignatureAlgorithm.HS512, config.get(ConfigParam.JWT_SECRET_KEY)).compact();
+
+        assertTrue(sut.shouldRefresh(sut.parseToken(token)));
+    }
+
+    @Test
+    void shouldRefreshReturnsFalseForFreshToken() {
+        final String token = sut.generateToken(new TermItUserDetails(user));
+
+        assertFalse(sut.shouldRefresh(sut.parseToken(token)));
+    }
+
+    @Test
+    void refreshTokenDoesNotModifySpecifiedClaims() {
+        final String token = sut.generateToken(new TermItUserDetails(user));
+        final Claims claims = sut.parseToken(token);
+        final Date expiration = claims.getExpiration();
+
+        final String result = sut.refreshToken(claims);
+        assertEquals(expiration, claims.getExpiration());
+        assertEquals(user.getUsername(), sut.extractUserInfo(result).getUsername());
+    }
+}
@@ -24,6 +24,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
 
 class LanguageServiceTest extends BaseServiceTestRunner {
 
@@ -35,4 +38,37 @@ class LanguageServiceTest extends BaseServiceTestRunner {
         List<Term> result = sut.getTypesForLang("en");
         assertEquals(8,result.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getTypesForLangReturnsIndependentCopiesOnRepeatedCalls() {
+        final List<Term> first = sut.getTypesForLang("en");
+        final String label = first.get(0).getLabel();
+        first.get(0).setLabel("Modified");
+        first.clear();
+
+        final List<Term> second = sut.getTypesForLang("en");
+        assertEquals(8, second.size());
+        assertEquals(label, second.get(0).getLabel());
+    }
+
+    @Test
+    void getTypesForLangDoesNotMemoizeLangsNotUsedInLanguageSpecification() {
+        final List<Term> result = sut.getTypesForLang("xx");
+        assertEquals(8, result.size());
+        assertFalse(sut.getLoadedLangs().contains("xx"));
+    }
+
+    @Test
+    void getLoadedLangsContainsLangsUsedInLanguageSpecification() {
+        assertTrue(sut.getLoadedLangs().contains("cs"));
+    }
+
+    @Test
+    void reloadDiscardsPreviouslyResolvedTypes() {
+        final List<Term> before = sut.getTypesForLang("en");
+        sut.reload();
+        final List<Term> after = sut.getTypesForLang("en");
+        assertNotSame(before, after);
+        assertEquals(before.size(), after.size());
+    }
+}
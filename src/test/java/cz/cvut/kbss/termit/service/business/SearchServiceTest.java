@@ -0,0 +1,294 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.business;
+
+import cz.cvut.kbss.termit.dto.FacetedSearchResult;
+import cz.cvut.kbss.termit.dto.FullTextSearchResult;
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.exception.PersistenceException;
+import cz.cvut.kbss.termit.persistence.dao.SearchDao;
+import cz.cvut.kbss.termit.persistence.index.FacetIndex;
+import cz.cvut.kbss.termit.persistence.index.LabelTrigramIndex;
+import cz.cvut.kbss.termit.service.cache.SearchResultCache;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import cz.cvut.kbss.termit.util.Vocabulary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SearchServiceTest {
+
+    private static final URI TERM = URI.create(Vocabulary.s_c_term);
+    private static final URI VOCABULARY = URI.create(Vocabulary.s_c_slovnik);
+
+    private static final String SEARCH_STRING = "test";
+
+    @Mock
+    private SearchDao searchDao;
+
+    @Mock
+    private LabelTrigramIndex trigramIndex;
+
+    @Mock
+    private FacetIndex facetIndex;
+
+    @Mock
+    private SearchResultCache cache;
+
+    @Mock
+    private PlatformTransactionManager txManager;
+
+    @Mock
+    private Configuration config;
+
+    private SearchService sut;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(cache.get(any(Supplier.class), any(BooleanSupplier.class), any()))
+                .thenAnswer(inv -> ((Supplier<?>) inv.getArgument(0)).get());
+        when(config.get(ConfigParam.SEARCH_TIMEOUT)).thenReturn("200");
+        when(config.get(ConfigParam.SEARCH_THREADS)).thenReturn("2");
+        when(searchDao.getSearchedTypes()).thenReturn(Arrays.asList(TERM, VOCABULARY));
+        this.sut = new SearchService(searchDao, trigramIndex, facetIndex, cache, txManager, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        sut.shutdown();
+    }
+
+    private static FullTextSearchResult result(URI type, String label, double score) {
+        return new FullTextSearchResult(Generator.generateUri(), label, null, type.toString(), "label", label, score);
+    }
+
+    @Test
+    void fullTextSearchSearchesAllTypesAndMergesResultsByScore() {
+        final FullTextSearchResult term = result(TERM, "term", 1.0);
+        final FullTextSearchResult vocabulary = result(VOCABULARY, "vocabulary", 2.0);
+        when(searchDao.fullTextSearch(SEARCH_STRING, TERM, Pageable.unpaged()))
+                .thenReturn(Collections.singletonList(term));
+        when(searchDao.fullTextSearch(SEARCH_STRING, VOCABULARY, Pageable.unpaged()))
+                .thenReturn(Collections.singletonList(vocabulary));
+
+        final List<FullTextSearchResult> result = sut.fullTextSearch(SEARCH_STRING);
+        assertEquals(Arrays.asList(vocabulary, term), result);
+    }
+
+    @Test
+    void fullTextSearchSkipsTypeWhoseSearchDoesNotFinishInTime() {
+        final FullTextSearchResult term = result(TERM, "term", 1.0);
+        when(searchDao.fullTextSearch(SEARCH_STRING, TERM, Pageable.unpaged()))
+                .thenReturn(Collections.singletonList(term));
+        when(searchDao.fullTextSearch(SEARCH_STRING, VOCABULARY, Pageable.unpaged())).thenAnswer(inv -> {
+            Thread.sleep(5000);
+            return Collections.singletonList(result(VOCABULARY, "vocabulary", 2.0));
+        });
+
+        final long start = System.currentTimeMillis();
+        final List<FullTextSearchResult> result = sut.fullTextSearch(SEARCH_STRING);
+        assertEquals(Collections.singletonList(term), result);
+        assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    @Test
+    void fullTextSearchRunsTypeSearchesWithSecurityContextOfCallingThread() {
+        final Authentication authentication = new UsernamePasswordAuthenticationToken("user", null);
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        try {
+            final List<Authentication> used = new CopyOnWriteArrayList<>();
+            when(searchDao.fullTextSearch(eq(SEARCH_STRING), any(URI.class), any(Pageable.class))).thenAnswer(inv -> {
+                used.add(SecurityContextHolder.getContext().getAuthentication());
+                return Collections.emptyList();
+            });
+
+            sut.fullTextSearch(SEARCH_STRING);
+            assertEquals(Arrays.asList(authentication, authentication), used);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void fullTextSearchSkipsTypeWhoseSearchFails() {
+        final FullTextSearchResult term = result(TERM, "term", 1.0);
+        when(searchDao.fullTextSearch(SEARCH_STRING, TERM, Pageable.unpaged()))
+                .thenReturn(Collections.singletonList(term));
+        when(searchDao.fullTextSearch(SEARCH_STRING, VOCABULARY, Pageable.unpaged()))
+                .thenThrow(PersistenceException.class);
+
+        assertEquals(Collections.singletonList(term), sut.fullTextSearch(SEARCH_STRING));
+    }
+
+    @Test
+    void fullTextSearchRethrowsFailureWhenSearchInAllTypesFails() {
+        when(searchDao.fullTextSearch(eq(SEARCH_STRING), any(URI.class), any(Pageable.class)))
+                .thenThrow(PersistenceException.class);
+
+        assertThrows(PersistenceException.class, () -> sut.fullTextSearch(SEARCH_STRING));
+    }
+
+    @Test
+    void pagedFullTextSearchRetrievesFirstResultsFromEachTypeAndReturnsRequestedPage() {
+        final List<FullTextSearchResult> terms = Arrays.asList(result(TERM, "a", 4.0), result(TERM, "b", 2.0));
+        final List<FullTextSearchResult> vocabularies = Arrays
+                .asList(result(VOCABULARY, "c", 3.0), result(VOCABULARY, "d", 1.0));
+        when(searchDao.fullTextSearch(SEARCH_STRING, TERM, PageRequest.of(0, 2))).thenReturn(terms);
+        when(searchDao.fullTextSearch(SEARCH_STRING, VOCABULARY, PageRequest.of(0, 2))).thenReturn(vocabularies);
+
+        final List<FullTextSearchResult> result = sut.fullTextSearch(SEARCH_STRING, PageRequest.of(1, 1));
+        assertEquals(Collections.singletonList(vocabularies.get(0)), result);
+    }
+
+    @Test
+    void fullTextSearchAsYouTypeCancelsSupersededSearchOfSameSession() throws Exception {
+        final String session = "user";
+        final CountDownLatch started = new CountDownLatch(1);
+        final FullTextSearchResult term = result(TERM, "term", 1.0);
+        when(searchDao.fullTextSearch(eq("te"), any(URI.class), any(Pageable.class))).thenAnswer(inv -> {
+            started.countDown();
+            Thread.sleep(5000);
+            return Collections.emptyList();
+        });
+        when(searchDao.fullTextSearch(eq(SEARCH_STRING), any(URI.class), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(term));
+        final ExecutorService requests = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Optional<List<FullTextSearchResult>>> superseded = requests
+                    .submit(() -> sut.fullTextSearchAsYouType("te", Pageable.unpaged(), session));
+            started.await();
+
+            final Optional<List<FullTextSearchResult>> result = sut
+                    .fullTextSearchAsYouType(SEARCH_STRING, Pageable.unpaged(), session);
+            assertEquals(Optional.of(Collections.singletonList(term)), result);
+            assertFalse(superseded.get(1, TimeUnit.SECONDS).isPresent());
+        } finally {
+            requests.shutdownNow();
+        }
+    }
+
+    @Test
+    void fullTextSearchAsYouTypeDoesNotCancelPreviousSearchWhenSearchStringDoesNotExtendIt() throws Exception {
+        final String session = "user";
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch finish = new CountDownLatch(1);
+        final FullTextSearchResult term = result(TERM, "term", 1.0);
+        when(searchDao.fullTextSearch(eq(SEARCH_STRING), any(URI.class), any(Pageable.class))).thenAnswer(inv -> {
+            started.countDown();
+            finish.await();
+            return Collections.singletonList(term);
+        });
+        when(searchDao.fullTextSearch(eq("te"), any(URI.class), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+        // Enough threads and time for both searches to run concurrently
+        when(config.get(ConfigParam.SEARCH_TIMEOUT)).thenReturn("5000");
+        when(config.get(ConfigParam.SEARCH_THREADS)).thenReturn("4");
+        final SearchService service = new SearchService(searchDao, trigramIndex, facetIndex, cache, txManager, config);
+        final ExecutorService requests = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Optional<List<FullTextSearchResult>>> previous = requests
+                    .submit(() -> service.fullTextSearchAsYouType(SEARCH_STRING, Pageable.unpaged(), session));
+            started.await();
+
+            assertEquals(Optional.of(Collections.emptyList()),
+                    service.fullTextSearchAsYouType("te", Pageable.unpaged(), session));
+            finish.countDown();
+            assertEquals(Optional.of(Collections.singletonList(term)), previous.get(1, TimeUnit.SECONDS));
+        } finally {
+            requests.shutdownNow();
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void fullTextSearchAsYouTypeCancelsSearchSupersededByLaterSearchAfterUnrelatedOneFinished() throws Exception {
+        final String session = "session";
+        final CountDownLatch started = new CountDownLatch(1);
+        final FullTextSearchResult term = result(TERM, "term", 1.0);
+        when(searchDao.fullTextSearch(eq("tes"), any(URI.class), any(Pageable.class))).thenAnswer(inv -> {
+            started.countDown();
+            Thread.sleep(5000);
+            return Collections.emptyList();
+        });
+        when(searchDao.fullTextSearch(eq("te"), any(URI.class), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+        when(searchDao.fullTextSearch(eq(SEARCH_STRING), any(URI.class), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(term));
+        when(config.get(ConfigParam.SEARCH_TIMEOUT)).thenReturn("5000");
+        when(config.get(ConfigParam.SEARCH_THREADS)).thenReturn("4");
+        final SearchService service = new SearchService(searchDao, trigramIndex, facetIndex, cache, txManager, config);
+        final ExecutorService requests = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Optional<List<FullTextSearchResult>>> running = requests
+                    .submit(() -> service.fullTextSearchAsYouType("tes", Pageable.unpaged(), session));
+            started.await();
+            // The user deleted a character, the running search is not superseded by this one
+            assertEquals(Optional.of(Collections.emptyList()),
+                    service.fullTextSearchAsYouType("te", Pageable.unpaged(), session));
+
+            assertEquals(Optional.of(Collections.singletonList(term)),
+                    service.fullTextSearchAsYouType(SEARCH_STRING, Pageable.unpaged(), session));
+            assertFalse(running.get(1, TimeUnit.SECONDS).isPresent());
+        } finally {
+            requests.shutdownNow();
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void facetedSearchFacetsAllResultsAndReturnsRequestedPage() {
+        final List<FullTextSearchResult> terms = Arrays.asList(result(TERM, "a", 2.0), result(TERM, "b", 1.0));
+        when(searchDao.fullTextSearch(SEARCH_STRING, TERM, Pageable.unpaged())).thenReturn(terms);
+        when(searchDao.fullTextSearch(SEARCH_STRING, VOCABULARY, Pageable.unpaged()))
+                .thenReturn(Collections.emptyList());
+        final Map<String, List<String>> filter = Collections
+                .singletonMap(FacetIndex.KIND, Collections.singletonList(TERM.toString()));
+        final Map<String, Map<String, Integer>> facets = Collections
+                .singletonMap(FacetIndex.KIND, Collections.singletonMap(TERM.toString(), 2));
+        when(facetIndex.facet(terms, filter)).thenReturn(new FacetedSearchResult(terms, facets));
+
+        final FacetedSearchResult result = sut.facetedSearch(SEARCH_STRING, filter, PageRequest.of(1, 1));
+        assertEquals(Collections.singletonList(terms.get(1)), result.getResults());
+        assertEquals(facets, result.getFacets());
+        verify(facetIndex).facet(terms, filter);
+    }
+}
@@ -16,12 +16,15 @@ package cz.cvut.kbss.termit.service.business;
 
 import cz.cvut.kbss.termit.dto.TermInfo;
 import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.exception.InvalidParameterException;
 import cz.cvut.kbss.termit.exception.NotFoundException;
 import cz.cvut.kbss.termit.model.Term;
 import cz.cvut.kbss.termit.model.Vocabulary;
 import cz.cvut.kbss.termit.service.export.VocabularyExporters;
 import cz.cvut.kbss.termit.service.repository.ChangeRecordService;
 import cz.cvut.kbss.termit.service.repository.TermRepositoryService;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
 import cz.cvut.kbss.termit.util.Constants;
 import cz.cvut.kbss.termit.util.CsvUtils;
 import org.junit.jupiter.api.BeforeEach;
@@ -38,8 +41,8 @@ import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
 
 class TermServiceTest {
 
@@ -55,6 +58,9 @@ class TermServiceTest {
     @Mock
     private ChangeRecordService changeRecordService;
 
+    @Mock
+    private Configuration config;
+
     @InjectMocks
     private TermService sut;
 
@@ -145,16 +151,14 @@ class TermServiceTest {
     @Test
     void findSubTermsLoadsChildTermsOfTermUsingRepositoryService() {
         final Term parent = Generator.generateTermWithId();
-        final List<Term> children = IntStream.range(0, 5).mapToObj(i -> {
-            final Term child = Generator.generateTermWithId();
-            when(termRepositoryService.find(child.getUri())).thenReturn(Optional.of(child));
-            return child;
-        }).collect(Collectors.toList());
+        final List<Term> children = IntStream.range(0, 5).mapToObj(i -> Generator.generateTermWithId())
+                                             .collect(Collectors.toList());
         parent.setSubTerms(children.stream().map(TermInfo::new).collect(Collectors.toSet()));
+        when(termRepositoryService.findSubTerms(parent)).thenReturn(children);
 
         final List<Term> result = sut.findSubTerms(parent);
-        assertEquals(children.size(), result.size());
-        assertTrue(children.containsAll(result));
+        assertEquals(children, result);
+        verify(termRepositoryService).findSubTerms(parent);
     }
 
     @Test
@@ -210,4 +214,29 @@ class TermServiceTest {
         sut.getChanges(asset);
         verify(changeRecordService).getChanges(asset);
     }
+
+    @Test
+    void findSubTreeLoadsSubTreeFromRepositoryService() {
+        when(config.get(ConfigParam.SUBTREE_MAX_DEPTH))
+                .thenReturn(Integer.toString(Constants.DEFAULT_SUBTREE_MAX_DEPTH));
+        final Term root = Generator.generateTermWithId();
+        sut.findSubTree(root, Constants.DEFAULT_SUBTREE_MAX_DEPTH);
+        verify(termRepositoryService).findSubTree(root, Constants.DEFAULT_SUBTREE_MAX_DEPTH);
+    }
+
+    @Test
+    void findSubTreeThrowsInvalidParameterExceptionForNonPositiveDepth() {
+        when(config.get(ConfigParam.SUBTREE_MAX_DEPTH))
+                .thenReturn(Integer.toString(Constants.DEFAULT_SUBTREE_MAX_DEPTH));
+        final Term root = Generator.generateTermWithId();
+        assertThrows(InvalidParameterException.class, () -> sut.findSubTree(root, 0));
+    }
+
+    @Test
+    void findSubTreeThrowsInvalidParameterExceptionForDepthExceedingConfiguredMaximum() {
+        when(config.get(ConfigParam.SUBTREE_MAX_DEPTH)).thenReturn("3");
+        final Term root = Generator.generateTermWithId();
+        assertThrows(InvalidParameterException.class, () -> sut.findSubTree(root, 4));
+        verify(termRepositoryService, never()).findSubTree(any(), anyInt());
+    }
 }
@@ -26,6 +26,7 @@ import cz.cvut.kbss.termit.model.UserAccount;
 import cz.cvut.kbss.termit.rest.dto.UserUpdateDto;
 import cz.cvut.kbss.termit.service.repository.UserRepositoryService;
 import cz.cvut.kbss.termit.service.security.SecurityUtils;
+import cz.cvut.kbss.termit.service.security.UserDetailsCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
@@ -42,6 +43,9 @@ class UserServiceTest {
     @Mock
     private SecurityUtils securityUtilsMock;
 
+    @Mock
+    private UserDetailsCache userDetailsCacheMock;
+
     @InjectMocks
     private UserService sut;
 
@@ -202,6 +206,21 @@ class UserServiceTest {
         assertTrue(captor.getValue().isLocked());
     }
 
+    @Test
+    void disableEvictsCachedUserDetailsOfAccount() {
+        when(securityUtilsMock.getCurrentUser()).thenReturn(Generator.generateUserAccount());
+        final UserAccount account = Generator.generateUserAccount();
+        sut.disable(account);
+        verify(userDetailsCacheMock).evict(account.getUsername());
+    }
+
+    @Test
+    void onLoginAttemptsThresholdExceededEvictsCachedUserDetailsOfAccount() {
+        final UserAccount account = Generator.generateUserAccount();
+        sut.onLoginAttemptsThresholdExceeded(new LoginAttemptsThresholdExceeded(account));
+        verify(userDetailsCacheMock).evict(account.getUsername());
+    }
+
     @Test
     void getCurrentRetrievesCurrentlyLoggedInUserAccount() {
         final UserAccount account = Generator.generateUserAccount();
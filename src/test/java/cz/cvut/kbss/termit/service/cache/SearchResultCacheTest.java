@@ -0,0 +1,197 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.cache;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.AssetModifiedEvent;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.persistence.dao.ResourceDao;
+import cz.cvut.kbss.termit.persistence.dao.TermDao;
+import cz.cvut.kbss.termit.persistence.dao.VocabularyDao;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+class SearchResultCacheTest {
+
+    private static final int CAPACITY = 2;
+
+    @Mock
+    private VocabularyDao vocabularyDao;
+
+    @Mock
+    private TermDao termDao;
+
+    @Mock
+    private ResourceDao resourceDao;
+
+    @Mock
+    private Configuration config;
+
+    @Mock
+    private Supplier<List<String>> loader;
+
+    private SearchResultCache sut;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(config.get(ConfigParam.LANGUAGE)).thenReturn("en");
+        when(config.get(ConfigParam.SEARCH_CACHE_SIZE)).thenReturn(Integer.toString(CAPACITY));
+        when(loader.get()).thenReturn(Collections.singletonList("result"));
+        this.sut = new SearchResultCache(vocabularyDao, termDao, resourceDao, config);
+    }
+
+    @Test
+    void getReturnsCachedResultOnRepeatedSearch() {
+        final List<String> first = sut.get(loader, "fts", "test");
+        final List<String> second = sut.get(loader, "fts", "test");
+        assertEquals(first, second);
+        verify(loader).get();
+        assertEquals(1, sut.getHitCount());
+        assertEquals(1, sut.getMissCount());
+        assertEquals(0.5, sut.getHitRatio());
+    }
+
+    @Test
+    void getDistinguishesSearchParameters() {
+        sut.get(loader, "fts", "test");
+        sut.get(loader, "fts", "other");
+        sut.get(loader, "fuzzy", "test");
+        verify(loader, times(3)).get();
+        assertEquals(0, sut.getHitCount());
+    }
+
+    @Test
+    void getReloadsResultWhenDataVersionChanges() {
+        sut.get(loader, "fts", "test");
+        when(termDao.getLastModified()).thenReturn(System.currentTimeMillis());
+        sut.get(loader, "fts", "test");
+        verify(loader, times(2)).get();
+        assertEquals(1, sut.getInvalidationCount());
+    }
+
+    @Test
+    void getReloadsResultAfterAssetModification() {
+        sut.get(loader, "fts", "test");
+        sut.onAssetModified(new AssetModifiedEvent(this, Generator.generateTermWithId(), false));
+        sut.get(loader, "fts", "test");
+        verify(loader, times(2)).get();
+    }
+
+    @Test
+    void getEvictsLeastRecentlyUsedResultWhenCapacityIsExceeded() {
+        sut.get(loader, "fts", "one");
+        sut.get(loader, "fts", "two");
+        sut.get(loader, "fts", "one");
+        sut.get(loader, "fts", "three");
+        assertEquals(CAPACITY, sut.getSize());
+        assertEquals(1, sut.getEvictionCount());
+        sut.get(loader, "fts", "one");
+        assertEquals(2, sut.getHitCount());
+        sut.get(loader, "fts", "two");
+        verify(loader, times(4)).get();
+    }
+
+    @Test
+    void onEvictCacheClearsCache() {
+        sut.get(loader, "fts", "test");
+        sut.onEvictCache(new EvictCacheEvent(this));
+        assertEquals(0, sut.getSize());
+        sut.get(loader, "fts", "test");
+        verify(loader, times(2)).get();
+    }
+
+    @Test
+    void getCoalescesConcurrentIdenticalSearches() throws Exception {
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Supplier<List<String>> blockingLoader = () -> {
+            loading.countDown();
+            awaitQuietly(release);
+            return Collections.singletonList("result");
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<List<String>> first = executor.submit(() -> sut.get(blockingLoader, "fts", "test"));
+            loading.await();
+            final Future<List<String>> second = executor.submit(() -> sut.get(loader, "fts", "test"));
+            // Give the second search time to join the first one
+            Thread.sleep(100);
+            release.countDown();
+            assertEquals(first.get(), second.get());
+            verify(loader, never()).get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getExecutesOwnLoaderWhenCoalescedSearchIsCancelled() throws Exception {
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Supplier<List<String>> cancelledLoader = () -> {
+            loading.countDown();
+            awaitQuietly(release);
+            throw new CancellationException();
+        };
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final Future<List<String>> first = executor.submit(() -> sut.get(cancelledLoader, "fts", "test"));
+            loading.await();
+            final Future<List<String>> second = executor.submit(() -> sut.get(loader, "fts", "test"));
+            Thread.sleep(100);
+            release.countDown();
+            final ExecutionException ex = assertThrows(ExecutionException.class, first::get);
+            assertThat(ex.getCause(), instanceOf(CancellationException.class));
+            assertEquals(Collections.singletonList("result"), second.get());
+            verify(loader).get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getDoesNotCacheIncompleteResult() {
+        sut.get(loader, () -> false, "fts", "test");
+        sut.get(loader, "fts", "test");
+        verify(loader, times(2)).get();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
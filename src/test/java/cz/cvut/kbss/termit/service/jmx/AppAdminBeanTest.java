@@ -21,8 +21,10 @@ import cz.cvut.kbss.jopa.model.EntityManager;
 import cz.cvut.kbss.jopa.model.EntityManagerFactory;
 import cz.cvut.kbss.jopa.model.descriptors.EntityDescriptor;
 import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
 import cz.cvut.kbss.termit.event.RefreshLastModifiedEvent;
 import cz.cvut.kbss.termit.model.User;
+import cz.cvut.kbss.termit.persistence.cache.EntityCache;
 import cz.cvut.kbss.termit.service.BaseServiceTestRunner;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,10 +35,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
 
-import static org.hamcrest.CoreMatchers.instanceOf;
-import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.verify;
 
 class AppAdminBeanTest extends BaseServiceTestRunner {
@@ -47,6 +49,9 @@ class AppAdminBeanTest extends BaseServiceTestRunner {
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private EntityCache entityCache;
+
     @Mock
     private ApplicationEventPublisher eventPublisherMock;
 
@@ -55,7 +60,7 @@ class AppAdminBeanTest extends BaseServiceTestRunner {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.initMocks(this);
-        this.sut = new AppAdminBean(eventPublisherMock, emf);
+        this.sut = new AppAdminBean(eventPublisherMock, emf, entityCache);
     }
 
     @Test
@@ -71,7 +76,22 @@ class AppAdminBeanTest extends BaseServiceTestRunner {
     void invalidateCachesPublishesRefreshLastModifiedEvent() {
         sut.invalidateCaches();
         final ArgumentCaptor<ApplicationEvent> captor = ArgumentCaptor.forClass(ApplicationEvent.class);
-        verify(eventPublisherMock).publishEvent(captor.capture());
-        assertThat(captor.getValue(), instanceOf(RefreshLastModifiedEvent.class));
+        verify(eventPublisherMock, atLeastOnce()).publishEvent(captor.capture());
+        assertTrue(captor.getAllValues().stream().anyMatch(e -> e instanceof RefreshLastModifiedEvent));
+    }
+
+    @Test
+    void invalidateCachesPublishesEvictCacheEvent() {
+        sut.invalidateCaches();
+        final ArgumentCaptor<ApplicationEvent> captor = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisherMock, atLeastOnce()).publishEvent(captor.capture());
+        assertTrue(captor.getAllValues().stream().anyMatch(e -> e instanceof EvictCacheEvent));
+    }
+
+    @Test
+    void getEntityCacheStatisticsReturnsStatisticsOfEachCacheRegion() {
+        final String[] result = sut.getEntityCacheStatistics();
+        assertEquals(EntityCache.Region.values().length, result.length);
+        assertTrue(result[0].startsWith("vocabulary: hits="));
     }
 }
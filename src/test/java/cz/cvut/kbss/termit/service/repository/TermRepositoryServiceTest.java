@@ -36,7 +36,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -91,6 +93,31 @@ class TermRepositoryServiceTest extends BaseServiceTestRunner {
         });
     }
 
+    @Test
+    void forEachPassesAllTermsInVocabularyToActionOrderedByLabel() {
+        final List<Term> terms = Generator.generateTermsWithIds(5);
+        terms.forEach(t -> transactional(() -> sut.addRootTermToVocabulary(t, vocabulary)));
+        terms.sort(Comparator.comparing(Term::getLabel));
+
+        final List<Term> result = new ArrayList<>();
+        sut.forEach(vocabulary, result::add);
+        assertEquals(terms, result);
+    }
+
+    @Test
+    void forEachLoadsTermsInBatches() {
+        final List<Term> terms = Generator.generateTermsWithIds(TermRepositoryService.FOR_EACH_BATCH_SIZE + 5);
+        transactional(() -> terms.forEach(t -> {
+            t.setVocabulary(vocabulary.getUri());
+            em.persist(t, DescriptorFactory.termDescriptor(vocabulary));
+        }));
+        terms.sort(Comparator.comparing(Term::getLabel));
+
+        final List<Term> result = new ArrayList<>();
+        sut.forEach(vocabulary, result::add);
+        assertEquals(terms, result);
+    }
+
     @Test
     void addTermToVocabularyGeneratesTermIdentifierWhenItIsNotSet() {
         final Term term = Generator.generateTerm();
@@ -0,0 +1,121 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.service.security;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.event.EvictCacheEvent;
+import cz.cvut.kbss.termit.security.model.TermItUserDetails;
+import cz.cvut.kbss.termit.util.ConfigParam;
+import cz.cvut.kbss.termit.util.Configuration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class UserDetailsCacheTest {
+
+    private static final String USERNAME = "user@termit.org";
+
+    @Mock
+    private Configuration config;
+
+    @Mock
+    private Function<String, TermItUserDetails> loader;
+
+    private UserDetailsCache sut;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        when(config.get(ConfigParam.USER_CACHE_SIZE)).thenReturn("2");
+        when(config.get(ConfigParam.USER_CACHE_TTL)).thenReturn("60000");
+        when(loader.apply(anyString())).thenAnswer(inv -> new TermItUserDetails(Generator.generateUserAccount()));
+        this.sut = new UserDetailsCache(config);
+    }
+
+    @Test
+    void getReturnsCachedDetailsOnRepeatedCall() {
+        final TermItUserDetails first = sut.get(USERNAME, loader);
+        final TermItUserDetails second = sut.get(USERNAME, loader);
+        assertSame(first, second);
+        verify(loader).apply(USERNAME);
+    }
+
+    @Test
+    void getReloadsDetailsAfterEviction() {
+        sut.get(USERNAME, loader);
+        sut.evict(USERNAME);
+        sut.get(USERNAME, loader);
+        verify(loader, times(2)).apply(USERNAME);
+    }
+
+    @Test
+    void getReloadsExpiredDetails() {
+        when(config.get(ConfigParam.USER_CACHE_TTL)).thenReturn("0");
+        this.sut = new UserDetailsCache(config);
+        sut.get(USERNAME, loader);
+        sut.get(USERNAME, loader);
+        verify(loader, times(2)).apply(USERNAME);
+    }
+
+    @Test
+    void getDoesNotCacheDetailsLoadedConcurrentlyWithEviction() {
+        when(loader.apply(USERNAME)).thenAnswer(inv -> {
+            sut.evict(USERNAME);
+            return new TermItUserDetails(Generator.generateUserAccount());
+        });
+        sut.get(USERNAME, loader);
+        assertEquals(0, sut.getSize());
+    }
+
+    @Test
+    void getDoesNotCacheFailedLoad() {
+        when(loader.apply(USERNAME)).thenThrow(UsernameNotFoundException.class);
+        assertThrows(UsernameNotFoundException.class, () -> sut.get(USERNAME, loader));
+        assertEquals(0, sut.getSize());
+    }
+
+    @Test
+    void getEvictsLeastRecentlyUsedDetailsWhenCapacityIsExceeded() {
+        sut.get("a", loader);
+        sut.get("b", loader);
+        sut.get("a", loader);
+        sut.get("c", loader);
+        assertEquals(2, sut.getSize());
+        sut.get("a", loader);
+        sut.get("b", loader);
+        verify(loader).apply("a");
+        verify(loader, times(2)).apply("b");
+    }
+
+    @Test
+    void onEvictCacheEvictsAllDetails() {
+        sut.get(USERNAME, loader);
+        sut.onEvictCache(new EvictCacheEvent(this));
+        assertEquals(0, sut.getSize());
+    }
+}
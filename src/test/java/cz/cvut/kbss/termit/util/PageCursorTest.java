@@ -0,0 +1,53 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.util;
+
+import cz.cvut.kbss.termit.environment.Generator;
+import cz.cvut.kbss.termit.exception.InvalidParameterException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageCursorTest {
+
+    @Test
+    void decodeReturnsCursorEncodedByEncode() {
+        final PageCursor cursor = new PageCursor("Label with\nnew line, ěščř", Generator.generateUri());
+        assertEquals(cursor, PageCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void encodeProducesUrlSafeToken() {
+        final PageCursor cursor = new PageCursor("???>>>", Generator.generateUri());
+        assertTrue(cursor.encode().matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void decodeThrowsInvalidParameterExceptionForTokenWhichIsNotBase64() {
+        assertThrows(InvalidParameterException.class, () -> PageCursor.decode("not a cursor!"));
+    }
+
+    @Test
+    void decodeThrowsInvalidParameterExceptionForTokenWithoutIdentifier() {
+        final String token = Base64.getUrlEncoder().encodeToString("label".getBytes(StandardCharsets.UTF_8));
+        assertThrows(InvalidParameterException.class, () -> PageCursor.decode(token));
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * TermIt
+ * Copyright (C) 2019 Czech Technical University in Prague
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package cz.cvut.kbss.termit.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UtilsTest {
+
+    @Test
+    void toSearchKeyTransformsTextToLowerCase() {
+        assertEquals("building permit", Utils.toSearchKey("Building PERMIT"));
+    }
+
+    @Test
+    void toSearchKeyRemovesDiacritics() {
+        assertEquals("zakon o uzemnim planovani", Utils.toSearchKey("Zákon o územním plánování"));
+        assertEquals("prilis zlutoucky kun", Utils.toSearchKey("Příliš žluťoučký kůň"));
+    }
+
+    @Test
+    void toSearchKeyRetainsWhiteSpacesAndPunctuation() {
+        assertEquals("plot (land) - area/1", Utils.toSearchKey("Plot (land) - area/1"));
+    }
+
+    @Test
+    void toSearchKeyReturnsNullForNullText() {
+        assertNull(Utils.toSearchKey(null));
+    }
+
+    @Test
+    void toValuesSerializesIdentifiersAsSpaceSeparatedIris() {
+        final URI first = URI.create("http://onto.fel.cvut.cz/ontologies/termit/first");
+        final URI second = URI.create("http://onto.fel.cvut.cz/ontologies/termit/second");
+        assertEquals("<" + first + "> <" + second + ">", Utils.toValues(Arrays.asList(first, second)));
+    }
+}